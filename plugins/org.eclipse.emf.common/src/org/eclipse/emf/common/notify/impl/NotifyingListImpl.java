@@ -14,8 +14,13 @@ package org.eclipse.emf.common.notify.impl;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.NotificationChain;
@@ -252,6 +257,71 @@ public class NotifyingListImpl<E> extends BasicEList<E> implements NotifyingList
     return capacity < 100 ? null: new NotificationChainImpl(capacity);
   }
 
+  /**
+   * Creates a notification chain for the notifications of a bulk operation.
+   * @param capacity the expected number of notifications.
+   * @return a new notification chain.
+   * @see BulkNotificationChain
+   * @since 2.9
+   */
+  protected NotificationChain createBulkNotificationChain(int capacity)
+  {
+    return new BulkNotificationChain(capacity);
+  }
+
+  /**
+   * A notification chain for the notifications of a bulk operation.
+   * A {@link NotificationChainImpl} tries to merge each new notification with each notification already in the chain,
+   * which is quadratic in the number of notifications;
+   * this chain only tries to merge a new notification with the most recently added one.
+   * @since 2.9
+   */
+  protected static class BulkNotificationChain extends NotificationChainImpl
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an empty instance with a given capacity.
+     * @param initialCapacity the initial capacity of the list before it must grow.
+     */
+    public BulkNotificationChain(int initialCapacity)
+    {
+      super(initialCapacity);
+    }
+
+    /**
+     * Adds a new notification or merges it with the most recently added one.
+     * @param newNotification a notification.
+     * @return <code>true</code> when the notification is added and <code>false</code> when it is merged.
+     */
+    @Override
+    public boolean add(Notification newNotification)
+    {
+      if (newNotification == null)
+      {
+        return false;
+      }
+      else if (size > 0 && ((Notification)data[size - 1]).merge(newNotification))
+      {
+        return false;
+      }
+      else
+      {
+        addUnique(newNotification);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns a new map for testing the membership of objects in this list,
+   * i.e., one that compares keys as {@link #useEquals} requires.
+   */
+  private Map<Object, Object> createObjectMap(int capacity)
+  {
+    return useEquals() ? new HashMap<Object, Object>(capacity) : new IdentityHashMap<Object, Object>(capacity);
+  }
+
   /**
    * Dispatches a notification to the notifier of the list.
    * @param notification the notification to dispatch.
@@ -1006,6 +1076,133 @@ public class NotifyingListImpl<E> extends BasicEList<E> implements NotifyingList
     return super.removeAll(collection);
   }
 
+  /**
+   * Removes the objects at the given positions from the list;
+   * it does no range checking, inverse updating, or notification.
+   * This implementation compacts the data in a single pass
+   * and then delegates to {@link #didRemove didRemove} for each object, in reverse order, and to {@link #didChange didChange}.
+   * @param positions the positions of the objects to be removed, in ascending order.
+   * @param count the number of positions.
+   * @since 2.9
+   */
+  protected void doRemoveAll(int [] positions, int count)
+  {
+    ++modCount;
+
+    Object [] removedObjects = new Object [count];
+    int targetIndex = positions[0];
+    for (int i = 0; i < count; ++i)
+    {
+      int position = positions[i];
+      removedObjects[i] = data[position];
+      int shifted = (i + 1 < count ? positions[i + 1] : size) - position - 1;
+      if (shifted > 0)
+      {
+        System.arraycopy(data, position + 1, data, targetIndex, shifted);
+        targetIndex += shifted;
+      }
+    }
+
+    // Don't hold onto duplicate references to the last objects.
+    //
+    for (int i = targetIndex; i < size; ++i)
+    {
+      data[i] = null;
+    }
+    size = targetIndex;
+
+    for (int i = count; --i >= 0; )
+    {
+      @SuppressWarnings("unchecked") E object = (E)removedObjects[i];
+      didRemove(positions[i], object);
+    }
+    didChange();
+  }
+
+  /**
+   * Removes from the list each object not contained by the collection
+   * and returns whether any object was actually removed.
+   * In addition to the normal effects,
+   * this override implementation removes all the objects at once, generates a single notification as {@link #isNotificationRequired required},
+   * and delegates to {@link #inverseRemove inverseRemove} as {@link #hasInverse required}.
+   * @param collection the collection of objects to be retained.
+   * @return whether any object was actually removed.
+   * @see #isNotificationRequired
+   * @see #hasInverse
+   * @see #inverseRemove
+   */
+  @Override
+  public boolean retainAll(Collection<?> collection)
+  {
+    if (!(collection instanceof Set<?>) && collection.size() > 1)
+    {
+      collection = new HashSet<Object>(collection);
+    }
+
+    int [] positions = null;
+    int count = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      if (!collection.contains(data[i]))
+      {
+        if (positions == null)
+        {
+          positions = new int [size - i];
+        }
+        positions[count++] = i;
+      }
+    }
+
+    if (count == 0)
+    {
+      return false;
+    }
+
+    boolean oldIsSet = isSet();
+    BasicEList<E> objects = new BasicEList<E>(count);
+    for (int i = 0; i < count; ++i)
+    {
+      @SuppressWarnings("unchecked") E object = (E)data[positions[i]];
+      objects.add(object);
+    }
+
+    NotificationChain notifications = createBulkNotificationChain(count + 1);
+    if (hasShadow())
+    {
+      for (int i = 0; i < count; ++i)
+      {
+        notifications = shadowRemove(objects.get(i), notifications);
+      }
+    }
+
+    doRemoveAll(positions, count);
+
+    if (hasInverse())
+    {
+      for (int i = 0; i < count; ++i)
+      {
+        notifications = inverseRemove(objects.get(i), notifications);
+      }
+    }
+
+    if (isNotificationRequired())
+    {
+      if (count != positions.length)
+      {
+        int [] oldPositions = positions;
+        positions = new int [count];
+        System.arraycopy(oldPositions, 0, positions, 0, count);
+      }
+      notifications.add
+        (count == 1 ?
+           createNotification(Notification.REMOVE, objects.get(0), null, positions[0], oldIsSet) :
+           createNotification(Notification.REMOVE_MANY, objects, positions, positions[0], oldIsSet));
+    }
+
+    notifications.dispatch();
+    return true;
+  }
+
   /**
    * Removes the object from the list and returns the potentially updated notification chain;
    * it does no {@link #inverseRemove inverse} updating.
@@ -1328,4 +1525,331 @@ public class NotifyingListImpl<E> extends BasicEList<E> implements NotifyingList
   {
     return super.move(targetIndex, sourceIndex);
   }
+
+  /**
+   * Replaces the objects from the <code>fromIndex</code>, inclusive, to the <code>toIndex</code>, exclusive,
+   * with the objects of the collection.
+   * In addition to the normal effects,
+   * this override implementation removes and adds all the objects at once
+   * and generates at most one removal notification followed by one addition notification, as {@link #isNotificationRequired required}.
+   * It delegates to {@link #inverseRemove inverseRemove} and {@link #inverseAdd inverseAdd}, as {@link #hasInverse required},
+   * only for the objects that actually leave or join the list,
+   * i.e., an object that is both replaced and a replacement keeps its inverse.
+   * @param fromIndex the index of the first object to be replaced.
+   * @param toIndex the index past the last object to be replaced.
+   * @param collection the collection of replacement objects.
+   * @exception IndexOutOfBoundsException if the indices aren't a range within the list.
+   * @see #isNotificationRequired
+   * @see #hasInverse
+   * @see #inverseAdd
+   * @see #inverseRemove
+   * @since 2.9
+   */
+  @Override
+  public void replaceAll(int fromIndex, int toIndex, Collection<? extends E> collection)
+  {
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+    {
+      throw new IndexOutOfBoundsException("fromIndex=" + fromIndex + ", toIndex=" + toIndex + ", size=" + size);
+    }
+
+    // Determine the objects to be added, excluding, for a unique list, duplicates and the objects in the rest of the list.
+    //
+    int oldCount = toIndex - fromIndex;
+    BasicEList<E> newObjects = new BasicEList<E>(collection.size());
+    if (isUnique())
+    {
+      Map<Object, Object> objects = createObjectMap(size - oldCount + collection.size());
+      for (int i = 0; i < fromIndex; ++i)
+      {
+        objects.put(data[i], data[i]);
+      }
+      for (int i = toIndex; i < size; ++i)
+      {
+        objects.put(data[i], data[i]);
+      }
+      for (E object : collection)
+      {
+        if (!objects.containsKey(object))
+        {
+          objects.put(object, object);
+          newObjects.add(object);
+        }
+      }
+    }
+    else
+    {
+      newObjects.addAll(collection);
+    }
+
+    int newCount = newObjects.size();
+    if (oldCount == 0 && newCount == 0)
+    {
+      return;
+    }
+
+    BasicEList<E> oldObjects = new BasicEList<E>(oldCount);
+    for (int i = fromIndex; i < toIndex; ++i)
+    {
+      @SuppressWarnings("unchecked") E object = (E)data[i];
+      oldObjects.add(object);
+    }
+
+    // Determine which objects actually leave and join the list.
+    //
+    BasicEList<E> removedObjects = oldObjects;
+    BasicEList<E> addedObjects = newObjects;
+    boolean hasInverse = hasInverse();
+    boolean hasShadow = hasShadow();
+    if ((hasInverse || hasShadow) && oldCount > 0 && newCount > 0)
+    {
+      Map<Object, Object> oldObjectMap = createObjectMap(oldCount);
+      for (E object : oldObjects)
+      {
+        oldObjectMap.put(object, object);
+      }
+      Map<Object, Object> newObjectMap = createObjectMap(newCount);
+      addedObjects = new BasicEList<E>();
+      for (E object : newObjects)
+      {
+        newObjectMap.put(object, object);
+        if (!oldObjectMap.containsKey(object))
+        {
+          addedObjects.add(object);
+        }
+      }
+      removedObjects = new BasicEList<E>();
+      for (E object : oldObjects)
+      {
+        if (!newObjectMap.containsKey(object))
+        {
+          removedObjects.add(object);
+        }
+      }
+    }
+
+    boolean isNotificationRequired = isNotificationRequired();
+    NotificationChain notifications = createBulkNotificationChain(removedObjects.size() + addedObjects.size() + 2);
+    if (hasShadow)
+    {
+      for (E object : removedObjects)
+      {
+        notifications = shadowRemove(object, notifications);
+      }
+    }
+
+    NotificationImpl removeNotification = null;
+    if (oldCount > 0)
+    {
+      boolean oldIsSet = isNotificationRequired && isSet();
+      int [] positions = new int [oldCount];
+      for (int i = 0; i < oldCount; ++i)
+      {
+        positions[i] = fromIndex + i;
+      }
+      doRemoveAll(positions, oldCount);
+      if (isNotificationRequired)
+      {
+        removeNotification =
+          oldCount == 1 ?
+            createNotification(Notification.REMOVE, oldObjects.get(0), null, fromIndex, oldIsSet) :
+            createNotification(Notification.REMOVE_MANY, oldObjects, positions, fromIndex, oldIsSet);
+      }
+    }
+
+    NotificationImpl addNotification = null;
+    if (newCount > 0)
+    {
+      boolean oldIsSet = isNotificationRequired && isSet();
+      doAddAllUnique(fromIndex, newObjects.data(), 0, newCount);
+      if (isNotificationRequired)
+      {
+        addNotification =
+          newCount == 1 ?
+            createNotification(Notification.ADD, null, newObjects.get(0), fromIndex, oldIsSet) :
+            createNotification(Notification.ADD_MANY, null, newObjects, fromIndex, oldIsSet);
+      }
+    }
+
+    if (hasInverse)
+    {
+      for (E object : removedObjects)
+      {
+        notifications = inverseRemove(object, notifications);
+      }
+      for (E object : addedObjects)
+      {
+        notifications = inverseAdd(object, notifications);
+      }
+    }
+    if (hasShadow)
+    {
+      for (E object : addedObjects)
+      {
+        notifications = shadowAdd(object, notifications);
+      }
+    }
+
+    notifications.add(removeNotification);
+    notifications.add(addNotification);
+    notifications.dispatch();
+  }
+
+  /**
+   * Moves the objects of the collection so that they are contiguous, in the order of the collection, starting at the target index of the list;
+   * the other objects of the list retain their relative order.
+   * In addition to the normal effects,
+   * this override implementation, for a {@link #isUnique unique} list, rearranges all the objects at once
+   * and generates the {@link Notification#MOVE move} notifications, as {@link #isNotificationRequired required},
+   * for the sequence of moves equivalent to the rearrangement, dispatching them as a single chain.
+   * @param targetIndex the new position of the first object of the collection.
+   * @param collection the objects to be moved.
+   * @exception IndexOutOfBoundsException if the objects moved to the target index wouldn't fit within the list
+   * or if an object isn't contained by the list.
+   * @see #isNotificationRequired
+   * @since 2.9
+   */
+  @Override
+  public void moveAll(int targetIndex, Collection<?> collection)
+  {
+    int count = collection.size();
+    if (targetIndex < 0 || targetIndex + count > size)
+    {
+      throw new IndexOutOfBoundsException("targetIndex=" + targetIndex + ", count=" + count + ", size=" + size);
+    }
+    if (!isUnique() || count == 0)
+    {
+      super.moveAll(targetIndex, collection);
+      return;
+    }
+
+    // Determine the original position of each object to be moved.
+    //
+    Map<Object, Object> indices = createObjectMap(size);
+    for (int i = 0; i < size; ++i)
+    {
+      indices.put(data[i], i);
+    }
+    int [] sourcePositions = new int [count];
+    boolean [] isMoved = new boolean [size];
+    int index = 0;
+    for (Object object : collection)
+    {
+      Integer position = (Integer)indices.get(object);
+      int sourcePosition = position == null ? indexOf(object) : position;
+      if (sourcePosition < 0)
+      {
+        throw new IndexOutOfBoundsException("The object " + object + " isn't contained by the list");
+      }
+      if (isMoved[sourcePosition])
+      {
+        // The same object is moved more than once, so just move them one at a time.
+        //
+        super.moveAll(targetIndex, collection);
+        return;
+      }
+      isMoved[sourcePosition] = true;
+      sourcePositions[index++] = sourcePosition;
+    }
+
+    // Build the new arrangement and determine the position of the object the moved objects follow,
+    // i.e., the last of the first targetIndex objects that aren't moved.
+    //
+    Object [] newData = new Object [size];
+    int anchorPosition = -1;
+    int unmovedCount = 0;
+    index = 0;
+    for (int i = 0; i < size; ++i)
+    {
+      if (!isMoved[i])
+      {
+        if (unmovedCount == targetIndex)
+        {
+          for (int j = 0; j < count; ++j)
+          {
+            newData[index++] = data[sourcePositions[j]];
+          }
+        }
+        else if (unmovedCount < targetIndex)
+        {
+          anchorPosition = i;
+        }
+        newData[index++] = data[i];
+        ++unmovedCount;
+      }
+    }
+    if (index < size)
+    {
+      for (int j = 0; j < count; ++j)
+      {
+        newData[index++] = data[sourcePositions[j]];
+      }
+    }
+
+    // Compute the source and target index of each move in the equivalent sequence of moves,
+    // where each object is moved to follow the anchor object and the objects moved before it.
+    // A binary indexed tree counts the objects already moved from before an object's original position.
+    //
+    int [] movedBefore = new int [size + 1];
+    int [] sourceIndices = new int [count];
+    int [] targetIndices = new int [count];
+    int anchorMovedCount = 0;
+    for (int i = 0; i < count; ++i)
+    {
+      int sourcePosition = sourcePositions[i];
+      int movedBeforeCount = 0;
+      for (int j = sourcePosition; j > 0; j -= j & -j)
+      {
+        movedBeforeCount += movedBefore[j];
+      }
+      for (int j = sourcePosition + 1; j <= size; j += j & -j)
+      {
+        ++movedBefore[j];
+      }
+
+      int sourceIndex = sourcePosition - movedBeforeCount;
+      if (sourcePosition > anchorPosition)
+      {
+        sourceIndex += i;
+      }
+      else
+      {
+        ++anchorMovedCount;
+      }
+      sourceIndices[i] = sourceIndex;
+      targetIndices[i] = anchorPosition + 1 - anchorMovedCount + i;
+    }
+
+    ++modCount;
+    System.arraycopy(newData, 0, data, 0, size);
+
+    boolean isNotificationRequired = isNotificationRequired();
+    boolean oldIsSet = isNotificationRequired && isSet();
+    NotificationChain notifications = isNotificationRequired ? createBulkNotificationChain(count) : null;
+    boolean moved = false;
+    for (int i = 0; i < count; ++i)
+    {
+      int moveSourceIndex = sourceIndices[i];
+      int moveTargetIndex = targetIndices[i];
+      if (moveSourceIndex != moveTargetIndex)
+      {
+        moved = true;
+        @SuppressWarnings("unchecked") E object = (E)data[targetIndex + i];
+        didMove(moveTargetIndex, object, moveSourceIndex);
+        if (isNotificationRequired)
+        {
+          notifications.add(createNotification(Notification.MOVE, moveSourceIndex, object, moveTargetIndex, oldIsSet));
+        }
+      }
+    }
+
+    if (moved)
+    {
+      didChange();
+      if (notifications != null)
+      {
+        notifications.dispatch();
+      }
+    }
+  }
 }
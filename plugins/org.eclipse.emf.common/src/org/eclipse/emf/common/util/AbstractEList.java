@@ -544,6 +544,94 @@ public abstract class AbstractEList<E> extends AbstractList<E> implements EList<
    */
   public abstract E move(int targetIndex, int sourceIndex);
 
+  /**
+   * Replaces the contents of the list with the objects of the collection.
+   * This implementation delegates to {@link #replaceAll(int, int, Collection) replaceAll(int, int, Collection)}.
+   * @param collection the new contents of the list.
+   * @see #replaceAll(int, int, Collection)
+   * @since 2.9
+   */
+  public void setAll(Collection<? extends E> collection)
+  {
+    replaceAll(0, size(), collection);
+  }
+
+  /**
+   * Replaces the objects from the <code>fromIndex</code>, inclusive, to the <code>toIndex</code>, exclusive,
+   * with the objects of the collection.
+   * The objects of the collection are added as by {@link #addAll(int, Collection) addAll(int, Collection)},
+   * i.e., for a list that is {@link #isUnique unique}, any object already contained by the rest of the list is ignored.
+   * This implementation delegates to {@link #remove(int) remove(int)} for each replaced object
+   * and then to {@link #addAll(int, Collection) addAll(int, Collection)}.
+   * @param fromIndex the index of the first object to be replaced.
+   * @param toIndex the index past the last object to be replaced.
+   * @param collection the collection of replacement objects.
+   * @exception IndexOutOfBoundsException if the indices aren't a range within the list.
+   * @since 2.9
+   */
+  public void replaceAll(int fromIndex, int toIndex, Collection<? extends E> collection)
+  {
+    int size = size();
+    if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+    {
+      throw new IndexOutOfBoundsException("fromIndex=" + fromIndex + ", toIndex=" + toIndex + ", size=" + size);
+    }
+
+    for (int i = toIndex; --i >= fromIndex; )
+    {
+      remove(i);
+    }
+    addAll(fromIndex, collection);
+  }
+
+  /**
+   * Moves the objects of the collection so that they are contiguous, in the order of the collection, starting at the target index of the list;
+   * the other objects of the list retain their relative order.
+   * This implementation moves each object, in the order of the collection,
+   * to follow the objects already moved, delegating to {@link #move(int, int) move(int, int)}.
+   * @param targetIndex the new position of the first object of the collection.
+   * @param collection the objects to be moved.
+   * @exception IndexOutOfBoundsException if the objects moved to the target index wouldn't fit within the list
+   * or if an object isn't contained by the list.
+   * @since 2.9
+   */
+  public void moveAll(int targetIndex, Collection<?> collection)
+  {
+    int size = size();
+    int count = collection.size();
+    if (targetIndex < 0 || targetIndex + count > size)
+    {
+      throw new IndexOutOfBoundsException("targetIndex=" + targetIndex + ", count=" + count + ", size=" + size);
+    }
+
+    // Find the index of the object that the moved objects will follow,
+    // i.e., the last of the first targetIndex objects that aren't moved.
+    //
+    int anchorIndex = -1;
+    for (int remaining = targetIndex; remaining > 0; )
+    {
+      if (!collection.contains(primitiveGet(++anchorIndex)))
+      {
+        --remaining;
+      }
+    }
+
+    int i = 0;
+    for (Object object : collection)
+    {
+      int sourceIndex = indexOf(object);
+      if (sourceIndex < 0)
+      {
+        throw new IndexOutOfBoundsException("The object " + object + " isn't contained by the list");
+      }
+      if (sourceIndex < anchorIndex)
+      {
+        --anchorIndex;
+      }
+      move(anchorIndex + 1 + i++, sourceIndex);
+    }
+  }
+
 
   /**
    * Returns whether the object is a list with corresponding equal objects.
@@ -1158,7 +1246,11 @@ public abstract class AbstractEList<E> extends AbstractList<E> implements EList<
    */
   protected Collection<E> getNonDuplicates(Collection<? extends E> collection)
   {
-    Collection<E> result = useEquals() ?  new UniqueEList<E>(collection.size()) : new UniqueEList.FastCompare<E>(collection.size());
+    int size = collection.size();
+    Collection<E> result =
+      size > ListIndex.DEFAULT_THRESHOLD ?
+        useEquals() ? new UniqueEList.Indexed<E>(size) : new UniqueEList.FastCompare.Indexed<E>(size) :
+        useEquals() ? new UniqueEList<E>(size) : new UniqueEList.FastCompare<E>(size);
     for (E object : collection)
     {
       if (!contains(object))
@@ -149,7 +149,12 @@ public class BasicEList<E> extends AbstractEList<E> implements RandomAccess, Clo
   @Override
   public boolean contains(Object object) 
   {
-    if (useEquals() && object != null)
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      return listIndex.indexOf(object, data, size) != -1;
+    }
+    else if (useEquals() && object != null)
     {
       for (int i = 0; i < size; ++i)
       {
@@ -182,7 +187,12 @@ public class BasicEList<E> extends AbstractEList<E> implements RandomAccess, Clo
   @Override
   public int indexOf(Object object) 
   {
-    if (useEquals() && object != null)
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      return listIndex.indexOf(object, data, size);
+    }
+    else if (useEquals() && object != null)
     {
       for (int i = 0; i < size; ++i)
       {
@@ -214,7 +224,12 @@ public class BasicEList<E> extends AbstractEList<E> implements RandomAccess, Clo
   @Override
   public int lastIndexOf(Object object) 
   {
-    if (useEquals() && object != null) 
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      return listIndex.lastIndexOf(object, data, size);
+    }
+    else if (useEquals() && object != null) 
     {
       for (int i = size - 1; i >= 0; --i)
       {
@@ -309,6 +324,100 @@ public class BasicEList<E> extends AbstractEList<E> implements RandomAccess, Clo
     this.size = size;
     this.data = data;
     ++modCount;
+
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.reset();
+    }
+  }
+
+  /**
+   * Returns the index used to find objects in the list, or <code>null</code> if the list is searched linearly.
+   * This implementation returns <code>null</code>.
+   * A {@link #isUnique unique} list that may grow large can return an index that it creates lazily;
+   * it is maintained by this list's implementations of the callbacks {@link #didAdd didAdd}, {@link #didRemove didRemove},
+   * {@link #didSet didSet}, {@link #didMove didMove}, and {@link #didClear didClear},
+   * so a derived list that overrides those must call the super implementations.
+   * @return the index used to find objects in the list, or <code>null</code>.
+   * @see UniqueEList.Indexed
+   * @since 2.9
+   */
+  protected ListIndex getListIndex()
+  {
+    return null;
+  }
+
+  /**
+   * Updates the {@link #getListIndex() index}, if there is one.
+   * @since 2.9
+   */
+  @Override
+  protected void didSet(int index, E newObject, E oldObject)
+  {
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.didSet(index, newObject, oldObject, data);
+    }
+  }
+
+  /**
+   * Updates the {@link #getListIndex() index}, if there is one.
+   * @since 2.9
+   */
+  @Override
+  protected void didAdd(int index, E newObject)
+  {
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.didAdd(index, newObject, data, size);
+    }
+  }
+
+  /**
+   * Updates the {@link #getListIndex() index}, if there is one.
+   * @since 2.9
+   */
+  @Override
+  protected void didRemove(int index, E oldObject)
+  {
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.didRemove(index, oldObject);
+    }
+  }
+
+  /**
+   * Updates the {@link #getListIndex() index}, if there is one,
+   * before calling {@link #didRemove didRemove} for each object.
+   * @since 2.9
+   */
+  @Override
+  protected void didClear(int size, Object [] oldObjects)
+  {
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.didClear();
+    }
+    super.didClear(size, oldObjects);
+  }
+
+  /**
+   * Updates the {@link #getListIndex() index}, if there is one.
+   * @since 2.9
+   */
+  @Override
+  protected void didMove(int index, E movedObject, int oldIndex)
+  {
+    ListIndex listIndex = getListIndex();
+    if (listIndex != null)
+    {
+      listIndex.didMove(index, oldIndex);
+    }
   }
 
   /**
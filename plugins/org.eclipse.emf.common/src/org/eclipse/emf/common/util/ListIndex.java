@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.common.util;
+
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ * A hash index of the positions of the objects in the data storage of a {@link AbstractEList#isUnique unique} {@link BasicEList list},
+ * used by a list that {@link BasicEList#getListIndex() provides} one
+ * to find an object in constant time, rather than by a linear search, once the list's size exceeds a threshold.
+ * <p>
+ * The index is built the first time it's consulted for a list larger than the threshold
+ * and is then maintained by the list's {@link AbstractEList#didAdd didAdd}, {@link AbstractEList#didRemove didRemove},
+ * {@link AbstractEList#didSet didSet}, {@link AbstractEList#didMove didMove}, and {@link AbstractEList#didClear didClear} callbacks.
+ * Adding at the end of the list updates the index directly;
+ * any other change only invalidates the positions from the point of the change onward,
+ * and these are recomputed by the next lookup,
+ * so that maintaining the index never costs more than the shifting of the data storage that the change itself implies.
+ * </p>
+ * <p>
+ * The index compares objects as the list's {@link AbstractEList#useEquals useEquals} specifies,
+ * so objects compared by <code>equals</code> must not change their hash code while they're in the list.
+ * Should the index find that the list contains duplicates,
+ * e.g., because they were added {@link AbstractEList#addUnique(Object) without checking},
+ * it reverts to linear searching until the list is cleared.
+ * </p>
+ * @since 2.9
+ */
+public class ListIndex
+{
+  /**
+   * The default size above which the index is used.
+   */
+  public static final int DEFAULT_THRESHOLD = 32;
+
+  /**
+   * The size above which the index is used.
+   */
+  protected final int threshold;
+
+  /**
+   * Whether objects are compared with <code>equals</code> rather than <code>==</code>.
+   */
+  protected final boolean useEquals;
+
+  /**
+   * The position of each object, or <code>null</code> if the index isn't built.
+   */
+  protected Map<Object, Integer> positions;
+
+  /**
+   * The number of leading positions of the data storage that are accurately reflected by the {@link #positions}.
+   */
+  protected int validSize;
+
+  /**
+   * Whether the index has found duplicates and has reverted to linear searching.
+   */
+  protected boolean isDisabled;
+
+  /**
+   * Creates an instance with the {@link #DEFAULT_THRESHOLD default threshold}.
+   * @param useEquals whether objects are compared with <code>equals</code> rather than <code>==</code>.
+   */
+  public ListIndex(boolean useEquals)
+  {
+    this(useEquals, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Creates an instance with the given threshold.
+   * @param useEquals whether objects are compared with <code>equals</code> rather than <code>==</code>.
+   * @param threshold the size above which the index is used.
+   */
+  public ListIndex(boolean useEquals, int threshold)
+  {
+    this.useEquals = useEquals;
+    this.threshold = threshold;
+  }
+
+  /**
+   * Returns whether the two objects are the same, as the list compares them.
+   */
+  protected boolean matches(Object object, Object otherObject)
+  {
+    return object == otherObject || useEquals && object != null && object.equals(otherObject);
+  }
+
+  /**
+   * Returns the position of the first occurrence of the object in the data storage, or <code>-1</code>.
+   * @param object the object in question.
+   * @param data the list's data storage.
+   * @param size the list's size.
+   * @return the position of the first occurrence of the object in the data storage, or <code>-1</code>.
+   */
+  public int indexOf(Object object, Object [] data, int size)
+  {
+    if (positions == null && (isDisabled || size <= threshold))
+    {
+      for (int i = 0; i < size; ++i)
+      {
+        if (matches(object, data[i]))
+        {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    if (positions == null)
+    {
+      positions = useEquals ? new HashMap<Object, Integer>(2 * size) : new IdentityHashMap<Object, Integer>(size);
+      validSize = 0;
+    }
+
+    Integer position = positions.get(object);
+    if (position != null && position < validSize)
+    {
+      return position;
+    }
+    else if (validSize < size)
+    {
+      if (!update(data, size))
+      {
+        return indexOf(object, data, size);
+      }
+      position = positions.get(object);
+      return position == null ? -1 : position;
+    }
+    else
+    {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the position of the last occurrence of the object in the data storage, or <code>-1</code>.
+   * @param object the object in question.
+   * @param data the list's data storage.
+   * @param size the list's size.
+   * @return the position of the last occurrence of the object in the data storage, or <code>-1</code>.
+   */
+  public int lastIndexOf(Object object, Object [] data, int size)
+  {
+    if (positions == null && (isDisabled || size <= threshold))
+    {
+      for (int i = size - 1; i >= 0; --i)
+      {
+        if (matches(object, data[i]))
+        {
+          return i;
+        }
+      }
+      return -1;
+    }
+    else
+    {
+      return indexOf(object, data, size);
+    }
+  }
+
+  /**
+   * Records the positions of the objects from the {@link #validSize valid size} onward
+   * and returns whether this was done without finding a duplicate.
+   */
+  protected boolean update(Object [] data, int size)
+  {
+    for (int i = validSize; i < size; ++i)
+    {
+      Object object = data[i];
+      Integer previousPosition = positions.put(object, i);
+
+      // The positions before i are all accurate at this point.
+      //
+      if (previousPosition != null && previousPosition < i && matches(object, data[previousPosition]))
+      {
+        disable();
+        return false;
+      }
+    }
+    validSize = size;
+    return true;
+  }
+
+  /**
+   * Discards the index and reverts to linear searching until the list is {@link #didClear() cleared}.
+   */
+  protected void disable()
+  {
+    positions = null;
+    validSize = 0;
+    isDisabled = true;
+  }
+
+  /**
+   * Discards the index, e.g., because the list's data storage has been replaced.
+   */
+  public void reset()
+  {
+    positions = null;
+    validSize = 0;
+  }
+
+  /**
+   * Updates the index for an object added to the data storage.
+   * @param index the position of the new object.
+   * @param newObject the new object.
+   * @param data the list's data storage.
+   * @param size the list's size.
+   */
+  public void didAdd(int index, Object newObject, Object [] data, int size)
+  {
+    if (positions != null)
+    {
+      if (index < validSize)
+      {
+        validSize = index;
+      }
+      else if (index == validSize && index == size - 1)
+      {
+        Integer previousPosition = positions.put(newObject, index);
+        if (previousPosition != null && previousPosition < index && matches(newObject, data[previousPosition]))
+        {
+          disable();
+        }
+        else
+        {
+          validSize = size;
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the index for an object removed from the data storage.
+   * @param index the position of the old object.
+   * @param oldObject the old object.
+   */
+  public void didRemove(int index, Object oldObject)
+  {
+    if (positions != null)
+    {
+      if (index < validSize)
+      {
+        validSize = index;
+      }
+      Integer position = positions.remove(oldObject);
+      if (position != null && position < validSize)
+      {
+        // The object also occurs earlier in the list.
+        //
+        disable();
+      }
+    }
+  }
+
+  /**
+   * Updates the index for an object set in the data storage.
+   * @param index the position of the set object.
+   * @param newObject the new object.
+   * @param oldObject the old object.
+   * @param data the list's data storage.
+   */
+  public void didSet(int index, Object newObject, Object oldObject, Object [] data)
+  {
+    if (positions != null)
+    {
+      Integer position = positions.remove(oldObject);
+      if (position != null && position < validSize && position != index)
+      {
+        disable();
+      }
+      else if (index < validSize)
+      {
+        Integer previousPosition = positions.put(newObject, index);
+        if (previousPosition != null && previousPosition < validSize && previousPosition != index && matches(newObject, data[previousPosition]))
+        {
+          disable();
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the index for an object moved in the data storage.
+   * @param targetIndex the new position of the object.
+   * @param sourceIndex the old position of the object.
+   */
+  public void didMove(int targetIndex, int sourceIndex)
+  {
+    if (positions != null)
+    {
+      int index = Math.min(targetIndex, sourceIndex);
+      if (index < validSize)
+      {
+        validSize = index;
+      }
+    }
+  }
+
+  /**
+   * Updates the index for the clearing of the data storage.
+   */
+  public void didClear()
+  {
+    reset();
+    isDisabled = false;
+  }
+}
@@ -103,5 +103,129 @@ public class UniqueEList<E> extends BasicEList<E>
     {
       return false;
     }
+
+    /**
+     * A <code>UniqueEList.FastCompare</code> that uses an identity hash {@link ListIndex index}
+     * to find objects once its size exceeds a threshold.
+     * @since 2.9
+     */
+    public static class Indexed<E> extends FastCompare<E>
+    {
+      private static final long serialVersionUID = 1L;
+
+      /**
+       * The index, created lazily.
+       */
+      protected transient ListIndex listIndex;
+
+      /**
+       * Creates an empty instance with no initial capacity.
+       */
+      public Indexed()
+      {
+        super();
+      }
+
+      /**
+       * Creates an empty instance with the given capacity.
+       * @param initialCapacity the initial capacity of the list before it must grow.
+       * @exception IllegalArgumentException if the <code>initialCapacity</code> is negative.
+       */
+      public Indexed(int initialCapacity)
+      {
+        super(initialCapacity);
+      }
+
+      /**
+       * Creates an instance that is a copy of the collection, with duplicates removed.
+       * @param collection the initial contents of the list.
+       */
+      public Indexed(Collection<? extends E> collection)
+      {
+        super(collection.size());
+        addAll(collection);
+      }
+
+      @Override
+      protected ListIndex getListIndex()
+      {
+        if (listIndex == null)
+        {
+          listIndex = new ListIndex(false);
+        }
+        return listIndex;
+      }
+
+      @Override
+      public Object clone()
+      {
+        @SuppressWarnings("unchecked") Indexed<E> clone = (Indexed<E>)super.clone();
+        clone.listIndex = null;
+        return clone;
+      }
+    }
+  }
+
+  /**
+   * A <code>UniqueEList</code> that uses a hash {@link ListIndex index}
+   * to find objects once its size exceeds a threshold,
+   * so that adding <code>n</code> objects, each of which must be checked for uniqueness, isn't quadratic in <code>n</code>.
+   * The objects must not change their hash code while they're in the list.
+   * @since 2.9
+   */
+  public static class Indexed<E> extends UniqueEList<E>
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The index, created lazily.
+     */
+    protected transient ListIndex listIndex;
+
+    /**
+     * Creates an empty instance with no initial capacity.
+     */
+    public Indexed()
+    {
+      super();
+    }
+
+    /**
+     * Creates an empty instance with the given capacity.
+     * @param initialCapacity the initial capacity of the list before it must grow.
+     * @exception IllegalArgumentException if the <code>initialCapacity</code> is negative.
+     */
+    public Indexed(int initialCapacity)
+    {
+      super(initialCapacity);
+    }
+
+    /**
+     * Creates an instance that is a copy of the collection, with duplicates removed.
+     * @param collection the initial contents of the list.
+     */
+    public Indexed(Collection<? extends E> collection)
+    {
+      super(collection.size());
+      addAll(collection);
+    }
+
+    @Override
+    protected ListIndex getListIndex()
+    {
+      if (listIndex == null)
+      {
+        listIndex = new ListIndex(useEquals());
+      }
+      return listIndex;
+    }
+
+    @Override
+    public Object clone()
+    {
+      @SuppressWarnings("unchecked") Indexed<E> clone = (Indexed<E>)super.clone();
+      clone.listIndex = null;
+      return clone;
+    }
   }
 }
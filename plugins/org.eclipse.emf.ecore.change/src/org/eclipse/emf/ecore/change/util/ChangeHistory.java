@@ -0,0 +1,623 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.change.util;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.EMap;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.change.ChangeDescription;
+import org.eclipse.emf.ecore.change.ChangeFactory;
+import org.eclipse.emf.ecore.change.FeatureChange;
+import org.eclipse.emf.ecore.change.ListChange;
+import org.eclipse.emf.ecore.change.ResourceChange;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+
+/**
+ * A record of all the changes made to a collection of objects during a long-running session,
+ * kept as a sequence of {@link ChangeDescription change description} segments,
+ * each of which describes how to undo the changes made between two {@link #checkpoint() checkpoints}.
+ * <p>
+ * The changes since the last checkpoint are recorded by a single {@link #getChangeRecorder() change recorder},
+ * which, just like any change recorder, keeps one {@link org.eclipse.emf.ecore.change.FeatureChange feature change} per object and feature.
+ * Each checkpoint closes the current segment and begins a new one without reattaching the recorder to the objects.
+ * {@link #compact() Compacting} merges the segments held in memory into one,
+ * collapsing the feature changes of the same object and feature into the oldest of them.
+ * </p>
+ * <p>
+ * When a spill directory is specified, each segment is saved to a {@link BinaryResourceImpl binary resource} in that directory
+ * as it's closed, while its references to the recorded objects are still valid,
+ * and only the most recent segments are retained in memory;
+ * older segments are loaded from their resources again as they're {@link #undo() undone}.
+ * Segments can only be saved when all the objects they reference are in resources,
+ * either in the recorded objects' resource set or in the package registry,
+ * so other segments are always retained in memory.
+ * Note that the objects restored by undoing a segment that was loaded from its resource
+ * are copies of the objects that were removed while it was recorded.
+ * </p>
+ * @since 2.9
+ */
+public class ChangeHistory
+{
+  /**
+   * A segment of the history.
+   */
+  protected static class Segment
+  {
+    /**
+     * The change description, or <code>null</code> if it has been released from memory.
+     */
+    protected ChangeDescription changeDescription;
+
+    /**
+     * The URI of the resource to which the change description has been saved, or <code>null</code>.
+     */
+    protected URI uri;
+
+    protected Segment(ChangeDescription changeDescription)
+    {
+      this.changeDescription = changeDescription;
+    }
+  }
+
+  /**
+   * A change recorder that can close its current change description and begin a new one
+   * without being detached from and reattached to the recorded objects.
+   */
+  protected static class SegmentChangeRecorder extends ChangeRecorder
+  {
+    public SegmentChangeRecorder(Collection<?> rootObjects)
+    {
+      super(rootObjects);
+    }
+
+    /**
+     * Ends the recording, if it's in progress, and begins a new one
+     * for which the currently attached objects are the original objects.
+     * The objects orphaned by the ended recording, i.e., the objects to attach of the returned change description, are detached from this recorder.
+     * @return the change description of the ended recording, or <code>null</code> if it wasn't recording.
+     */
+    public ChangeDescription checkpoint()
+    {
+      ChangeDescription changeDescription = endRecording();
+      if (changeDescription != null)
+      {
+        for (EObject eObject : changeDescription.getObjectsToAttach())
+        {
+          removeAdapter(eObject);
+          for (TreeIterator<EObject> i = eObject.eAllContents(); i.hasNext(); )
+          {
+            removeAdapter(i.next());
+          }
+        }
+      }
+
+      // Objects orphaned by an undo are no longer of interest.
+      //
+      List<Notifier> orphans = new ArrayList<Notifier>();
+      for (Notifier notifier : targetObjects)
+      {
+        if (notifier instanceof EObject && isOrphan(EcoreUtil.getRootContainer((EObject)notifier)))
+        {
+          orphans.add(notifier);
+        }
+      }
+      for (Notifier notifier : orphans)
+      {
+        removeAdapter(notifier);
+      }
+
+      originalTargetObjects.clear();
+      originalTargetObjects.addAll(targetObjects);
+      setChangeDescription(createChangeDescription());
+      if (changeLog != null)
+      {
+        changeLog.clear();
+      }
+      setRecording(true);
+      return changeDescription;
+    }
+
+    /**
+     * Suspends the recording without ending it.
+     */
+    public void suspend()
+    {
+      setRecording(false);
+    }
+  }
+
+  /**
+   * The objects whose changes are recorded.
+   */
+  protected Collection<?> rootObjects;
+
+  /**
+   * The recorder of the changes since the last checkpoint.
+   */
+  protected SegmentChangeRecorder changeRecorder;
+
+  /**
+   * The segments, from oldest to most recent.
+   */
+  protected List<Segment> segments = new ArrayList<Segment>();
+
+  /**
+   * The URI of the directory to which segments are saved, or <code>null</code>.
+   */
+  protected URI spillDirectoryURI;
+
+  /**
+   * The maximum number of segments retained in memory once they're saved.
+   */
+  protected int maximumMemorySegmentCount;
+
+  /**
+   * The number of segments saved so far, used to name their resources.
+   */
+  protected int spillCount;
+
+  /**
+   * The resource set used to save and load segments.
+   */
+  protected ResourceSet spillResourceSet;
+
+  /**
+   * Creates an instance that begins recording the changes to the given objects and retains all segments in memory.
+   * @param rootObjects a collection of instances of {@link Notifier}.
+   */
+  public ChangeHistory(Collection<?> rootObjects)
+  {
+    this(rootObjects, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates an instance that begins recording the changes to the given objects,
+   * saves each segment to a resource in the given directory, and retains at most the given number of saved segments in memory.
+   * @param rootObjects a collection of instances of {@link Notifier}.
+   * @param spillDirectoryURI the URI of an existing directory, or <code>null</code>.
+   * @param maximumMemorySegmentCount the maximum number of saved segments retained in memory.
+   */
+  public ChangeHistory(Collection<?> rootObjects, URI spillDirectoryURI, int maximumMemorySegmentCount)
+  {
+    this.rootObjects = new ArrayList<Object>(rootObjects);
+    this.spillDirectoryURI = spillDirectoryURI;
+    this.maximumMemorySegmentCount = maximumMemorySegmentCount;
+    changeRecorder = createChangeRecorder(this.rootObjects);
+  }
+
+  /**
+   * Creates the recorder of the changes to the given objects, which begins recording immediately.
+   */
+  protected SegmentChangeRecorder createChangeRecorder(Collection<?> rootObjects)
+  {
+    return new SegmentChangeRecorder(rootObjects);
+  }
+
+  /**
+   * Returns the recorder of the changes since the last checkpoint.
+   * It may, for example, be set to {@link ChangeRecorder#setLogging(boolean) log} its changes.
+   */
+  public ChangeRecorder getChangeRecorder()
+  {
+    return changeRecorder;
+  }
+
+  /**
+   * Returns the number of closed segments, including the ones not retained in memory.
+   */
+  public int getSegmentCount()
+  {
+    return segments.size();
+  }
+
+  /**
+   * Returns the number of closed segments retained in memory.
+   */
+  public int getMemorySegmentCount()
+  {
+    int result = 0;
+    for (Segment segment : segments)
+    {
+      if (segment.changeDescription != null)
+      {
+        ++result;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Closes the segment of the changes since the last checkpoint, unless there are none, and begins a new one.
+   * The closed segment is {@link #spill(Segment) saved}, if possible,
+   * and the oldest saved segments beyond the maximum retained in memory are released.
+   */
+  public void checkpoint()
+  {
+    ChangeDescription changeDescription = changeRecorder.checkpoint();
+    if (!isEmpty(changeDescription))
+    {
+      Segment segment = new Segment(changeDescription);
+      segments.add(segment);
+      spill(segment);
+      release();
+    }
+  }
+
+  /**
+   * Merges the most recent segments retained in memory, after {@link #checkpoint() closing} the current one,
+   * into a single segment that undoes all their changes.
+   * Merging stops at the most recent segment released from memory, which isn't merged.
+   * <p>
+   * The change descriptions are {@link #merge(ChangeDescription, ChangeDescription) merged} directly,
+   * without changing the recorded objects.
+   * </p>
+   */
+  public void compact()
+  {
+    checkpoint();
+    boolean merged = false;
+    while (segments.size() > 1)
+    {
+      Segment segment = segments.get(segments.size() - 1);
+      Segment previousSegment = segments.get(segments.size() - 2);
+      if (segment.changeDescription == null || previousSegment.changeDescription == null)
+      {
+        break;
+      }
+
+      segments.remove(segments.size() - 1);
+      deleteSpill(segment);
+      merge(previousSegment.changeDescription, segment.changeDescription);
+      merged = true;
+    }
+
+    if (merged)
+    {
+      // The merged segment is saved again now that the state is the state at its end.
+      //
+      Segment segment = segments.get(segments.size() - 1);
+      deleteSpill(segment);
+      spill(segment);
+    }
+  }
+
+  /**
+   * Merges the later change description into the change description that precedes it,
+   * so that it undoes the changes of both.
+   * It must be called while the state of the recorded objects is the state at the end of the later change description,
+   * and the earlier change description must not have been loaded from a resource.
+   * <p>
+   * For each object and feature, and for each resource, the earlier change, which records the older value, is kept;
+   * when both change a list, the earlier change's list changes are computed again against the current list.
+   * The later description's other changes and its objects to attach are moved to the earlier one.
+   * </p>
+   * @param changeDescription the earlier change description, which receives the merged changes.
+   * @param laterChangeDescription the later change description, which is emptied.
+   */
+  protected void merge(ChangeDescription changeDescription, ChangeDescription laterChangeDescription)
+  {
+    ListDifferenceAnalyzer listDifferenceAnalyzer = new ListDifferenceAnalyzer();
+    EMap<EObject, EList<FeatureChange>> objectChanges = changeDescription.getObjectChanges();
+    for (Map.Entry<EObject, EList<FeatureChange>> entry : laterChangeDescription.getObjectChanges())
+    {
+      EObject eObject = entry.getKey();
+      EList<FeatureChange> featureChanges = objectChanges.get(eObject);
+      if (featureChanges == null)
+      {
+        Map.Entry<EObject, EList<FeatureChange>> newEntry = ChangeFactory.eINSTANCE.createEObjectToChangesMapEntry(eObject);
+        objectChanges.add(newEntry);
+        featureChanges = newEntry.getValue();
+      }
+      LOOP:
+      for (FeatureChange laterFeatureChange : new ArrayList<FeatureChange>(entry.getValue()))
+      {
+        EStructuralFeature feature = laterFeatureChange.getFeature();
+        for (FeatureChange featureChange : featureChanges)
+        {
+          if (featureChange.getFeature() == feature)
+          {
+            if (feature.isMany() && featureChange.isSet())
+            {
+              @SuppressWarnings("unchecked") EList<Object> list = (EList<Object>)eObject.eGet(feature);
+              EList<ListChange> listChanges = featureChange.getListChanges();
+              listChanges.clear();
+              listDifferenceAnalyzer.analyzeLists(list, (EList<?>)featureChange.getValue(), listChanges);
+            }
+            continue LOOP;
+          }
+        }
+        featureChanges.add(laterFeatureChange);
+      }
+    }
+
+    EList<ResourceChange> resourceChanges = changeDescription.getResourceChanges();
+    LOOP:
+    for (ResourceChange laterResourceChange : new ArrayList<ResourceChange>(laterChangeDescription.getResourceChanges()))
+    {
+      Resource resource = laterResourceChange.getResource();
+      for (ResourceChange resourceChange : resourceChanges)
+      {
+        if (resourceChange.getResource() == resource)
+        {
+          EList<ListChange> listChanges = resourceChange.getListChanges();
+          listChanges.clear();
+          listDifferenceAnalyzer.analyzeLists(new BasicEList.FastCompare<Object>(resource.getContents()), resourceChange.getValue(), listChanges);
+          continue LOOP;
+        }
+      }
+      resourceChanges.add(laterResourceChange);
+    }
+
+    changeDescription.getObjectsToAttach().addAll(laterChangeDescription.getObjectsToAttach());
+    laterChangeDescription.getObjectChanges().clear();
+    laterChangeDescription.getResourceChanges().clear();
+  }
+
+  /**
+   * Undoes the most recent changes, i.e., the changes since the last checkpoint, if there are any,
+   * or else the most recent closed segment, {@link #load(Segment) loading} it if necessary.
+   * @return whether anything was undone.
+   */
+  public boolean undo()
+  {
+    ChangeDescription changeDescription = changeRecorder.checkpoint();
+    if (isEmpty(changeDescription))
+    {
+      if (segments.isEmpty())
+      {
+        return false;
+      }
+      Segment segment = segments.remove(segments.size() - 1);
+      changeDescription = load(segment);
+      deleteSpill(segment);
+    }
+
+    changeRecorder.suspend();
+    changeDescription.apply();
+    changeRecorder.checkpoint();
+    return true;
+  }
+
+  /**
+   * Undoes all the changes, restoring the state of the objects when this history was created.
+   */
+  public void undoAll()
+  {
+    while (undo())
+    {
+      // Undo the segments one at a time.
+    }
+  }
+
+  /**
+   * Stops recording and discards all the segments, deleting their resources.
+   */
+  public void dispose()
+  {
+    changeRecorder.dispose();
+    for (Segment segment : segments)
+    {
+      deleteSpill(segment);
+    }
+    segments.clear();
+  }
+
+  /**
+   * Returns whether the change description describes no changes.
+   */
+  protected boolean isEmpty(ChangeDescription changeDescription)
+  {
+    return
+      changeDescription == null ||
+        changeDescription.getObjectChanges().isEmpty() &&
+          changeDescription.getResourceChanges().isEmpty() &&
+          changeDescription.getObjectsToAttach().isEmpty();
+  }
+
+  /**
+   * Returns the resource set of the recorded objects, or <code>null</code>.
+   */
+  protected ResourceSet getModelResourceSet()
+  {
+    for (Object rootObject : rootObjects)
+    {
+      if (rootObject instanceof ResourceSet)
+      {
+        return (ResourceSet)rootObject;
+      }
+      else if (rootObject instanceof Resource)
+      {
+        return ((Resource)rootObject).getResourceSet();
+      }
+      else if (rootObject instanceof EObject)
+      {
+        Resource resource = ((EObject)rootObject).eResource();
+        if (resource != null)
+        {
+          return resource.getResourceSet();
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the resource set used to save and load segments,
+   * which resolves references to the recorded objects in the {@link #getModelResourceSet() model resource set}.
+   */
+  protected ResourceSet getSpillResourceSet()
+  {
+    if (spillResourceSet == null)
+    {
+      spillResourceSet =
+        new ResourceSetImpl()
+        {
+          @Override
+          protected Resource delegatedGetResource(URI uri, boolean loadOnDemand)
+          {
+            ResourceSet modelResourceSet = getModelResourceSet();
+            Resource resource = modelResourceSet == null ? null : modelResourceSet.getResource(uri, false);
+            return resource == null ? super.delegatedGetResource(uri, loadOnDemand) : resource;
+          }
+        };
+    }
+    return spillResourceSet;
+  }
+
+  /**
+   * Returns whether all the objects referenced by the change description, but not contained by it,
+   * are in resources that can be found again when the segment is loaded.
+   */
+  protected boolean isSpillable(ChangeDescription changeDescription)
+  {
+    ResourceSet modelResourceSet = getModelResourceSet();
+    if (modelResourceSet == null)
+    {
+      return false;
+    }
+
+    for (EObject eObject : EcoreUtil.ExternalCrossReferencer.find(Collections.singleton(changeDescription)).keySet())
+    {
+      Resource resource = eObject.eResource();
+      if (resource == null ||
+            resource.getURI() == null ||
+            resource.getResourceSet() != modelResourceSet &&
+              modelResourceSet.getPackageRegistry().getEPackage(resource.getURI().toString()) == null &&
+              EPackage.Registry.INSTANCE.getEPackage(resource.getURI().toString()) == null)
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Saves the segment's change description to a binary resource in the spill directory,
+   * if there is a spill directory and the description is {@link #isSpillable(ChangeDescription) spillable}.
+   * It must be called while the state of the recorded objects is the state at the end of the segment.
+   */
+  protected void spill(Segment segment)
+  {
+    if (spillDirectoryURI != null && isSpillable(segment.changeDescription))
+    {
+      String name = "segment" + ++spillCount + ".bin";
+      URI uri =
+        spillDirectoryURI.hasTrailingPathSeparator() ?
+          spillDirectoryURI.trimSegments(1).appendSegment(name) :
+          spillDirectoryURI.appendSegment(name);
+      ResourceSet resourceSet = getSpillResourceSet();
+      Resource resource = new BinaryResourceImpl(uri);
+      resourceSet.getResources().add(resource);
+      resource.getContents().add(segment.changeDescription);
+      try
+      {
+        resource.save(null);
+        segment.uri = uri;
+      }
+      catch (IOException exception)
+      {
+        // The segment is simply retained in memory.
+      }
+      finally
+      {
+        resource.getContents().clear();
+        resourceSet.getResources().remove(resource);
+      }
+    }
+  }
+
+  /**
+   * Releases from memory the oldest saved segments beyond the maximum number retained in memory.
+   */
+  protected void release()
+  {
+    int count = getMemorySegmentCount();
+    for (Iterator<Segment> i = segments.iterator(); i.hasNext() && count > maximumMemorySegmentCount; )
+    {
+      Segment segment = i.next();
+      if (segment.changeDescription != null && segment.uri != null)
+      {
+        segment.changeDescription = null;
+        --count;
+      }
+    }
+  }
+
+  /**
+   * Returns the segment's change description, loading it from its resource if it's been released from memory.
+   * It must be called while the state of the recorded objects is the state at the end of the segment.
+   */
+  protected ChangeDescription load(Segment segment)
+  {
+    if (segment.changeDescription == null)
+    {
+      ResourceSet resourceSet = getSpillResourceSet();
+      Resource resource = new BinaryResourceImpl(segment.uri);
+      resourceSet.getResources().add(resource);
+      try
+      {
+        resource.load(null);
+        EcoreUtil.resolveAll(resource);
+        segment.changeDescription = (ChangeDescription)resource.getContents().get(0);
+      }
+      catch (IOException exception)
+      {
+        throw new WrappedException(exception);
+      }
+      finally
+      {
+        resource.getContents().clear();
+        resourceSet.getResources().remove(resource);
+      }
+    }
+    return segment.changeDescription;
+  }
+
+  /**
+   * Deletes the segment's resource, if it has one.
+   */
+  protected void deleteSpill(Segment segment)
+  {
+    if (segment.uri != null)
+    {
+      try
+      {
+        getSpillResourceSet().getURIConverter().delete(segment.uri, null);
+      }
+      catch (IOException exception)
+      {
+        // Ignore.
+      }
+      segment.uri = null;
+    }
+  }
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.change.util;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+
+
+/**
+ * A compact log of the original values of the features of objects, and of the contents of resources, that have changed.
+ * <p>
+ * Only the first change to each feature of each object is logged;
+ * the value before that change is computed right away from the notification and the current value,
+ * and later changes to the same feature are ignored.
+ * Each logged feature occupies one slot of a primitive <code>int</code> array,
+ * three slots of an <code>Object</code> array, which reference the notifier, the feature, and the original value,
+ * and one slot of an open addressing hash table used to find the feature's entry,
+ * so logging allocates nothing but a copy of the original value of a many-valued feature and the occasional growth of the arrays.
+ * In particular, no references to a notification's values are retained,
+ * so a collection passed to {@link java.util.List#addAll(Collection) addAll} may be reused or cleared by the caller.
+ * </p>
+ * @see ChangeRecorder#setLogging(boolean)
+ * @since 2.9
+ */
+public class ChangeLog
+{
+  /**
+   * The bit of a flags slot that records whether the feature was originally set.
+   */
+  protected static final int WAS_SET = 1;
+
+  /**
+   * The number of entries in the log.
+   */
+  protected int size;
+
+  /**
+   * The flags of each entry.
+   */
+  protected int [] ints;
+
+  /**
+   * The notifier, the feature, and the original value of each entry.
+   */
+  protected Object [] objects;
+
+  /**
+   * An open addressing hash table of entry indices, each incremented by one so that zero denotes an empty slot.
+   * Its length is a power of two that's always more than twice the {@link #size}.
+   */
+  protected int [] table;
+
+  /**
+   * Creates an empty instance.
+   */
+  public ChangeLog()
+  {
+    this(16);
+  }
+
+  /**
+   * Creates an empty instance with the given initial capacity.
+   * @param initialCapacity the number of changed features for which space is allocated initially.
+   */
+  public ChangeLog(int initialCapacity)
+  {
+    ints = new int [initialCapacity];
+    objects = new Object [3 * initialCapacity];
+    int tableLength = 4;
+    while (tableLength <= 2 * initialCapacity)
+    {
+      tableLength <<= 1;
+    }
+    table = new int [tableLength];
+  }
+
+  /**
+   * Returns the number of changed features in the log.
+   * @return the number of changed features in the log.
+   */
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * Returns whether the log is empty.
+   * @return whether the log is empty.
+   */
+  public boolean isEmpty()
+  {
+    return size == 0;
+  }
+
+  /**
+   * Removes all the entries from the log.
+   */
+  public void clear()
+  {
+    for (int i = 0, length = 3 * size; i < length; ++i)
+    {
+      objects[i] = null;
+    }
+    for (int i = 0; i < table.length; ++i)
+    {
+      table[i] = 0;
+    }
+    size = 0;
+  }
+
+  /**
+   * Logs the original value of the feature changed by the notification, unless that feature has already been logged.
+   * The notification must be delivered after the change it describes, and before any other change to the same feature.
+   * @param notification the notification of a change to an {@link EObject} or to the contents of a {@link Resource}.
+   */
+  public void add(Notification notification)
+  {
+    int eventType = notification.getEventType();
+    if (eventType < Notification.SET || eventType > Notification.MOVE)
+    {
+      return;
+    }
+
+    Notifier notifier = (Notifier)notification.getNotifier();
+    Object featureObject = notification.getFeature();
+    EStructuralFeature feature = featureObject instanceof EStructuralFeature ? (EStructuralFeature)featureObject : null;
+    int slot = hash(notifier, feature) & table.length - 1;
+    for (int entry; (entry = table[slot]) != 0; slot = slot + 1 & table.length - 1)
+    {
+      int objectIndex = 3 * (entry - 1);
+      if (objects[objectIndex] == notifier && objects[objectIndex + 1] == feature)
+      {
+        return;
+      }
+    }
+
+    if (size == ints.length)
+    {
+      grow();
+      slot = hash(notifier, feature) & table.length - 1;
+      while (table[slot] != 0)
+      {
+        slot = slot + 1 & table.length - 1;
+      }
+    }
+
+    ints[size] = notification.wasSet() ? WAS_SET : 0;
+    int objectIndex = 3 * size;
+    objects[objectIndex] = notifier;
+    objects[objectIndex + 1] = feature;
+    objects[objectIndex + 2] = computeOriginalValue(notification, notifier, feature);
+    table[slot] = ++size;
+  }
+
+  /**
+   * Returns the hash code of the feature of the notifier.
+   */
+  protected int hash(Notifier notifier, EStructuralFeature feature)
+  {
+    int hash = 31 * System.identityHashCode(notifier) + System.identityHashCode(feature);
+    return hash ^ hash >>> 16;
+  }
+
+  /**
+   * Doubles the capacity of the log and rehashes the table.
+   */
+  protected void grow()
+  {
+    int capacity = 2 * ints.length + 1;
+    int [] oldInts = ints;
+    ints = new int [capacity];
+    System.arraycopy(oldInts, 0, ints, 0, size);
+    Object [] oldObjects = objects;
+    objects = new Object [3 * capacity];
+    System.arraycopy(oldObjects, 0, objects, 0, 3 * size);
+
+    int tableLength = table.length;
+    while (tableLength <= 2 * capacity)
+    {
+      tableLength <<= 1;
+    }
+    table = new int [tableLength];
+    for (int i = 0; i < size; ++i)
+    {
+      int slot = hash((Notifier)objects[3 * i], (EStructuralFeature)objects[3 * i + 1]) & tableLength - 1;
+      while (table[slot] != 0)
+      {
+        slot = slot + 1 & tableLength - 1;
+      }
+      table[slot] = i + 1;
+    }
+  }
+
+  /**
+   * Returns the value of the feature of the notifier before the change described by the notification,
+   * computed from the notification and the current value.
+   * For a many-valued feature, or for the contents of a resource, the result is a new list, built in a single pass over the current value.
+   */
+  protected Object computeOriginalValue(Notification notification, Notifier notifier, EStructuralFeature feature)
+  {
+    int eventType = notification.getEventType();
+    Collection<?> value;
+    if (feature == null)
+    {
+      value = ((Resource)notifier).getContents();
+    }
+    else if (feature.isMany())
+    {
+      value = (Collection<?>)((EObject)notifier).eGet(feature);
+    }
+    else
+    {
+      return eventType == Notification.SET || eventType == Notification.UNSET ? notification.getOldValue() : ((EObject)notifier).eGet(feature);
+    }
+
+    int position = notification.getPosition();
+    switch (eventType)
+    {
+      case Notification.ADD:
+      {
+        return copy(value, position, 1, null, null);
+      }
+      case Notification.ADD_MANY:
+      {
+        return copy(value, position, ((Collection<?>)notification.getNewValue()).size(), null, null);
+      }
+      case Notification.REMOVE:
+      {
+        // If there's no position, the list is being cleared.
+        //
+        return
+          copy
+            (value,
+             0,
+             0,
+             Collections.singletonList(notification.getOldValue()),
+             new int [] { position == Notification.NO_INDEX ? 0 : position });
+      }
+      case Notification.REMOVE_MANY:
+      {
+        @SuppressWarnings("unchecked") List<Object> removedValues = (List<Object>)notification.getOldValue();
+        int [] positions = (int [])notification.getNewValue();
+        if (positions == null)
+        {
+          EList<Object> result = copy(value, 0, 0, null, null);
+          result.addAll(removedValues);
+          return result;
+        }
+        return copy(value, 0, 0, removedValues, positions);
+      }
+      case Notification.MOVE:
+      {
+        EList<Object> result = copy(value, 0, 0, null, null);
+        result.move(((Integer)notification.getOldValue()).intValue(), position);
+        return result;
+      }
+      default:
+      {
+        EList<Object> result = copy(value, 0, 0, null, null);
+        if (position != Notification.NO_INDEX)
+        {
+          result.set(position, notification.getOldValue());
+        }
+        return result;
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of the value that omits the given number of elements at the given position,
+   * and that has each of the inserted values, if any, at the corresponding position of the result.
+   * The positions must be in increasing order.
+   */
+  protected EList<Object> copy(Collection<?> value, int omittedPosition, int omittedCount, List<?> insertedValues, int [] insertedPositions)
+  {
+    int insertedCount = insertedValues == null ? 0 : insertedValues.size();
+    BasicEList<Object> result = new BasicEList<Object>(value.size() - omittedCount + insertedCount);
+    int index = 0;
+    int inserted = 0;
+    for (Object object : value)
+    {
+      if (index >= omittedPosition && index < omittedPosition + omittedCount)
+      {
+        ++index;
+        continue;
+      }
+      while (inserted < insertedCount && insertedPositions[inserted] == result.size())
+      {
+        result.add(insertedValues.get(inserted++));
+      }
+      result.add(object);
+      ++index;
+    }
+    while (inserted < insertedCount)
+    {
+      result.add(insertedValues.get(inserted++));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the notifier of the entry at the given index.
+   */
+  public Notifier getNotifier(int index)
+  {
+    return (Notifier)objects[3 * index];
+  }
+
+  /**
+   * Returns the feature of the entry at the given index, or <code>null</code> for the contents of a resource.
+   */
+  public EStructuralFeature getFeature(int index)
+  {
+    return (EStructuralFeature)objects[3 * index + 1];
+  }
+
+  /**
+   * Returns the original value of the entry at the given index;
+   * a list for a many-valued feature or for the contents of a resource.
+   */
+  public Object getValue(int index)
+  {
+    return objects[3 * index + 2];
+  }
+
+  /**
+   * Returns whether the feature of the entry at the given index was originally set.
+   */
+  public boolean isSet(int index)
+  {
+    return getFeature(index) == null || (ints[index] & WAS_SET) != 0;
+  }
+
+  /**
+   * Returns the original value of each changed feature, and the original contents of each changed resource,
+   * in the order of the first change to each.
+   * @return the original values.
+   */
+  public List<OriginalValue> computeOriginalValues()
+  {
+    List<OriginalValue> result = new ArrayList<OriginalValue>(size);
+    for (int i = 0; i < size; ++i)
+    {
+      OriginalValue originalValue = new OriginalValue(getNotifier(i), getFeature(i));
+      originalValue.value = getValue(i);
+      originalValue.isSet = isSet(i);
+      result.add(originalValue);
+    }
+    return result;
+  }
+
+  /**
+   * The value of a feature of an object, or of the contents of a resource, before the first logged change.
+   */
+  public static class OriginalValue
+  {
+    protected Notifier notifier;
+    protected EStructuralFeature feature;
+    protected Object value;
+    protected boolean isSet;
+
+    protected OriginalValue(Notifier notifier, EStructuralFeature feature)
+    {
+      this.notifier = notifier;
+      this.feature = feature;
+    }
+
+    /**
+     * Returns the changed object or resource.
+     */
+    public Notifier getNotifier()
+    {
+      return notifier;
+    }
+
+    /**
+     * Returns the changed feature, or <code>null</code> for the contents of a resource.
+     */
+    public EStructuralFeature getFeature()
+    {
+      return feature;
+    }
+
+    /**
+     * Returns the original value; a list for a many-valued feature or for the contents of a resource.
+     */
+    public Object getValue()
+    {
+      return value;
+    }
+
+    /**
+     * Returns whether the feature was originally set.
+     */
+    public boolean isSet()
+    {
+      return isSet;
+    }
+
+    /**
+     * Restores the original value.
+     */
+    public void apply()
+    {
+      if (feature == null)
+      {
+        @SuppressWarnings("unchecked") EList<Object> contents = (EList<Object>)(EList<?>)((Resource)notifier).getContents();
+        @SuppressWarnings("unchecked") List<Object> prototype = (List<Object>)value;
+        ECollections.setEList(contents, prototype);
+      }
+      else if (feature.isChangeable() && !((EStructuralFeature.Internal)feature).isContainer())
+      {
+        EObject eObject = (EObject)notifier;
+        if (!isSet)
+        {
+          eObject.eUnset(feature);
+        }
+        else if (feature.isMany())
+        {
+          // Bidirectional references may already have been restored from the other end,
+          // so the list is made equal to the original rather than having each change undone.
+          //
+          @SuppressWarnings("unchecked") EList<Object> list = (EList<Object>)eObject.eGet(feature);
+          @SuppressWarnings("unchecked") List<Object> prototype = (List<Object>)value;
+          ECollections.setEList(list, prototype);
+        }
+        else
+        {
+          eObject.eSet(feature, value);
+        }
+      }
+    }
+  }
+}
@@ -53,6 +53,12 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
 
   protected Map<EObject, URI> eObjectToProxyURIMap;
 
+  /**
+   * The log of the changes not yet consolidated into the change description, or <code>null</code> if not {@link #isLogging() logging}.
+   * @since 2.9
+   */
+  protected ChangeLog changeLog;
+
   public ChangeRecorder()
   {
     super();
@@ -108,10 +114,65 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
     this.eObjectToProxyURIMap = eObjectToProxyURIMap;
   }
 
+  /**
+   * Returns whether changes are appended to a {@link ChangeLog change log}
+   * rather than being recorded in the change description as they happen.
+   * @since 2.9
+   */
+  public boolean isLogging()
+  {
+    return changeLog != null;
+  }
+
+  /**
+   * Sets whether changes are appended to a {@link ChangeLog change log}
+   * rather than being recorded in the change description as they happen.
+   * <p>
+   * Recording a change in the change description creates {@link FeatureChange feature change} objects,
+   * whereas logging a change records only the original value of the feature, in compact arrays, the first time the feature changes.
+   * The change description is then built from the log only when the changes are {@link #consolidateChanges() consolidated},
+   * i.e., by {@link #summarize()} or {@link #endRecording()},
+   * or not at all, when the changes are {@link #rollback() rolled back}.
+   * Turning logging off consolidates the logged changes.
+   * </p>
+   * @since 2.9
+   */
+  public void setLogging(boolean logging)
+  {
+    if (logging)
+    {
+      if (changeLog == null)
+      {
+        changeLog = createChangeLog();
+      }
+    }
+    else if (changeLog != null)
+    {
+      if (getChangeDescription() != null)
+      {
+        consolidateChangeLog();
+      }
+      changeLog = null;
+    }
+  }
+
+  /**
+   * Creates the change log used while {@link #isLogging() logging}.
+   * @since 2.9
+   */
+  protected ChangeLog createChangeLog()
+  {
+    return new ChangeLog();
+  }
+
   @Override
   public void dispose()
   {
     setRecording(false);
+    if (changeLog != null)
+    {
+      changeLog.clear();
+    }
 
     Notifier[] notifiers = targetObjects.toArray(new Notifier [targetObjects.size()]);
     targetObjects.clear();
@@ -162,6 +223,10 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
       changeDescription = createChangeDescription();
     }
     setChangeDescription(changeDescription);
+    if (changeLog != null)
+    {
+      changeLog.clear();
+    }
 
     loadingTargets = true;
     for (Object rootObject : rootObjects)
@@ -217,9 +282,77 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
     }
   }
 
+  /**
+   * Ends the recording and restores the recorded objects to their state when the recording began.
+   * The logged changes are undone directly from the {@link #isLogging() change log},
+   * without building a change description for them,
+   * and then the change description of any previously {@link #summarize() summarized} changes is {@link ChangeDescription#apply() applied}.
+   * <p>
+   * This method doesn't do anything if this ChangeRecorder is not recording.
+   * </p>
+   * @since 2.9
+   */
+  public void rollback()
+  {
+    if (isRecording())
+    {
+      setRecording(false);
+      if (changeLog != null && !changeLog.isEmpty())
+      {
+        List<ChangeLog.OriginalValue> originalValues = changeLog.computeOriginalValues();
+        changeLog.clear();
+        for (ChangeLog.OriginalValue originalValue : originalValues)
+        {
+          originalValue.apply();
+        }
+      }
+      consolidateChanges();
+      getChangeDescription().apply();
+    }
+  }
+
+  /**
+   * Records the changes in the {@link #isLogging() change log} in the change description and clears the log.
+   * A feature or resource for which the change description already has a change keeps that earlier change.
+   * @since 2.9
+   */
+  protected void consolidateChangeLog()
+  {
+    if (changeLog != null && !changeLog.isEmpty())
+    {
+      for (ChangeLog.OriginalValue originalValue : changeLog.computeOriginalValues())
+      {
+        Notifier notifier = originalValue.getNotifier();
+        EStructuralFeature feature = originalValue.getFeature();
+        if (feature == null)
+        {
+          Resource resource = (Resource)notifier;
+          if (getResourceChange(resource) == null)
+          {
+            @SuppressWarnings("unchecked") EList<Object> value = (EList<Object>)originalValue.getValue();
+            getResourceChanges().add(createResourceChange(resource, value));
+          }
+        }
+        else
+        {
+          EObject eObject = (EObject)notifier;
+          List<FeatureChange> changes = getFeatureChanges(eObject);
+          if (getFeatureChange(changes, feature) == null)
+          {
+            FeatureChange change = createFeatureChange(eObject, feature, originalValue.getValue(), originalValue.isSet());
+            ((InternalEList<FeatureChange>)changes).addUnique(change);
+          }
+        }
+      }
+      changeLog.clear();
+    }
+  }
+
   @Override
   protected void consolidateChanges()
   {
+    consolidateChangeLog();
+
     ChangeDescription changeDescription = getChangeDescription();
     List<EObject> orphanedObjects = changeDescription.getObjectsToAttach();
     for (Object target : targetObjects)
@@ -341,6 +474,12 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
   {
     boolean shouldRecord = shouldRecord(feature, containment, notification, eObject);
 
+    if (shouldRecord && changeLog != null)
+    {
+      changeLog.add(notification);
+      shouldRecord = false;
+    }
+
     List<FeatureChange> changes = null;
     FeatureChange change = null;
     if (shouldRecord)
@@ -485,7 +624,11 @@ public class ChangeRecorder extends BasicChangeRecorder implements Adapter.Inter
   {
     Resource resource = null;
     ResourceChange change = null;
-    if (isRecording())
+    if (isRecording() && changeLog != null)
+    {
+      changeLog.add(notification);
+    }
+    else if (isRecording())
     {
       resource = (Resource)notification.getNotifier();
       change = getResourceChange(resource);
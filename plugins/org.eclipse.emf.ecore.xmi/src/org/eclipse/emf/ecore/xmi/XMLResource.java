@@ -23,6 +23,7 @@ import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.ENamedElement;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
@@ -537,6 +538,56 @@ public interface XMLResource extends Resource
    */
   String OPTION_PROXY_ATTRIBUTES = org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.OPTION_STYLE_PROXY_ATTRIBUTES;
 
+  /**
+   * A load option whose value is a {@link StreamingHandler} to which each object at the {@link #OPTION_STREAMING_DEPTH streaming depth}
+   * is delivered as soon as its element has been completely processed,
+   * after which the object is removed from its container, or from the resource in the case of a root object, and is discarded.
+   * The memory needed to load a document is therefore bounded by the size of the largest delivered tree rather than by the size of the document.
+   * Because the target of a same document reference may have already been discarded or may be yet to be loaded,
+   * such references are never resolved;
+   * instead each one is {@link StreamingHandler#handleReference(XMLResource, EObject, EReference, URI) reported} as a URI.
+   * A same document reference serialized as an href is also left as a proxy, rather than resolved, and is reported as well.
+   * References to other documents are proxies as usual.
+   * @see StreamingHandler
+   * @see #OPTION_STREAMING_DEPTH
+   * @since 2.9
+   */
+  String OPTION_STREAMING_HANDLER = "STREAMING_HANDLER";
+
+  /**
+   * A load option whose Integer value specifies the containment depth of the objects delivered to the {@link #OPTION_STREAMING_HANDLER streaming handler},
+   * where the root objects of the resource are at depth <code>0</code>.
+   * The objects above that depth remain in the resource once the load completes.
+   * The default value is <code>0</code>.
+   * @since 2.9
+   */
+  String OPTION_STREAMING_DEPTH = "STREAMING_DEPTH";
+
+  /**
+   * An interface for a handler that receives the objects of a document as they're {@link XMLResource#OPTION_STREAMING_HANDLER streamed} during load.
+   * @since 2.9
+   */
+  interface StreamingHandler
+  {
+    /**
+     * Called for each same document reference before the object holding the reference is {@link #handleObject(XMLResource, EObject) delivered}.
+     * A reference serialized as an ID is reported when it's processed,
+     * whereas a reference serialized as an href is reported once the object holding the reference's proxy is completely processed.
+     * @param resource the resource being loaded.
+     * @param eObject the object holding the reference.
+     * @param eReference the reference feature.
+     * @param uri the URI of the referenced object, i.e., the URI of the resource with the serialized fragment.
+     */
+    void handleReference(XMLResource resource, EObject eObject, EReference eReference, URI uri);
+
+    /**
+     * Called for each completely processed object at the streaming depth, just before it's discarded.
+     * @param resource the resource being loaded.
+     * @param eObject the completely processed object.
+     */
+    void handleObject(XMLResource resource, EObject eObject);
+  }
+
   String HREF = "href";
   String NIL = "nil";
   String TYPE = "type";
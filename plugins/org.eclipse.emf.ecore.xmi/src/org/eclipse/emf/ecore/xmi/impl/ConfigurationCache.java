@@ -11,11 +11,12 @@
 package org.eclipse.emf.ecore.xmi.impl;
 
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.emf.ecore.EClass;
-import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.xmi.impl.XMLSaveImpl.Escape;
 
@@ -23,6 +24,7 @@ import org.eclipse.emf.ecore.xmi.impl.XMLSaveImpl.Escape;
 /**
  * This class represents a configuration that can be used to enable caching and therefore improves performance 
  * of EMF serialization. 
+ * None of the accessors lock, so concurrent loads and saves that use the cache don't contend with each other.
  * This class is considered an INTERNAL API and might change in the future.
  * @since 2.1.0
  */
@@ -30,95 +32,62 @@ public class ConfigurationCache
 {
   public static final ConfigurationCache INSTANCE = new ConfigurationCache();
 
-  protected static final int SIZE = 100;
-  
-  protected Map<EPackage, EObject> documentRoots = new HashMap<EPackage, EObject>();
-
-  protected XMLString printers[] = new XMLString [SIZE];
-
-  protected Escape escapes[] = new Escape [SIZE];
+  protected ConcurrentMap<EPackage, EClass> documentRoots = new ConcurrentHashMap<EPackage, EClass>();
 
-  protected int freePrinterIndex = -1;
+  protected Queue<XMLString> printers = new ConcurrentLinkedQueue<XMLString>();
 
-  protected int freeEscapeIndex = -1;
-
-  protected int currentSize = SIZE;
+  protected Queue<Escape> escapes = new ConcurrentLinkedQueue<Escape>();
 
   protected ConfigurationCache()
   {
     super();
   }
 
-  protected synchronized XMLString getPrinter()
+  protected XMLString getPrinter()
   {
-    if (freePrinterIndex < 0)
-    {
-      return new XMLString();
-    }
-    XMLString printer = printers[freePrinterIndex];
-    printers[freePrinterIndex--] = null;
-    return printer;
+    XMLString printer = printers.poll();
+    return printer == null ? new XMLString() : printer;
   }
 
-  protected synchronized void releasePrinter(XMLString printer)
+  protected void releasePrinter(XMLString printer)
   {
-    ++freePrinterIndex;
-    if (printers.length == freePrinterIndex)
-    {
-      currentSize += SIZE;
-      XMLString newarray[] = new XMLString [currentSize];
-      System.arraycopy(printers, 0, newarray, 0, printers.length);
-      printers = newarray;
-    }
-    printers[freePrinterIndex] = printer;
+    printers.offer(printer);
   }
 
-  protected synchronized Escape getEscape()
+  protected Escape getEscape()
   {
-    if (freeEscapeIndex < 0)
-    {
-      return new Escape();
-    }
-    Escape escape = escapes[freeEscapeIndex];
-    escapes[freeEscapeIndex--] = null;
-    return escape;
+    Escape escape = escapes.poll();
+    return escape == null ? new Escape() : escape;
   }
 
-  protected synchronized void releaseEscape(Escape escape)
+  protected void releaseEscape(Escape escape)
   {
-    ++freeEscapeIndex;
-    if (escapes.length == freeEscapeIndex)
-    {
-      currentSize += SIZE;
-      Escape newarray[] = new Escape [currentSize];
-      System.arraycopy(escapes, 0, newarray, 0, escapes.length);
-      escapes = newarray;
-    }
-    escapes[freeEscapeIndex] = escape;
+    escapes.offer(escape);
   }
 
-  public synchronized void release()
+  public void release()
   {
-    freeEscapeIndex = -1;
-    freePrinterIndex = -1;
-    for (int i = 0; i < printers.length; i++)
-    {
-      printers[i] = null;
-    }
-    for (int i = 0; i < escapes.length; i++)
-    {
-      escapes[i] = null;
-    }
+    printers.clear();
+    escapes.clear();
   }
   
-  public synchronized EClass getDocumentRoot(EPackage ePackage)
+  public EClass getDocumentRoot(EPackage ePackage)
   {
-    return (EClass)documentRoots.get(ePackage);
+    return documentRoots.get(ePackage);
   }
   
-  public synchronized void putDocumentRoot(EPackage ePackage, EClass documentRoot)
+  public void putDocumentRoot(EPackage ePackage, EClass documentRoot)
   {
-    documentRoots.put(ePackage, documentRoot);
+    // A package without a document root isn't cached, just as if it had never been put.
+    //
+    if (documentRoot == null)
+    {
+      documentRoots.remove(ePackage);
+    }
+    else
+    {
+      documentRoots.put(ePackage, documentRoot);
+    }
   }
 
 }
@@ -123,6 +123,54 @@ public class XMISaveImpl extends XMLSaveImpl
     }
   }
 
+  /**
+   * @since 2.9
+   */
+  @Override
+  protected void writeTopObjectsStart()
+  {
+    doc.startElement(XMI_TAG_NS);
+    doc.addAttribute(XMI_VER_NS, xmlResource == null ? XMIResource.VERSION_VALUE : ((XMIResource)xmlResource).getXMIVersion());
+    doc.addAttribute(XMI_XMLNS, xmiURI);
+  }
+
+  /**
+   * @since 2.9
+   */
+  @Override
+  protected Object writeStreamedTopObject(EObject top)
+  {
+    EClass eClass = top.eClass();
+    if (extendedMetaData == null || featureTable.getDocumentRoot(eClass.getEPackage()) != eClass)
+    {
+      String name = helper.getQName(eClass);
+      doc.startElement(name);
+      Object mark = doc.mark();
+      root = top;
+      saveElementID(top);
+      return mark;
+    }
+    else
+    {
+      doc.startElement(null);
+      root = top;
+      saveFeatures(top);
+      doc.addLine();
+      return null;
+    }
+  }
+
+  /**
+   * @since 2.9
+   */
+  @Override
+  protected void addTopObjectNamespaceDeclarations()
+  {
+    // The XMI version and namespace are declared by the containing XMI element.
+    //
+    super.addNamespaceDeclarations();
+  }
+
   @Override
   protected void saveTypeAttribute(EClass eClass)
   {
@@ -20,6 +20,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -30,6 +31,7 @@ import java.util.StringTokenizer;
 
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EMap;
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
@@ -46,6 +48,7 @@ import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
 import org.eclipse.emf.ecore.util.BasicExtendedMetaData;
+import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.ExtendedMetaData;
 import org.eclipse.emf.ecore.util.FeatureMap;
@@ -334,6 +337,25 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
   protected boolean suppressDocumentRoot;
   protected boolean laxWildcardProcessing;
 
+  /**
+   * The handler to which objects are delivered when {@link XMLResource#OPTION_STREAMING_HANDLER streaming}.
+   * @since 2.9
+   */
+  protected XMLResource.StreamingHandler streamingHandler;
+
+  /**
+   * The containment depth of the objects delivered to the {@link #streamingHandler}.
+   * @since 2.9
+   */
+  protected int streamingDepth;
+
+  /**
+   * The proxies for same document references that are yet to be {@link XMLResource.StreamingHandler#handleReference(XMLResource, EObject, EReference, URI) reported}
+   * to the {@link #streamingHandler}.
+   * @since 2.9
+   */
+  protected Set<InternalEObject> streamedSameDocumentProxies;
+
   /**
    */
   public XMLHandler(XMLResource xmlResource, XMLHelper helper, Map<?, ?> options)
@@ -495,6 +517,19 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
     {
       laxWildcardProcessing = true;
     }
+
+    setStreamingOptions(options);
+  }
+
+  /**
+   * Sets the {@link #streamingHandler} and the {@link #streamingDepth} from the options.
+   * @since 2.9
+   */
+  protected void setStreamingOptions(Map<?, ?> options)
+  {
+    streamingHandler = (XMLResource.StreamingHandler)options.get(XMLResource.OPTION_STREAMING_HANDLER);
+    Integer streamingDepthOption = (Integer)options.get(XMLResource.OPTION_STREAMING_DEPTH);
+    streamingDepth = streamingDepthOption == null ? 0 : streamingDepthOption;
   }
 
   protected void setExtendedMetaDataOption(Object extendedMetaDataOption)
@@ -586,6 +621,8 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
         uriHandler.setBaseURI(resourceURI);
       }
     }
+
+    setStreamingOptions(options);
   }
 
   public void reset()
@@ -642,6 +679,8 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
     urisToLocations = null;
     resourceEntityHandler = null;
     uriHandler = null;
+    streamingHandler = null;
+    streamedSameDocumentProxies = null;
     documentRoot = null;
     usedNullNamespacePackage = false;
     isNamespaceAware = false;
@@ -1210,6 +1249,11 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
       extent.addAll(deferredExtent);
     }
 
+    if (streamingHandler != null)
+    {
+      handleStreamedSameDocumentProxies(xmlResource.getContents());
+    }
+
     // Pretend there is an xmlns="" because we really need to ensure that the null prefix 
     // isn't used to denote something other than the null namespace.
     //
@@ -1514,14 +1558,13 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
     Object type = types.pop();
     if (type == OBJECT_TYPE)
     {
+      EObject object = objects.popEObject();
       if (text == null)
       {
-        objects.pop();
         mixedTargets.pop();
       }
       else 
       {
-        EObject object = objects.popEObject();
         if (mixedTargets.peek() != null && 
               (object.eContainer() != null || 
                  suppressDocumentRoot ||
@@ -1541,6 +1584,11 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
           text = null;
         }
       } 
+
+      if (streamingHandler != null && object != null)
+      {
+        handleStreamedObject(object);
+      }
     }
     else if (isIDREF)
     {
@@ -1575,6 +1623,67 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
     helper.popContext(prefixesToFactories);
   }
 
+  /**
+   * If the completely processed object is at the {@link #streamingDepth streaming depth} of the resource's containment tree,
+   * delivers it to the {@link #streamingHandler} and then discards it.
+   * @param object a completely processed object.
+   * @since 2.9
+   */
+  protected void handleStreamedObject(EObject object)
+  {
+    int depth = 0;
+    InternalEObject root = (InternalEObject)object;
+    for (InternalEObject container = root.eInternalContainer(); container != null; container = container.eInternalContainer())
+    {
+      root = container;
+      ++depth;
+    }
+
+    // Objects such as proxies in non-containment references aren't part of the tree.
+    //
+    if (depth == streamingDepth && (root.eDirectResource() == xmlResource || deferredExtent != null && deferredExtent.contains(root)))
+    {
+      if (disableNotify)
+      {
+        for (Iterator<EObject> i = EcoreUtil.getAllProperContents(Collections.singleton(object), false); i.hasNext(); )
+        {
+          i.next().eSetDeliver(true);
+        }
+      }
+
+      handleStreamedSameDocumentProxies(Collections.singleton(object));
+      streamingHandler.handleObject(xmlResource, object);
+
+      if (depth != 0)
+      {
+        EcoreUtil.remove(object);
+      }
+      else if (deferredExtent != null)
+      {
+        deferredExtent.remove(object);
+      }
+      else
+      {
+        extent.remove(object);
+      }
+
+      // Detaching from the resource discards the IDs, but objects in a deferred extent were never attached.
+      //
+      if (deferredExtent != null || recordUnknownFeature)
+      {
+        for (Iterator<EObject> i = EcoreUtil.getAllProperContents(Collections.singleton(object), false); i.hasNext(); )
+        {
+          EObject eObject = i.next();
+          eObjectToExtensionMap.remove(eObject);
+          if (deferredExtent != null)
+          {
+            xmlResource.setID(eObject, null);
+          }
+        }
+      }
+    }
+  }
+
   protected boolean isTextFeatureValue(Object type)
   {
     return type != ERROR_TYPE;
@@ -2772,6 +2881,16 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
         continue;
       }
 
+      // When streaming, the referenced object may have been discarded already, so report the reference rather than resolving it.
+      //
+      if (streamingHandler != null)
+      {
+        streamingHandler.handleReference(xmlResource, object, eReference, (resourceURI == null ? URI.createURI("") : resourceURI).appendFragment(id));
+        qName = null;
+        ++position;
+        continue;
+      }
+
       // Ensure that references corresponding to repeating elements are always deferred and processed in order at the end.
       //
       if (isFirstID && extendedMetaData != null && eReference.isMany() && extendedMetaData.getFeatureKind(eReference) == ExtendedMetaData.ELEMENT_FEATURE)
@@ -2894,10 +3013,60 @@ public abstract class XMLHandler extends DefaultHandler implements XMLDefaultHan
     }
 
     // Test for a same document reference that would usually be handled as an IDREF.
+    // When streaming, the proxy is left as is because the referenced object may have been discarded already,
+    // and it's reported once the object holding it is completely processed.
     //
     if (proxyURI.trimFragment().equals(resourceURI))
     {
-      sameDocumentProxies.add(proxy);
+      if (streamingHandler == null)
+      {
+        sameDocumentProxies.add(proxy);
+      }
+      else
+      {
+        if (streamedSameDocumentProxies == null)
+        {
+          streamedSameDocumentProxies = new HashSet<InternalEObject>();
+        }
+        streamedSameDocumentProxies.add(proxy);
+      }
+    }
+  }
+
+  /**
+   * {@link XMLResource.StreamingHandler#handleReference(XMLResource, EObject, EReference, URI) Reports} 
+   * each {@link #streamedSameDocumentProxies same document proxy} held by the given objects or their contents
+   * to the {@link #streamingHandler}.
+   * @param objects the completely processed objects.
+   * @since 2.9
+   */
+  protected void handleStreamedSameDocumentProxies(Collection<?> objects)
+  {
+    if (streamedSameDocumentProxies != null && !streamedSameDocumentProxies.isEmpty())
+    {
+      for (TreeIterator<EObject> i = EcoreUtil.getAllContents(objects, false); i.hasNext(); )
+      {
+        InternalEObject eObject = (InternalEObject)i.next();
+        if (streamedSameDocumentProxies.remove(eObject))
+        {
+          // A proxy in a containment reference.
+          //
+          streamingHandler.handleReference(xmlResource, eObject.eInternalContainer(), (EReference)eObject.eContainmentFeature(), eObject.eProxyURI());
+          i.prune();
+        }
+        else
+        {
+          for (EContentsEList.FeatureIterator<EObject> j = (EContentsEList.FeatureIterator<EObject>)((InternalEList<EObject>)eObject.eCrossReferences()).basicIterator(); 
+               j.hasNext(); )
+          {
+            InternalEObject target = (InternalEObject)j.next();
+            if (streamedSameDocumentProxies.remove(target))
+            {
+              streamingHandler.handleReference(xmlResource, eObject, (EReference)j.feature(), target.eProxyURI());
+            }
+          }
+        }
+      }
     }
   }
 
@@ -36,6 +36,7 @@ import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.FeatureAccessTable;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.ExtendedMetaData;
@@ -299,7 +300,7 @@ public class XMLHelperImpl implements XMLHelper
 
   public Object getValue(EObject obj, EStructuralFeature f)
   {
-    return obj.eGet(f, false);
+    return FeatureAccessTable.getFeatureAccessTable(obj.eClass()).get(obj, f, false);
   }
 
   public String getQName(EClass c)
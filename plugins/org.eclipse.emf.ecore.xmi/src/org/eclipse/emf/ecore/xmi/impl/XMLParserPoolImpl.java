@@ -11,10 +11,12 @@
 package org.eclipse.emf.ecore.xmi.impl;
 
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -34,12 +36,14 @@ import org.xml.sax.SAXException;
  * To avoid possible memory leak (in case user is trying to parse documents using different options for every parse), 
  * there is a restriction on the size of the pool. 
  * The key used for handler caching is based on the option map passed to load.
+ * The pool doesn't lock, 
+ * so threads concurrently loading resources don't contend with each other to acquire and release parsers and handlers.
  */
 public class XMLParserPoolImpl implements XMLParserPool
 {
-  private final Map<Map<?, ?>, List<SAXParser>> parserCache = new HashMap<Map<?, ?>, List<SAXParser>>();
+  private final ConcurrentMap<Map<?, ?>, Pool<SAXParser>> parserCache = new ConcurrentHashMap<Map<?, ?>, Pool<SAXParser>>();
 
-  private final Map<Map<?, ?>, List<XMLDefaultHandler>> handlersCache;
+  private final ConcurrentMap<Map<?, ?>, Pool<XMLDefaultHandler>> handlersCache;
   
   private final int size;
   
@@ -71,13 +75,13 @@ public class XMLParserPoolImpl implements XMLParserPool
   public XMLParserPoolImpl(int size, boolean useHandlerCache)
   {
     this.size = size;
-    handlersCache = useHandlerCache ? new HashMap<Map<?, ?>, List<XMLDefaultHandler>>() : null;
+    handlersCache = useHandlerCache ? new ConcurrentHashMap<Map<?, ?>, Pool<XMLDefaultHandler>>() : null;
   }
   
   /**
    * @see XMLParserPool#get(Map, Map, boolean)
    */
-  public synchronized SAXParser get(Map<String, Boolean> features, Map<String, ?> properties, boolean useLexicalHandler) throws ParserConfigurationException, SAXException
+  public SAXParser get(Map<String, Boolean> features, Map<String, ?> properties, boolean useLexicalHandler) throws ParserConfigurationException, SAXException
   {
     Map<Object, Object> map = new HashMap<Object, Object>();
     map.putAll(features);
@@ -87,39 +91,35 @@ public class XMLParserPoolImpl implements XMLParserPool
     {
       parserCache.clear();
     }
-    List<SAXParser> list = parserCache.get(map);
-    if (list != null)
+    Pool<SAXParser> pool = parserCache.get(map);
+    if (pool != null)
     {
-      int size = list.size();
-      if (size > 0)
+      SAXParser parser = pool.poll();
+      if (parser != null)
       {
-        return list.remove(size - 1);
-      }
-      else
-      {
-        return makeParser(features, properties);
+        return parser;
       }
     }
     else
     {
-      parserCache.put(map, new ArrayList<SAXParser>());
-      return makeParser(features, properties);
+      parserCache.putIfAbsent(map, new Pool<SAXParser>());
     }
+    return makeParser(features, properties);
   }
 
   /**
    * @see XMLParserPool#release(SAXParser, Map, Map, boolean)
    */
-  public synchronized void release(SAXParser parser, Map<String, Boolean> features, Map<String, ?> properties, boolean useLexicalHandler)
+  public void release(SAXParser parser, Map<String, Boolean> features, Map<String, ?> properties, boolean useLexicalHandler)
   {
     Map<Object, Object> map = new HashMap<Object, Object>();
     map.putAll(features);
     map.putAll(properties);
     map.put(XMLResource.OPTION_USE_LEXICAL_HANDLER, useLexicalHandler ? Boolean.TRUE : Boolean.FALSE);
-    List<SAXParser> list = parserCache.get(map);
-    if (list.size() < size)
+    Pool<SAXParser> pool = parserCache.get(map);
+    if (pool != null)
     {
-      list.add(parser);
+      pool.offer(parser, size);
     }
   }
 
@@ -148,7 +148,7 @@ public class XMLParserPoolImpl implements XMLParserPool
     return parser;
   }
 
-  public synchronized XMLDefaultHandler getDefaultHandler(XMLResource resource, XMLLoad xmlLoad, XMLHelper helper, Map<?, ?> options)
+  public XMLDefaultHandler getDefaultHandler(XMLResource resource, XMLLoad xmlLoad, XMLHelper helper, Map<?, ?> options)
   {
     if (handlersCache != null)
     {
@@ -156,39 +156,71 @@ public class XMLParserPoolImpl implements XMLParserPool
       {
         handlersCache.clear();
       }
-      List<XMLDefaultHandler> list = handlersCache.get(options);
-      if (list != null)
+      Pool<XMLDefaultHandler> pool = handlersCache.get(options);
+      if (pool != null)
       {
-        int size = list.size();
-        if (size > 0)
+        XMLDefaultHandler handler = pool.poll();
+        if (handler != null)
         {
-          XMLDefaultHandler handler = list.remove(size - 1);
           handler.prepare(resource, helper, options);
           return handler;
         }
       }
       else
       {
-        handlersCache.put(options, new ArrayList<XMLDefaultHandler>());
+        handlersCache.putIfAbsent(options, new Pool<XMLDefaultHandler>());
       }
     }
     return xmlLoad.createDefaultHandler();
   }
 
-  public synchronized void releaseDefaultHandler(XMLDefaultHandler handler, Map<?, ?> options)
+  public void releaseDefaultHandler(XMLDefaultHandler handler, Map<?, ?> options)
   {
     if (handlersCache != null)
     {
       handler.reset();
-      List<XMLDefaultHandler> list = handlersCache.get(options);
-      if (list == null)
+      Pool<XMLDefaultHandler> pool = handlersCache.get(options);
+      if (pool == null)
+      {
+        handlersCache.putIfAbsent(options, new Pool<XMLDefaultHandler>());
+      }
+      else
       {
-        list = new ArrayList<XMLDefaultHandler>();
-        handlersCache.put(options, list);
+        pool.offer(handler, size);
       }
-      else if (list.size() < size)
+    }
+  }
+
+  /**
+   * A lock-free collection of up to a given number of instances available for reuse.
+   */
+  private static final class Pool<T>
+  {
+    private final ConcurrentLinkedQueue<T> instances = new ConcurrentLinkedQueue<T>();
+
+    // The size of a concurrent queue is expensive to compute, so it's tracked separately.
+    //
+    private final AtomicInteger count = new AtomicInteger();
+
+    public T poll()
+    {
+      T instance = instances.poll();
+      if (instance != null)
+      {
+        count.decrementAndGet();
+      }
+      return instance;
+    }
+
+    public void offer(T instance, int capacity)
+    {
+      if (count.incrementAndGet() <= capacity)
+      {
+        instances.offer(instance);
+      }
+      else
       {
-        list.add(handler);
+        count.decrementAndGet();
       }
     }
   }
@@ -19,6 +19,7 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
@@ -337,6 +338,35 @@ public class XMLResourceImpl extends ResourceImpl implements XMLResource
     }
   }
 
+  /**
+   * Saves the top objects yielded by the iterator to the output stream as if they were the contents of this resource,
+   * without ever adding them to the contents,
+   * so that arbitrarily many objects, e.g., objects produced on demand from a database query, can be saved.
+   * Each top object is written before the next one is requested from the iterator.
+   * This requires that {@link #createXMLSave(Map)} create an {@link XMLSaveImpl}.
+   * @param outputStream the stream to which to write.
+   * @param contents the top objects to save.
+   * @param options the save options.
+   * @see XMLSaveImpl#save(XMLResource, OutputStream, Iterator, Map)
+   * @since 2.9
+   */
+  public void save(OutputStream outputStream, Iterator<? extends EObject> contents, Map<?, ?> options) throws IOException
+  {
+    options = mergeMaps(options, defaultSaveOptions);
+    if (options == null)
+    {
+      options = Collections.EMPTY_MAP;
+    }
+
+    XMLSave xmlSave = createXMLSave(options);
+    if (!(xmlSave instanceof XMLSaveImpl))
+    {
+      throw new UnsupportedOperationException("Streaming requires an XMLSaveImpl");
+    }
+
+    ((XMLSaveImpl)xmlSave).save(this, outputStream, contents, options);
+  }
+
   /**
    * Saves the resource to the writer using the specified options.
    * <p>
@@ -40,6 +40,7 @@ import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.FeatureAccessTable;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.util.BasicExtendedMetaData;
@@ -266,6 +267,59 @@ public class XMLSaveImpl implements XMLSave
     this.xmlResource = null;
   }
 
+  /**
+   * Saves the top objects yielded by the iterator as if they were the contents of the resource,
+   * writing each one to the writer as soon as it's been serialized.
+   * The top objects need not be contained by the resource, nor need they all be in memory at the same time.
+   * Objects that are not contained by any resource can only be referenced if the resource provides an {@link XMLResource#getID(EObject) ID} for them.
+   * The {@link XMLResource#OPTION_ROOT_OBJECTS} and {@link XMLResource#OPTION_USE_FILE_BUFFER} options are ignored.
+   * @since 2.9
+   */
+  public void save(XMLResource resource, Writer writer, Iterator<? extends EObject> contents, Map<?, ?> options) throws IOException
+  {
+    this.xmlResource = resource;
+    init(resource, options);
+    traverse(contents, writer, null);
+    writer.flush();
+
+    endSave(Collections.<EObject>emptyList());
+    this.xmlResource = null;
+  }
+
+  /**
+   * Saves the top objects yielded by the iterator as if they were the contents of the resource,
+   * writing each one to the output stream as soon as it's been serialized.
+   * @see #save(XMLResource, Writer, Iterator, Map)
+   * @since 2.9
+   */
+  public void save(XMLResource resource, OutputStream outputStream, Iterator<? extends EObject> contents, Map<?, ?> options) throws IOException
+  {
+    if (outputStream instanceof URIConverter.Writeable)
+    {
+      URIConverter.Writeable writeable = (URIConverter.Writeable)outputStream;
+      resource.setEncoding(writeable.getEncoding());
+      save(resource, writeable.asWriter(), contents, options);
+      return;
+    }
+    this.xmlResource = resource;
+    init(resource, options);
+
+    if ("US-ASCII".equals(encoding) || "ASCII".equals(encoding))
+    {
+      traverse(contents, null, outputStream);
+      outputStream.flush();
+    }
+    else
+    {
+      OutputStreamWriter outputStreamWriter = new OutputStreamWriter(outputStream, helper.getJavaEncoding(encoding));
+      traverse(contents, outputStreamWriter, null);
+      outputStreamWriter.flush();
+    }
+
+    endSave(Collections.<EObject>emptyList());
+    this.xmlResource = null;
+  }
+
   protected void endSave(List<? extends EObject> contents) throws IOException
   {
     if (extendedMetaData != null && contents.size() >= 1)
@@ -602,6 +656,141 @@ public class XMLSaveImpl implements XMLSave
     addNamespaceDeclarations();
     addDoctypeInformation();
   }
+
+  /**
+   * Serializes the top objects yielded by the iterator, one at a time,
+   * writing the serialization of each to the writer, or, if the writer is <code>null</code>, as ASCII to the output stream,
+   * before requesting the next one from the iterator.
+   * A single top object is serialized exactly as it would be by {@link #traverse(List)}.
+   * Otherwise, because the namespaces that will be needed aren't known in advance,
+   * each top object {@link #addTopObjectNamespaceDeclarations() declares} the namespaces needed so far.
+   * @since 2.9
+   */
+  protected void traverse(Iterator<? extends EObject> contents, Writer writer, OutputStream outputStream) throws IOException
+  {
+    // Buffering in a temporary file would hold back everything until the end.
+    //
+    String temporaryFileName = doc.getTemporaryFileName();
+    if (temporaryFileName != null)
+    {
+      doc.setTemporaryFileName(null);
+      new File(temporaryFileName).delete();
+    }
+
+    EObject top = contents.hasNext() ? contents.next() : null;
+    if (top == null || !contents.hasNext())
+    {
+      traverse(top == null ? Collections.<EObject>emptyList() : Collections.singletonList(top));
+      writeStreamed(writer, outputStream);
+    }
+    else
+    {
+      if (declareXML)
+      {
+        doc.add("<?xml version=\"" + xmlVersion + "\" encoding=\"" + encoding + "\"?>");
+        doc.addLine();
+      }
+      writeTopObjectsStart();
+
+      int count = 0;
+      for (;;)
+      {
+        Object mark = writeStreamedTopObject(top);
+        if (mark != null)
+        {
+          // Go back and add the XMLNS stuff,
+          // but then restore the state of the end of the document so the next top object is indented properly.
+          //
+          int depth = doc.depth;
+          int currentLineWidth = doc.currentLineWidth;
+          doc.resetToMark(mark);
+          addTopObjectNamespaceDeclarations();
+          doc.depth = depth;
+          doc.currentLineWidth = currentLineWidth;
+        }
+
+        count += writeStreamed(writer, outputStream);
+        if (count > flushThreshold)
+        {
+          if (writer == null)
+          {
+            outputStream.flush();
+          }
+          else
+          {
+            writer.flush();
+          }
+          count = 0;
+        }
+
+        if (!contents.hasNext())
+        {
+          break;
+        }
+        top = contents.next();
+      }
+
+      writeTopObjectsEnd();
+      writeStreamed(writer, outputStream);
+    }
+  }
+
+  /**
+   * Writes what's been serialized so far and then clears the document, returning the number of characters written.
+   * @since 2.9
+   */
+  protected int writeStreamed(Writer writer, OutputStream outputStream) throws IOException
+  {
+    int length = doc.getLength();
+    if (writer == null)
+    {
+      doc.writeAscii(outputStream, flushThreshold);
+    }
+    else
+    {
+      doc.write(writer, flushThreshold);
+    }
+    doc.reset();
+    return length;
+  }
+
+  /**
+   * Starts the element that contains the top objects when {@link #traverse(Iterator, Writer, OutputStream) streaming} more than one.
+   * Plain XML documents have only one root element, so this implementation throws an exception.
+   * @since 2.9
+   */
+  protected void writeTopObjectsStart()
+  {
+    throw new UnsupportedOperationException("An XML document can have only one top object");
+  }
+
+  /**
+   * Ends the element started by {@link #writeTopObjectsStart()}.
+   * @since 2.9
+   */
+  protected void writeTopObjectsEnd()
+  {
+    doc.endElement();
+  }
+
+  /**
+   * Writes one of several top objects being {@link #traverse(Iterator, Writer, OutputStream) streamed},
+   * returning a mark at which to insert its namespace declarations, or <code>null</code> if there is no place to insert them.
+   * @since 2.9
+   */
+  protected Object writeStreamedTopObject(EObject top)
+  {
+    return writeTopObject(top);
+  }
+
+  /**
+   * Adds the namespace declarations needed so far to the element of one of several top objects being {@link #traverse(Iterator, Writer, OutputStream) streamed}.
+   * @since 2.9
+   */
+  protected void addTopObjectNamespaceDeclarations()
+  {
+    addNamespaceDeclarations();
+  }
   /*
    * INTERNAL: this is a specialized method to add attributes for a top/root element
    */
@@ -1211,7 +1400,7 @@ public class XMLSaveImpl implements XMLSave
 
   protected boolean shouldSaveFeature(EObject o, EStructuralFeature f)
   {
-    return o.eIsSet(f) || keepDefaults && f.getDefaultValueLiteral() != null;
+    return FeatureAccessTable.getFeatureAccessTable(o.eClass()).isSet(o, f) || keepDefaults && f.getDefaultValueLiteral() != null;
   }
 
   protected boolean saveFeatures(EObject o)
@@ -110,6 +110,17 @@ public interface EValidator
     boolean matches(String value);
   }
 
+  /**
+   * A marker interface for a validator, or a {@link ValidationDelegate validation delegate},
+   * whose constraints must not be evaluated concurrently.
+   * When the {@link org.eclipse.emf.ecore.util.Diagnostician#validate(EObject, DiagnosticChain, Map, java.util.concurrent.Executor) diagnostician validates concurrently},
+   * the objects whose constraints are evaluated by such a validator or delegate are validated one at a time, on the calling thread.
+   * @since 2.9
+   */
+  interface NotThreadSafe
+  {
+  }
+
   /**
    * An interface for delegating validation expression evaluation.
    * @since 2.6
@@ -0,0 +1,1778 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.impl;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.FeatureMapUtil;
+
+
+/**
+ * A {@link org.eclipse.emf.ecore.InternalEObject.EStore store} that keeps the values of each feature of each class
+ * in a column of off-heap memory indexed by the slot of an object among the objects of its class.
+ * <p>
+ * Each object {@link #create(EClass) created} by the store is a {@link ColumnarEStoreEObjectImpl facade}
+ * that holds little more than its ID and the store;
+ * the store keeps facades only as long as they're otherwise referenced and recreates them on demand,
+ * so clients that attach adapters to an object must hold on to it.
+ * Single-valued features use eight bytes per object of the class,
+ * and many-valued features use a sixteen byte header per object of the class that locates the elements in a separate region.
+ * Primitive values are stored in place, references as object IDs,
+ * and all other data values as the {@link EcoreUtil#convertToString(EDataType, Object) string representation}
+ * from which they are {@link EcoreUtil#createFromString(EDataType, String) recreated}.
+ * Strings and blocks of list elements are allocated in power of two sizes,
+ * and those that are replaced or removed are kept in free lists from which later allocations of the same size are taken,
+ * so repeatedly changing values doesn't grow the store.
+ * Objects that are no longer needed can be {@link #release(EObject) released} so that their IDs and slots are reused.
+ * References to objects that are not facades of this store are kept on the heap
+ * and are persisted as {@link InternalEObject#eProxyURI() proxies}.
+ * Feature maps are not supported.
+ * </p>
+ * <p>
+ * A store created for a {@link #ColumnarEStoreImpl(File, EPackage.Registry) directory}
+ * maps the columns to files in that directory,
+ * and the objects and their values are available again when the store is reopened after being {@link #close() closed}.
+ * Otherwise the columns are held in direct buffers.
+ * Like the rest of EMF, this store is not thread-safe.
+ * </p>
+ * @since 2.9
+ */
+public class ColumnarEStoreImpl implements InternalEObject.EStore
+{
+  /**
+   * A store-based object that's identified by its ID within a columnar store.
+   */
+  public static class ColumnarEStoreEObjectImpl extends EStoreEObjectImpl
+  {
+    protected int eStoreID;
+
+    protected ColumnarEStoreEObjectImpl(EClass eClass, ColumnarEStoreImpl eStore, int eStoreID)
+    {
+      super(eClass, eStore);
+      this.eStoreID = eStoreID;
+    }
+
+    /**
+     * Returns the ID of this object within its store.
+     * @return the ID of this object within its store.
+     */
+    public int eStoreID()
+    {
+      return eStoreID;
+    }
+
+    @Override
+    protected boolean eIsCaching()
+    {
+      return false;
+    }
+  }
+
+  /**
+   * A growable area of off-heap memory, allocated in chunks either directly or by mapping a file.
+   */
+  protected static class Region
+  {
+    protected static final int CHUNK_SHIFT = 22;
+
+    protected static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * The initial size of a chunk held in a direct buffer, which grows as needed up to the chunk size,
+     * so that a small region uses little memory.
+     */
+    protected static final int MINIMUM_DIRECT_CHUNK_SIZE = 256;
+
+    protected final FileChannel channel;
+
+    protected ByteBuffer [] chunks = new ByteBuffer [4];
+
+    public Region(FileChannel channel)
+    {
+      this.channel = channel;
+    }
+
+    /**
+     * Returns the chunk holding the given number of bytes at the address,
+     * or <code>null</code> if there is none and it's not to be created, in which case the bytes are all zero.
+     */
+    protected ByteBuffer getChunk(long address, int length, boolean create)
+    {
+      int index = (int)(address >>> CHUNK_SHIFT);
+      if (index >= chunks.length)
+      {
+        if (!create && !isMapped(index))
+        {
+          return null;
+        }
+        ByteBuffer [] newChunks = new ByteBuffer [Math.max(index + 1, 2 * chunks.length)];
+        System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+        chunks = newChunks;
+      }
+
+      ByteBuffer chunk = chunks[index];
+      int end = (int)(address & CHUNK_MASK) + length;
+      if (chunk == null || chunk.capacity() < end)
+      {
+        if (channel == null)
+        {
+          if (!create)
+          {
+            return null;
+          }
+          int capacity = chunk == null ? MINIMUM_DIRECT_CHUNK_SIZE : chunk.capacity();
+          while (capacity < end)
+          {
+            capacity <<= 1;
+          }
+          ByteBuffer newChunk = ByteBuffer.allocateDirect(capacity);
+          if (chunk != null)
+          {
+            chunk.clear();
+            newChunk.put(chunk);
+          }
+          chunk = newChunk;
+        }
+        else
+        {
+          if (!create && !isMapped(index))
+          {
+            return null;
+          }
+          try
+          {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long)index << CHUNK_SHIFT, CHUNK_SIZE);
+          }
+          catch (IOException exception)
+          {
+            throw new WrappedException(exception);
+          }
+        }
+        chunks[index] = chunk;
+      }
+      return chunk;
+    }
+
+    protected boolean isMapped(int index)
+    {
+      try
+      {
+        return channel != null && channel.size() > (long)index << CHUNK_SHIFT;
+      }
+      catch (IOException exception)
+      {
+        throw new WrappedException(exception);
+      }
+    }
+
+    public byte getByte(long address)
+    {
+      ByteBuffer chunk = getChunk(address, 1, false);
+      return chunk == null ? 0 : chunk.get((int)(address & CHUNK_MASK));
+    }
+
+    public void putByte(long address, byte value)
+    {
+      getChunk(address, 1, true).put((int)(address & CHUNK_MASK), value);
+    }
+
+    public char getChar(long address)
+    {
+      ByteBuffer chunk = getChunk(address, 2, false);
+      return chunk == null ? 0 : chunk.getChar((int)(address & CHUNK_MASK));
+    }
+
+    public void putChar(long address, char value)
+    {
+      getChunk(address, 2, true).putChar((int)(address & CHUNK_MASK), value);
+    }
+
+    public int getInt(long address)
+    {
+      ByteBuffer chunk = getChunk(address, 4, false);
+      return chunk == null ? 0 : chunk.getInt((int)(address & CHUNK_MASK));
+    }
+
+    public void putInt(long address, int value)
+    {
+      getChunk(address, 4, true).putInt((int)(address & CHUNK_MASK), value);
+    }
+
+    public long getLong(long address)
+    {
+      ByteBuffer chunk = getChunk(address, 8, false);
+      return chunk == null ? 0L : chunk.getLong((int)(address & CHUNK_MASK));
+    }
+
+    public void putLong(long address, long value)
+    {
+      getChunk(address, 8, true).putLong((int)(address & CHUNK_MASK), value);
+    }
+
+    public void force()
+    {
+      for (ByteBuffer chunk : chunks)
+      {
+        if (chunk instanceof MappedByteBuffer)
+        {
+          ((MappedByteBuffer)chunk).force();
+        }
+      }
+    }
+
+    public void close() throws IOException
+    {
+      chunks = null;
+      if (channel != null)
+      {
+        channel.close();
+      }
+    }
+  }
+
+  protected static final int KIND_BOOLEAN = 0;
+  protected static final int KIND_BYTE = 1;
+  protected static final int KIND_CHAR = 2;
+  protected static final int KIND_SHORT = 3;
+  protected static final int KIND_INT = 4;
+  protected static final int KIND_LONG = 5;
+  protected static final int KIND_FLOAT = 6;
+  protected static final int KIND_DOUBLE = 7;
+  protected static final int KIND_REFERENCE = 8;
+  protected static final int KIND_DATA = 9;
+
+  /**
+   * A stack of freed IDs, slots, or addresses that are available for reuse.
+   */
+  protected static class FreeList
+  {
+    protected long [] data = new long [16];
+
+    protected int size;
+
+    public void push(long value)
+    {
+      if (size == data.length)
+      {
+        long [] newData = new long [2 * size];
+        System.arraycopy(data, 0, newData, 0, size);
+        data = newData;
+      }
+      data[size++] = value;
+    }
+
+    /**
+     * Removes and returns the most recently pushed value, or returns <code>-1</code> if there is none.
+     */
+    public long pop()
+    {
+      return size == 0 ? -1 : data[--size];
+    }
+
+    public int size()
+    {
+      return size;
+    }
+
+    public long get(int index)
+    {
+      return data[index];
+    }
+  }
+
+  /**
+   * The objects of one class, each of which has a slot in the {@link Column columns} of the class.
+   */
+  protected static class Table
+  {
+    protected final EClass eClass;
+
+    /**
+     * The columns of the features of the class, indexed by feature ID, which are created on demand.
+     */
+    protected Column [] columns;
+
+    /**
+     * The number of slots allocated so far.
+     */
+    protected int slotLimit;
+
+    protected final FreeList freeSlots = new FreeList();
+
+    public Table(EClass eClass)
+    {
+      this.eClass = eClass;
+    }
+  }
+
+  /**
+   * The values of one feature for all objects of one class.
+   */
+  protected static class Column
+  {
+    protected final int index;
+
+    protected final Table table;
+
+    protected final EStructuralFeature feature;
+
+    protected final int kind;
+
+    protected final Class<?> wrapperClass;
+
+    protected final boolean isMany;
+
+    protected final boolean isContainment;
+
+    /**
+     * The value of each slot, or the header of each slot's list, i.e., the element offset, the size, and the capacity.
+     */
+    protected final Region values;
+
+    /**
+     * A byte for each slot that records whether the feature is set.
+     */
+    protected final Region flags;
+
+    /**
+     * The elements of the lists.
+     */
+    protected final Region elements;
+
+    protected long elementsSize;
+
+    /**
+     * The freed blocks of the element region, indexed by the base two logarithm of their capacity.
+     */
+    protected final FreeList [] freeBlocks;
+
+    public Column(int index, Table table, EStructuralFeature feature, Region values, Region flags, Region elements)
+    {
+      this.index = index;
+      this.table = table;
+      this.feature = feature;
+      freeBlocks = elements == null ? null : new FreeList [32];
+      this.values = values;
+      this.flags = flags;
+      this.elements = elements;
+      isMany = feature.isMany();
+      isContainment = feature instanceof EReference && ((EReference)feature).isContainment();
+
+      EClassifier eType = feature.getEType();
+      Class<?> instanceClass = eType.getInstanceClass();
+      if (feature instanceof EReference)
+      {
+        kind = KIND_REFERENCE;
+        wrapperClass = null;
+      }
+      else if (instanceClass == boolean.class)
+      {
+        kind = KIND_BOOLEAN;
+        wrapperClass = Boolean.class;
+      }
+      else if (instanceClass == byte.class)
+      {
+        kind = KIND_BYTE;
+        wrapperClass = Byte.class;
+      }
+      else if (instanceClass == char.class)
+      {
+        kind = KIND_CHAR;
+        wrapperClass = Character.class;
+      }
+      else if (instanceClass == short.class)
+      {
+        kind = KIND_SHORT;
+        wrapperClass = Short.class;
+      }
+      else if (instanceClass == int.class)
+      {
+        kind = KIND_INT;
+        wrapperClass = Integer.class;
+      }
+      else if (instanceClass == long.class)
+      {
+        kind = KIND_LONG;
+        wrapperClass = Long.class;
+      }
+      else if (instanceClass == float.class)
+      {
+        kind = KIND_FLOAT;
+        wrapperClass = Float.class;
+      }
+      else if (instanceClass == double.class)
+      {
+        kind = KIND_DOUBLE;
+        wrapperClass = Double.class;
+      }
+      else
+      {
+        kind = KIND_DATA;
+        wrapperClass = null;
+      }
+    }
+  }
+
+  /**
+   * A weak reference to a facade that remembers the facade's ID.
+   */
+  protected static class FacadeReference extends WeakReference<ColumnarEStoreEObjectImpl>
+  {
+    protected final int id;
+
+    public FacadeReference(ColumnarEStoreEObjectImpl facade, ReferenceQueue<ColumnarEStoreEObjectImpl> queue)
+    {
+      super(facade, queue);
+      id = facade.eStoreID;
+    }
+  }
+
+  protected static final int CATALOG_VERSION = 2;
+
+  /**
+   * The size of an object's entry in the {@link #objects} region,
+   * i.e., the class index, the container ID, the containing column index, and the slot within the class's {@link Table table}.
+   */
+  protected static final int OBJECT_ENTRY_SIZE = 16;
+
+  protected static final int LIST_HEADER_SIZE = 16;
+
+  protected static final long NULL_STRING = -1;
+
+  /**
+   * The directory holding the files of the store, or <code>null</code> if the store isn't persistent.
+   */
+  protected final File directory;
+
+  protected final EPackage.Registry packageRegistry;
+
+  protected final Region objects;
+
+  /**
+   * The strings of the data values.
+   */
+  protected final Region strings;
+
+  protected long stringsSize;
+
+  /**
+   * The freed strings, indexed by the base two logarithm of their size.
+   */
+  protected final FreeList [] freeStrings = new FreeList [64];
+
+  protected int nextID = 1;
+
+  protected final FreeList freeIDs = new FreeList();
+
+  protected final List<EClass> classes = new ArrayList<EClass>();
+
+  protected final Map<EClass, Integer> classIndices = new HashMap<EClass, Integer>();
+
+  /**
+   * The table of each class, indexed by class index.
+   */
+  protected final List<Table> tables = new ArrayList<Table>();
+
+  protected final List<Column> columns = new ArrayList<Column>();
+
+  /**
+   * The referenced objects that aren't facades of this store;
+   * an entry is <code>null</code> until the corresponding proxy is created after reopening the store.
+   */
+  protected final List<InternalEObject> externals = new ArrayList<InternalEObject>();
+
+  protected final Map<InternalEObject, Integer> externalIndices = new IdentityHashMap<InternalEObject, Integer>();
+
+  protected final List<Integer> externalClassIndices = new ArrayList<Integer>();
+
+  protected final List<String> externalProxyURIs = new ArrayList<String>();
+
+  protected final Map<Integer, FacadeReference> facades = new HashMap<Integer, FacadeReference>();
+
+  protected final ReferenceQueue<ColumnarEStoreEObjectImpl> facadeQueue = new ReferenceQueue<ColumnarEStoreEObjectImpl>();
+
+  /**
+   * Creates a store whose columns are held in direct buffers.
+   */
+  public ColumnarEStoreImpl()
+  {
+    directory = null;
+    packageRegistry = null;
+    objects = new Region(null);
+    strings = new Region(null);
+  }
+
+  /**
+   * Creates a store whose columns are mapped to files in the given directory,
+   * reopening the store previously {@link #close() closed} in that directory, if there is one.
+   * @param directory the directory for the files of the store.
+   * @param packageRegistry the registry used to find the packages of the classes in a reopened store.
+   * @throws IOException if the files can't be opened or the classes of a reopened store can't be found.
+   */
+  public ColumnarEStoreImpl(File directory, EPackage.Registry packageRegistry) throws IOException
+  {
+    this.directory = directory;
+    this.packageRegistry = packageRegistry;
+    directory.mkdirs();
+    objects = createRegion("objects");
+    strings = createRegion("strings");
+    File catalog = new File(directory, "catalog");
+    if (catalog.exists())
+    {
+      readCatalog(catalog);
+    }
+  }
+
+  protected Region createRegion(String name) throws IOException
+  {
+    return new Region(directory == null ? null : new RandomAccessFile(new File(directory, name), "rw").getChannel());
+  }
+
+  protected void readCatalog(File catalog) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(catalog)));
+    try
+    {
+      if (input.readInt() != CATALOG_VERSION)
+      {
+        throw new IOException("Unsupported catalog version in " + directory);
+      }
+      nextID = input.readInt();
+      readFreeList(input, freeIDs);
+      stringsSize = input.readLong();
+      readFreeLists(input, freeStrings);
+
+      for (int i = 0, size = input.readInt(); i < size; ++i)
+      {
+        String nsURI = input.readUTF();
+        String name = input.readUTF();
+        EPackage ePackage = packageRegistry.getEPackage(nsURI);
+        EClassifier eClassifier = ePackage == null ? null : ePackage.getEClassifier(name);
+        if (!(eClassifier instanceof EClass))
+        {
+          throw new IOException("The class '" + name + "' of package '" + nsURI + "' can't be found");
+        }
+        Table table = tables.get(getClassIndex((EClass)eClassifier));
+        table.slotLimit = input.readInt();
+        readFreeList(input, table.freeSlots);
+      }
+
+      for (int i = 0, size = input.readInt(); i < size; ++i)
+      {
+        Table table = tables.get(input.readInt());
+        String name = input.readUTF();
+        EStructuralFeature feature = table.eClass.getEStructuralFeature(name);
+        if (feature == null)
+        {
+          throw new IOException("The feature '" + name + "' of class '" + table.eClass.getName() + "' can't be found");
+        }
+        Column column = getColumn(table, feature);
+        column.elementsSize = input.readLong();
+        readFreeLists(input, column.freeBlocks);
+      }
+
+      for (int i = 0, size = input.readInt(); i < size; ++i)
+      {
+        externals.add(null);
+        externalClassIndices.add(input.readInt());
+        externalProxyURIs.add(input.readUTF());
+      }
+    }
+    finally
+    {
+      input.close();
+    }
+  }
+
+  protected void writeCatalog(File catalog) throws IOException
+  {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(catalog)));
+    try
+    {
+      output.writeInt(CATALOG_VERSION);
+      output.writeInt(nextID);
+      writeFreeList(output, freeIDs);
+      output.writeLong(stringsSize);
+      writeFreeLists(output, freeStrings);
+
+      output.writeInt(classes.size());
+      for (Table table : tables)
+      {
+        output.writeUTF(table.eClass.getEPackage().getNsURI());
+        output.writeUTF(table.eClass.getName());
+        output.writeInt(table.slotLimit);
+        writeFreeList(output, table.freeSlots);
+      }
+
+      output.writeInt(columns.size());
+      for (Column column : columns)
+      {
+        output.writeInt(getClassIndex(column.table.eClass));
+        output.writeUTF(column.feature.getName());
+        output.writeLong(column.elementsSize);
+        writeFreeLists(output, column.freeBlocks);
+      }
+
+      output.writeInt(externals.size());
+      for (int i = 0, size = externals.size(); i < size; ++i)
+      {
+        InternalEObject external = externals.get(i);
+        if (external == null)
+        {
+          output.writeInt(externalClassIndices.get(i));
+          output.writeUTF(externalProxyURIs.get(i));
+        }
+        else
+        {
+          URI uri = external.eIsProxy() ? external.eProxyURI() : EcoreUtil.getURI(external);
+          output.writeInt(getClassIndex(external.eClass()));
+          output.writeUTF(uri.toString());
+        }
+      }
+    }
+    finally
+    {
+      output.close();
+    }
+  }
+
+  protected void readFreeList(DataInputStream input, FreeList freeList) throws IOException
+  {
+    for (int i = 0, size = input.readInt(); i < size; ++i)
+    {
+      freeList.push(input.readLong());
+    }
+  }
+
+  protected void writeFreeList(DataOutputStream output, FreeList freeList) throws IOException
+  {
+    output.writeInt(freeList.size());
+    for (int i = 0, size = freeList.size(); i < size; ++i)
+    {
+      output.writeLong(freeList.get(i));
+    }
+  }
+
+  protected void readFreeLists(DataInputStream input, FreeList [] freeLists) throws IOException
+  {
+    for (int i = 0, size = input.readInt(); i < size; ++i)
+    {
+      FreeList freeList = new FreeList();
+      freeLists[input.readInt()] = freeList;
+      readFreeList(input, freeList);
+    }
+  }
+
+  protected void writeFreeLists(DataOutputStream output, FreeList [] freeLists) throws IOException
+  {
+    int count = 0;
+    if (freeLists != null)
+    {
+      for (FreeList freeList : freeLists)
+      {
+        if (freeList != null && freeList.size() != 0)
+        {
+          ++count;
+        }
+      }
+    }
+    output.writeInt(count);
+    for (int i = 0; count != 0 && i < freeLists.length; ++i)
+    {
+      if (freeLists[i] != null && freeLists[i].size() != 0)
+      {
+        output.writeInt(i);
+        writeFreeList(output, freeLists[i]);
+      }
+    }
+  }
+
+  /**
+   * Writes any changes to the files of a persistent store.
+   * @throws IOException if the files can't be written.
+   */
+  public void flush() throws IOException
+  {
+    if (directory != null)
+    {
+      objects.force();
+      strings.force();
+      for (Column column : columns)
+      {
+        column.values.force();
+        column.flags.force();
+        if (column.elements != null)
+        {
+          column.elements.force();
+        }
+      }
+      writeCatalog(new File(directory, "catalog"));
+    }
+  }
+
+  /**
+   * {@link #flush() Flushes} and releases the files of the store; the store must not be used afterwards.
+   * @throws IOException if the files can't be written.
+   */
+  public void close() throws IOException
+  {
+    flush();
+    objects.close();
+    strings.close();
+    for (Column column : columns)
+    {
+      column.values.close();
+      column.flags.close();
+      if (column.elements != null)
+      {
+        column.elements.close();
+      }
+    }
+  }
+
+  protected int getClassIndex(EClass eClass)
+  {
+    Integer result = classIndices.get(eClass);
+    if (result == null)
+    {
+      result = classes.size();
+      classes.add(eClass);
+      classIndices.put(eClass, result);
+      tables.add(new Table(eClass));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the column of the feature in the table of the class of the object with the given ID.
+   */
+  protected Column getColumn(int id, EStructuralFeature feature)
+  {
+    return getColumn(tables.get(objects.getInt((long)id * OBJECT_ENTRY_SIZE) - 1), feature);
+  }
+
+  protected Column getColumn(Table table, EStructuralFeature feature)
+  {
+    int featureID = table.eClass.getFeatureID(feature);
+    if (featureID < 0)
+    {
+      throw new IllegalArgumentException("The feature '" + feature.getName() + "' is not a feature of class '" + table.eClass.getName() + "'");
+    }
+    if (table.columns == null)
+    {
+      table.columns = new Column [table.eClass.getFeatureCount()];
+    }
+
+    Column result = table.columns[featureID];
+    if (result == null)
+    {
+      if (FeatureMapUtil.isFeatureMap(feature))
+      {
+        throw new UnsupportedOperationException("Feature maps are not supported: " + feature.getName());
+      }
+
+      int index = columns.size();
+      try
+      {
+        result =
+          new Column
+            (index,
+             table,
+             feature,
+             createRegion(index + ".values"),
+             createRegion(index + ".flags"),
+             feature.isMany() ? createRegion(index + ".elements") : null);
+      }
+      catch (IOException exception)
+      {
+        throw new WrappedException(exception);
+      }
+      columns.add(result);
+      table.columns[featureID] = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the slot of the object with the given ID within the table of its class.
+   */
+  protected int getSlot(int id)
+  {
+    return objects.getInt((long)id * OBJECT_ENTRY_SIZE + 12);
+  }
+
+  /**
+   * Returns the number of IDs allocated so far; the IDs of the objects range from 1 to one less than this,
+   * excluding those of {@link #release(EObject) released} objects that haven't been reused yet.
+   * @return the number of IDs allocated so far.
+   */
+  public int getIDLimit()
+  {
+    return nextID;
+  }
+
+  /**
+   * Returns the ID of the object, allocating one if the object is a facade for this store without one,
+   * or 0 if the object isn't a facade of this store.
+   * @param eObject the object in question.
+   * @return the ID of the object.
+   */
+  public int getID(EObject eObject)
+  {
+    if (eObject instanceof ColumnarEStoreEObjectImpl)
+    {
+      ColumnarEStoreEObjectImpl facade = (ColumnarEStoreEObjectImpl)eObject;
+      if (facade.eStore() == this)
+      {
+        if (facade.eStoreID == 0)
+        {
+          facade.eStoreID = allocateID(facade.eClass());
+          putFacade(facade);
+        }
+        else if (facade.eStoreID < 0)
+        {
+          throw new IllegalStateException("The object has been released: " + facade);
+        }
+        return facade.eStoreID;
+      }
+    }
+    return 0;
+  }
+
+  protected int allocateID(EClass eClass)
+  {
+    int classIndex = getClassIndex(eClass);
+    Table table = tables.get(classIndex);
+    long freeSlot = table.freeSlots.pop();
+    int slot = freeSlot == -1 ? table.slotLimit++ : (int)freeSlot;
+    long freeID = freeIDs.pop();
+    int id = freeID == -1 ? nextID++ : (int)freeID;
+    long address = (long)id * OBJECT_ENTRY_SIZE;
+    objects.putInt(address, classIndex + 1);
+    objects.putInt(address + 12, slot);
+    return id;
+  }
+
+  /**
+   * Releases the object and its contents
+   * so that their IDs, their slots, and the space used by their values are reused by objects created later.
+   * The object must not be contained by another object,
+   * there must be no remaining references to the released objects,
+   * and their facades must no longer be used.
+   * @param eObject a facade of this store that isn't contained by another object.
+   */
+  public void release(EObject eObject)
+  {
+    int id = getExistingID((InternalEObject)eObject);
+    if (objects.getInt((long)id * OBJECT_ENTRY_SIZE + 4) != 0)
+    {
+      throw new IllegalArgumentException("The object is contained by another object: " + eObject);
+    }
+
+    FreeList ids = new FreeList();
+    ids.push(id);
+    for (long next = ids.pop(); next != -1; next = ids.pop())
+    {
+      releaseID((int)next, ids);
+    }
+  }
+
+  /**
+   * Releases the object with the given ID, adding the IDs of its children to the given list.
+   */
+  protected void releaseID(int id, FreeList children)
+  {
+    long address = (long)id * OBJECT_ENTRY_SIZE;
+    Table table = tables.get(objects.getInt(address) - 1);
+    int slot = objects.getInt(address + 12);
+    if (table.columns != null)
+    {
+      for (Column column : table.columns)
+      {
+        if (column != null)
+        {
+          if (column.isMany)
+          {
+            long headerAddress = getHeaderAddress(slot);
+            int capacity = column.values.getInt(headerAddress + 12);
+            if (capacity != 0)
+            {
+              long offset = column.values.getLong(headerAddress);
+              for (int i = 0, size = column.values.getInt(headerAddress + 8); i < size; ++i)
+              {
+                releaseValue(column, column.elements.getLong(offset + 8L * i), children);
+              }
+              freeBlock(column, offset, capacity);
+              clearHeader(column, slot);
+            }
+          }
+          else if (isFlagged(column, slot))
+          {
+            releaseValue(column, column.values.getLong((long)slot * 8), children);
+            column.values.putLong((long)slot * 8, 0);
+          }
+          setFlagged(column, slot, false);
+        }
+      }
+    }
+
+    for (int i = 0; i < OBJECT_ENTRY_SIZE; i += 4)
+    {
+      objects.putInt(address + i, 0);
+    }
+    table.freeSlots.push(slot);
+    freeIDs.push(id);
+
+    FacadeReference reference = facades.remove(id);
+    if (reference != null)
+    {
+      ColumnarEStoreEObjectImpl facade = reference.get();
+      if (facade != null)
+      {
+        facade.eStoreID = -1;
+      }
+    }
+  }
+
+  protected void releaseValue(Column column, long value, FreeList children)
+  {
+    if (column.kind == KIND_DATA)
+    {
+      freeString(value);
+    }
+    else if (column.isContainment && value > 0)
+    {
+      children.push(value);
+    }
+  }
+
+  /**
+   * Returns the number of bytes of the string region and of the element regions that have been allocated,
+   * including those of freed strings and blocks that are available for reuse.
+   * @return the number of bytes allocated for strings and list elements.
+   */
+  public long getAllocatedSize()
+  {
+    long result = stringsSize;
+    for (Column column : columns)
+    {
+      result += column.elementsSize;
+    }
+    return result;
+  }
+
+  protected int getExistingID(InternalEObject eObject)
+  {
+    int result = getID(eObject);
+    if (result == 0)
+    {
+      throw new IllegalArgumentException("The object is not a facade of this store: " + eObject);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the object with the given ID, creating a new facade if there currently is none.
+   * @param id the ID of the object.
+   * @return the object with the given ID, or <code>null</code> if there is no such object.
+   */
+  public EObject getEObject(int id)
+  {
+    for (FacadeReference reference = (FacadeReference)facadeQueue.poll(); reference != null; reference = (FacadeReference)facadeQueue.poll())
+    {
+      if (facades.get(reference.id) == reference)
+      {
+        facades.remove(reference.id);
+      }
+    }
+
+    if (id <= 0 || id >= nextID)
+    {
+      return null;
+    }
+
+    FacadeReference reference = facades.get(id);
+    ColumnarEStoreEObjectImpl result = reference == null ? null : reference.get();
+    if (result == null)
+    {
+      int classIndex = objects.getInt((long)id * OBJECT_ENTRY_SIZE) - 1;
+      if (classIndex < 0)
+      {
+        return null;
+      }
+      result = createFacade(classes.get(classIndex), id);
+      putFacade(result);
+    }
+    return result;
+  }
+
+  protected void putFacade(ColumnarEStoreEObjectImpl facade)
+  {
+    facades.put(facade.eStoreID, new FacadeReference(facade, facadeQueue));
+  }
+
+  /**
+   * Creates the facade for the object with the given ID.
+   * @param eClass the class of the object.
+   * @param id the ID of the object.
+   * @return a new facade.
+   */
+  protected ColumnarEStoreEObjectImpl createFacade(EClass eClass, int id)
+  {
+    return new ColumnarEStoreEObjectImpl(eClass, this, id);
+  }
+
+  public EObject create(EClass eClass)
+  {
+    ColumnarEStoreEObjectImpl result = createFacade(eClass, allocateID(eClass));
+    putFacade(result);
+    return result;
+  }
+
+  public InternalEObject getContainer(InternalEObject object)
+  {
+    int containerID = objects.getInt((long)getExistingID(object) * OBJECT_ENTRY_SIZE + 4);
+    return (InternalEObject)getEObject(containerID);
+  }
+
+  public EStructuralFeature getContainingFeature(InternalEObject object)
+  {
+    int columnIndex = objects.getInt((long)getExistingID(object) * OBJECT_ENTRY_SIZE + 8) - 1;
+    return columnIndex < 0 ? null : columns.get(columnIndex).feature;
+  }
+
+  /**
+   * Records the container of the child.
+   * A facade initializes its container from the store on first access,
+   * so the child's container is initialized first
+   * to ensure that the child sees its old container when it's removed from that container as a result of being added to the new one.
+   */
+  protected void setContainer(Column column, long encodedChild, int containerID)
+  {
+    if (encodedChild > 0)
+    {
+      ((InternalEObject)getEObject((int)encodedChild)).eInternalContainer();
+      long address = encodedChild * OBJECT_ENTRY_SIZE;
+      objects.putInt(address + 4, containerID);
+      objects.putInt(address + 8, column.index + 1);
+    }
+  }
+
+  protected void clearContainer(Column column, long encodedChild, int containerID)
+  {
+    if (encodedChild > 0)
+    {
+      long address = encodedChild * OBJECT_ENTRY_SIZE;
+      if (objects.getInt(address + 4) == containerID && objects.getInt(address + 8) == column.index + 1)
+      {
+        objects.putInt(address + 4, 0);
+        objects.putInt(address + 8, 0);
+      }
+    }
+  }
+
+  /**
+   * Returns the base two logarithm of the size of the block that holds a string of the given length.
+   */
+  protected int getStringSizeClass(int length)
+  {
+    return Math.max(3, 64 - Long.numberOfLeadingZeros(4L + 2L * length - 1));
+  }
+
+  protected long putString(String value)
+  {
+    int length = value.length();
+    int sizeClass = getStringSizeClass(length);
+    FreeList freeList = freeStrings[sizeClass];
+    long address = freeList == null ? -1 : freeList.pop();
+    if (address == -1)
+    {
+      address = stringsSize;
+      stringsSize += 1L << sizeClass;
+    }
+    strings.putInt(address, length);
+    for (int i = 0; i < length; ++i)
+    {
+      strings.putChar(address + 4 + 2 * i, value.charAt(i));
+    }
+    return address;
+  }
+
+  /**
+   * Makes the string at the address available for reuse.
+   */
+  protected void freeString(long address)
+  {
+    if (address != NULL_STRING)
+    {
+      int sizeClass = getStringSizeClass(strings.getInt(address));
+      FreeList freeList = freeStrings[sizeClass];
+      if (freeList == null)
+      {
+        freeList = freeStrings[sizeClass] = new FreeList();
+      }
+      freeList.push(address);
+    }
+  }
+
+  protected String getString(long address)
+  {
+    int length = strings.getInt(address);
+    char [] result = new char [length];
+    for (int i = 0; i < length; ++i)
+    {
+      result[i] = strings.getChar(address + 4 + 2 * i);
+    }
+    return new String(result);
+  }
+
+  /**
+   * Returns the representation of the value in the column.
+   */
+  protected long encode(Column column, Object value)
+  {
+    switch (column.kind)
+    {
+      case KIND_BOOLEAN:
+      {
+        return Boolean.TRUE.equals(value) ? 1 : 0;
+      }
+      case KIND_CHAR:
+      {
+        return value == null ? 0 : ((Character)value).charValue();
+      }
+      case KIND_BYTE:
+      case KIND_SHORT:
+      case KIND_INT:
+      case KIND_LONG:
+      {
+        return value == null ? 0 : ((Number)value).longValue();
+      }
+      case KIND_FLOAT:
+      {
+        return value == null ? 0 : Float.floatToRawIntBits(((Float)value).floatValue());
+      }
+      case KIND_DOUBLE:
+      {
+        return value == null ? 0 : Double.doubleToRawLongBits(((Double)value).doubleValue());
+      }
+      case KIND_REFERENCE:
+      {
+        return encodeReference((InternalEObject)value, true);
+      }
+      default:
+      {
+        return value == null ? NULL_STRING : putString(EcoreUtil.convertToString((EDataType)column.feature.getEType(), value));
+      }
+    }
+  }
+
+  /**
+   * Returns the representation of the reference, or {@link Long#MIN_VALUE} if it's not known and isn't to be added.
+   */
+  protected long encodeReference(InternalEObject value, boolean add)
+  {
+    if (value == null)
+    {
+      return 0;
+    }
+
+    int id = getID(value);
+    if (id != 0)
+    {
+      return id;
+    }
+
+    Integer index = externalIndices.get(value);
+    if (index == null)
+    {
+      if (!add)
+      {
+        return Long.MIN_VALUE;
+      }
+      index = externals.size();
+      externals.add(value);
+      externalIndices.put(value, index);
+      externalClassIndices.add(getClassIndex(value.eClass()));
+      externalProxyURIs.add(null);
+    }
+    return -1L - index;
+  }
+
+  protected Object decode(Column column, long value)
+  {
+    switch (column.kind)
+    {
+      case KIND_BOOLEAN:
+      {
+        return value != 0 ? Boolean.TRUE : Boolean.FALSE;
+      }
+      case KIND_BYTE:
+      {
+        return (byte)value;
+      }
+      case KIND_CHAR:
+      {
+        return (char)value;
+      }
+      case KIND_SHORT:
+      {
+        return (short)value;
+      }
+      case KIND_INT:
+      {
+        return (int)value;
+      }
+      case KIND_LONG:
+      {
+        return value;
+      }
+      case KIND_FLOAT:
+      {
+        return Float.intBitsToFloat((int)value);
+      }
+      case KIND_DOUBLE:
+      {
+        return Double.longBitsToDouble(value);
+      }
+      case KIND_REFERENCE:
+      {
+        return decodeReference(value);
+      }
+      default:
+      {
+        return value == NULL_STRING ? null : EcoreUtil.createFromString((EDataType)column.feature.getEType(), getString(value));
+      }
+    }
+  }
+
+  protected EObject decodeReference(long value)
+  {
+    if (value >= 0)
+    {
+      return getEObject((int)value);
+    }
+    else
+    {
+      int index = (int)(-1L - value);
+      InternalEObject result = externals.get(index);
+      if (result == null)
+      {
+        result = (InternalEObject)EcoreUtil.create(classes.get(externalClassIndices.get(index)));
+        result.eSetProxyURI(URI.createURI(externalProxyURIs.get(index)));
+        externals.set(index, result);
+        externalIndices.put(result, index);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns whether the value, which is not a data value, can be represented in the column.
+   */
+  protected boolean isEncodable(Column column, Object value)
+  {
+    return
+      column.kind == KIND_REFERENCE ?
+        value == null || value instanceof InternalEObject :
+        column.wrapperClass.isInstance(value);
+  }
+
+  protected boolean isFlagged(Column column, int slot)
+  {
+    return column.flags.getByte(slot) != 0;
+  }
+
+  protected void setFlagged(Column column, int slot, boolean flagged)
+  {
+    column.flags.putByte(slot, flagged ? (byte)1 : (byte)0);
+  }
+
+  protected long getHeaderAddress(int slot)
+  {
+    return (long)slot * LIST_HEADER_SIZE;
+  }
+
+  protected void clearHeader(Column column, int slot)
+  {
+    long headerAddress = getHeaderAddress(slot);
+    column.values.putLong(headerAddress, 0);
+    column.values.putInt(headerAddress + 8, 0);
+    column.values.putInt(headerAddress + 12, 0);
+  }
+
+  protected int getSize(Column column, int slot)
+  {
+    return column.values.getInt(getHeaderAddress(slot) + 8);
+  }
+
+  protected long getElementAddress(Column column, int slot, int index)
+  {
+    return column.values.getLong(getHeaderAddress(slot)) + 8L * index;
+  }
+
+  protected void checkIndex(int index, int size)
+  {
+    if (index < 0 || index >= size)
+    {
+      throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+    }
+  }
+
+  /**
+   * Returns the offset of a block of the element region with room for the given power of two number of elements,
+   * reusing a freed block if there is one.
+   */
+  protected long allocateBlock(Column column, int capacity)
+  {
+    FreeList freeList = column.freeBlocks[Integer.numberOfTrailingZeros(capacity)];
+    long result = freeList == null ? -1 : freeList.pop();
+    if (result == -1)
+    {
+      result = column.elementsSize;
+      column.elementsSize += 8L * capacity;
+    }
+    return result;
+  }
+
+  /**
+   * Makes the block of the element region available for reuse.
+   */
+  protected void freeBlock(Column column, long offset, int capacity)
+  {
+    int sizeClass = Integer.numberOfTrailingZeros(capacity);
+    FreeList freeList = column.freeBlocks[sizeClass];
+    if (freeList == null)
+    {
+      freeList = column.freeBlocks[sizeClass] = new FreeList();
+    }
+    freeList.push(offset);
+  }
+
+  /**
+   * Ensures that the list has room for the given number of elements,
+   * moving the elements to a new larger block of the element region if necessary
+   * and freeing the old block.
+   */
+  protected void ensureCapacity(Column column, int slot, int minimumCapacity)
+  {
+    long headerAddress = getHeaderAddress(slot);
+    int capacity = column.values.getInt(headerAddress + 12);
+    if (capacity < minimumCapacity)
+    {
+      int newCapacity = Math.max(4, capacity * 2);
+      while (newCapacity < minimumCapacity)
+      {
+        newCapacity <<= 1;
+      }
+      long offset = column.values.getLong(headerAddress);
+      long newOffset = allocateBlock(column, newCapacity);
+      Region elements = column.elements;
+      for (int i = 0, size = column.values.getInt(headerAddress + 8); i < size; ++i)
+      {
+        elements.putLong(newOffset + 8L * i, elements.getLong(offset + 8L * i));
+      }
+      if (capacity != 0)
+      {
+        freeBlock(column, offset, capacity);
+      }
+      column.values.putLong(headerAddress, newOffset);
+      column.values.putInt(headerAddress + 12, newCapacity);
+    }
+  }
+
+  public Object get(InternalEObject object, EStructuralFeature feature, int index)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    if (index == NO_INDEX)
+    {
+      return isFlagged(column, slot) ? decode(column, column.values.getLong((long)slot * 8)) : null;
+    }
+    else
+    {
+      checkIndex(index, getSize(column, slot));
+      return decode(column, column.elements.getLong(getElementAddress(column, slot, index)));
+    }
+  }
+
+  public Object set(InternalEObject object, EStructuralFeature feature, int index, Object value)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    long encodedValue = encode(column, value);
+    long address;
+    Region region;
+    Object oldValue;
+    boolean hasOldValue;
+    if (index == NO_INDEX)
+    {
+      address = (long)slot * 8;
+      region = column.values;
+      hasOldValue = isFlagged(column, slot);
+      oldValue = hasOldValue ? decode(column, region.getLong(address)) : null;
+      setFlagged(column, slot, true);
+    }
+    else
+    {
+      checkIndex(index, getSize(column, slot));
+      address = getElementAddress(column, slot, index);
+      region = column.elements;
+      hasOldValue = true;
+      oldValue = decode(column, region.getLong(address));
+    }
+
+    if (column.isContainment)
+    {
+      clearContainer(column, region.getLong(address), id);
+      setContainer(column, encodedValue, id);
+    }
+    else if (column.kind == KIND_DATA && hasOldValue)
+    {
+      freeString(region.getLong(address));
+    }
+    region.putLong(address, encodedValue);
+    return oldValue;
+  }
+
+  public boolean isSet(InternalEObject object, EStructuralFeature feature)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    if (feature.isUnsettable())
+    {
+      return isFlagged(column, slot);
+    }
+    else if (column.isMany)
+    {
+      return getSize(column, slot) != 0;
+    }
+    else if (isFlagged(column, slot))
+    {
+      Object value = decode(column, column.values.getLong((long)slot * 8));
+      Object defaultValue = feature.getDefaultValue();
+      return value == null ? defaultValue != null : !value.equals(defaultValue);
+    }
+    else
+    {
+      return false;
+    }
+  }
+
+  public void unset(InternalEObject object, EStructuralFeature feature)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    if (column.isMany)
+    {
+      clear(object, feature);
+    }
+    else
+    {
+      long address = (long)slot * 8;
+      if (isFlagged(column, slot))
+      {
+        long value = column.values.getLong(address);
+        if (column.isContainment)
+        {
+          clearContainer(column, value, id);
+        }
+        else if (column.kind == KIND_DATA)
+        {
+          freeString(value);
+        }
+      }
+      column.values.putLong(address, 0);
+    }
+    setFlagged(column, slot, false);
+  }
+
+  public boolean isEmpty(InternalEObject object, EStructuralFeature feature)
+  {
+    return size(object, feature) == 0;
+  }
+
+  public int size(InternalEObject object, EStructuralFeature feature)
+  {
+    int id = getExistingID(object);
+    return getSize(getColumn(id, feature), getSlot(id));
+  }
+
+  public boolean contains(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    return indexOf(object, feature, value) != -1;
+  }
+
+  public int indexOf(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    if (size != 0)
+    {
+      long offset = getElementAddress(column, slot, 0);
+      if (column.kind == KIND_DATA)
+      {
+        for (int i = 0; i < size; ++i)
+        {
+          Object element = decode(column, column.elements.getLong(offset + 8L * i));
+          if (value == null ? element == null : value.equals(element))
+          {
+            return i;
+          }
+        }
+      }
+      else if (isEncodable(column, value))
+      {
+        long encodedValue = column.kind == KIND_REFERENCE ? encodeReference((InternalEObject)value, false) : encode(column, value);
+        for (int i = 0; i < size; ++i)
+        {
+          if (column.elements.getLong(offset + 8L * i) == encodedValue)
+          {
+            return i;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  public int lastIndexOf(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    if (size != 0)
+    {
+      long offset = getElementAddress(column, slot, 0);
+      if (column.kind == KIND_DATA)
+      {
+        for (int i = size - 1; i >= 0; --i)
+        {
+          Object element = decode(column, column.elements.getLong(offset + 8L * i));
+          if (value == null ? element == null : value.equals(element))
+          {
+            return i;
+          }
+        }
+      }
+      else if (isEncodable(column, value))
+      {
+        long encodedValue = column.kind == KIND_REFERENCE ? encodeReference((InternalEObject)value, false) : encode(column, value);
+        for (int i = size - 1; i >= 0; --i)
+        {
+          if (column.elements.getLong(offset + 8L * i) == encodedValue)
+          {
+            return i;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  public void add(InternalEObject object, EStructuralFeature feature, int index, Object value)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    if (index < 0 || index > size)
+    {
+      throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+    }
+
+    long encodedValue = encode(column, value);
+    ensureCapacity(column, slot, size + 1);
+    Region elements = column.elements;
+    long offset = getElementAddress(column, slot, 0);
+    for (int i = size; i > index; --i)
+    {
+      elements.putLong(offset + 8L * i, elements.getLong(offset + 8L * (i - 1)));
+    }
+    elements.putLong(offset + 8L * index, encodedValue);
+    column.values.putInt(getHeaderAddress(slot) + 8, size + 1);
+    setFlagged(column, slot, true);
+
+    if (column.isContainment)
+    {
+      setContainer(column, encodedValue, id);
+    }
+  }
+
+  public Object remove(InternalEObject object, EStructuralFeature feature, int index)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    checkIndex(index, size);
+
+    Region elements = column.elements;
+    long offset = getElementAddress(column, slot, 0);
+    long encodedValue = elements.getLong(offset + 8L * index);
+    Object result = decode(column, encodedValue);
+    for (int i = index + 1; i < size; ++i)
+    {
+      elements.putLong(offset + 8L * (i - 1), elements.getLong(offset + 8L * i));
+    }
+    column.values.putInt(getHeaderAddress(slot) + 8, size - 1);
+
+    if (column.isContainment)
+    {
+      clearContainer(column, encodedValue, id);
+    }
+    else if (column.kind == KIND_DATA)
+    {
+      freeString(encodedValue);
+    }
+    return result;
+  }
+
+  public Object move(InternalEObject object, EStructuralFeature feature, int targetIndex, int sourceIndex)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    checkIndex(targetIndex, size);
+    checkIndex(sourceIndex, size);
+
+    Region elements = column.elements;
+    long offset = getElementAddress(column, slot, 0);
+    long encodedValue = elements.getLong(offset + 8L * sourceIndex);
+    if (targetIndex > sourceIndex)
+    {
+      for (int i = sourceIndex; i < targetIndex; ++i)
+      {
+        elements.putLong(offset + 8L * i, elements.getLong(offset + 8L * (i + 1)));
+      }
+    }
+    else
+    {
+      for (int i = sourceIndex; i > targetIndex; --i)
+      {
+        elements.putLong(offset + 8L * i, elements.getLong(offset + 8L * (i - 1)));
+      }
+    }
+    elements.putLong(offset + 8L * targetIndex, encodedValue);
+    return decode(column, encodedValue);
+  }
+
+  public void clear(InternalEObject object, EStructuralFeature feature)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int capacity = column.values.getInt(getHeaderAddress(slot) + 12);
+    if (capacity != 0)
+    {
+      long offset = getElementAddress(column, slot, 0);
+      for (int i = 0, size = getSize(column, slot); i < size; ++i)
+      {
+        long value = column.elements.getLong(offset + 8L * i);
+        if (column.isContainment)
+        {
+          clearContainer(column, value, id);
+        }
+        else if (column.kind == KIND_DATA)
+        {
+          freeString(value);
+        }
+      }
+      freeBlock(column, offset, capacity);
+      clearHeader(column, slot);
+    }
+  }
+
+  public Object[] toArray(InternalEObject object, EStructuralFeature feature)
+  {
+    int id = getExistingID(object);
+    int slot = getSlot(id);
+    Column column = getColumn(id, feature);
+    int size = getSize(column, slot);
+    Object [] result = new Object [size];
+    if (size != 0)
+    {
+      long offset = getElementAddress(column, slot, 0);
+      for (int i = 0; i < size; ++i)
+      {
+        result[i] = decode(column, column.elements.getLong(offset + 8L * i));
+      }
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T[] toArray(InternalEObject object, EStructuralFeature feature, T[] array)
+  {
+    Object [] values = toArray(object, feature);
+    if (array.length < values.length)
+    {
+      array = (T[])Array.newInstance(array.getClass().getComponentType(), values.length);
+    }
+    System.arraycopy(values, 0, array, 0, values.length);
+    if (array.length > values.length)
+    {
+      array[values.length] = null;
+    }
+    return array;
+  }
+
+  public int hashCode(InternalEObject object, EStructuralFeature feature)
+  {
+    int hashCode = 1;
+    for (Object value : toArray(object, feature))
+    {
+      hashCode = 31 * hashCode + (value == null ? 0 : value.hashCode());
+    }
+    return hashCode;
+  }
+}
@@ -106,6 +106,12 @@ public class EClassImpl extends EClassifierImpl implements EClass, ESuperAdapter
   protected Map<EOperation, EOperation> eOperationToOverrideMap;
   protected ESuperAdapter eSuperAdapter;
 
+  /**
+   * The cached table for reflectively accessing the features of this class's instances.
+   * @since 2.9
+   */
+  protected FeatureAccessTable featureAccessTable;
+
   /**
    * <!-- begin-user-doc -->
    * <!-- end-user-doc -->
@@ -127,6 +133,16 @@ public class EClassImpl extends EClassifierImpl implements EClass, ESuperAdapter
     getEAllSuperTypes();
     getEAllGenericSuperTypes();
 
+    // Build the remaining lazily computed caches so that a frozen class is only ever read,
+    // and hence can be used by multiple threads without synchronization.
+    //
+    getEStructuralFeature("");
+    FeatureSubsetSupplier featureSubsetSupplier = (FeatureSubsetSupplier)getEAllStructuralFeatures();
+    featureSubsetSupplier.containments();
+    featureSubsetSupplier.crossReferences();
+    getOverride(null);
+    getFeatureAccessTable();
+
     getESuperAdapter().getSubclasses().clear();
     
     if (eStructuralFeatures != null)
@@ -1285,6 +1301,23 @@ public class EClassImpl extends EClassifierImpl implements EClass, ESuperAdapter
     return eNameToFeatureMap.get(name);
   }
 
+  /**
+   * Returns the table for reflectively accessing the features of this class's instances,
+   * creating it if the features have changed since it was last created.
+   * @return the table for reflectively accessing the features of this class's instances.
+   * @see FeatureAccessTable#getFeatureAccessTable(EClass)
+   * @since 2.9
+   */
+  public FeatureAccessTable getFeatureAccessTable()
+  {
+    FeatureAccessTable result = featureAccessTable;
+    if (result == null)
+    {
+      featureAccessTable = result = new FeatureAccessTable(this);
+    }
+    return result;
+  }
+
   protected EOperation[] getEAllOperationsData()
   {
     if (eAllOperationsData == null)
@@ -2138,6 +2171,7 @@ public class EClassImpl extends EClassifierImpl implements EClass, ESuperAdapter
             {
               eAllStructuralFeatures = null;
               eAllStructuralFeaturesData = null;
+              featureAccessTable = null;
             }
             if (isAllOperationsCollectionModified())
             {
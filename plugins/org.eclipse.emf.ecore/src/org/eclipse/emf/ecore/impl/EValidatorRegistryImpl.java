@@ -12,6 +12,7 @@ package org.eclipse.emf.ecore.impl;
 
 
 import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.EValidator;
@@ -28,6 +29,13 @@ public class EValidatorRegistryImpl extends HashMap<EPackage, Object> implements
 
   protected EValidator.Registry delegateRegistry;
 
+  /**
+   * The number of times this registry has been modified.
+   * @see #getModificationCount()
+   * @since 2.9
+   */
+  protected volatile int modificationCount;
+
   public EValidatorRegistryImpl()
   {
     super();
@@ -74,6 +82,59 @@ public class EValidatorRegistryImpl extends HashMap<EPackage, Object> implements
     return key == null ? EObjectValidator.INSTANCE : null;
   }
 
+  @Override
+  public Object put(EPackage key, Object value)
+  {
+    ++modificationCount;
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends EPackage, ? extends Object> map)
+  {
+    ++modificationCount;
+    super.putAll(map);
+  }
+
+  @Override
+  public Object remove(Object key)
+  {
+    ++modificationCount;
+    return super.remove(key);
+  }
+
+  @Override
+  public void clear()
+  {
+    ++modificationCount;
+    super.clear();
+  }
+
+  /**
+   * Returns a count that increases whenever this registry, or its delegate registry,
+   * is modified via {@link #put(EPackage, Object) put}, {@link #putAll(Map) putAll}, {@link #remove(Object) remove}, or {@link #clear() clear},
+   * so that the results of lookups can be cached as long as the count remains the same,
+   * or <code>-1</code> if the modifications of the delegate registry can't be tracked.
+   * @return the modification count, or <code>-1</code>.
+   * @since 2.9
+   */
+  public int getModificationCount()
+  {
+    if (delegateRegistry == null)
+    {
+      return modificationCount;
+    }
+    else if (delegateRegistry instanceof EValidatorRegistryImpl)
+    {
+      int delegateModificationCount = ((EValidatorRegistryImpl)delegateRegistry).getModificationCount();
+      return delegateModificationCount == -1 ? -1 : modificationCount + delegateModificationCount;
+    }
+    else
+    {
+      return -1;
+    }
+  }
+
   @Override
   public boolean containsKey(Object key)
   {
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.impl;
+
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+
+
+/**
+ * A table for reflectively accessing the features of the instances of a class, indexed by {@link EClass#getFeatureID(EStructuralFeature) feature ID}.
+ * <p>
+ * Accessing a feature via {@link EObject#eGet(EStructuralFeature) eGet} first maps the feature to its ID in the object's class
+ * and then dispatches on that ID;
+ * for a dynamic instance, it then looks up the feature again by ID to find its setting delegate.
+ * A table does the mapping once per class and, for the instances of {@link DynamicEObjectImpl} and {@link MinimalEObjectImpl.Container.Dynamic},
+ * delegates directly to the setting delegate of the feature.
+ * Generic algorithms that visit every feature of many objects,
+ * e.g., {@link org.eclipse.emf.ecore.util.EcoreUtil.Copier copying} and serialization,
+ * can use the table of each object's class to avoid the repeated mapping.
+ * </p>
+ * <p>
+ * The methods that take a feature ID require an object whose {@link EObject#eClass() class} is the table's class;
+ * the methods that take a feature fall back to the object's reflective methods for an object of another class
+ * or for a feature that isn't one of the class's features.
+ * </p>
+ * @see #getFeatureAccessTable(EClass)
+ * @since 2.9
+ */
+public class FeatureAccessTable
+{
+  /**
+   * Returns the table for the class, which is cached by an {@link EClassImpl} until its features change.
+   * @param eClass the class.
+   * @return the table for the class.
+   */
+  public static FeatureAccessTable getFeatureAccessTable(EClass eClass)
+  {
+    return eClass instanceof EClassImpl ? ((EClassImpl)eClass).getFeatureAccessTable() : new FeatureAccessTable(eClass);
+  }
+
+  protected final EClass eClass;
+
+  protected final EStructuralFeature[] features;
+
+  /**
+   * Creates a table for the class.
+   * @param eClass the class.
+   */
+  public FeatureAccessTable(EClass eClass)
+  {
+    this.eClass = eClass;
+    features = new EStructuralFeature [eClass.getFeatureCount()];
+    for (int i = 0; i < features.length; ++i)
+    {
+      features[i] = eClass.getEStructuralFeature(i);
+    }
+  }
+
+  /**
+   * Returns the class of the table.
+   * @return the class of the table.
+   */
+  public EClass getEClass()
+  {
+    return eClass;
+  }
+
+  /**
+   * Returns the number of features of the class.
+   * @return the number of features of the class.
+   */
+  public int getFeatureCount()
+  {
+    return features.length;
+  }
+
+  /**
+   * Returns the feature with the given ID.
+   * @param featureID the ID of a feature of the class.
+   * @return the feature with the given ID.
+   */
+  public EStructuralFeature getEStructuralFeature(int featureID)
+  {
+    return features[featureID];
+  }
+
+  /**
+   * Returns the ID of the feature in the class, or -1 if it's not a feature of the class.
+   * @param eStructuralFeature the feature.
+   * @return the ID of the feature in the class.
+   */
+  public int getFeatureID(EStructuralFeature eStructuralFeature)
+  {
+    int featureID = eStructuralFeature.getFeatureID();
+    if (featureID >= 0 && featureID < features.length && features[featureID] == eStructuralFeature)
+    {
+      return featureID;
+    }
+    for (int i = 0; i < features.length; ++i)
+    {
+      if (features[i] == eStructuralFeature)
+      {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns whether the object's values are held in its dynamic settings and managed directly by the features' setting delegates,
+   * i.e., whether its reflective methods can be bypassed.
+   */
+  protected boolean isDynamic(InternalEObject eObject)
+  {
+    Class<?> instanceClass = eObject.getClass();
+    return instanceClass == DynamicEObjectImpl.class || instanceClass == MinimalEObjectImpl.Container.Dynamic.class;
+  }
+
+  protected EStructuralFeature.Internal.SettingDelegate getSettingDelegate(int featureID)
+  {
+    return ((EStructuralFeature.Internal)features[featureID]).getSettingDelegate();
+  }
+
+  protected void checkChangeable(int featureID)
+  {
+    EStructuralFeature eStructuralFeature = features[featureID];
+    if (!eStructuralFeature.isChangeable())
+    {
+      throw new IllegalArgumentException("The feature '" + eStructuralFeature.getName() + "' is not a valid changeable feature");
+    }
+  }
+
+  /**
+   * Returns the value of the feature with the given ID, as {@link InternalEObject#eGet(int, boolean, boolean) eGet} does.
+   * @param eObject an instance of the class.
+   * @param featureID the ID of the feature.
+   * @param resolve whether to resolve proxies.
+   * @return the value of the feature.
+   */
+  public Object get(InternalEObject eObject, int featureID, boolean resolve)
+  {
+    if (isDynamic(eObject))
+    {
+      BasicEObjectImpl basicEObject = (BasicEObjectImpl)eObject;
+      return getSettingDelegate(featureID).dynamicGet(basicEObject, basicEObject.eSettings(), featureID, resolve, true);
+    }
+    else
+    {
+      return eObject.eGet(featureID, resolve, true);
+    }
+  }
+
+  /**
+   * Sets the value of the feature with the given ID, as {@link InternalEObject#eSet(int, Object) eSet} does.
+   * @param eObject an instance of the class.
+   * @param featureID the ID of the feature.
+   * @param newValue the new value of the feature.
+   */
+  public void set(InternalEObject eObject, int featureID, Object newValue)
+  {
+    if (isDynamic(eObject))
+    {
+      checkChangeable(featureID);
+      BasicEObjectImpl basicEObject = (BasicEObjectImpl)eObject;
+      getSettingDelegate(featureID).dynamicSet(basicEObject, basicEObject.eSettings(), featureID, newValue);
+    }
+    else
+    {
+      eObject.eSet(featureID, newValue);
+    }
+  }
+
+  /**
+   * Returns whether the feature with the given ID is set, as {@link InternalEObject#eIsSet(int) eIsSet} does.
+   * @param eObject an instance of the class.
+   * @param featureID the ID of the feature.
+   * @return whether the feature is set.
+   */
+  public boolean isSet(InternalEObject eObject, int featureID)
+  {
+    if (isDynamic(eObject))
+    {
+      BasicEObjectImpl basicEObject = (BasicEObjectImpl)eObject;
+      return getSettingDelegate(featureID).dynamicIsSet(basicEObject, basicEObject.eSettings(), featureID);
+    }
+    else
+    {
+      return eObject.eIsSet(featureID);
+    }
+  }
+
+  /**
+   * Unsets the feature with the given ID, as {@link InternalEObject#eUnset(int) eUnset} does.
+   * @param eObject an instance of the class.
+   * @param featureID the ID of the feature.
+   */
+  public void unset(InternalEObject eObject, int featureID)
+  {
+    if (isDynamic(eObject))
+    {
+      checkChangeable(featureID);
+      BasicEObjectImpl basicEObject = (BasicEObjectImpl)eObject;
+      getSettingDelegate(featureID).dynamicUnset(basicEObject, basicEObject.eSettings(), featureID);
+    }
+    else
+    {
+      eObject.eUnset(featureID);
+    }
+  }
+
+  /**
+   * Returns the ID of the feature for accessing the object via this table, or -1 if the object's class or the feature isn't suitable.
+   */
+  protected int getFeatureID(EObject eObject, EStructuralFeature eStructuralFeature)
+  {
+    return eObject.eClass() == eClass && eObject instanceof InternalEObject ? getFeatureID(eStructuralFeature) : -1;
+  }
+
+  /**
+   * Returns the value of the feature, as {@link EObject#eGet(EStructuralFeature, boolean) eGet} does.
+   * @param eObject the object.
+   * @param eStructuralFeature the feature.
+   * @param resolve whether to resolve proxies.
+   * @return the value of the feature.
+   */
+  public Object get(EObject eObject, EStructuralFeature eStructuralFeature, boolean resolve)
+  {
+    int featureID = getFeatureID(eObject, eStructuralFeature);
+    return featureID == -1 ? eObject.eGet(eStructuralFeature, resolve) : get((InternalEObject)eObject, featureID, resolve);
+  }
+
+  /**
+   * Sets the value of the feature, as {@link EObject#eSet(EStructuralFeature, Object) eSet} does.
+   * @param eObject the object.
+   * @param eStructuralFeature the feature.
+   * @param newValue the new value of the feature.
+   */
+  public void set(EObject eObject, EStructuralFeature eStructuralFeature, Object newValue)
+  {
+    int featureID = getFeatureID(eObject, eStructuralFeature);
+    if (featureID == -1)
+    {
+      eObject.eSet(eStructuralFeature, newValue);
+    }
+    else
+    {
+      set((InternalEObject)eObject, featureID, newValue);
+    }
+  }
+
+  /**
+   * Returns whether the feature is set, as {@link EObject#eIsSet(EStructuralFeature) eIsSet} does.
+   * @param eObject the object.
+   * @param eStructuralFeature the feature.
+   * @return whether the feature is set.
+   */
+  public boolean isSet(EObject eObject, EStructuralFeature eStructuralFeature)
+  {
+    int featureID = getFeatureID(eObject, eStructuralFeature);
+    return featureID == -1 ? eObject.eIsSet(eStructuralFeature) : isSet((InternalEObject)eObject, featureID);
+  }
+}
@@ -0,0 +1,1250 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.impl;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.FeatureMapUtil;
+
+
+/**
+ * A {@link org.eclipse.emf.ecore.InternalEObject.EStore store} that persists each object as a record in a local key-value file,
+ * so that an object graph larger than the available memory can be accessed a piece at a time.
+ * <p>
+ * The file is a log of records keyed by object ID;
+ * {@link #commit() committing} appends the changed records followed by a commit entry,
+ * and only records followed by a commit entry are seen when the file is opened again,
+ * so a commit is atomic.
+ * An in-memory index maps each ID to the latest version of its record,
+ * and {@link #compact() compacting} rewrites the file with just the latest records of the objects reachable from the {@link #getRoots() roots}.
+ * </p>
+ * <p>
+ * Each object is a {@link KeyValueEStoreEObjectImpl facade} that holds its ID and the store.
+ * A record is read from the file on first access and is held in a cache of bounded size,
+ * from which the least recently used records are evicted;
+ * changed records stay in memory until they're committed.
+ * The store keeps facades only as long as they're otherwise referenced and recreates them on demand,
+ * so clients that attach adapters to an object must hold on to it.
+ * References to objects that are not facades of this store are persisted as {@link InternalEObject#eProxyURI() proxies}.
+ * Feature maps are not supported.
+ * Like the rest of EMF, this store is not thread-safe.
+ * </p>
+ * @see org.eclipse.emf.ecore.resource.impl.KeyValueStoreResourceImpl
+ * @since 2.9
+ */
+public class KeyValueEStoreImpl implements InternalEObject.EStore
+{
+  /**
+   * A store-based object that's identified by its ID within a key-value store.
+   */
+  public static class KeyValueEStoreEObjectImpl extends EStoreEObjectImpl
+  {
+    protected long eStoreID;
+
+    protected KeyValueEStoreEObjectImpl(EClass eClass, KeyValueEStoreImpl eStore, long eStoreID)
+    {
+      super(eClass, eStore);
+      this.eStoreID = eStoreID;
+    }
+
+    /**
+     * Returns the ID of this object within its store.
+     * @return the ID of this object within its store.
+     */
+    public long eStoreID()
+    {
+      return eStoreID;
+    }
+
+    @Override
+    protected boolean eIsCaching()
+    {
+      return false;
+    }
+  }
+
+  /**
+   * The state of one object.
+   * The values of references are the IDs of the referenced facades, or the referenced objects themselves if they're not facades.
+   */
+  protected static class Record
+  {
+    protected EClass eClass;
+
+    protected long container;
+
+    protected EStructuralFeature containingFeature;
+
+    protected Map<EStructuralFeature, Object> values = new HashMap<EStructuralFeature, Object>();
+
+    protected boolean isDirty;
+
+    public Record(EClass eClass)
+    {
+      this.eClass = eClass;
+    }
+  }
+
+  /**
+   * A map from a positive long key to a long value, using open addressing.
+   */
+  protected static class LongIndex
+  {
+    protected long [] keys = new long [64];
+
+    protected long [] values = new long [64];
+
+    protected int size;
+
+    protected int indexOf(long key)
+    {
+      int mask = keys.length - 1;
+      int index = (int)(key ^ key >>> 32) * 0x9E3779B9 & mask;
+      while (keys[index] != 0 && keys[index] != key)
+      {
+        index = index + 1 & mask;
+      }
+      return index;
+    }
+
+    public long get(long key)
+    {
+      int index = indexOf(key);
+      return keys[index] == 0 ? -1 : values[index];
+    }
+
+    public void put(long key, long value)
+    {
+      int index = indexOf(key);
+      if (keys[index] == 0)
+      {
+        if (2 * (size + 1) > keys.length)
+        {
+          long [] oldKeys = keys;
+          long [] oldValues = values;
+          keys = new long [2 * oldKeys.length];
+          values = new long [2 * oldValues.length];
+          for (int i = 0; i < oldKeys.length; ++i)
+          {
+            if (oldKeys[i] != 0)
+            {
+              int newIndex = indexOf(oldKeys[i]);
+              keys[newIndex] = oldKeys[i];
+              values[newIndex] = oldValues[i];
+            }
+          }
+          index = indexOf(key);
+        }
+        keys[index] = key;
+        ++size;
+      }
+      values[index] = value;
+    }
+
+    public int size()
+    {
+      return size;
+    }
+  }
+
+  /**
+   * A weak reference to a facade that remembers the facade's ID.
+   */
+  protected static class FacadeReference extends WeakReference<KeyValueEStoreEObjectImpl>
+  {
+    protected final long id;
+
+    public FacadeReference(KeyValueEStoreEObjectImpl facade, ReferenceQueue<KeyValueEStoreEObjectImpl> queue)
+    {
+      super(facade, queue);
+      id = facade.eStoreID;
+    }
+  }
+
+  protected static final int MAGIC = 0x454D464B;
+
+  protected static final int VERSION = 1;
+
+  protected static final int HEADER_SIZE = 8;
+
+  protected static final byte ENTRY_RECORD = 1;
+
+  protected static final byte ENTRY_COMMIT = 2;
+
+  /**
+   * The size of an entry's header, i.e., the entry type, the key, and the length of the payload.
+   */
+  protected static final int ENTRY_HEADER_SIZE = 13;
+
+  protected static final byte VALUE_NULL = 0;
+
+  protected static final byte VALUE_ID = 1;
+
+  protected static final byte VALUE_PROXY = 2;
+
+  protected static final byte VALUE_DATA = 3;
+
+  /**
+   * The default number of unchanged records held in memory.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 10000;
+
+  protected final File file;
+
+  protected RandomAccessFile randomAccessFile;
+
+  protected final EPackage.Registry packageRegistry;
+
+  protected LongIndex index = new LongIndex();
+
+  /**
+   * The size of the file up to the end of the last commit.
+   */
+  protected long committedSize;
+
+  protected long nextID = 1;
+
+  protected List<Long> roots = new ArrayList<Long>();
+
+  protected final Map<Long, Record> cache;
+
+  protected final Map<Long, Record> dirtyRecords = new HashMap<Long, Record>();
+
+  protected final Map<Long, FacadeReference> facades = new HashMap<Long, FacadeReference>();
+
+  protected final ReferenceQueue<KeyValueEStoreEObjectImpl> facadeQueue = new ReferenceQueue<KeyValueEStoreEObjectImpl>();
+
+  /**
+   * Creates a store for the given file, reading the committed state if the file exists.
+   * @param file the file of the store.
+   * @param packageRegistry the registry used to find the packages of the classes of the stored objects.
+   * @param cacheSize the maximum number of unchanged records to hold in memory.
+   * @throws IOException if the file can't be opened or read.
+   */
+  public KeyValueEStoreImpl(File file, EPackage.Registry packageRegistry, final int cacheSize) throws IOException
+  {
+    this.file = file;
+    this.packageRegistry = packageRegistry;
+    cache =
+      new LinkedHashMap<Long, Record>(16, 0.75f, true)
+      {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Record> eldest)
+        {
+          return size() > cacheSize;
+        }
+      };
+    open();
+  }
+
+  /**
+   * Opens the file, scanning the entries to build the index
+   * and discarding any entries after the last commit.
+   */
+  protected void open() throws IOException
+  {
+    // Recover from a compaction that stopped after the file was moved aside.
+    //
+    File backupFile = getBackupFile();
+    if (!file.exists() && backupFile.exists() && !renameFile(backupFile, file))
+    {
+      throw new IOException("The file " + backupFile + " can't be renamed to " + file);
+    }
+
+    if (!file.exists() || file.length() < HEADER_SIZE)
+    {
+      randomAccessFile = new RandomAccessFile(file, "rw");
+      randomAccessFile.setLength(0);
+      randomAccessFile.writeInt(MAGIC);
+      randomAccessFile.writeInt(VERSION);
+      committedSize = HEADER_SIZE;
+      return;
+    }
+
+    DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try
+    {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION)
+      {
+        throw new IOException("The file " + file + " is not a key-value store");
+      }
+      committedSize = HEADER_SIZE;
+      long offset = HEADER_SIZE;
+      List<long []> pending = new ArrayList<long []>();
+      try
+      {
+        for (;;)
+        {
+          byte type = input.readByte();
+          long key = input.readLong();
+          int length = input.readInt();
+          if (type == ENTRY_RECORD)
+          {
+            pending.add(new long [] { key, offset });
+            if (input.skipBytes(length) != length)
+            {
+              break;
+            }
+          }
+          else if (type == ENTRY_COMMIT)
+          {
+            long id = input.readLong();
+            List<Long> committedRoots = new ArrayList<Long>();
+            for (int i = 0, size = input.readInt(); i < size; ++i)
+            {
+              committedRoots.add(input.readLong());
+            }
+            for (long [] entry : pending)
+            {
+              index.put(entry[0], entry[1]);
+            }
+            pending.clear();
+            nextID = id;
+            roots = committedRoots;
+            committedSize = offset + ENTRY_HEADER_SIZE + length;
+          }
+          else
+          {
+            break;
+          }
+          offset += ENTRY_HEADER_SIZE + length;
+        }
+      }
+      catch (EOFException exception)
+      {
+        // The entries after the last commit are incomplete.
+      }
+    }
+    finally
+    {
+      input.close();
+    }
+
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    randomAccessFile.setLength(committedSize);
+  }
+
+  /**
+   * Returns the file of the store.
+   * @return the file of the store.
+   */
+  public File getFile()
+  {
+    return file;
+  }
+
+  /**
+   * Returns the roots of the stored object graph as of the last {@link #setRoots(Collection) change}.
+   * @return the roots of the stored object graph.
+   */
+  public List<EObject> getRoots()
+  {
+    List<EObject> result = new ArrayList<EObject>(roots.size());
+    for (Long id : roots)
+    {
+      result.add(getEObject(id));
+    }
+    return result;
+  }
+
+  /**
+   * Sets the roots of the stored object graph; the change is persisted by the next {@link #commit() commit}.
+   * @param roots the facades of this store that are the roots of the stored object graph.
+   */
+  public void setRoots(Collection<? extends EObject> roots)
+  {
+    List<Long> newRoots = new ArrayList<Long>(roots.size());
+    for (EObject root : roots)
+    {
+      newRoots.add(getExistingID((InternalEObject)root));
+    }
+    this.roots = newRoots;
+  }
+
+  /**
+   * Returns the number of unchanged records currently held in memory.
+   * @return the number of unchanged records currently held in memory.
+   */
+  public int getCachedRecordCount()
+  {
+    return cache.size();
+  }
+
+  /**
+   * Returns whether there are changes that haven't been committed.
+   * @return whether there are changes that haven't been committed.
+   */
+  public boolean isDirty()
+  {
+    return !dirtyRecords.isEmpty();
+  }
+
+  /**
+   * Appends the changed records and a commit entry to the file, and forces them to the storage device.
+   * @throws IOException if the file can't be written.
+   */
+  public void commit() throws IOException
+  {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(buffer);
+    ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    Map<Long, Long> offsets = new HashMap<Long, Long>();
+    randomAccessFile.seek(committedSize);
+    long offset = committedSize;
+
+    for (Map.Entry<Long, Record> entry : dirtyRecords.entrySet())
+    {
+      recordBuffer.reset();
+      writeRecord(recordOutput, entry.getValue());
+      recordOutput.flush();
+      offsets.put(entry.getKey(), offset + buffer.size());
+      output.writeByte(ENTRY_RECORD);
+      output.writeLong(entry.getKey());
+      output.writeInt(recordBuffer.size());
+      recordBuffer.writeTo(output);
+      if (buffer.size() > 0x10000)
+      {
+        output.flush();
+        randomAccessFile.write(buffer.toByteArray());
+        offset += buffer.size();
+        buffer.reset();
+      }
+    }
+
+    recordBuffer.reset();
+    recordOutput.writeLong(nextID);
+    recordOutput.writeInt(roots.size());
+    for (Long root : roots)
+    {
+      recordOutput.writeLong(root);
+    }
+    recordOutput.flush();
+    output.writeByte(ENTRY_COMMIT);
+    output.writeLong(0);
+    output.writeInt(recordBuffer.size());
+    recordBuffer.writeTo(output);
+    output.flush();
+    randomAccessFile.write(buffer.toByteArray());
+    offset += buffer.size();
+    randomAccessFile.getChannel().force(false);
+
+    committedSize = offset;
+    for (Map.Entry<Long, Long> entry : offsets.entrySet())
+    {
+      index.put(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<Long, Record> entry : dirtyRecords.entrySet())
+    {
+      Record record = entry.getValue();
+      record.isDirty = false;
+      cache.put(entry.getKey(), record);
+    }
+    dirtyRecords.clear();
+  }
+
+  /**
+   * {@link #commit() Commits} the changes and rewrites the file to contain only the latest records
+   * of the objects reachable from the {@link #getRoots() roots} via references;
+   * the facades of any other objects must no longer be used.
+   * The records are streamed to a temporary file that's forced to the storage device
+   * and then {@link #renameFile(File, File) renamed} to replace the file,
+   * so the file always contains either the old or the new committed state.
+   * If the file can't be replaced, the temporary file is deleted and the store continues to use the old file.
+   * @throws IOException if the file can't be written or replaced.
+   */
+  public void compact() throws IOException
+  {
+    commit();
+
+    File compactFile = new File(file.getPath() + ".compact");
+    LongIndex compactIndex = new LongIndex();
+    long compactSize = 0;
+    boolean isWritten = false;
+    FileOutputStream fileOutputStream = new FileOutputStream(compactFile);
+    try
+    {
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutputStream, 0x10000));
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      compactSize = HEADER_SIZE;
+
+      List<Long> ids = new ArrayList<Long>(roots);
+      for (int i = 0; i < ids.size(); ++i)
+      {
+        long id = ids.get(i);
+        if (compactIndex.get(id) == -1)
+        {
+          byte [] payload = readPayload(id);
+          compactIndex.put(id, compactSize);
+          output.writeByte(ENTRY_RECORD);
+          output.writeLong(id);
+          output.writeInt(payload.length);
+          output.write(payload);
+          compactSize += ENTRY_HEADER_SIZE + payload.length;
+
+          for (Map.Entry<EStructuralFeature, Object> entry : readRecord(payload).values.entrySet())
+          {
+            if (entry.getKey() instanceof EReference)
+            {
+              Object value = entry.getValue();
+              if (value instanceof List<?>)
+              {
+                for (Object element : (List<?>)value)
+                {
+                  if (element instanceof Long)
+                  {
+                    ids.add((Long)element);
+                  }
+                }
+              }
+              else if (value instanceof Long)
+              {
+                ids.add((Long)value);
+              }
+            }
+          }
+        }
+      }
+
+      ByteArrayOutputStream commitBuffer = new ByteArrayOutputStream();
+      DataOutputStream commitOutput = new DataOutputStream(commitBuffer);
+      commitOutput.writeLong(nextID);
+      commitOutput.writeInt(roots.size());
+      for (Long root : roots)
+      {
+        commitOutput.writeLong(root);
+      }
+      commitOutput.flush();
+      output.writeByte(ENTRY_COMMIT);
+      output.writeLong(0);
+      output.writeInt(commitBuffer.size());
+      commitBuffer.writeTo(output);
+      compactSize += ENTRY_HEADER_SIZE + commitBuffer.size();
+      output.flush();
+      fileOutputStream.getChannel().force(true);
+      isWritten = true;
+    }
+    finally
+    {
+      fileOutputStream.close();
+      if (!isWritten)
+      {
+        compactFile.delete();
+      }
+    }
+
+    randomAccessFile.close();
+    boolean isReplaced = renameFile(compactFile, file);
+    if (!isReplaced)
+    {
+      // Some platforms can't rename onto an existing file,
+      // so the old file is moved aside until the rename succeeds and is moved back if it fails.
+      //
+      File backupFile = getBackupFile();
+      backupFile.delete();
+      if (renameFile(file, backupFile))
+      {
+        isReplaced = renameFile(compactFile, file);
+        if (!isReplaced && !renameFile(backupFile, file))
+        {
+          randomAccessFile = new RandomAccessFile(backupFile, "rw");
+          throw new IOException("The file " + backupFile + " can't be renamed back to " + file);
+        }
+      }
+    }
+
+    if (!isReplaced)
+    {
+      compactFile.delete();
+      randomAccessFile = new RandomAccessFile(file, "rw");
+      throw new IOException("The file " + compactFile + " can't be renamed to " + file);
+    }
+
+    getBackupFile().delete();
+    randomAccessFile = new RandomAccessFile(file, "rw");
+    index = compactIndex;
+    committedSize = compactSize;
+  }
+
+  /**
+   * Returns the file to which the file of the store is moved while it's being {@link #compact() replaced}
+   * on platforms that can't rename onto an existing file.
+   * If the process stops before the replacement completes, the store is {@link #open() opened} from this file.
+   * @return the backup file.
+   */
+  protected File getBackupFile()
+  {
+    return new File(file.getPath() + ".backup");
+  }
+
+  /**
+   * Renames the source file to the target file, replacing the target file if the platform supports that.
+   * @param source the file to rename.
+   * @param target the new name of the file.
+   * @return whether the file was renamed.
+   */
+  protected boolean renameFile(File source, File target)
+  {
+    return source.renameTo(target);
+  }
+
+  /**
+   * Closes the file; any changes that haven't been {@link #commit() committed} are discarded.
+   * @throws IOException if the file can't be closed.
+   */
+  public void close() throws IOException
+  {
+    randomAccessFile.close();
+    cache.clear();
+    dirtyRecords.clear();
+  }
+
+  protected byte [] readPayload(long id) throws IOException
+  {
+    long offset = index.get(id);
+    if (offset == -1)
+    {
+      return null;
+    }
+    randomAccessFile.seek(offset + ENTRY_HEADER_SIZE - 4);
+    byte [] result = new byte [randomAccessFile.readInt()];
+    randomAccessFile.readFully(result);
+    return result;
+  }
+
+  protected void writeString(DataOutputStream output, String value) throws IOException
+  {
+    byte [] bytes = value.getBytes("UTF-8");
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  protected String readString(DataInputStream input) throws IOException
+  {
+    byte [] bytes = new byte [input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, "UTF-8");
+  }
+
+  protected void writeClass(DataOutputStream output, EClass eClass) throws IOException
+  {
+    output.writeUTF(eClass.getEPackage().getNsURI());
+    output.writeUTF(eClass.getName());
+  }
+
+  protected EClass readClass(DataInputStream input) throws IOException
+  {
+    String nsURI = input.readUTF();
+    String name = input.readUTF();
+    EPackage ePackage = packageRegistry.getEPackage(nsURI);
+    EClassifier eClassifier = ePackage == null ? null : ePackage.getEClassifier(name);
+    if (!(eClassifier instanceof EClass))
+    {
+      throw new IOException("The class '" + name + "' of package '" + nsURI + "' can't be found");
+    }
+    return (EClass)eClassifier;
+  }
+
+  protected void writeRecord(DataOutputStream output, Record record) throws IOException
+  {
+    writeClass(output, record.eClass);
+    output.writeLong(record.container);
+    if (record.container != 0)
+    {
+      writeClass(output, record.containingFeature.getEContainingClass());
+      output.writeUTF(record.containingFeature.getName());
+    }
+
+    output.writeInt(record.values.size());
+    for (Map.Entry<EStructuralFeature, Object> entry : record.values.entrySet())
+    {
+      EStructuralFeature feature = entry.getKey();
+      output.writeUTF(feature.getName());
+      if (feature.isMany())
+      {
+        List<?> list = (List<?>)entry.getValue();
+        output.writeInt(list.size());
+        for (Object value : list)
+        {
+          writeValue(output, feature, value);
+        }
+      }
+      else
+      {
+        writeValue(output, feature, entry.getValue());
+      }
+    }
+  }
+
+  protected void writeValue(DataOutputStream output, EStructuralFeature feature, Object value) throws IOException
+  {
+    if (value == null)
+    {
+      output.writeByte(VALUE_NULL);
+    }
+    else if (feature instanceof EReference)
+    {
+      if (value instanceof Long)
+      {
+        output.writeByte(VALUE_ID);
+        output.writeLong((Long)value);
+      }
+      else
+      {
+        InternalEObject eObject = (InternalEObject)value;
+        output.writeByte(VALUE_PROXY);
+        writeClass(output, eObject.eClass());
+        writeString(output, (eObject.eIsProxy() ? eObject.eProxyURI() : EcoreUtil.getURI(eObject)).toString());
+      }
+    }
+    else
+    {
+      output.writeByte(VALUE_DATA);
+      writeString(output, EcoreUtil.convertToString((EDataType)feature.getEType(), value));
+    }
+  }
+
+  protected Record readRecord(byte [] payload) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+    Record record = new Record(readClass(input));
+    record.container = input.readLong();
+    if (record.container != 0)
+    {
+      record.containingFeature = readClass(input).getEStructuralFeature(input.readUTF());
+    }
+
+    for (int i = 0, size = input.readInt(); i < size; ++i)
+    {
+      String name = input.readUTF();
+      EStructuralFeature feature = record.eClass.getEStructuralFeature(name);
+      if (feature == null)
+      {
+        throw new IOException("The feature '" + name + "' of class '" + record.eClass.getName() + "' can't be found");
+      }
+      if (feature.isMany())
+      {
+        int listSize = input.readInt();
+        List<Object> list = new ArrayList<Object>(listSize);
+        for (int j = 0; j < listSize; ++j)
+        {
+          list.add(readValue(input, feature));
+        }
+        record.values.put(feature, list);
+      }
+      else
+      {
+        record.values.put(feature, readValue(input, feature));
+      }
+    }
+    return record;
+  }
+
+  protected Object readValue(DataInputStream input, EStructuralFeature feature) throws IOException
+  {
+    switch (input.readByte())
+    {
+      case VALUE_NULL:
+      {
+        return null;
+      }
+      case VALUE_ID:
+      {
+        return input.readLong();
+      }
+      case VALUE_PROXY:
+      {
+        InternalEObject proxy = (InternalEObject)EcoreUtil.create(readClass(input));
+        proxy.eSetProxyURI(URI.createURI(readString(input)));
+        return proxy;
+      }
+      default:
+      {
+        return EcoreUtil.createFromString((EDataType)feature.getEType(), readString(input));
+      }
+    }
+  }
+
+  /**
+   * Returns the record of the object with the given ID, reading it from the file if it's not in memory,
+   * or <code>null</code> if there is no such object.
+   */
+  protected Record getRecord(long id)
+  {
+    Record result = dirtyRecords.get(id);
+    if (result == null)
+    {
+      result = cache.get(id);
+      if (result == null)
+      {
+        try
+        {
+          byte [] payload = readPayload(id);
+          if (payload != null)
+          {
+            result = readRecord(payload);
+            cache.put(id, result);
+          }
+        }
+        catch (IOException exception)
+        {
+          throw new WrappedException(exception);
+        }
+      }
+    }
+    return result;
+  }
+
+  protected Record getExistingRecord(long id)
+  {
+    Record result = getRecord(id);
+    if (result == null)
+    {
+      throw new IllegalStateException("There is no object with ID " + id);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the record of the object for modification, ensuring that it stays in memory until it's committed.
+   */
+  protected Record getDirtyRecord(long id)
+  {
+    Record result = getExistingRecord(id);
+    if (!result.isDirty)
+    {
+      result.isDirty = true;
+      cache.remove(id);
+      dirtyRecords.put(id, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the ID of the object, allocating one if the object is a facade for this store without one,
+   * or 0 if the object isn't a facade of this store.
+   * @param eObject the object in question.
+   * @return the ID of the object.
+   */
+  public long getID(EObject eObject)
+  {
+    if (eObject instanceof KeyValueEStoreEObjectImpl)
+    {
+      KeyValueEStoreEObjectImpl facade = (KeyValueEStoreEObjectImpl)eObject;
+      if (facade.eStore() == this)
+      {
+        if (facade.eStoreID == 0)
+        {
+          facade.eStoreID = allocateID(facade.eClass());
+          putFacade(facade);
+        }
+        return facade.eStoreID;
+      }
+    }
+    return 0;
+  }
+
+  protected long allocateID(EClass eClass)
+  {
+    long id = nextID++;
+    Record record = new Record(eClass);
+    record.isDirty = true;
+    dirtyRecords.put(id, record);
+    return id;
+  }
+
+  protected long getExistingID(InternalEObject eObject)
+  {
+    long result = getID(eObject);
+    if (result == 0)
+    {
+      throw new IllegalArgumentException("The object is not a facade of this store: " + eObject);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the object with the given ID, creating a new facade if there currently is none.
+   * @param id the ID of the object.
+   * @return the object with the given ID, or <code>null</code> if there is no such object.
+   */
+  public EObject getEObject(long id)
+  {
+    for (FacadeReference reference = (FacadeReference)facadeQueue.poll(); reference != null; reference = (FacadeReference)facadeQueue.poll())
+    {
+      if (facades.get(reference.id) == reference)
+      {
+        facades.remove(reference.id);
+      }
+    }
+
+    if (id <= 0 || id >= nextID)
+    {
+      return null;
+    }
+
+    FacadeReference reference = facades.get(id);
+    KeyValueEStoreEObjectImpl result = reference == null ? null : reference.get();
+    if (result == null)
+    {
+      Record record = getRecord(id);
+      if (record == null)
+      {
+        return null;
+      }
+      result = createFacade(record.eClass, id);
+      putFacade(result);
+    }
+    return result;
+  }
+
+  protected void putFacade(KeyValueEStoreEObjectImpl facade)
+  {
+    facades.put(facade.eStoreID, new FacadeReference(facade, facadeQueue));
+  }
+
+  /**
+   * Creates the facade for the object with the given ID.
+   * @param eClass the class of the object.
+   * @param id the ID of the object.
+   * @return a new facade.
+   */
+  protected KeyValueEStoreEObjectImpl createFacade(EClass eClass, long id)
+  {
+    return new KeyValueEStoreEObjectImpl(eClass, this, id);
+  }
+
+  public EObject create(EClass eClass)
+  {
+    KeyValueEStoreEObjectImpl result = createFacade(eClass, allocateID(eClass));
+    putFacade(result);
+    return result;
+  }
+
+  protected Object encode(EStructuralFeature feature, Object value)
+  {
+    if (feature instanceof EReference && value != null)
+    {
+      long id = getID((EObject)value);
+      if (id != 0)
+      {
+        return id;
+      }
+    }
+    return value;
+  }
+
+  protected Object decode(EStructuralFeature feature, Object value)
+  {
+    return feature instanceof EReference && value instanceof Long ? getEObject((Long)value) : value;
+  }
+
+  protected boolean isContainment(EStructuralFeature feature)
+  {
+    return feature instanceof EReference && ((EReference)feature).isContainment();
+  }
+
+  /**
+   * Records the container of the child.
+   * A facade initializes its container from the store on first access,
+   * so the child's container is initialized first
+   * to ensure that the child sees its old container when it's removed from that container as a result of being added to the new one.
+   */
+  protected void setContainer(EStructuralFeature feature, Object encodedChild, long containerID)
+  {
+    if (encodedChild instanceof Long)
+    {
+      long childID = (Long)encodedChild;
+      ((InternalEObject)getEObject(childID)).eInternalContainer();
+      Record record = getDirtyRecord(childID);
+      record.container = containerID;
+      record.containingFeature = feature;
+    }
+  }
+
+  protected void clearContainer(EStructuralFeature feature, Object encodedChild, long containerID)
+  {
+    if (encodedChild instanceof Long)
+    {
+      long childID = (Long)encodedChild;
+      Record record = getExistingRecord(childID);
+      if (record.container == containerID && record.containingFeature == feature)
+      {
+        record = getDirtyRecord(childID);
+        record.container = 0;
+        record.containingFeature = null;
+      }
+    }
+  }
+
+  protected void checkFeature(EStructuralFeature feature)
+  {
+    if (FeatureMapUtil.isFeatureMap(feature))
+    {
+      throw new UnsupportedOperationException("Feature maps are not supported: " + feature.getName());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<Object> getList(Record record, EStructuralFeature feature)
+  {
+    checkFeature(feature);
+    List<Object> result = (List<Object>)record.values.get(feature);
+    if (result == null)
+    {
+      result = new ArrayList<Object>();
+      record.values.put(feature, result);
+    }
+    return result;
+  }
+
+  protected List<?> getExistingList(InternalEObject object, EStructuralFeature feature)
+  {
+    checkFeature(feature);
+    List<?> result = (List<?>)getExistingRecord(getExistingID(object)).values.get(feature);
+    return result == null ? Collections.<Object>emptyList() : result;
+  }
+
+  public Object get(InternalEObject object, EStructuralFeature feature, int index)
+  {
+    checkFeature(feature);
+    Record record = getExistingRecord(getExistingID(object));
+    if (index == NO_INDEX)
+    {
+      return decode(feature, record.values.get(feature));
+    }
+    else
+    {
+      return decode(feature, getExistingList(object, feature).get(index));
+    }
+  }
+
+  public Object set(InternalEObject object, EStructuralFeature feature, int index, Object value)
+  {
+    checkFeature(feature);
+    long id = getExistingID(object);
+    Object encodedValue = encode(feature, value);
+    Record record = getDirtyRecord(id);
+    Object oldValue;
+    if (index == NO_INDEX)
+    {
+      oldValue = record.values.put(feature, encodedValue);
+    }
+    else
+    {
+      oldValue = getList(record, feature).set(index, encodedValue);
+    }
+
+    if (isContainment(feature))
+    {
+      clearContainer(feature, oldValue, id);
+      setContainer(feature, encodedValue, id);
+    }
+    return decode(feature, oldValue);
+  }
+
+  public boolean isSet(InternalEObject object, EStructuralFeature feature)
+  {
+    checkFeature(feature);
+    Record record = getExistingRecord(getExistingID(object));
+    if (feature.isUnsettable())
+    {
+      return record.values.containsKey(feature);
+    }
+    else if (feature.isMany())
+    {
+      List<?> list = (List<?>)record.values.get(feature);
+      return list != null && !list.isEmpty();
+    }
+    else if (record.values.containsKey(feature))
+    {
+      Object value = record.values.get(feature);
+      Object defaultValue = feature.getDefaultValue();
+      return value == null ? defaultValue != null : !value.equals(defaultValue);
+    }
+    else
+    {
+      return false;
+    }
+  }
+
+  public void unset(InternalEObject object, EStructuralFeature feature)
+  {
+    checkFeature(feature);
+    long id = getExistingID(object);
+    Record record = getExistingRecord(id);
+    if (record.values.containsKey(feature))
+    {
+      if (feature.isMany())
+      {
+        clear(object, feature);
+      }
+      Object oldValue = getDirtyRecord(id).values.remove(feature);
+      if (isContainment(feature) && !feature.isMany())
+      {
+        clearContainer(feature, oldValue, id);
+      }
+    }
+  }
+
+  public boolean isEmpty(InternalEObject object, EStructuralFeature feature)
+  {
+    return getExistingList(object, feature).isEmpty();
+  }
+
+  public int size(InternalEObject object, EStructuralFeature feature)
+  {
+    return getExistingList(object, feature).size();
+  }
+
+  public boolean contains(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    return indexOf(object, feature, value) != -1;
+  }
+
+  public int indexOf(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    return getExistingList(object, feature).indexOf(encode(feature, value));
+  }
+
+  public int lastIndexOf(InternalEObject object, EStructuralFeature feature, Object value)
+  {
+    return getExistingList(object, feature).lastIndexOf(encode(feature, value));
+  }
+
+  public void add(InternalEObject object, EStructuralFeature feature, int index, Object value)
+  {
+    long id = getExistingID(object);
+    Object encodedValue = encode(feature, value);
+    getList(getDirtyRecord(id), feature).add(index, encodedValue);
+    if (isContainment(feature))
+    {
+      setContainer(feature, encodedValue, id);
+    }
+  }
+
+  public Object remove(InternalEObject object, EStructuralFeature feature, int index)
+  {
+    long id = getExistingID(object);
+    Object oldValue = getList(getDirtyRecord(id), feature).remove(index);
+    if (isContainment(feature))
+    {
+      clearContainer(feature, oldValue, id);
+    }
+    return decode(feature, oldValue);
+  }
+
+  public Object move(InternalEObject object, EStructuralFeature feature, int targetIndex, int sourceIndex)
+  {
+    List<Object> list = getList(getDirtyRecord(getExistingID(object)), feature);
+    Object value = list.remove(sourceIndex);
+    list.add(targetIndex, value);
+    return decode(feature, value);
+  }
+
+  public void clear(InternalEObject object, EStructuralFeature feature)
+  {
+    long id = getExistingID(object);
+    List<Object> list = getList(getDirtyRecord(id), feature);
+    if (isContainment(feature))
+    {
+      for (Object value : list)
+      {
+        clearContainer(feature, value, id);
+      }
+    }
+    list.clear();
+  }
+
+  public Object[] toArray(InternalEObject object, EStructuralFeature feature)
+  {
+    List<?> list = getExistingList(object, feature);
+    Object [] result = new Object [list.size()];
+    for (int i = 0; i < result.length; ++i)
+    {
+      result[i] = decode(feature, list.get(i));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T[] toArray(InternalEObject object, EStructuralFeature feature, T[] array)
+  {
+    Object [] values = toArray(object, feature);
+    if (array.length < values.length)
+    {
+      array = (T[])Array.newInstance(array.getClass().getComponentType(), values.length);
+    }
+    System.arraycopy(values, 0, array, 0, values.length);
+    if (array.length > values.length)
+    {
+      array[values.length] = null;
+    }
+    return array;
+  }
+
+  public int hashCode(InternalEObject object, EStructuralFeature feature)
+  {
+    int hashCode = 1;
+    for (Object value : toArray(object, feature))
+    {
+      hashCode = 31 * hashCode + (value == null ? 0 : value.hashCode());
+    }
+    return hashCode;
+  }
+
+  public InternalEObject getContainer(InternalEObject object)
+  {
+    Record record = getExistingRecord(getExistingID(object));
+    return record.container == 0 ? null : (InternalEObject)getEObject(record.container);
+  }
+
+  public EStructuralFeature getContainingFeature(InternalEObject object)
+  {
+    return getExistingRecord(getExistingID(object)).containingFeature;
+  }
+}
@@ -12,18 +12,28 @@ package org.eclipse.emf.ecore.resource.impl;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.Enumerator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
 import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EDataType;
@@ -34,6 +44,7 @@ import org.eclipse.emf.ecore.EPackage;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.FeatureAccessTable;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.URIConverter;
@@ -130,6 +141,29 @@ public class BinaryResourceImpl extends ResourceImpl
     return DEFAULT_BUFFER_CAPACITY;
   }
 
+  /**
+   * A Boolean load option to specify whether the root objects of a serialization with {@link Version#VERSION_1_2 version 1.2} or higher
+   * should be materialized only on demand.
+   * The contents are memory mapped when loading from a {@link FileInputStream file}, or are otherwise retained as a byte array,
+   * and each segment of root objects is decoded, directly from its offset, only once it's needed,
+   * i.e., only once the {@link #getContents() contents} are accessed,
+   * or once a URI fragment is {@link #getEObject(String) resolved} against a root in that segment.
+   * {@link #unload() Unloading} doesn't decode any segment.
+   * Since a segment is the unit of laziness, a resource with a single root object is decoded in full by the first access to it.
+   * For a serialization with a lower version, this option has no effect.
+   * The default is false.
+   * @see Version#VERSION_1_2
+   * @since 2.9
+   */
+  public static final String OPTION_LAZY_LOAD = "LAZY_LOAD";
+
+  /**
+   * The segments of a {@link #OPTION_LAZY_LOAD lazily loaded} resource that are yet to be materialized,
+   * or <code>null</code> if all the contents have been materialized.
+   * @since 2.9
+   */
+  protected Segments segments;
+
   public BinaryResourceImpl()
   {
     super();
@@ -185,6 +219,10 @@ public class BinaryResourceImpl extends ResourceImpl
     {
       ((URIConverter.Loadable)inputStream).loadResource(this);
     }
+    else if (options != null && Boolean.TRUE.equals(options.get(OPTION_LAZY_LOAD)))
+    {
+      doLoadLazily(inputStream, options);
+    }
     else
     {
       if (!(inputStream instanceof BufferedInputStream))
@@ -201,6 +239,556 @@ public class BinaryResourceImpl extends ResourceImpl
     }
   }
 
+  /**
+   * Loads the resource {@link #OPTION_LAZY_LOAD lazily},
+   * i.e., reads only the header and the table of segments,
+   * deferring the materialization of the segments until they're needed.
+   * @see #materializeSegment(int)
+   * @since 2.9
+   */
+  protected void doLoadLazily(InputStream inputStream, Map<?, ?> options) throws IOException
+  {
+    FileChannel channel = null;
+    ByteBuffer contents = null;
+    long start;
+    long size;
+    if (inputStream instanceof FileInputStream)
+    {
+      channel = ((FileInputStream)inputStream).getChannel();
+      start = channel.position();
+      size = channel.size() - start;
+    }
+    else
+    {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte [] buffer = new byte [4000];
+      for (int count = inputStream.read(buffer); count > 0; count = inputStream.read(buffer))
+      {
+        bytes.write(buffer, 0, count);
+      }
+      contents = ByteBuffer.wrap(bytes.toByteArray());
+      start = 0;
+      size = contents.capacity();
+    }
+
+    ByteBuffer header = readByteBuffer(channel, contents, start, Math.min(size, 16));
+    EObjectInputStream eObjectInputStream = new EObjectInputStream(new ByteBufferInputStream(header), options);
+    BinaryIO.Version version = eObjectInputStream.version;
+    if (version.ordinal() < BinaryIO.Version.VERSION_1_2.ordinal())
+    {
+      // Load the older serialization in the usual way.
+      //
+      InputStream fullInputStream;
+      if (channel == null)
+      {
+        fullInputStream = new ByteBufferInputStream(contents);
+      }
+      else
+      {
+        int bufferCapacity = getBufferCapacity(options);
+        fullInputStream = bufferCapacity > 0 ? new BufferedInputStream(inputStream, bufferCapacity) : inputStream;
+      }
+      new EObjectInputStream(fullInputStream, options).loadResource(this);
+    }
+    else
+    {
+      // Read the counts that follow the header, and then the offset of the table of segments from the end.
+      //
+      long countsStart = start + header.position();
+      ByteBuffer counts = readByteBuffer(channel, contents, countsStart, Math.min(size - header.position(), 10));
+      EObjectInputStream countsInputStream =
+        new EObjectInputStream(new ByteBufferInputStream(counts), options, version, eObjectInputStream.style);
+      int rootCount = countsInputStream.readCompressedInt();
+      int segmentCount = countsInputStream.readCompressedInt();
+      long bodyStart = countsStart + counts.position();
+      long trailerStart = start + size - 8;
+      EObjectInputStream trailerInputStream =
+        new EObjectInputStream
+          (new ByteBufferInputStream(readByteBuffer(channel, contents, trailerStart, 8)), options, version, eObjectInputStream.style);
+      long tableOffset = trailerInputStream.readLong();
+      ByteBuffer entries = readByteBuffer(channel, contents, bodyStart + tableOffset, trailerStart - bodyStart - tableOffset);
+      EObjectInputStream tableInputStream =
+        new EObjectInputStream(new ByteBufferInputStream(entries), options, version, eObjectInputStream.style);
+      Segments segments = new Segments();
+      segments.options = options;
+      segments.version = version;
+      segments.style = eObjectInputStream.style;
+      segments.rootCount = rootCount;
+      segments.count = segmentCount;
+      segments.remaining = segmentCount;
+      segments.firstRoots = new int [segmentCount + 1];
+      segments.materialized = new boolean [segmentCount];
+      long [] segmentOffsets = new long [segmentCount + 1];
+      for (int i = 0; i < segmentCount; ++i)
+      {
+        segments.firstRoots[i + 1] = segments.firstRoots[i] + tableInputStream.readCompressedInt();
+        segmentOffsets[i] = tableInputStream.readLong();
+      }
+      segmentOffsets[segmentCount] = tableOffset;
+
+      // Map consecutive segments together in buffers that are each less than 2GB.
+      //
+      segments.bufferIndices = new int [segmentCount];
+      segments.positions = new int [segmentCount];
+      segments.lengths = new int [segmentCount];
+      List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+      for (int i = 0; i < segmentCount; )
+      {
+        long segmentStart = segmentOffsets[i];
+        int end = i + 1;
+        while (end < segmentCount && segmentOffsets[end + 1] - segmentStart <= Integer.MAX_VALUE)
+        {
+          ++end;
+        }
+        long length = segmentOffsets[end] - segmentStart;
+        if (length > Integer.MAX_VALUE)
+        {
+          throw new IOException("The segment at offset " + segmentStart + " is too large to be mapped");
+        }
+        for (int j = i; j < end; ++j)
+        {
+          segments.bufferIndices[j] = buffers.size();
+          segments.positions[j] = (int)(segmentOffsets[j] - segmentStart);
+          segments.lengths[j] = (int)(segmentOffsets[j + 1] - segmentOffsets[j]);
+        }
+        buffers.add(getByteBuffer(channel, contents, bodyStart + segmentStart, length));
+        i = end;
+      }
+      segments.buffers = buffers.toArray(new ByteBuffer [buffers.size()]);
+      this.segments = segmentCount == 0 ? null : segments;
+    }
+  }
+
+  /**
+   * Reads a small part of the contents into a heap buffer, rather than mapping it, so that it doesn't retain a mapping of the file.
+   */
+  private static ByteBuffer readByteBuffer(FileChannel channel, ByteBuffer contents, long position, long size) throws IOException
+  {
+    if (channel != null)
+    {
+      ByteBuffer result = ByteBuffer.allocate((int)size);
+      while (result.hasRemaining())
+      {
+        if (channel.read(result, position + result.position()) < 0)
+        {
+          throw new IOException("Unexpected end of stream");
+        }
+      }
+      result.flip();
+      return result;
+    }
+    else
+    {
+      return getByteBuffer(channel, contents, position, size);
+    }
+  }
+
+  private static ByteBuffer getByteBuffer(FileChannel channel, ByteBuffer contents, long position, long size) throws IOException
+  {
+    if (channel != null)
+    {
+      return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+    else
+    {
+      ByteBuffer result = contents.duplicate();
+      result.position((int)position);
+      result.limit((int)(position + size));
+      return result.slice();
+    }
+  }
+
+  /**
+   * Materializes the {@link #OPTION_LAZY_LOAD lazily loaded} segment at the given index,
+   * decoding it directly from its offset,
+   * and inserting its root objects into the {@link #getContents() contents} after those of the materialized segments that precede it.
+   * The loading and modification state of the resource is unaffected,
+   * and no notifications are delivered, because the root objects are logically already part of the contents.
+   * Note that any adapter that {@link org.eclipse.emf.common.notify.Notifier#eAdapters() attaches} to the resource and iterates over its contents,
+   * e.g., a {@link org.eclipse.emf.ecore.util.EContentAdapter content adapter}, materializes all the segments.
+   * @param index the index of a segment that's yet to be materialized.
+   * @since 2.9
+   */
+  protected void materializeSegment(int index)
+  {
+    Segments segments = this.segments;
+
+    // Ensure that accessing the contents while materializing doesn't recursively materialize.
+    //
+    this.segments = null;
+    segments.materialized[index] = true;
+    --segments.remaining;
+    boolean wasLoading = isLoading;
+    boolean wasModified = isModified;
+    boolean wasDeliver = eDeliver();
+    isLoading = true;
+    eSetDeliver(false);
+    try
+    {
+      ByteBuffer buffer = segments.buffers[segments.bufferIndices[index]].duplicate();
+      int position = segments.positions[index];
+      buffer.limit(position + segments.lengths[index]);
+      buffer.position(position);
+      EObjectInputStream eObjectInputStream =
+        new EObjectInputStream(new ByteBufferInputStream(buffer), segments.options, segments.version, segments.style);
+      eObjectInputStream.loadSegment(this, eObjectInputStream.readCompressedInt(), segments.getContentsIndex(segments.firstRoots[index]));
+    }
+    catch (IOException exception)
+    {
+      throw new WrappedException(exception);
+    }
+    finally
+    {
+      eSetDeliver(wasDeliver);
+      isLoading = wasLoading;
+      isModified = wasModified;
+      if (segments.remaining > 0)
+      {
+        this.segments = segments;
+      }
+      else
+      {
+        segments.release();
+      }
+    }
+  }
+
+  /**
+   * Returns the contents,
+   * first materializing any {@link #OPTION_LAZY_LOAD lazily loaded} segments that are yet to be materialized,
+   * unless the resource is being unloaded.
+   */
+  @Override
+  public EList<EObject> getContents()
+  {
+    Segments segments = this.segments;
+    if (segments != null && !segments.unloading)
+    {
+      for (int i = 0; i < segments.count; ++i)
+      {
+        if (!segments.materialized[i])
+        {
+          materializeSegment(i);
+        }
+      }
+    }
+    return super.getContents();
+  }
+
+  /**
+   * Returns only the materialized root objects, so that unloading doesn't materialize any {@link #OPTION_LAZY_LOAD lazily loaded} segments.
+   */
+  @Override
+  protected List<EObject> getContentsToUnload()
+  {
+    return super.getContents();
+  }
+
+  /**
+   * Unloads the materialized root objects,
+   * and discards the {@link #OPTION_LAZY_LOAD lazily loaded} segments that are yet to be materialized,
+   * {@link Segments#release() releasing} the memory mapped file.
+   */
+  @Override
+  protected void doUnload()
+  {
+    Segments segments = this.segments;
+    if (segments != null)
+    {
+      segments.unloading = true;
+    }
+    try
+    {
+      super.doUnload();
+    }
+    finally
+    {
+      this.segments = null;
+      if (segments != null)
+      {
+        segments.release();
+      }
+    }
+  }
+
+  /**
+   * Returns the root object at the position indicated by the segment,
+   * materializing only the {@link #OPTION_LAZY_LOAD lazily loaded} segment that contains it.
+   */
+  @Override
+  protected EObject getEObjectForURIFragmentRootSegment(String uriFragmentRootSegment)
+  {
+    Segments segments = this.segments;
+    if (segments != null)
+    {
+      int position = 0;
+      if (uriFragmentRootSegment.length() > 0)
+      {
+        try
+        {
+          position = Integer.parseInt(uriFragmentRootSegment);
+        }
+        catch (NumberFormatException exception)
+        {
+          throw new WrappedException(exception);
+        }
+      }
+
+      if (position < 0 || position >= segments.rootCount)
+      {
+        return null;
+      }
+      int index = segments.getSegmentIndex(position);
+      if (!segments.materialized[index])
+      {
+        if (segments.unloading)
+        {
+          return null;
+        }
+        materializeSegment(index);
+      }
+      return super.getContents().get(segments.getContentsIndex(position));
+    }
+    return super.getEObjectForURIFragmentRootSegment(uriFragmentRootSegment);
+  }
+
+  /**
+   * Returns the URI fragment root segment of the given root object without materializing any {@link #OPTION_LAZY_LOAD lazily loaded} segments,
+   * including while the resource is being unloaded.
+   */
+  @Override
+  protected String getURIFragmentRootSegment(EObject eObject)
+  {
+    Segments segments = this.segments;
+    if (segments != null)
+    {
+      List<EObject> contents = unloadingContents != null ? unloadingContents : super.getContents();
+      return segments.rootCount > 1 ? Integer.toString(segments.getRootIndex(contents.indexOf(eObject))) : "";
+    }
+    else
+    {
+      return super.getURIFragmentRootSegment(eObject);
+    }
+  }
+
+  /**
+   * The state of the segments of a {@link #OPTION_LAZY_LOAD lazily loaded} resource.
+   * While any segment is yet to be materialized,
+   * the contents of the resource are the root objects of the materialized segments, in order.
+   * @since 2.9
+   */
+  protected static class Segments
+  {
+    public Map<?, ?> options;
+    public BinaryIO.Version version;
+    public int style;
+
+    /**
+     * The total number of root objects in all the segments.
+     */
+    public int rootCount;
+
+    /**
+     * The total number of segments.
+     */
+    public int count;
+
+    /**
+     * The index of the first root object of each segment, followed by the total number of root objects.
+     */
+    public int[] firstRoots;
+
+    /**
+     * Whether each segment has been materialized.
+     */
+    public boolean[] materialized;
+
+    /**
+     * The number of segments yet to be materialized.
+     */
+    public int remaining;
+
+    /**
+     * Whether the resource is being unloaded, in which case no more segments are materialized.
+     */
+    public boolean unloading;
+
+    /**
+     * The buffers, each of which holds one or more consecutive segments,
+     * or <code>null</code> once they've been {@link #release() released}.
+     */
+    public ByteBuffer[] buffers;
+    public int[] bufferIndices;
+    public int[] positions;
+    public int[] lengths;
+
+    /**
+     * Releases the buffers.
+     * Memory mapped buffers are unmapped immediately where the runtime supports it,
+     * so that the file isn't held open until they're garbage collected;
+     * otherwise they're unmapped when they're garbage collected.
+     * No segment can be materialized after this is called.
+     */
+    public void release()
+    {
+      ByteBuffer[] buffers = this.buffers;
+      if (buffers != null)
+      {
+        this.buffers = null;
+        for (ByteBuffer buffer : buffers)
+        {
+          if (buffer.isDirect())
+          {
+            try
+            {
+              Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+              cleanerMethod.setAccessible(true);
+              Object cleaner = cleanerMethod.invoke(buffer);
+              if (cleaner != null)
+              {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+              }
+            }
+            catch (Throwable throwable)
+            {
+              // The runtime doesn't support unmapping explicitly, so the buffer is unmapped once it's garbage collected.
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns the index of the segment containing the root object at the given index.
+     */
+    public int getSegmentIndex(int rootIndex)
+    {
+      int low = 0;
+      int high = count - 1;
+      while (low < high)
+      {
+        int middle = (low + high + 1) >>> 1;
+        if (firstRoots[middle] <= rootIndex)
+        {
+          low = middle;
+        }
+        else
+        {
+          high = middle - 1;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Returns the position in the contents of the root object at the given index,
+     * i.e., the number of materialized root objects that precede it.
+     */
+    public int getContentsIndex(int rootIndex)
+    {
+      int result = rootIndex;
+      for (int i = 0; i < count && firstRoots[i] < rootIndex; ++i)
+      {
+        if (!materialized[i])
+        {
+          result -= Math.min(firstRoots[i + 1], rootIndex) - firstRoots[i];
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Returns the index of the root object at the given position in the contents, or <code>-1</code>.
+     */
+    public int getRootIndex(int contentsIndex)
+    {
+      if (contentsIndex >= 0)
+      {
+        for (int i = 0; i < count; ++i)
+        {
+          if (materialized[i])
+          {
+            int size = firstRoots[i + 1] - firstRoots[i];
+            if (contentsIndex < size)
+            {
+              return firstRoots[i] + contentsIndex;
+            }
+            contentsIndex -= size;
+          }
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * An output stream that counts the bytes written through it.
+   */
+  private static final class CountingOutputStream extends FilterOutputStream
+  {
+    long count;
+
+    CountingOutputStream(OutputStream outputStream)
+    {
+      super(outputStream);
+    }
+
+    @Override
+    public void write(int value) throws IOException
+    {
+      out.write(value);
+      ++count;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException
+    {
+      out.write(bytes, offset, length);
+      count += length;
+    }
+  }
+
+  /**
+   * An input stream that reads the remaining bytes of a byte buffer.
+   */
+  private static final class ByteBufferInputStream extends InputStream
+  {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer)
+    {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read()
+    {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length)
+    {
+      int remaining = buffer.remaining();
+      if (remaining == 0)
+      {
+        return length == 0 ? 0 : -1;
+      }
+      else
+      {
+        int count = Math.min(length, remaining);
+        buffer.get(bytes, offset, count);
+        return count;
+      }
+    }
+
+    @Override
+    public int available()
+    {
+      return buffer.remaining();
+    }
+  }
+
   public static class BinaryIO
   {
     public enum Version
@@ -212,7 +800,26 @@ public class BinaryResourceImpl extends ResourceImpl
        * An extra integer value encoding the style is written after the version number so that deserialization will respect the styles used during serialization.
        * @since 2.7
        */
-      VERSION_1_1
+      VERSION_1_1,
+
+      /**
+       * This version supports random access.
+       * The root objects are serialized as a sequence of independently decodable segments,
+       * where all the roots that reference each other within the resource are kept in the same segment,
+       * followed by a table of the number of root objects and the offset of each segment, and finally the offset of that table.
+       * @see BinaryResourceImpl#OPTION_LAZY_LOAD
+       * @since 2.9
+       */
+      VERSION_1_2,
+
+      /**
+       * This version additionally reduces the size of the serialization.
+       * Each string is written in full only the first time it's encountered within a segment and by its dictionary ID thereafter,
+       * int, long, and date values are written as variable length zig-zag encoded values,
+       * and each URI is written as the length of the prefix it shares with the previously written URI followed by the remaining suffix.
+       * @since 2.9
+       */
+      VERSION_1_3
     }
 
     /**
@@ -567,6 +1174,10 @@ public class BinaryResourceImpl extends ResourceImpl
       public FeatureKind kind;
       public EFactory eFactory;
       public EDataType eDataType;
+      /**
+       * @since 2.9
+       */
+      public FeatureAccessTable featureAccessTable;
     }
 
     protected OutputStream outputStream;
@@ -575,6 +1186,19 @@ public class BinaryResourceImpl extends ResourceImpl
     protected Map<EObject, Integer> eObjectIDMap = new HashMap<EObject, Integer>();
     protected Map<URI, Integer> uriToIDMap = new HashMap<URI, Integer>();
 
+    /**
+     * The dictionary of strings written so far,
+     * or <code>null</code> if the {@link #version} is less than {@link Version#VERSION_1_3 version 1.3}.
+     * @since 2.9
+     */
+    protected Map<String, Integer> stringToIDMap;
+
+    /**
+     * The string form of the URI most recently written in full, used for {@link Version#VERSION_1_3 delta encoding} the next one.
+     * @since 2.9
+     */
+    protected String previousURIString;
+
     public EObjectOutputStream(OutputStream outputStream, Map<?, ?> options) throws IOException
     {
       this(outputStream, options, options != null && options.containsKey(OPTION_VERSION)? (Version)options.get(OPTION_VERSION) : Version.VERSION_1_0);
@@ -594,6 +1218,10 @@ public class BinaryResourceImpl extends ResourceImpl
       this.options = options;
       this.version = version;
       this.style = style;
+      if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+      {
+        stringToIDMap = new HashMap<String, Integer>();
+      }
       writeSignature();
       writeVersion();
       if (version.ordinal() > 0)
@@ -664,9 +1292,11 @@ public class BinaryResourceImpl extends ResourceImpl
         writeString(eClass.getName());
         int featureCount = eClass.getFeatureCount();
         EStructuralFeatureData [] eStructuralFeaturesData = eClassData.eStructuralFeatureData = new EStructuralFeatureData[featureCount];
+        FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(eClass);
         for (int i = 0; i < featureCount; ++i)
         {
           EStructuralFeatureData eStructuralFeatureData = eStructuralFeaturesData[i] = new EStructuralFeatureData();
+          eStructuralFeatureData.featureAccessTable = featureAccessTable;
           EStructuralFeature.Internal eStructuralFeature = (EStructuralFeature.Internal)eClass.getEStructuralFeature(i);
           eStructuralFeatureData.name = eStructuralFeature.getName();
           eStructuralFeatureData.isTransient = eStructuralFeature.isTransient() || eStructuralFeature.isContainer() && !eStructuralFeature.isResolveProxies();
@@ -720,7 +1350,164 @@ public class BinaryResourceImpl extends ResourceImpl
       }
       @SuppressWarnings("unchecked")
       InternalEList<? extends InternalEObject> internalEList = (InternalEList<? extends InternalEObject>)(InternalEList<?>)resource.getContents();
-      saveEObjects(internalEList, Check.CONTAINER);
+      if (version.ordinal() >= Version.VERSION_1_2.ordinal())
+      {
+        saveSegments(internalEList);
+      }
+      else
+      {
+        saveEObjects(internalEList, Check.CONTAINER);
+      }
+    }
+
+    /**
+     * Saves the root objects as a sequence of independently decodable segments,
+     * preceded by the total number of roots and the number of segments,
+     * where each segment starts with its number of roots.
+     * The segments are written directly to the stream,
+     * followed by a table of the number of roots and the offset of each segment,
+     * and finally the offset of that table, so that the table can be located from the end.
+     * All offsets are relative to the position immediately following the number of segments.
+     * @see Version#VERSION_1_2
+     * @since 2.9
+     */
+    protected void saveSegments(InternalEList<? extends InternalEObject> internalEObjects) throws IOException
+    {
+      int size = internalEObjects.size();
+      InternalEObject [] values = allocateInternalEObjectArray(size);
+      internalEObjects.basicToArray(values);
+      int [] segmentEnds = getSegmentEnds(values, size);
+      int segmentCount = segmentEnds.length;
+      writeCompressedInt(size);
+      writeCompressedInt(segmentCount);
+
+      long [] segmentOffsets = new long [segmentCount];
+      long tableOffset;
+      OutputStream outputStream = this.outputStream;
+      CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+      this.outputStream = countingOutputStream;
+      try
+      {
+        for (int i = 0, start = 0; i < segmentCount; ++i)
+        {
+          int end = segmentEnds[i];
+          segmentOffsets[i] = countingOutputStream.count;
+          resetSegment();
+          writeCompressedInt(end - start);
+          for (; start < end; ++start)
+          {
+            saveEObject(values[start], Check.CONTAINER);
+          }
+        }
+        tableOffset = countingOutputStream.count;
+      }
+      finally
+      {
+        this.outputStream = outputStream;
+      }
+      recycle(values);
+
+      for (int i = 0; i < segmentCount; ++i)
+      {
+        writeCompressedInt(segmentEnds[i] - (i == 0 ? 0 : segmentEnds[i - 1]));
+        writeLong(segmentOffsets[i]);
+      }
+      writeLong(tableOffset);
+    }
+
+    /**
+     * Returns the exclusive end index of each segment of the given root objects.
+     * Each segment is a contiguous range of roots closed under references between the objects they contain,
+     * i.e., no object of this stream's resource in one segment references an object of another segment.
+     * This ensures that no object will be serialized in more than one segment.
+     * @since 2.9
+     */
+    protected int [] getSegmentEnds(InternalEObject [] roots, int size)
+    {
+      Map<EObject, Integer> rootIndices = new HashMap<EObject, Integer>();
+      int [] reach = new int [size];
+      for (int i = 0; i < size; ++i)
+      {
+        rootIndices.put(roots[i], i);
+        reach[i] = i;
+      }
+
+      // Extend the reach of the lower index of each pair of roots whose contents reference each other.
+      //
+      for (int i = 0; i < size; ++i)
+      {
+        for (Iterator<EObject> j = EcoreUtil.getAllProperContents(Collections.singleton(roots[i]), false); j.hasNext(); )
+        {
+          EObject eObject = j.next();
+          for (Iterator<EObject> k = ((InternalEList<EObject>)eObject.eCrossReferences()).basicIterator(); k.hasNext(); )
+          {
+            InternalEObject target = (InternalEObject)k.next();
+            if (!target.eIsProxy())
+            {
+              for (InternalEObject container = target.eInternalContainer();
+                   container != null && target.eDirectResource() == null;
+                   container = container.eInternalContainer())
+              {
+                target = container;
+              }
+              Integer index = rootIndices.get(target);
+              if (index != null)
+              {
+                int targetIndex = index;
+                if (targetIndex < i)
+                {
+                  if (reach[targetIndex] < i)
+                  {
+                    reach[targetIndex] = i;
+                  }
+                }
+                else if (reach[i] < targetIndex)
+                {
+                  reach[i] = targetIndex;
+                }
+              }
+            }
+          }
+        }
+      }
+
+      // Sweep the ranges to merge the overlapping ones.
+      //
+      int [] segmentEnds = new int [size];
+      int segmentCount = 0;
+      for (int start = 0; start < size; )
+      {
+        int end = reach[start];
+        for (int i = start + 1; i <= end; ++i)
+        {
+          if (reach[i] > end)
+          {
+            end = reach[i];
+          }
+        }
+        start = segmentEnds[segmentCount++] = end + 1;
+      }
+      int [] result = new int [segmentCount];
+      System.arraycopy(segmentEnds, 0, result, 0, segmentCount);
+      return result;
+    }
+
+    /**
+     * Clears the tables of packages, classes, objects, and URIs written so far,
+     * so that what follows can be decoded independently of what precedes it.
+     * @since 2.9
+     */
+    protected void resetSegment()
+    {
+      ePackageDataMap.clear();
+      eClassDataMap.clear();
+      eObjectIDMap.clear();
+      uriToIDMap.clear();
+      if (stringToIDMap != null)
+      {
+        stringToIDMap.clear();
+      }
+      previousURIString = null;
     }
 
     public void saveEObjects(InternalEList<? extends InternalEObject> internalEObjects, Check check) throws IOException
@@ -804,12 +1591,12 @@ public class BinaryResourceImpl extends ResourceImpl
         }
         case INT:
         {
-          writeInt((Integer)value);
+          writeIntValue((Integer)value);
           break;
         }
         case LONG:
         {
-          writeLong((Long)value);
+          writeLongValue((Long)value);
           break;
         }
         case SHORT:
@@ -838,7 +1625,7 @@ public class BinaryResourceImpl extends ResourceImpl
         {
           if ((style & STYLE_BINARY_ENUMERATOR) != 0)
           {
-            writeInt(((Enumerator)value).getValue());
+            writeIntValue(((Enumerator)value).getValue());
           }
           else
           {
@@ -957,7 +1744,8 @@ public class BinaryResourceImpl extends ResourceImpl
 
     protected void saveFeatureValue(InternalEObject internalEObject, int featureID, EStructuralFeatureData eStructuralFeatureData) throws IOException
     {
-      if (internalEObject.eIsSet(featureID))
+      FeatureAccessTable featureAccessTable = eStructuralFeatureData.featureAccessTable;
+      if (featureAccessTable.isSet(internalEObject, featureID))
       {
         writeCompressedInt(featureID + 1);
         if (eStructuralFeatureData.name != null)
@@ -965,7 +1753,7 @@ public class BinaryResourceImpl extends ResourceImpl
           writeString(eStructuralFeatureData.name);
           eStructuralFeatureData.name = null;
         }
-        Object value = internalEObject.eGet(featureID, false, true);
+        Object value = featureAccessTable.get(internalEObject, featureID, false);
         switch (eStructuralFeatureData.kind)
         {
           case EOBJECT:
@@ -1038,12 +1826,12 @@ public class BinaryResourceImpl extends ResourceImpl
           }
           case INT:
           {
-            writeInt((Integer)value);
+            writeIntValue((Integer)value);
             break;
           }
           case LONG:
           {
-            writeLong((Long)value);
+            writeLongValue((Long)value);
             break;
           }
           case SHORT:
@@ -1078,7 +1866,7 @@ public class BinaryResourceImpl extends ResourceImpl
           {
             if ((style & STYLE_BINARY_ENUMERATOR) != 0)
             {
-              writeInt(((Enumerator)value).getValue());
+              writeIntValue(((Enumerator)value).getValue());
             }
             else
             {
@@ -1148,6 +1936,72 @@ public class BinaryResourceImpl extends ResourceImpl
       writeInt((int)value);
     }
 
+    /**
+     * Writes the int as a variable length zig-zag encoded value,
+     * i.e., using one byte for each seven bits of significance, with small negative values being as compact as small positive ones.
+     * @since 2.9
+     */
+    public void writeVarInt(int value) throws IOException
+    {
+      int zigZag = value << 1 ^ value >> 31;
+      while ((zigZag & ~0x7F) != 0)
+      {
+        writeByte(zigZag & 0x7F | 0x80);
+        zigZag >>>= 7;
+      }
+      writeByte(zigZag);
+    }
+
+    /**
+     * Writes the long as a variable length zig-zag encoded value.
+     * @see #writeVarInt(int)
+     * @since 2.9
+     */
+    public void writeVarLong(long value) throws IOException
+    {
+      long zigZag = value << 1 ^ value >> 63;
+      while ((zigZag & ~0x7FL) != 0)
+      {
+        writeByte((int)zigZag & 0x7F | 0x80);
+        zigZag >>>= 7;
+      }
+      writeByte((int)zigZag);
+    }
+
+    /**
+     * Writes the int value of a feature,
+     * i.e., {@link #writeVarInt(int) variable length encoded} for {@link Version#VERSION_1_3 version 1.3} or higher.
+     * @since 2.9
+     */
+    protected void writeIntValue(int value) throws IOException
+    {
+      if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+      {
+        writeVarInt(value);
+      }
+      else
+      {
+        writeInt(value);
+      }
+    }
+
+    /**
+     * Writes the long value of a feature,
+     * i.e., {@link #writeVarLong(long) variable length encoded} for {@link Version#VERSION_1_3 version 1.3} or higher.
+     * @since 2.9
+     */
+    protected void writeLongValue(long value) throws IOException
+    {
+      if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+      {
+        writeVarLong(value);
+      }
+      else
+      {
+        writeLong(value);
+      }
+    }
+
     public void writeFloat(float value) throws IOException
     {
       if ((style & STYLE_BINARY_FLOATING_POINT) != 0)
@@ -1213,6 +2067,33 @@ public class BinaryResourceImpl extends ResourceImpl
     }
 
     public void writeString(String value) throws IOException
+    {
+      if (stringToIDMap == null || value == null)
+      {
+        writeStringCharacters(value);
+      }
+      else
+      {
+        Integer id = stringToIDMap.get(value);
+        if (id == null)
+        {
+          int idValue = stringToIDMap.size();
+          stringToIDMap.put(value, idValue);
+          writeCompressedInt(idValue);
+          writeStringCharacters(value);
+        }
+        else
+        {
+          writeCompressedInt(id);
+        }
+      }
+    }
+
+    /**
+     * Writes the length and the characters of the string, bypassing the {@link Version#VERSION_1_3 dictionary}.
+     * @since 2.9
+     */
+    protected void writeStringCharacters(String value) throws IOException
     {
       if (value == null)
       {
@@ -1251,7 +2132,7 @@ public class BinaryResourceImpl extends ResourceImpl
 
     public void writeDate(Date date) throws IOException
     {
-      writeLong(date.getTime());
+      writeLongValue(date.getTime());
     }
 
     public void writeURI(URI uri) throws IOException
@@ -1274,7 +2155,14 @@ public class BinaryResourceImpl extends ResourceImpl
           int idValue = uriToIDMap.size();
           uriToIDMap.put(uri, idValue);
           writeCompressedInt(idValue);
-          writeString(deresolve(uri).toString());
+          if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+          {
+            writeURIDelta(deresolve(uri).toString());
+          }
+          else
+          {
+            writeString(deresolve(uri).toString());
+          }
         }
         else
         {
@@ -1283,6 +2171,28 @@ public class BinaryResourceImpl extends ResourceImpl
         writeString(fragment);
       }
     }
+
+    /**
+     * Writes the string form of a URI as the length of the prefix it shares with the {@link #previousURIString previous one},
+     * followed by the remaining characters.
+     * @since 2.9
+     */
+    protected void writeURIDelta(String uriString) throws IOException
+    {
+      int prefixLength = 0;
+      if (previousURIString != null)
+      {
+        for (int limit = Math.min(uriString.length(), previousURIString.length());
+             prefixLength < limit && uriString.charAt(prefixLength) == previousURIString.charAt(prefixLength);
+             ++prefixLength)
+        {
+          // Count the common characters.
+        }
+      }
+      writeCompressedInt(prefixLength);
+      writeStringCharacters(uriString.substring(prefixLength));
+      previousURIString = uriString;
+    }
   }
 
   public static class EObjectInputStream extends BinaryIO
@@ -1321,6 +2231,10 @@ public class BinaryResourceImpl extends ResourceImpl
       public FeatureKind kind;
       public EFactory eFactory;
       public EDataType eDataType;
+      /**
+       * @since 2.9
+       */
+      public FeatureAccessTable featureAccessTable;
     }
 
     protected ResourceSet resourceSet;
@@ -1330,6 +2244,19 @@ public class BinaryResourceImpl extends ResourceImpl
     protected List<InternalEObject> eObjectList = new ArrayList<InternalEObject>();
     protected List<URI> uriList = new ArrayList<URI>();
 
+    /**
+     * The dictionary of strings read so far,
+     * or <code>null</code> if the {@link #version} is less than {@link Version#VERSION_1_3 version 1.3}.
+     * @since 2.9
+     */
+    protected List<String> stringList;
+
+    /**
+     * The string form of the URI most recently read in full, used for decoding the {@link Version#VERSION_1_3 delta encoding} of the next one.
+     * @since 2.9
+     */
+    protected String previousURIString;
+
     protected BasicEList<InternalEObject> internalEObjectList = new BasicEList<InternalEObject>();
     protected BasicEList<Object> dataValueList = new BasicEList<Object>();
 
@@ -1347,6 +2274,29 @@ public class BinaryResourceImpl extends ResourceImpl
       {
         style = STYLE_BINARY_FLOATING_POINT;
       }
+      if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+      {
+        stringList = new ArrayList<String>();
+      }
+    }
+
+    /**
+     * Creates an instance that reads from a position following the header,
+     * i.e., one that doesn't read a signature, version, or style,
+     * but rather uses the given version and style.
+     * This is useful for reading the {@link #loadSegment(Resource, int, int) segments} of a {@link Version#VERSION_1_2 random access} serialization.
+     * @since 2.9
+     */
+    public EObjectInputStream(InputStream inputStream, Map<?, ?> options, Version version, int style)
+    {
+      this.inputStream = inputStream;
+      this.options = options;
+      this.version = version;
+      this.style = style;
+      if (version.ordinal() >= Version.VERSION_1_3.ordinal())
+      {
+        stringList = new ArrayList<String>();
+      }
     }
 
     protected void readSignature() throws IOException
@@ -1464,6 +2414,7 @@ public class BinaryResourceImpl extends ResourceImpl
         String name = readString();
         eStructuralFeatureData.eStructuralFeature = eClassData.eClass.getEStructuralFeature(name);
         eStructuralFeatureData.featureID = eClassData.eClass.getFeatureID(eStructuralFeatureData.eStructuralFeature);
+        eStructuralFeatureData.featureAccessTable = FeatureAccessTable.getFeatureAccessTable(eClassData.eClass);
         eStructuralFeatureData.kind = FeatureKind.get(eStructuralFeatureData.eStructuralFeature);
         if (eStructuralFeatureData.eStructuralFeature instanceof EAttribute)
         {
@@ -1476,6 +2427,61 @@ public class BinaryResourceImpl extends ResourceImpl
     }
 
     public void loadResource(Resource resource) throws IOException
+    {
+      if (version.ordinal() >= Version.VERSION_1_2.ordinal())
+      {
+        // Load the segments one after the other, each preceded by its number of root objects, ignoring the table that follows them.
+        //
+        readCompressedInt();
+        int segmentCount = readCompressedInt();
+        for (int i = 0, index = 0; i < segmentCount; ++i)
+        {
+          int size = readCompressedInt();
+          loadSegment(resource, size, index);
+          index += size;
+        }
+      }
+      else
+      {
+        initializeResource(resource);
+        loadContents(readCompressedInt(), 0);
+      }
+    }
+
+    /**
+     * Loads a segment of a {@link Version#VERSION_1_2 random access} serialization,
+     * inserting its root objects into the contents of the resource at the given index.
+     * @param resource the resource being loaded.
+     * @param size the number of root objects in the segment.
+     * @param index the index in the contents of the resource at which to insert the root objects.
+     * @since 2.9
+     */
+    public void loadSegment(Resource resource, int size, int index) throws IOException
+    {
+      initializeResource(resource);
+      resetSegment();
+      loadContents(size, index);
+    }
+
+    /**
+     * Clears the tables of packages, classes, objects, and URIs read so far,
+     * so that what follows is decoded independently of what precedes it.
+     * @since 2.9
+     */
+    protected void resetSegment()
+    {
+      ePackageDataList.clear();
+      eClassDataList.clear();
+      eObjectList.clear();
+      uriList.clear();
+      if (stringList != null)
+      {
+        stringList.clear();
+      }
+      previousURIString = null;
+    }
+
+    private void initializeResource(Resource resource)
     {
       this.resource = resource;
       this.resourceSet = resource.getResourceSet();
@@ -1484,7 +2490,10 @@ public class BinaryResourceImpl extends ResourceImpl
       {
         baseURI = uri;
       }
-      int size = readCompressedInt();
+    }
+
+    private void loadContents(int size, int index) throws IOException
+    {
       InternalEObject[] values = allocateInternalEObjectArray(size);
       for (int i = 0; i < size; ++i)
       {
@@ -1493,7 +2502,7 @@ public class BinaryResourceImpl extends ResourceImpl
       internalEObjectList.setData(size, values);
       @SuppressWarnings("unchecked")
       InternalEList<InternalEObject> internalEObjects = (InternalEList<InternalEObject>)(InternalEList<?>)resource.getContents();
-      internalEObjects.addAllUnique(internalEObjectList);
+      internalEObjects.addAllUnique(index, internalEObjectList);
       recycle(values);
     }
 
@@ -1681,7 +2690,7 @@ public class BinaryResourceImpl extends ResourceImpl
         {
           if ((style & STYLE_BINARY_ENUMERATOR) != 0)
           {
-            value = ((EEnum)eStructuralFeatureData.eDataType).getEEnumLiteral(readInt()).getInstance();
+            value = ((EEnum)eStructuralFeatureData.eDataType).getEEnumLiteral(readIntValue()).getInstance();
           }
           else
           {
@@ -1723,12 +2732,12 @@ public class BinaryResourceImpl extends ResourceImpl
         }
         case INT:
         {
-          value = readInt();
+          value = readIntValue();
           break;
         }
         case LONG:
         {
-          value = readLong();
+          value = readLongValue();
           break;
         }
         case SHORT:
@@ -1799,7 +2808,7 @@ public class BinaryResourceImpl extends ResourceImpl
         case EOBJECT_CONTAINMENT:
         case EOBJECT_CONTAINMENT_PROXY_RESOLVING:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, loadEObject());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, loadEObject());
           break;
         }
         case EOBJECT_LIST:
@@ -1808,18 +2817,18 @@ public class BinaryResourceImpl extends ResourceImpl
         case EOBJECT_CONTAINMENT_LIST_PROXY_RESOLVING:
         {
           @SuppressWarnings("unchecked")
-          InternalEList<InternalEObject> internalEList = (InternalEList<InternalEObject>)internalEObject.eGet(eStructuralFeatureData.featureID, false, true);
+          InternalEList<InternalEObject> internalEList = (InternalEList<InternalEObject>)eStructuralFeatureData.featureAccessTable.get(internalEObject, eStructuralFeatureData.featureID, false);
           loadEObjects(internalEList);
           break;
         }
         case STRING:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readString());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readString());
           break;
         }
         case FEATURE_MAP:
         {
-          FeatureMap.Internal featureMap = (FeatureMap.Internal)internalEObject.eGet(eStructuralFeatureData.featureID, false, true);
+          FeatureMap.Internal featureMap = (FeatureMap.Internal)eStructuralFeatureData.featureAccessTable.get(internalEObject, eStructuralFeatureData.featureID, false);
           loadFeatureMap(featureMap);
           break;
         }
@@ -1827,11 +2836,11 @@ public class BinaryResourceImpl extends ResourceImpl
         {
           if ((style & STYLE_BINARY_DATE) != 0)
           {
-            internalEObject.eSet(eStructuralFeatureData.featureID, readDate());
+            eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readDate());
           }
           else
           {
-            internalEObject.eSet(eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, readString()));
+            eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, readString()));
           }
           break;
         }
@@ -1839,18 +2848,18 @@ public class BinaryResourceImpl extends ResourceImpl
         {
           if ((style & STYLE_BINARY_ENUMERATOR) != 0)
           {
-            internalEObject.eSet(eStructuralFeatureData.featureID, ((EEnum)eStructuralFeatureData.eDataType).getEEnumLiteral(readInt()).getInstance());
+            eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, ((EEnum)eStructuralFeatureData.eDataType).getEEnumLiteral(readIntValue()).getInstance());
           }
           else
           {
-            internalEObject.eSet(eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, readString()));
+            eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, readString()));
           }
           break;
         }
         case DATA:
         {
           String literal = readString();
-          internalEObject.eSet(eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, literal));
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, eStructuralFeatureData.eFactory.createFromString(eStructuralFeatureData.eDataType, literal));
           break;
         }
         case DATA_LIST:
@@ -1865,48 +2874,48 @@ public class BinaryResourceImpl extends ResourceImpl
           }
           dataValueList.setData(size, dataValues);
           @SuppressWarnings("unchecked")
-          List<Object> values = (List<Object>)internalEObject.eGet(eStructuralFeatureData.featureID, false, true);
+          List<Object> values = (List<Object>)eStructuralFeatureData.featureAccessTable.get(internalEObject, eStructuralFeatureData.featureID, false);
           values.addAll(dataValueList);
           break;
         }
         case BOOLEAN:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readBoolean());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readBoolean());
           break;
         }
         case BYTE:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readByte());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readByte());
           break;
         }
         case CHAR:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readChar());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readChar());
           break;
         }
         case DOUBLE:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readDouble());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readDouble());
           break;
         }
         case FLOAT:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readFloat());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readFloat());
           break;
         }
         case INT:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readInt());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readIntValue());
           break;
         }
         case LONG:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readLong());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readLongValue());
           break;
         }
         case SHORT:
         {
-          internalEObject.eSet(eStructuralFeatureData.featureID, readShort());
+          eStructuralFeatureData.featureAccessTable.set(internalEObject, eStructuralFeatureData.featureID, readShort());
           break;
         }
         default:
@@ -1951,6 +2960,66 @@ public class BinaryResourceImpl extends ResourceImpl
       return (long)readInt() << 32 | readInt() & 0xFFFFFFFFL;
     }
 
+    /**
+     * Reads a variable length zig-zag encoded int.
+     * @see EObjectOutputStream#writeVarInt(int)
+     * @since 2.9
+     */
+    public int readVarInt() throws IOException
+    {
+      int zigZag = 0;
+      for (int shift = 0; ; shift += 7)
+      {
+        byte value = readByte();
+        zigZag |= (value & 0x7F) << shift;
+        if (value >= 0)
+        {
+          break;
+        }
+      }
+      return zigZag >>> 1 ^ -(zigZag & 1);
+    }
+
+    /**
+     * Reads a variable length zig-zag encoded long.
+     * @see EObjectOutputStream#writeVarLong(long)
+     * @since 2.9
+     */
+    public long readVarLong() throws IOException
+    {
+      long zigZag = 0;
+      for (int shift = 0; ; shift += 7)
+      {
+        byte value = readByte();
+        zigZag |= (long)(value & 0x7F) << shift;
+        if (value >= 0)
+        {
+          break;
+        }
+      }
+      return zigZag >>> 1 ^ -(zigZag & 1);
+    }
+
+    /**
+     * Reads the int value of a feature.
+     * @see EObjectOutputStream#writeIntValue(int)
+     * @since 2.9
+     */
+    protected int readIntValue() throws IOException
+    {
+      return version.ordinal() >= Version.VERSION_1_3.ordinal() ? readVarInt() : readInt();
+    }
+
+    /**
+     * Reads the long value of a feature.
+     * @see EObjectOutputStream#writeLongValue(long)
+     * @since 2.9
+     */
+    protected long readLongValue() throws IOException
+    {
+      return version.ordinal() >= Version.VERSION_1_3.ordinal() ? readVarLong() : readLong();
+    }
+
     public float readFloat() throws IOException
     {
       if ((style & STYLE_BINARY_FLOATING_POINT) != 0)
@@ -2001,6 +3070,36 @@ public class BinaryResourceImpl extends ResourceImpl
     }
 
     public String readString() throws IOException
+    {
+      if (stringList == null)
+      {
+        return readStringCharacters();
+      }
+      else
+      {
+        int id = readCompressedInt();
+        if (id == -1)
+        {
+          return null;
+        }
+        else if (stringList.size() <= id)
+        {
+          String value = readStringCharacters();
+          stringList.add(value);
+          return value;
+        }
+        else
+        {
+          return stringList.get(id);
+        }
+      }
+    }
+
+    /**
+     * Reads the length and the characters of a string, bypassing the {@link Version#VERSION_1_3 dictionary}.
+     * @since 2.9
+     */
+    protected String readStringCharacters() throws IOException
     {
       int length = readCompressedInt();
       if (length == -1)
@@ -2037,7 +3136,7 @@ public class BinaryResourceImpl extends ResourceImpl
 
     public Date readDate() throws IOException
     {
-      long time = readLong();
+      long time = readLongValue();
       return new Date(time);
     }
 
@@ -2053,7 +3152,7 @@ public class BinaryResourceImpl extends ResourceImpl
         URI uri;
         if (uriList.size() <= id)
         {
-          String value = readString();
+          String value = version.ordinal() >= Version.VERSION_1_3.ordinal() ? readURIDelta() : readString();
           uri = resolve(URI.createURI(value));
           uriList.add(uri);
         }
@@ -2069,5 +3168,19 @@ public class BinaryResourceImpl extends ResourceImpl
         return uri;
       }
     }
+
+    /**
+     * Reads the string form of a URI encoded relative to the {@link #previousURIString previous one}.
+     * @see EObjectOutputStream#writeURIDelta(String)
+     * @since 2.9
+     */
+    protected String readURIDelta() throws IOException
+    {
+      int prefixLength = readCompressedInt();
+      String suffix = readStringCharacters();
+      String result = prefixLength == 0 ? suffix : previousURIString.substring(0, prefixLength) + suffix;
+      previousURIString = result;
+      return result;
+    }
   }
 }
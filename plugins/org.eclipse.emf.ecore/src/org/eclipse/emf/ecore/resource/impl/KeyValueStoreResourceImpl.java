@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.resource.impl;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.KeyValueEStoreImpl;
+
+
+/**
+ * A resource whose contents are the roots of an object graph held in a {@link KeyValueEStoreImpl key-value store}
+ * in the local file denoted by the resource's URI.
+ * <p>
+ * Loading the resource opens the store and populates the contents with its roots;
+ * the rest of the graph is read from the file on demand as it's navigated.
+ * Saving the resource commits the changes to the store, so the objects must be created by the store's {@link KeyValueEStoreImpl#create(org.eclipse.emf.ecore.EClass) factory method}.
+ * Unloading the resource turns just the roots into proxies and closes the store, discarding any changes that haven't been saved.
+ * </p>
+ * @since 2.9
+ */
+public class KeyValueStoreResourceImpl extends ResourceImpl
+{
+  /**
+   * An Integer load option to specify the maximum number of unchanged records that the store holds in memory.
+   * The default is {@link KeyValueEStoreImpl#DEFAULT_CACHE_SIZE}.
+   */
+  public static final String OPTION_CACHE_SIZE = "CACHE_SIZE";
+
+  /**
+   * A Boolean save option to specify whether the store is {@link KeyValueEStoreImpl#compact() compacted} after the commit.
+   * The default is false.
+   */
+  public static final String OPTION_COMPACT = "COMPACT";
+
+  /**
+   * The store holding the contents, or <code>null</code> if it hasn't been opened.
+   */
+  protected KeyValueEStoreImpl eStore;
+
+  /**
+   * Creates an empty instance.
+   */
+  public KeyValueStoreResourceImpl()
+  {
+    super();
+  }
+
+  /**
+   * Creates an instance with the given URI.
+   * @param uri the URI.
+   */
+  public KeyValueStoreResourceImpl(URI uri)
+  {
+    super(uri);
+  }
+
+  /**
+   * Returns the store holding the contents, opening it if necessary with the {@link #defaultLoadOptions default load options}.
+   * @return the store holding the contents.
+   */
+  public KeyValueEStoreImpl getEStore()
+  {
+    if (eStore == null)
+    {
+      try
+      {
+        eStore = openEStore(defaultLoadOptions);
+      }
+      catch (IOException exception)
+      {
+        throw new WrappedException(exception);
+      }
+    }
+    return eStore;
+  }
+
+  /**
+   * Opens the store for the file denoted by the {@link #getURI() URI}.
+   * @param options the load options.
+   * @return a new store.
+   * @throws IOException if the URI doesn't denote a local file or the file can't be read.
+   */
+  protected KeyValueEStoreImpl openEStore(Map<?, ?> options) throws IOException
+  {
+    URI uri = getURIConverter().normalize(getURI());
+    if (!uri.isFile())
+    {
+      throw new IOException("The URI " + getURI() + " doesn't denote a local file");
+    }
+    Integer cacheSize = options == null ? null : (Integer)options.get(OPTION_CACHE_SIZE);
+    EPackage.Registry packageRegistry = resourceSet == null ? EPackage.Registry.INSTANCE : resourceSet.getPackageRegistry();
+    return
+      new KeyValueEStoreImpl
+        (new File(uri.toFileString()),
+         packageRegistry,
+         cacheSize == null ? KeyValueEStoreImpl.DEFAULT_CACHE_SIZE : cacheSize);
+  }
+
+  /**
+   * Opens the store and populates the contents with its roots.
+   */
+  @Override
+  public void load(Map<?, ?> options) throws IOException
+  {
+    if (!isLoaded)
+    {
+      if (eStore == null)
+      {
+        eStore = openEStore(mergeMaps(options, defaultLoadOptions));
+      }
+
+      Notification notification = setLoaded(true);
+      isLoading = true;
+      try
+      {
+        if (errors != null)
+        {
+          errors.clear();
+        }
+        if (warnings != null)
+        {
+          warnings.clear();
+        }
+        getContents().addAll(eStore.getRoots());
+      }
+      finally
+      {
+        isLoading = false;
+        if (notification != null)
+        {
+          eNotify(notification);
+        }
+        setModified(false);
+      }
+    }
+  }
+
+  /**
+   * Records the contents as the roots of the store and commits the store.
+   */
+  @Override
+  public void save(Map<?, ?> options) throws IOException
+  {
+    KeyValueEStoreImpl eStore = getEStore();
+    List<EObject> roots = new ArrayList<EObject>(getContents());
+    for (EObject root : roots)
+    {
+      if (eStore.getID(root) == 0)
+      {
+        throw new IOException("The object " + root + " wasn't created by the store of " + getURI());
+      }
+    }
+    eStore.setRoots(roots);
+    eStore.commit();
+
+    Map<?, ?> effectiveOptions = mergeMaps(options, defaultSaveOptions);
+    if (effectiveOptions != null && Boolean.TRUE.equals(effectiveOptions.get(OPTION_COMPACT)))
+    {
+      eStore.compact();
+    }
+    setModified(false);
+  }
+
+  /**
+   * Turns just the roots into proxies, rather than the whole content tree, which would read the whole graph from the store,
+   * and closes the store.
+   */
+  @Override
+  protected void doUnload()
+  {
+    List<EObject> roots = new ArrayList<EObject>(getContents());
+
+    // This guard is needed to ensure that clear doesn't make the resource become loaded.
+    //
+    if (!getContents().isEmpty())
+    {
+      getContents().clear();
+    }
+    getErrors().clear();
+    getWarnings().clear();
+
+    for (EObject root : roots)
+    {
+      unloaded((InternalEObject)root);
+    }
+
+    if (eStore != null)
+    {
+      try
+      {
+        eStore.close();
+      }
+      catch (IOException exception)
+      {
+        throw new WrappedException(exception);
+      }
+      finally
+      {
+        eStore = null;
+      }
+    }
+  }
+
+  /**
+   * Closes the store before deleting the file.
+   */
+  @Override
+  public void delete(Map<?, ?> options) throws IOException
+  {
+    if (eStore != null)
+    {
+      eStore.close();
+      eStore = null;
+    }
+    super.delete(options);
+  }
+}
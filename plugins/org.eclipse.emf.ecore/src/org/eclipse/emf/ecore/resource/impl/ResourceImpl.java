@@ -42,6 +42,7 @@ import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.resource.ContentHandler;
@@ -91,6 +92,10 @@ import org.eclipse.emf.ecore.util.EcoreUtil.ProperContentIterator;
  *   <ul>
  *     <li>{@link #createModificationTrackingAdapter()}</li>
  *   </ul>
+ *   <li><b>Intrinsic IDs</b></li>
+ *   <ul>
+ *     <li>{@link #createIntrinsicIDTrackingAdapter()}</li>
+ *   </ul>
  * </ul>
  * </p>
  */
@@ -226,6 +231,15 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
    */
   protected Map<String, EObject> intrinsicIDToEObjectMap;
 
+  /**
+   * The intrinsic ID tracking adapter.
+   * @see #isTrackingIntrinsicIDs()
+   * @see #attached(EObject)
+   * @see #detached(EObject)
+   * @since 2.9
+   */
+  protected Adapter intrinsicIDTrackingAdapter;
+
   /**
    * Creates a empty instance.
    */
@@ -796,13 +810,155 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
    * This cache is only activated if the map is not <code>null</code>.
    * The map will be lazily loaded by the {@link #getEObjectByID(String) getEObjectByID} method.
    * It is up to the client to clear the cache when it becomes invalid,
-   * e.g., when the ID of a previously mapped EObject is changed.
+   * e.g., when the ID of a previously mapped EObject is changed,
+   * unless the resource is {@link #isTrackingIntrinsicIDs() tracking intrinsic IDs},
+   * in which case the new map is populated immediately and kept up-to-date,
+   * or tracking is stopped if the new map is <code>null</code>.
    * @param intrinsicIDToEObjectMap the new map or <code>null</code>.
    * @see #getIntrinsicIDToEObjectMap
    */
   public void setIntrinsicIDToEObjectMap(Map<String, EObject> intrinsicIDToEObjectMap)
   {
     this.intrinsicIDToEObjectMap = intrinsicIDToEObjectMap;
+
+    if (isTrackingIntrinsicIDs())
+    {
+      if (intrinsicIDToEObjectMap == null)
+      {
+        setTrackingIntrinsicIDs(false);
+      }
+      else
+      {
+        buildIntrinsicIDToEObjectMap();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the {@link #getIntrinsicIDToEObjectMap() intrinsic ID map} is complete and kept up-to-date
+   * as objects are {@link #attached(EObject) attached}, {@link #detached(EObject) detached},
+   * and as the values of their {@link EcoreUtil#getID(EObject) ID attributes} change.
+   * @return whether intrinsic IDs are being tracked.
+   * @see #setTrackingIntrinsicIDs(boolean)
+   * @since 2.9
+   */
+  public boolean isTrackingIntrinsicIDs()
+  {
+    return intrinsicIDTrackingAdapter != null;
+  }
+
+  /**
+   * Sets whether the {@link #getIntrinsicIDToEObjectMap() intrinsic ID map} is complete and kept up-to-date.
+   * When tracking starts, a map is created if there isn't one already,
+   * it's populated from the current content tree,
+   * and an {@link #createIntrinsicIDTrackingAdapter() intrinsic ID tracking adapter} is added to each object in that tree,
+   * so that {@link #getEObjectByID(String) getEObjectByID} never needs to traverse the content tree.
+   * When tracking stops, the adapters are removed and the map reverts to being a lazily populated cache.
+   * @param isTrackingIntrinsicIDs whether intrinsic IDs should be tracked.
+   * @see #isTrackingIntrinsicIDs()
+   * @since 2.9
+   */
+  public void setTrackingIntrinsicIDs(boolean isTrackingIntrinsicIDs)
+  {
+    if (isTrackingIntrinsicIDs != (intrinsicIDTrackingAdapter != null))
+    {
+      if (isTrackingIntrinsicIDs)
+      {
+        intrinsicIDTrackingAdapter = createIntrinsicIDTrackingAdapter();
+        if (intrinsicIDToEObjectMap == null)
+        {
+          intrinsicIDToEObjectMap = new HashMap<String, EObject>();
+        }
+
+        for (TreeIterator<EObject> i = getAllProperContents(getContents()); i.hasNext(); )
+        {
+          EObject eObject = i.next();
+          eObject.eAdapters().add(intrinsicIDTrackingAdapter);
+        }
+
+        buildIntrinsicIDToEObjectMap();
+      }
+      else
+      {
+        Adapter oldIntrinsicIDTrackingAdapter = intrinsicIDTrackingAdapter;
+        intrinsicIDTrackingAdapter = null;
+
+        for (TreeIterator<EObject> i = getAllProperContents(getContents()); i.hasNext(); )
+        {
+          EObject eObject = i.next();
+          eObject.eAdapters().remove(oldIntrinsicIDTrackingAdapter);
+        }
+      }
+    }
+  }
+
+  /**
+   * Clears the {@link #getIntrinsicIDToEObjectMap() intrinsic ID map} and populates it from the current content tree.
+   * @since 2.9
+   */
+  protected void buildIntrinsicIDToEObjectMap()
+  {
+    Map<String, EObject> map = getIntrinsicIDToEObjectMap();
+    map.clear();
+    for (TreeIterator<EObject> i = getAllProperContents(getContents()); i.hasNext(); )
+    {
+      EObject eObject = i.next();
+      String id = EcoreUtil.getID(eObject);
+      if (id != null)
+      {
+        map.put(id, eObject);
+      }
+    }
+  }
+
+  /**
+   * An adapter implementation for tracking changes to the value of an object's {@link EcoreUtil#getID(EObject) ID attribute}.
+   * @since 2.9
+   */
+  protected class IntrinsicIDTrackingAdapter extends AdapterImpl
+  {
+    @Override
+    public void notifyChanged(Notification notification)
+    {
+      Object feature = notification.getFeature();
+      if (feature instanceof EAttribute && !notification.isTouch())
+      {
+        EObject eObject = (EObject)notification.getNotifier();
+        EAttribute eIDAttribute = eObject.eClass().getEIDAttribute();
+        if (feature == eIDAttribute)
+        {
+          Map<String, EObject> map = getIntrinsicIDToEObjectMap();
+          Object oldValue = notification.getOldValue();
+          if (oldValue != null)
+          {
+            String oldID = EcoreUtil.convertToString(eIDAttribute.getEAttributeType(), oldValue);
+            if (oldID != null && map.get(oldID) == eObject)
+            {
+              map.remove(oldID);
+            }
+          }
+
+          String id = EcoreUtil.getID(eObject);
+          if (id != null)
+          {
+            map.put(id, eObject);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates an intrinsic ID tracking adapter.
+   * This implementation creates a {@link ResourceImpl.IntrinsicIDTrackingAdapter}.
+   * Clients may override this to any adapter.
+   * @see #intrinsicIDTrackingAdapter
+   * @see #isTrackingIntrinsicIDs()
+   * @since 2.9
+   */
+  protected Adapter createIntrinsicIDTrackingAdapter()
+  {
+    return new IntrinsicIDTrackingAdapter();
   }
 
 
@@ -815,7 +971,7 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
     if (map != null)
     {
       EObject eObject = map.get(id);
-      if (eObject != null)
+      if (eObject != null || isTrackingIntrinsicIDs())
       {
         return eObject;
       }
@@ -871,6 +1027,11 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
       eObject.eAdapters().add(modificationTrackingAdapter);
     }
 
+    if (isTrackingIntrinsicIDs())
+    {
+      eObject.eAdapters().add(intrinsicIDTrackingAdapter);
+    }
+
     Map<String, EObject> map = getIntrinsicIDToEObjectMap();
     if (map != null)
     {
@@ -914,12 +1075,17 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
     if (map != null)
     {
       String id = EcoreUtil.getID(eObject);
-      if (id != null)
+      if (id != null && map.get(id) == eObject)
       {
         map.remove(id);
       }
     }
 
+    if (isTrackingIntrinsicIDs())
+    {
+      eObject.eAdapters().remove(intrinsicIDTrackingAdapter);
+    }
+
     if (isTrackingModification())
     {
       eObject.eAdapters().remove(modificationTrackingAdapter);
@@ -1544,6 +1710,13 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
       {
         isLoading = false;
 
+        // Objects loaded with notification disabled won't have reported the values of their IDs.
+        //
+        if (isTrackingIntrinsicIDs())
+        {
+          buildIntrinsicIDToEObjectMap();
+        }
+
         if (notification != null)
         {
           eNotify(notification);
@@ -1636,6 +1809,18 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
     }
   }
 
+  /**
+   * Returns the root objects that {@link #unload()} will turn into proxies.
+   * This implementation simply returns the {@link #getContents() contents};
+   * a resource that materializes its contents on demand can return only the ones already materialized.
+   * @return the root objects to unload.
+   * @since 2.9
+   */
+  protected List<EObject> getContentsToUnload()
+  {
+    return getContents();
+  }
+
   /**
    * Does all the work of unloading the resource.
    * It calls {@link #unloaded unloaded} for each object it the content {@link #getAllContents tree},
@@ -1667,7 +1852,7 @@ public class ResourceImpl extends NotifierImpl implements Resource, Resource.Int
   {
     if (isLoaded)
     {
-      unloadingContents = new BasicEList.FastCompare<EObject>(getContents());
+      unloadingContents = new BasicEList.FastCompare<EObject>(getContentsToUnload());
       Notification notification = setLoaded(false);
       try
       {
@@ -12,10 +12,20 @@ package org.eclipse.emf.ecore.resource.impl;
 
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.eclipse.emf.common.notify.AdapterFactory;
 import org.eclipse.emf.common.notify.Notification;
@@ -31,7 +41,9 @@ import org.eclipse.emf.common.util.UniqueEList;
 import org.eclipse.emf.common.util.WrappedException;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.plugin.EcorePlugin;
 import org.eclipse.emf.ecore.resource.ContentHandler;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
@@ -58,6 +70,11 @@ import org.eclipse.emf.ecore.util.NotifyingInternalEListImpl;
  *     <li>{@link #demandLoad(Resource)}</li>
  *     <li>{@link #demandLoadHelper(Resource)}</li>
  *   </ul>
+ *   <li><b>Batch</b></li>
+ *   <ul>
+ *     <li>{@link #loadAll(Collection, Map, Executor)}</li>
+ *     <li>{@link #resolveAll(Executor)}</li>
+ *   </ul>
  * </ul>
  * </p>
  */
@@ -111,6 +128,22 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
    */
   protected ResourceLocator resourceLocator;
 
+  /**
+   * The number of resources a resource set must contain before adding another resource
+   * {@link #createResourceLocator() creates} a {@link #resourceLocator resource locator},
+   * so that {@link #getResource(URI, boolean) getResource} doesn't linearly scan the {@link #getResources() resources}
+   * for a matching {@link URIConverter#normalize(URI) normalized URI}.
+   * @see #createResourceLocator()
+   * @since 2.9
+   */
+  protected static final int RESOURCE_LOCATOR_THRESHOLD = 32;
+
+  /**
+   * Whether {@link #createResourceLocator()} has returned <code>null</code>, in which case it's not called again.
+   * @since 2.9
+   */
+  protected boolean isResourceLocatorDeclined;
+
   /**
    * Creates an empty instance.
    */
@@ -279,6 +312,368 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
     }
   }
 
+  /**
+   * Returns the loaded resources for the given URIs, in the same order,
+   * parsing the resources that aren't yet in the resource set concurrently.
+   * <p>
+   * Resources that are already in the resource set are simply {@link #demandLoadHelper(Resource) demand loaded}, if necessary.
+   * For each of the others, a new resource is {@link Resource.Factory#createResource(URI) created}
+   * and is {@link Resource#load(Map) loaded} by a task submitted to the given executor.
+   * While it's being loaded, such a resource refers to this resource set, so that the set's {@link #getURIConverter() URI converter}
+   * and {@link #getPackageRegistry() package registry} are used,
+   * but it's not yet in the {@link #getResources() resources} and it isn't visible to {@link #getResource(URI, boolean) getResource}.
+   * Once all the tasks are done, the calling thread adds the new resources to the resource set, in order,
+   * and {@link #resolveAll(Collection, Executor) resolves} the proxies of all the loaded resources,
+   * so the resources they reference are demand loaded concurrently too.
+   * </p>
+   * <p>
+   * The loading tasks share this resource set's URI converter and package registry, and the load options,
+   * so they must be safe for concurrent read access,
+   * e.g., all packages needed to load the resources must already be registered,
+   * and the options must not induce the loading of other resources.
+   * If the executor is <code>null</code>, the resources are parsed on the calling thread.
+   * </p>
+   * @param uris the URIs of the resources to load.
+   * @param options the load options, or <code>null</code> to use the {@link #getLoadOptions() default load options}.
+   * @param executor the executor used to parse the new resources, or <code>null</code>.
+   * @return the resources for the URIs.
+   * @exception RuntimeException if any resource could not be loaded;
+   * all the successfully loaded resources will still have been added to the resource set and resolved,
+   * and each failed resource will have been added and will have its {@link Resource#getErrors() errors} recorded.
+   * Any exception thrown while resolving the proxies is then {@link EcorePlugin#log(Object) logged} rather than thrown,
+   * so that it doesn't mask the failure to load.
+   * @see #handleDemandLoadException(Resource, IOException)
+   * @since 2.9
+   */
+  public EList<Resource> loadAll(Collection<URI> uris, Map<?, ?> options, Executor executor)
+  {
+    EList<Resource> loadedResources = new UniqueEList.FastCompare<Resource>();
+    EList<Resource> result;
+    try
+    {
+      result = basicLoadAll(uris, options, executor, loadedResources);
+    }
+    catch (RuntimeException exception)
+    {
+      // Resolve the proxies in the successfully loaded resources, but report the failure to load.
+      //
+      try
+      {
+        resolveAll(loadedResources, executor);
+      }
+      catch (RuntimeException resolveException)
+      {
+        EcorePlugin.INSTANCE.log(resolveException);
+      }
+      throw exception;
+    }
+
+    // Resolve the proxies in the loaded resources now that they're all in the resource set.
+    //
+    resolveAll(loadedResources, executor);
+    return result;
+  }
+
+  /**
+   * Returns the loaded resources for the given URIs, in the same order, as {@link #loadAll(Collection, Map, Executor) loadAll} does,
+   * but without resolving the proxies in the loaded resources.
+   * @param uris the URIs of the resources to load.
+   * @param options the load options, or <code>null</code> to use the {@link #getLoadOptions() default load options}.
+   * @param executor the executor used to parse the new resources, or <code>null</code>.
+   * @param loadedResources the list to which each resource that this call loads is added.
+   * @return the resources for the URIs.
+   * @exception RuntimeException if any resource could not be loaded;
+   * all the other resources will still have been loaded and added to the resource set.
+   * @since 2.9
+   */
+  protected EList<Resource> basicLoadAll(Collection<URI> uris, Map<?, ?> options, Executor executor, EList<Resource> loadedResources)
+  {
+    final Map<?, ?> effectiveOptions = options == null ? getLoadOptions() : options;
+
+    // Ensure that the lazily created state shared by the loading tasks is created on this thread.
+    //
+    URIConverter theURIConverter = getURIConverter();
+    getPackageRegistry();
+
+    // Determine the resources corresponding to each URI, creating new ones, not yet in the resource set, where necessary.
+    //
+    Map<URI, Resource> normalizedURIToResourceMap = new LinkedHashMap<URI, Resource>();
+    EList<Resource> result = new BasicEList<Resource>(uris.size());
+    final EList<Resource> newResources = new UniqueEList.FastCompare<Resource>();
+    for (URI uri : uris)
+    {
+      URI normalizedURI = theURIConverter.normalize(uri);
+      Resource resource = normalizedURIToResourceMap.get(normalizedURI);
+      if (resource == null)
+      {
+        resource = getResource(uri, false);
+        if (resource == null)
+        {
+          Resource.Factory resourceFactory = getResourceFactoryRegistry().getFactory(uri, ContentHandler.UNSPECIFIED_CONTENT_TYPE);
+          if (resourceFactory == null)
+          {
+            throw new RuntimeException("Cannot create a resource for '" + uri + "'; a registered resource factory is needed");
+          }
+          resource = resourceFactory.createResource(uri);
+          ((Resource.Internal)resource).basicSetResourceSet(this, null);
+          newResources.add(resource);
+        }
+        normalizedURIToResourceMap.put(normalizedURI, resource);
+      }
+      result.add(resource);
+    }
+
+    // Parse each new resource in its own task and wait for all the tasks to complete.
+    //
+    final Exception [] exceptions = new Exception [newResources.size()];
+    final CountDownLatch latch = new CountDownLatch(newResources.size());
+    for (int i = 0, size = newResources.size(); i < size; ++i)
+    {
+      final int index = i;
+      Runnable task =
+        new Runnable()
+        {
+          public void run()
+          {
+            try
+            {
+              newResources.get(index).load(effectiveOptions);
+            }
+            catch (Exception exception)
+            {
+              exceptions[index] = exception;
+            }
+            finally
+            {
+              latch.countDown();
+            }
+          }
+        };
+
+      if (executor == null)
+      {
+        task.run();
+      }
+      else
+      {
+        try
+        {
+          executor.execute(task);
+        }
+        catch (RejectedExecutionException exception)
+        {
+          task.run();
+        }
+      }
+    }
+
+    boolean interrupted = false;
+    while (latch.getCount() != 0)
+    {
+      try
+      {
+        latch.await();
+      }
+      catch (InterruptedException exception)
+      {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+    {
+      Thread.currentThread().interrupt();
+    }
+
+    // Add the new resources to the resource set, and load any existing ones that aren't yet loaded.
+    //
+    RuntimeException firstException = null;
+    EList<Resource> resources = getResources();
+    for (int i = 0, size = newResources.size(); i < size; ++i)
+    {
+      Resource resource = newResources.get(i);
+      ((Resource.Internal)resource).basicSetResourceSet(null, null);
+      resources.add(resource);
+      Exception exception = exceptions[i];
+      if (exception != null)
+      {
+        try
+        {
+          if (exception instanceof IOException)
+          {
+            handleDemandLoadException(resource, (IOException)exception);
+          }
+          else
+          {
+            throw (RuntimeException)exception;
+          }
+        }
+        catch (RuntimeException runtimeException)
+        {
+          if (firstException == null)
+          {
+            firstException = runtimeException;
+          }
+        }
+      }
+    }
+    loadedResources.addAll(newResources);
+    for (Resource resource : result)
+    {
+      if (!resource.isLoaded())
+      {
+        loadedResources.add(resource);
+        try
+        {
+          demandLoadHelper(resource);
+        }
+        catch (RuntimeException exception)
+        {
+          if (firstException == null)
+          {
+            firstException = exception;
+          }
+        }
+      }
+    }
+
+    if (firstException != null)
+    {
+      throw firstException;
+    }
+
+    return result;
+  }
+
+  /**
+   * Visits all proxies in the resource set's resources and tries to resolve them,
+   * {@link #resolveAll(Collection, Executor) demand loading} the resources they reference concurrently.
+   * @param executor the executor used to parse the referenced resources, or <code>null</code>.
+   * @see EcoreUtil#resolveAll(ResourceSet, Executor)
+   * @since 2.9
+   */
+  public void resolveAll(Executor executor)
+  {
+    resolveAll(new ArrayList<Resource>(getResources()), executor);
+  }
+
+  /**
+   * Visits all proxies in the given resources and tries to resolve them.
+   * <p>
+   * Rather than resolving each proxy in turn, demand loading its resource in the middle of the traversal,
+   * this first collects the proxy URIs of the resources and groups them by {@link URI#trimFragment() resource URI}.
+   * The distinct resources that aren't yet loaded are then {@link #basicLoadAll(Collection, Map, Executor, EList) loaded} concurrently,
+   * using the given executor, and the proxies of those resources are collected in turn,
+   * until no further resources need loading.
+   * Only then are the proxies {@link EcoreUtil#resolveAll(Resource) resolved},
+   * at which point each resolution is just a lookup in a loaded resource.
+   * The same requirements as for {@link #loadAll(Collection, Map, Executor) loadAll} apply to the concurrent loading.
+   * As for {@link EcoreUtil#resolve(EObject, ResourceSet) resolve}, failures to load a resource are ignored;
+   * such a resource's {@link Resource#getErrors() errors} are recorded and its proxies remain unresolved.
+   * </p>
+   * @param resources the resources whose proxies to resolve.
+   * @param executor the executor used to parse the referenced resources, or <code>null</code>.
+   * @since 2.9
+   */
+  protected void resolveAll(Collection<Resource> resources, Executor executor)
+  {
+    EPackage.Registry packageRegistry = getPackageRegistry();
+    Resource.Factory.Registry resourceFactoryRegistry = getResourceFactoryRegistry();
+    List<Resource> visitedResources = new UniqueEList.FastCompare<Resource>(resources);
+    List<Resource> pendingResources = new ArrayList<Resource>(resources);
+    Set<URI> visitedURIs = new HashSet<URI>();
+    while (!pendingResources.isEmpty())
+    {
+      Set<URI> proxyResourceURIs = new LinkedHashSet<URI>();
+      for (Resource resource : pendingResources)
+      {
+        collectProxyResourceURIs(resource, proxyResourceURIs);
+      }
+
+      // Determine the distinct resources that need loading.
+      //
+      List<URI> uris = new ArrayList<URI>();
+      for (URI uri : proxyResourceURIs)
+      {
+        if (visitedURIs.add(uri) && packageRegistry.getEPackage(uri.toString()) == null)
+        {
+          Resource resource = getResource(uri, false);
+          if (resource == null ? resourceFactoryRegistry.getFactory(uri) != null : !resource.isLoaded())
+          {
+            uris.add(uri);
+          }
+        }
+      }
+
+      if (uris.isEmpty())
+      {
+        break;
+      }
+
+      EList<Resource> loadedResources = new UniqueEList.FastCompare<Resource>();
+      try
+      {
+        basicLoadAll(uris, null, executor, loadedResources);
+      }
+      catch (RuntimeException exception)
+      {
+        // Failure to load is ignored, as for resolving a proxy.
+      }
+
+      pendingResources.clear();
+      for (Resource resource : loadedResources)
+      {
+        if (visitedResources.add(resource))
+        {
+          pendingResources.add(resource);
+        }
+      }
+    }
+
+    // Resolve the proxies now that all the resources they reference are loaded.
+    //
+    for (Resource resource : visitedResources)
+    {
+      EcoreUtil.resolveAll(resource);
+    }
+  }
+
+  /**
+   * Adds the {@link URI#trimFragment() resource URI} of each proxy in the resource to the given set,
+   * without resolving any proxy.
+   * @param resource the resource to visit.
+   * @param proxyResourceURIs the set of resource URIs to populate.
+   * @since 2.9
+   */
+  protected void collectProxyResourceURIs(Resource resource, Set<URI> proxyResourceURIs)
+  {
+    List<EObject> eObjects = new ArrayList<EObject>(basicList(resource.getContents()));
+    while (!eObjects.isEmpty())
+    {
+      InternalEObject eObject = (InternalEObject)eObjects.remove(eObjects.size() - 1);
+      if (eObject.eIsProxy())
+      {
+        proxyResourceURIs.add(eObject.eProxyURI().trimFragment());
+      }
+      else if (eObject.eDirectResource() == null || eObject.eDirectResource() == resource)
+      {
+        for (EObject crossReference : basicList(eObject.eCrossReferences()))
+        {
+          if (crossReference.eIsProxy())
+          {
+            proxyResourceURIs.add(((InternalEObject)crossReference).eProxyURI().trimFragment());
+          }
+        }
+        eObjects.addAll(basicList(eObject.eContents()));
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<EObject> basicList(EList<EObject> eObjects)
+  {
+    return eObjects instanceof InternalEList<?> ? ((InternalEList<EObject>)eObjects).basicList() : eObjects;
+  }
+
   /**
    * Handles the exception thrown during demand load
    * by recording it as an error diagnostic
@@ -342,6 +737,42 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
     return ePackage == null ? null : ePackage.eResource();
   }
 
+  /**
+   * Creates a {@link #resourceLocator resource locator} for this resource set.
+   * It is called when a resource is {@link #getResources() added} to a resource set that already contains {@link #RESOURCE_LOCATOR_THRESHOLD} resources,
+   * provided there is neither a resource locator nor a {@link #getURIResourceMap() URI resource map} already,
+   * and provided the {@link URIConverter#getURIMap() URI map} of the {@link #getURIConverter() URI converter} tracks its changes,
+   * i.e., is an {@link ExtensibleURIConverterImpl.URIMap.Internal},
+   * because otherwise the resource locator would need to rebuild its maps for each lookup.
+   * The resource locator is therefore created while the resource set is being modified, never by a lookup,
+   * and it builds its maps as it's created.
+   * This implementation creates a {@link MappedResourceLocator} which, as a side effect of construction, becomes this resource set's resource locator.
+   * Clients may override this to return <code>null</code> in order to always use the linear lookup,
+   * in which case it's {@link #isResourceLocatorDeclined not called again}.
+   * @return the new resource locator, or <code>null</code>.
+   * @since 2.9
+   */
+  protected ResourceLocator createResourceLocator()
+  {
+    return new MappedResourceLocator(this);
+  }
+
+  /**
+   * {@link #createResourceLocator() Creates} a resource locator if the resource set has grown large enough to need one.
+   */
+  private void handleResourceAdded()
+  {
+    if (resourceLocator == null &&
+          !isResourceLocatorDeclined &&
+          uriResourceMap == null &&
+          resources.size() > RESOURCE_LOCATOR_THRESHOLD &&
+          getURIConverter().getURIMap() instanceof ExtensibleURIConverterImpl.URIMap.Internal &&
+          createResourceLocator() == null)
+    {
+      isResourceLocatorDeclined = true;
+    }
+  }
+
   /*
    * Javadoc copied from interface.
    */
@@ -586,6 +1017,13 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
       return resource.basicSetResourceSet(ResourceSetImpl.this, notifications);
     }
 
+    @Override
+    protected void didAdd(int index, E newObject)
+    {
+      super.didAdd(index, newObject);
+      handleResourceAdded();
+    }
+
     @Override
     protected NotificationChain inverseRemove(E object, NotificationChain notifications)
     {
@@ -715,16 +1153,16 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
     protected int expectedModificationCount;
 
     /**
-     * The cached mappings from URIs to their {@link URIConverter#normalize(URI) normalized} form.
+     * The cached mappings from the URIs of the resource set's resources to their {@link URIConverter#normalize(URI) normalized} form.
+     * An entry is removed when no resource has the URI anymore.
      */
     protected Map<URI, URI> normalizationMap = new HashMap<URI, URI>();
 
     /**
      *  The cached mapping from normalized URIs to their corresponding resources.
      *  If there is more than one resource corresponding to the a normalized URI,
-     *  the value will be a list of all those resources and they will be ordered in the same order as they appear in the {@link ResourceLocator#resourceSet resource set}
-     *  with any resources not in the resource set, i.e., those located by {@link ResourceSetImpl#delegatedGetResource(URI, boolean) delegation},
-     *  appearing after those found in the resource set itself.
+     *  the value will be a list of all those resources and they will be ordered in the same order as they appear in the {@link ResourceLocator#resourceSet resource set}.
+     *  Resources located by {@link ResourceSetImpl#delegatedGetResource(URI, boolean) delegation} aren't cached.
      */
     protected Map<URI, EList<Resource>> resourceMap = new HashMap<URI, EList<Resource>>();
 
@@ -786,25 +1224,11 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
           {
             // Remove the entry in the resource map for the old normalized URI.
             //
-            URI oldNormalizedURI = normalizationMap.get(notification.getOldValue());
+            URI oldURI = (URI)notification.getOldValue();
+            URI oldNormalizedURI = normalizationMap.get(oldURI);
             if (oldNormalizedURI != null)
             {
-              EList<Resource> value = resourceMap.get(oldNormalizedURI);
-              if (value != null)
-              {
-                // If the list will end up being empty, remove the entire entry.
-                //
-                if (value.size() == 1)
-                {
-                  resourceMap.remove(oldNormalizedURI);
-                }
-                else
-                {
-                  // Otherwise, just remove the resource from the list.
-                  //
-                  value.remove(notifier);
-                }
-              }
+              unmap(oldURI, oldNormalizedURI, (Resource)notifier);
             }
 
             // Add an entry to the resource map for the new normalized URI, if it's not null.
@@ -856,18 +1280,9 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
           if (uri != null)
           {
             URI normalizedURI = normalizationMap.get(uri);
-            EList<Resource> value = resourceMap.get(normalizedURI);
-            if (value.size() == 1)
-            {
-              // If the list would become empty, just remove the entry entirely.
-              //
-              resourceMap.remove(normalizedURI);
-            }
-            else
+            if (normalizedURI != null)
             {
-              // Otherwise remove the resource from the list.
-              //
-              value.remove(target);
+              unmap(uri, normalizedURI, target);
             }
           }
         }
@@ -912,7 +1327,6 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
         value.add(resource);
 
         // Ensure that the resources are ordered as they are in the resource set's list of resources.
-        // Note that resources not in the resource set (i.e., those found by calling delegatedGetResource) come last.
         //
         int count = 0;
         for (Resource r : resourceSet.getResources())
@@ -930,6 +1344,46 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
       }
     }
 
+    /**
+     * Removes the {@link #resourceMap resource map} entry for the resource with the given URI and normalized URI,
+     * and removes the URI's {@link #normalizationMap normalization} if no other resource has that URI.
+     * @since 2.9
+     */
+    protected void unmap(URI uri, URI normalizedURI, Resource resource)
+    {
+      EList<Resource> value = resourceMap.get(normalizedURI);
+      if (value != null)
+      {
+        if (value.size() == 1)
+        {
+          // If the list would become empty, just remove the entry entirely.
+          //
+          resourceMap.remove(normalizedURI);
+          value = null;
+        }
+        else
+        {
+          // Otherwise remove the resource from the list.
+          //
+          value.remove(resource);
+        }
+      }
+
+      // Keep the normalization only if another resource still has the URI.
+      //
+      if (value != null)
+      {
+        for (Resource otherResource : value)
+        {
+          if (uri.equals(otherResource.getURI()))
+          {
+            return;
+          }
+        }
+      }
+      normalizationMap.remove(uri);
+    }
+
     /**
      * Builds entries for the {@link ResourceLocator#resourceSet resource set's} resource in the {@link #normalizationMap normalized map} and the {@link #resourceMap resource map}.
      */
@@ -958,10 +1412,17 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
 
     /**
      * Determines {@link ExtensibleURIConverterImpl.URIMap.Internal#modificationCount() modification count} of the {@link #cachedURIConverter cached URI converter}.
+     * If the converter's {@link URIConverter#getURIMap() URI map} doesn't track its modifications,
+     * changes can't be detected, so the result always differs from the {@link #expectedModificationCount expected modification count}
+     * and the maps are rebuilt for each lookup.
      */
     protected int modificationCount()
     {
-      return ((ExtensibleURIConverterImpl.URIMap.Internal)cachedURIConverter.getURIMap()).modificationCount();
+      Map<URI, URI> uriMap = cachedURIConverter.getURIMap();
+      return
+        uriMap instanceof ExtensibleURIConverterImpl.URIMap.Internal ?
+          ((ExtensibleURIConverterImpl.URIMap.Internal)uriMap).modificationCount() :
+          expectedModificationCount + 1;
     }
 
     /**
@@ -1017,10 +1478,10 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
       URI normalizedURI = normalizationMap.get(uri);
       if (normalizedURI == null)
       {
-        // If not, use the cached URI converter to normalize the URI and store the result for reuse.
+        // If not, use the cached URI converter to normalize the URI.
+        // The result isn't cached so that a lookup doesn't modify the maps and the normalization map doesn't grow with each URI looked up.
         //
         normalizedURI = cachedURIConverter.normalize(uri);
-        normalizationMap.put(uri, normalizedURI);
       }
 
       // Determine the list of resources associated with the normalized URI.
@@ -1043,10 +1504,11 @@ public class ResourceSetImpl extends NotifierImpl implements ResourceSet
 
       // Try to locate the resource via delegation.
       //
+      // The result isn't cached because there is no notification to remove it once it's stale.
+      //
       Resource delegatedResource = delegatedGetResource(uri, loadOnDemand);
       if (delegatedResource != null)
       {
-        map(normalizedURI, delegatedResource);
         return delegatedResource;
       }
 
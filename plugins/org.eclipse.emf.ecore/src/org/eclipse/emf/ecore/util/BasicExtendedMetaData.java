@@ -19,6 +19,8 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.emf.common.util.EMap;
 import org.eclipse.emf.common.util.UniqueEList;
@@ -73,7 +75,7 @@ public class BasicExtendedMetaData implements ExtendedMetaData
     
     if (annotationURI != ANNOTATION_URI)
     {
-      extendedMetaDataHolderCache = new HashMap<EModelElement, Object>();
+      extendedMetaDataHolderCache = new ConcurrentHashMap<EModelElement, Object>();
     }
   }
   
@@ -2204,7 +2206,7 @@ public class BasicExtendedMetaData implements ExtendedMetaData
       EPackageExtendedMetaData result = (EPackageExtendedMetaData)extendedMetaDataHolderCache.get(ePackage);
       if (result == null)
       {
-        extendedMetaDataHolderCache.put(ePackage, result = createEPackageExtendedMetaData(ePackage));
+        result = (EPackageExtendedMetaData)cacheExtendedMetaData(ePackage, createEPackageExtendedMetaData(ePackage));
       }
       return result;
     }
@@ -2220,6 +2222,83 @@ public class BasicExtendedMetaData implements ExtendedMetaData
     } 
   }
 
+  /**
+   * Caches the extended metadata of the model element in the {@link #extendedMetaDataHolderCache holder cache},
+   * returning the extended metadata already cached by another thread, if there is one.
+   * @param eModelElement the model element.
+   * @param extendedMetaData the new extended metadata of the model element.
+   * @return the cached extended metadata of the model element.
+   * @since 2.9
+   */
+  @SuppressWarnings("unchecked")
+  protected Object cacheExtendedMetaData(EModelElement eModelElement, Object extendedMetaData)
+  {
+    if (extendedMetaDataHolderCache instanceof ConcurrentMap<?, ?>)
+    {
+      Object result = ((ConcurrentMap<EModelElement, Object>)extendedMetaDataHolderCache).putIfAbsent(eModelElement, extendedMetaData);
+      return result == null ? extendedMetaData : result;
+    }
+    else
+    {
+      extendedMetaDataHolderCache.put(eModelElement, extendedMetaData);
+      return extendedMetaData;
+    }
+  }
+
+  /**
+   * Eagerly computes the extended metadata of the package, its classifiers, their features, and its subpackages.
+   * Once the package is {@link EcoreUtil#freeze(EPackage) frozen}, its extended metadata is then only ever read,
+   * so any number of threads can use it without locking.
+   * @param ePackage the package whose extended metadata to compute.
+   * @since 2.9
+   */
+  public void precompute(EPackage ePackage)
+  {
+    isQualified(ePackage);
+    for (EClassifier eClassifier : ePackage.getEClassifiers())
+    {
+      getType(ePackage, getName(eClassifier));
+      if (eClassifier instanceof EClass)
+      {
+        EClass eClass = (EClass)eClassifier;
+        getContentKind(eClass);
+        for (EStructuralFeature eStructuralFeature : eClass.getEStructuralFeatures())
+        {
+          getName(eStructuralFeature);
+          getNamespace(eStructuralFeature);
+          getFeatureKind(eStructuralFeature);
+          getWildcards(eStructuralFeature);
+          getProcessingKind(eStructuralFeature);
+          getGroup(eStructuralFeature);
+          getAffiliation(eStructuralFeature);
+        }
+      }
+      else
+      {
+        EDataType eDataType = (EDataType)eClassifier;
+        getBaseType(eDataType);
+        getItemType(eDataType);
+        getMemberTypes(eDataType);
+        getWhiteSpaceFacet(eDataType);
+        getEnumerationFacet(eDataType);
+        getPatternFacet(eDataType);
+        getTotalDigitsFacet(eDataType);
+        getFractionDigitsFacet(eDataType);
+        getLengthFacet(eDataType);
+        getMinLengthFacet(eDataType);
+        getMaxLengthFacet(eDataType);
+        getMinExclusiveFacet(eDataType);
+        getMaxExclusiveFacet(eDataType);
+        getMinInclusiveFacet(eDataType);
+        getMaxInclusiveFacet(eDataType);
+      }
+    }
+    for (EPackage eSubpackage : ePackage.getESubpackages())
+    {
+      precompute(eSubpackage);
+    }
+  }
+
   protected EPackageExtendedMetaData createEPackageExtendedMetaData(EPackage ePackage)
   {
     return new EPackageExtendedMetaDataImpl(ePackage);
@@ -2783,7 +2862,7 @@ public class BasicExtendedMetaData implements ExtendedMetaData
       EClassifierExtendedMetaData result = (EClassifierExtendedMetaData)extendedMetaDataHolderCache.get(eClassifier);
       if (result == null)
       {
-        extendedMetaDataHolderCache.put(eClassifier, result = createEClassifierExtendedMetaData(eClassifier));
+        result = (EClassifierExtendedMetaData)cacheExtendedMetaData(eClassifier, createEClassifierExtendedMetaData(eClassifier));
       }
       return result;
     }
@@ -2975,7 +3054,7 @@ public class BasicExtendedMetaData implements ExtendedMetaData
       EStructuralFeatureExtendedMetaData result = (EStructuralFeatureExtendedMetaData)extendedMetaDataHolderCache.get(eStructuralFeature);
       if (result == null)
       {
-        extendedMetaDataHolderCache.put(eStructuralFeature, result = createEStructuralFeatureExtendedMetaData(eStructuralFeature));
+        result = (EStructuralFeatureExtendedMetaData)cacheExtendedMetaData(eStructuralFeature, createEStructuralFeatureExtendedMetaData(eStructuralFeature));
       }
       return result;
     }
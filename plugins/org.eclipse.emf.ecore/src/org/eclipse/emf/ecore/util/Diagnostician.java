@@ -11,11 +11,18 @@
 package org.eclipse.emf.ecore.util;
 
 
-//import java.util.Collections;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.eclipse.emf.common.util.BasicDiagnostic;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -26,9 +33,12 @@ import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EDataType;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
 
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.impl.EValidatorRegistryImpl;
 import org.eclipse.emf.ecore.plugin.EcorePlugin;
 
 /**
@@ -40,6 +50,12 @@ public class Diagnostician implements EValidator.SubstitutionLabelProvider, EVal
 
   protected EValidator.Registry eValidatorRegistry;
 
+  /**
+   * The cached validator of each class, for the current state of the registry.
+   * @see #getEValidator(EClass)
+   */
+  private volatile EValidatorCache eValidatorCache;
+
   public Diagnostician(EValidator.Registry eValidatorRegistry)
   {
     this.eValidatorRegistry = eValidatorRegistry;
@@ -138,6 +154,64 @@ public class Diagnostician implements EValidator.SubstitutionLabelProvider, EVal
   }
 
   public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
+  {
+    EValidator eValidator = getEValidator(eClass);
+    boolean circular = context.get(EObjectValidator.ROOT_OBJECT) == eObject;
+    boolean result = eValidator.validate(eClass, eObject, diagnostics, context);
+    if ((result || diagnostics != null) && !circular)
+    {
+      result &= doValidateContents(eObject, diagnostics, context);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the validator for instances of the class,
+   * i.e., the one registered for the package of the class, or else of the class's first super type, recursively,
+   * or else the default one.
+   * When the registry is an {@link EValidatorRegistryImpl} that {@link EValidatorRegistryImpl#getModificationCount() tracks its modifications},
+   * the result is cached per class, and the cache is discarded whenever the registry is modified,
+   * so that, for each object, the validator is found with a single lookup.
+   * A cached result is also discarded when the class's {@link EClass#getEAllSuperTypes() super types} or its package change.
+   * @param eClass the class of the objects to validate.
+   * @return the validator for instances of the class.
+   * @since 2.9
+   */
+  protected EValidator getEValidator(EClass eClass)
+  {
+    if (eValidatorRegistry instanceof EValidatorRegistryImpl)
+    {
+      int modificationCount = ((EValidatorRegistryImpl)eValidatorRegistry).getModificationCount();
+      if (modificationCount != -1)
+      {
+        EValidatorCache cache = eValidatorCache;
+        if (cache == null || cache.modificationCount != modificationCount)
+        {
+          cache = new EValidatorCache(modificationCount);
+          eValidatorCache = cache;
+        }
+        EValidatorCache.Entry entry = cache.entries.get(eClass);
+        List<EClass> eAllSuperTypes = eClass.getEAllSuperTypes();
+        EObject ePackage = eClass.eContainer();
+        if (entry == null || entry.eAllSuperTypes.get() != eAllSuperTypes || entry.ePackage.get() != ePackage)
+        {
+          entry = new EValidatorCache.Entry(basicGetEValidator(eClass), eAllSuperTypes, ePackage);
+          cache.entries.put(eClass, entry);
+        }
+        return entry.eValidator;
+      }
+    }
+    return basicGetEValidator(eClass);
+  }
+
+  /**
+   * Finds the validator for instances of the class, without caching.
+   * @param eClass the class of the objects to validate.
+   * @return the validator for instances of the class.
+   * @see #getEValidator(EClass)
+   * @since 2.9
+   */
+  protected EValidator basicGetEValidator(EClass eClass)
   {
     Object eValidator;
     EClass eType = eClass;
@@ -154,14 +228,37 @@ public class Diagnostician implements EValidator.SubstitutionLabelProvider, EVal
         eType = eSuperTypes.get(0);
       }
     }
-    boolean circular = context.get(EObjectValidator.ROOT_OBJECT) == eObject;
-    @SuppressWarnings("null")
-    boolean result = ((EValidator)eValidator).validate(eClass, eObject, diagnostics, context);
-    if ((result || diagnostics != null) && !circular)
+    return (EValidator)eValidator;
+  }
+
+  /**
+   * The validators of the classes, resolved for a specific modification count of the registry.
+   * The classes are weakly referenced, as are the super types and package recorded for each one,
+   * so that a class, and its package, can still be garbage collected.
+   */
+  private static final class EValidatorCache
+  {
+    final int modificationCount;
+    final Map<EClass, Entry> entries = Collections.synchronizedMap(new WeakHashMap<EClass, Entry>());
+
+    EValidatorCache(int modificationCount)
     {
-      result &= doValidateContents(eObject, diagnostics, context);
+      this.modificationCount = modificationCount;
+    }
+
+    static final class Entry
+    {
+      final EValidator eValidator;
+      final WeakReference<List<EClass>> eAllSuperTypes;
+      final WeakReference<EObject> ePackage;
+
+      Entry(EValidator eValidator, List<EClass> eAllSuperTypes, EObject ePackage)
+      {
+        this.eValidator = eValidator;
+        this.eAllSuperTypes = new WeakReference<List<EClass>>(eAllSuperTypes);
+        this.ePackage = new WeakReference<EObject>(ePackage);
+      }
     }
-    return result;
   }
 
   protected boolean doValidateContents(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
@@ -185,6 +282,391 @@ public class Diagnostician implements EValidator.SubstitutionLabelProvider, EVal
     }
   }
 
+  /**
+   * Validates the object and its contents, {@link #validate(EObject, DiagnosticChain, Map, Executor) concurrently},
+   * in the {@link #createDefaultContext() default context} augmented with the given entries.
+   * @param eObject the object to validate.
+   * @param contextEntries the additional context entries.
+   * @param executor the executor used to validate the contents, or <code>null</code>.
+   * @return the diagnostic of the validation.
+   * @since 2.9
+   */
+  public Diagnostic validate(EObject eObject, Map<?, ?> contextEntries, Executor executor)
+  {
+    BasicDiagnostic diagnostics = createDefaultDiagnostic(eObject);
+    Map<Object, Object> context = createDefaultContext();
+    context.putAll(contextEntries);
+    validate(eObject, diagnostics, context, executor);
+    return diagnostics;
+  }
+
+  /**
+   * Validates the object in the given context, and its contents concurrently, optionally producing diagnostics.
+   * <p>
+   * The object itself is validated on the calling thread.
+   * Its contents, in the order in which {@link #doValidateContents(EObject, DiagnosticChain, Map) sequential validation} visits them,
+   * are then split into consecutive ranges of {@link #getValidationTaskSize() objects},
+   * each of which is validated by a task submitted to the given executor,
+   * against the task's own copy of the context and into the task's own diagnostics.
+   * Before the tasks start, the calling thread {@link #resolveProxies(EObject) resolves the proxies} that validating each object would resolve,
+   * because resolving a proxy modifies the referencing object and may demand load a resource into the shared resource set.
+   * The objects whose validator {@link #isThreadSafe(EValidator, EClass, Map) isn't thread-safe}
+   * or whose proxies don't all resolve are skipped by the tasks;
+   * they're validated one at a time by the calling thread, against the given context, while the tasks run.
+   * Once all the tasks are done, the calling thread adds all the resulting diagnostics to the given chain
+   * in the order of the objects that produced them,
+   * so the result doesn't depend on how the tasks are scheduled and is the same as that of sequential validation.
+   * </p>
+   * <p>
+   * The tasks share the model and the validators, so they must be safe for concurrent read access.
+   * Entries that the tasks add to their copies of the context aren't visible to the other tasks, nor to the caller.
+   * The contents are validated directly by {@link #getEValidator(EClass) their validator}, which is determined on the calling thread,
+   * i.e., overrides of {@link #validate(EClass, EObject, DiagnosticChain, Map)} and of <code>doValidateContents</code> aren't used for them.
+   * If the executor is <code>null</code>, the tasks are run on the calling thread.
+   * </p>
+   * @param eObject the object to validate.
+   * @param diagnostics a place to accumulate diagnostics; if it's <code>null</code>, no diagnostics should be produced.
+   * @param context the context of the validation.
+   * @param executor the executor used to validate the contents, or <code>null</code>.
+   * @return whether the object and its contents are valid.
+   * @since 2.9
+   */
+  public boolean validate(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context, Executor executor)
+  {
+    EClass eClass = eObject.eClass();
+    boolean result = getEValidator(eClass).validate(eClass, eObject, diagnostics, context);
+    if (!result && diagnostics == null)
+    {
+      return false;
+    }
+
+    // Collect the contents in the order in which they'd be validated sequentially,
+    // determine the validator of each class on this thread, so that any registered descriptors are resolved here,
+    // resolve the proxies on this thread, so that the tasks don't modify the model or the resource set,
+    // and determine which of the objects must be validated on this thread.
+    //
+    List<EObject> eObjects = new ArrayList<EObject>();
+    collectContents(eObject, context.get(EObjectValidator.ROOT_OBJECT), eObjects);
+    Map<EClass, EValidator> eValidators = new HashMap<EClass, EValidator>();
+    Map<EClass, Boolean> threadSafeEClasses = new HashMap<EClass, Boolean>();
+    BitSet sequential = new BitSet();
+    for (int i = 0, size = eObjects.size(); i < size; ++i)
+    {
+      EObject eContent = eObjects.get(i);
+      EClass eContentClass = eContent.eClass();
+      Boolean threadSafe = threadSafeEClasses.get(eContentClass);
+      if (threadSafe == null)
+      {
+        EValidator eValidator = getEValidator(eContentClass);
+        eValidators.put(eContentClass, eValidator);
+        threadSafe = isThreadSafe(eValidator, eContentClass, context) ? Boolean.TRUE : Boolean.FALSE;
+        threadSafeEClasses.put(eContentClass, threadSafe);
+      }
+      if (!threadSafe.booleanValue() || !resolveProxies(eContent))
+      {
+        sequential.set(i);
+      }
+    }
+
+    // Validate each range of objects in its own task.
+    //
+    int size = eObjects.size();
+    int taskSize = Math.max(1, getValidationTaskSize());
+    int taskCount = (size + taskSize - 1) / taskSize;
+    List<ValidationTask> tasks = new ArrayList<ValidationTask>(taskCount);
+    CountDownLatch latch = new CountDownLatch(taskCount);
+    for (int start = 0; start < size; start += taskSize)
+    {
+      ValidationTask task = new ValidationTask(eObjects, eValidators, sequential, start, Math.min(start + taskSize, size), diagnostics != null, context, latch);
+      tasks.add(task);
+      if (executor == null)
+      {
+        task.run();
+      }
+      else
+      {
+        try
+        {
+          executor.execute(task);
+        }
+        catch (RejectedExecutionException exception)
+        {
+          task.run();
+        }
+      }
+    }
+
+    // Meanwhile, validate the objects in the sequential lane.
+    //
+    List<List<BasicDiagnostic>> sequentialDiagnostics = new ArrayList<List<BasicDiagnostic>>(taskCount);
+    for (ValidationTask task : tasks)
+    {
+      List<BasicDiagnostic> taskDiagnostics = new ArrayList<BasicDiagnostic>();
+      for (int i = sequential.nextSetBit(task.start); i >= 0 && i < task.end; i = sequential.nextSetBit(i + 1))
+      {
+        EObject eContent = eObjects.get(i);
+        EClass eContentClass = eContent.eClass();
+        BasicDiagnostic objectDiagnostics = diagnostics == null ? null : new BasicDiagnostic();
+        result &= eValidators.get(eContentClass).validate(eContentClass, eContent, objectDiagnostics, context);
+        taskDiagnostics.add(objectDiagnostics);
+      }
+      sequentialDiagnostics.add(taskDiagnostics);
+    }
+
+    boolean interrupted = false;
+    while (latch.getCount() != 0)
+    {
+      try
+      {
+        latch.await();
+      }
+      catch (InterruptedException exception)
+      {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+    {
+      Thread.currentThread().interrupt();
+    }
+
+    // Merge the diagnostics in the order of the objects.
+    //
+    for (int i = 0; i < taskCount; ++i)
+    {
+      ValidationTask task = tasks.get(i);
+      if (task.exception != null)
+      {
+        throw task.exception;
+      }
+      result &= task.result;
+      if (diagnostics != null)
+      {
+        List<BasicDiagnostic> taskDiagnostics = sequentialDiagnostics.get(i);
+        diagnostics.addAll(task.diagnostics.get(0));
+        for (int j = 0, count = taskDiagnostics.size(); j < count; ++j)
+        {
+          diagnostics.addAll(taskDiagnostics.get(j));
+          diagnostics.addAll(task.diagnostics.get(j + 1));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Adds the contents of the object to the list, recursively, in the order in which
+   * {@link #doValidateContents(EObject, DiagnosticChain, Map) sequential validation} visits them,
+   * without visiting the contents of the root object of the validation again in the case of circular containment.
+   * @param eObject the object whose contents to collect.
+   * @param rootObject the root object of the validation, or <code>null</code>.
+   * @param eObjects the list to which to add the contents.
+   * @since 2.9
+   */
+  protected void collectContents(EObject eObject, Object rootObject, List<EObject> eObjects)
+  {
+    List<Iterator<EObject>> stack = new ArrayList<Iterator<EObject>>();
+    stack.add(eObject.eContents().iterator());
+    while (!stack.isEmpty())
+    {
+      Iterator<EObject> i = stack.get(stack.size() - 1);
+      if (i.hasNext())
+      {
+        EObject child = i.next();
+        eObjects.add(child);
+        if (child != rootObject)
+        {
+          stack.add(child.eContents().iterator());
+        }
+      }
+      else
+      {
+        stack.remove(stack.size() - 1);
+      }
+    }
+  }
+
+  /**
+   * Resolves the proxies that {@link EObjectValidator validating} the object could resolve,
+   * i.e., the proxies referenced by the object and the proxies referenced by the opposite features of the objects it references,
+   * and returns whether they all resolve.
+   * It's called by the calling thread of a {@link #validate(EObject, DiagnosticChain, Map, Executor) concurrent validation},
+   * which validates the object itself if they don't.
+   * @param eObject the object whose proxies to resolve.
+   * @return whether all the proxies resolve.
+   * @since 2.9
+   */
+  protected boolean resolveProxies(EObject eObject)
+  {
+    boolean result = true;
+    for (EContentsEList.FeatureIterator<EObject> i = (EContentsEList.FeatureIterator<EObject>)eObject.eCrossReferences().iterator(); i.hasNext(); )
+    {
+      EObject eCrossReferenceObject = i.next();
+      if (eCrossReferenceObject.eIsProxy())
+      {
+        result = false;
+      }
+      else
+      {
+        EReference eOpposite = ((EReference)i.feature()).getEOpposite();
+        if (eOpposite != null)
+        {
+          Object value = eCrossReferenceObject.eGet(eOpposite);
+          if (eOpposite.isMany())
+          {
+            for (Object oppositeEObject : (List<?>)value)
+            {
+              if (((EObject)oppositeEObject).eIsProxy())
+              {
+                result = false;
+              }
+            }
+          }
+          else if (value != null && ((EObject)value).eIsProxy())
+          {
+            result = false;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns whether the validator may validate instances of the class concurrently.
+   * It may not if it implements {@link EValidator.NotThreadSafe},
+   * or if a {@link EValidator.ValidationDelegate validation delegate} of the package of the class, or of any of its super types, does.
+   * @param eValidator the {@link #getEValidator(EClass) validator} for instances of the class.
+   * @param eClass the class of the objects to validate.
+   * @param context the context of the validation.
+   * @return whether the validator may validate instances of the class concurrently.
+   * @see #validate(EObject, DiagnosticChain, Map, Executor)
+   * @since 2.9
+   */
+  protected boolean isThreadSafe(EValidator eValidator, EClass eClass, Map<Object, Object> context)
+  {
+    if (eValidator instanceof EValidator.NotThreadSafe)
+    {
+      return false;
+    }
+
+    Object validationDelegateRegistry = context.get(EValidator.ValidationDelegate.Registry.class);
+    EValidator.ValidationDelegate.Registry registry =
+      validationDelegateRegistry instanceof EValidator.ValidationDelegate.Registry ?
+        (EValidator.ValidationDelegate.Registry)validationDelegateRegistry :
+        EValidator.ValidationDelegate.Registry.INSTANCE;
+    List<EClass> eClasses = new ArrayList<EClass>(eClass.getEAllSuperTypes());
+    eClasses.add(eClass);
+    for (EClass eType : eClasses)
+    {
+      EPackage ePackage = eType.getEPackage();
+      if (ePackage != null)
+      {
+        for (String uri : EcoreUtil.getValidationDelegates(ePackage))
+        {
+          if (registry.getValidationDelegate(uri) instanceof EValidator.NotThreadSafe)
+          {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the maximum number of objects validated by each task of a {@link #validate(EObject, DiagnosticChain, Map, Executor) concurrent validation}.
+   * @return the maximum number of objects validated by each task.
+   * @since 2.9
+   */
+  protected int getValidationTaskSize()
+  {
+    return 1000;
+  }
+
+  /**
+   * A task of a {@link Diagnostician#validate(EObject, DiagnosticChain, Map, Executor) concurrent validation}
+   * that validates a range of objects, except the ones in the sequential lane,
+   * against its own copy of the context.
+   * The diagnostics of the objects between each pair of objects in the sequential lane are accumulated separately.
+   * @since 2.9
+   */
+  protected class ValidationTask implements Runnable
+  {
+    protected final List<EObject> eObjects;
+    protected final Map<EClass, EValidator> eValidators;
+    protected final BitSet sequential;
+    protected final int start;
+    protected final int end;
+    protected final Map<Object, Object> context;
+    protected final CountDownLatch latch;
+    protected final List<BasicDiagnostic> diagnostics;
+    protected boolean result = true;
+    protected RuntimeException exception;
+
+    public ValidationTask
+      (List<EObject> eObjects,
+       Map<EClass, EValidator> eValidators,
+       BitSet sequential,
+       int start,
+       int end,
+       boolean produceDiagnostics,
+       Map<Object, Object> context,
+       CountDownLatch latch)
+    {
+      this.eObjects = eObjects;
+      this.eValidators = eValidators;
+      this.sequential = sequential;
+      this.start = start;
+      this.end = end;
+      this.context = new HashMap<Object, Object>(context);
+      this.latch = latch;
+      this.diagnostics = produceDiagnostics ? new ArrayList<BasicDiagnostic>() : null;
+    }
+
+    public void run()
+    {
+      try
+      {
+        BasicDiagnostic chain = null;
+        if (diagnostics != null)
+        {
+          chain = new BasicDiagnostic();
+          diagnostics.add(chain);
+        }
+        for (int i = start; i < end; ++i)
+        {
+          if (sequential.get(i))
+          {
+            if (diagnostics != null)
+            {
+              chain = new BasicDiagnostic();
+              diagnostics.add(chain);
+            }
+          }
+          else
+          {
+            EObject eObject = eObjects.get(i);
+            EClass eClass = eObject.eClass();
+            result &= eValidators.get(eClass).validate(eClass, eObject, chain, context);
+            if (!result && chain == null)
+            {
+              break;
+            }
+          }
+        }
+      }
+      catch (RuntimeException exception)
+      {
+        this.exception = exception;
+      }
+      finally
+      {
+        latch.countDown();
+      }
+    }
+  }
+
   public Diagnostic validate(EDataType eDataType, Object value)
   {
     BasicDiagnostic diagnostics = createDefaultDiagnostic(eDataType, value);
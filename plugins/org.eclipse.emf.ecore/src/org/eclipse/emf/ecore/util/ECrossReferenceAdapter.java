@@ -11,14 +11,18 @@
 package org.eclipse.emf.ecore.util;
 
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.eclipse.emf.common.notify.Adapter;
@@ -272,11 +276,801 @@ public class ECrossReferenceAdapter implements Adapter.Internal
       return ECrossReferenceAdapter.this.resolve();
     }
   }
-  
+
+  /**
+   * An inverse cross referencer that doesn't store a list of {@link EStructuralFeature.Setting settings} for each cross referenced object,
+   * but rather maintains an index of (referencing object, feature ID) pairs in parallel arrays,
+   * so that no objects are allocated per cross reference.
+   * The cross referenced objects are hashed by identity, with linear probing, into {@link #targets};
+   * each has a chain of entries, linked by {@link #nexts}, in {@link #sources} and {@link #featureIDs}.
+   * The collection {@link #get(Object) returned} for a cross referenced object is a view that yields {@link InternalEObject#eSetting(EStructuralFeature) settings} on demand,
+   * and the chain can be traversed directly, without allocating anything, using {@link #getFirstEntry(EObject)}, {@link #getNextEntry(int)},
+   * {@link #getSource(int)}, and {@link #getReference(int)}.
+   * The collections, and the {@link #keySet() key set}, {@link #values() values}, and {@link #entrySet() entry set} views, are live and fail fast,
+   * i.e., iterating over them after the index is modified throws a {@link ConcurrentModificationException}.
+   * The operations of the J2SE 5 {@link Map} interface are all implemented consistently with the index,
+   * except that {@link #put(EObject, Collection) put} and {@link #putAll(Map) putAll} aren't supported;
+   * the methods that {@link HashMap} added in later versions aren't supported.
+   * To use it, {@link ECrossReferenceAdapter#ECrossReferenceAdapter(boolean) create} a compact adapter,
+   * or specialize {@link ECrossReferenceAdapter#createInverseCrossReferencer()} to create an instance.
+   * @since 2.9
+   */
+  protected class CompactInverseCrossReferencer extends InverseCrossReferencer
+  {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The cross referenced objects, hashed by identity; the length is always a power of two.
+     */
+    protected Object[] targets = new Object [16];
+
+    /**
+     * The index of the first entry for the cross referenced object in the corresponding slot of {@link #targets}.
+     */
+    protected int[] heads = new int [16];
+
+    /**
+     * The number of cross referenced objects.
+     */
+    protected int targetCount;
+
+    /**
+     * The referencing object of each entry, or <code>null</code> for a free entry.
+     */
+    protected Object[] sources = new Object [16];
+
+    /**
+     * The encoded {@link #getFeatureID(EObject, EReference) feature ID} of each entry.
+     */
+    protected int[] featureIDs = new int [16];
+
+    /**
+     * The index of the next entry in the chain of each entry, or <code>-1</code> at the end of the chain.
+     * The free entries are chained together too.
+     */
+    protected int[] nexts = new int [16];
+
+    /**
+     * The number of entries that have ever been used.
+     */
+    protected int entryCount;
+
+    /**
+     * The index of the first free entry, or <code>-1</code>.
+     */
+    protected int freeEntry = -1;
+
+    /**
+     * The references that aren't features of the referencing object's class, e.g., those of feature map entries.
+     */
+    protected List<EReference> otherReferences;
+
+    /**
+     * The number of times the index has been modified, used to make the views fail fast.
+     */
+    protected int modificationCount;
+
+    public CompactInverseCrossReferencer()
+    {
+      super();
+    }
+
+    /**
+     * Returns the slot in {@link #targets} of the object, or <code>-1</code> if it's not cross referenced.
+     */
+    protected int indexOf(Object target)
+    {
+      Object[] targets = this.targets;
+      int mask = targets.length - 1;
+      for (int index = System.identityHashCode(target) & mask; ; index = (index + 1) & mask)
+      {
+        Object candidate = targets[index];
+        if (candidate == target)
+        {
+          return index;
+        }
+        else if (candidate == null)
+        {
+          return -1;
+        }
+      }
+    }
+
+    /**
+     * Returns the encoded feature ID of the reference relative to the referencing object.
+     */
+    protected int getFeatureID(EObject eObject, EReference eReference)
+    {
+      int featureID = eObject.eClass().getFeatureID(eReference);
+      if (featureID == -1)
+      {
+        if (otherReferences == null)
+        {
+          otherReferences = new BasicEList.FastCompare<EReference>();
+        }
+        int index = otherReferences.indexOf(eReference);
+        if (index == -1)
+        {
+          index = otherReferences.size();
+          otherReferences.add(eReference);
+        }
+        featureID = -2 - index;
+      }
+      return featureID;
+    }
+
+    /**
+     * Returns the index of the first entry for the cross referenced object, or <code>-1</code> if there isn't one.
+     */
+    public int getFirstEntry(EObject eObject)
+    {
+      int index = indexOf(eObject);
+      return index == -1 ? -1 : heads[index];
+    }
+
+    /**
+     * Returns the index of the entry following the given entry, or <code>-1</code> if there isn't one.
+     */
+    public int getNextEntry(int entry)
+    {
+      return nexts[entry];
+    }
+
+    /**
+     * Returns the referencing object of the entry.
+     */
+    public EObject getSource(int entry)
+    {
+      return (EObject)sources[entry];
+    }
+
+    /**
+     * Returns the reference of the entry.
+     */
+    public EReference getReference(int entry)
+    {
+      int featureID = featureIDs[entry];
+      return
+        featureID >= 0 ?
+          (EReference)((EObject)sources[entry]).eClass().getEStructuralFeature(featureID) :
+          otherReferences.get(-2 - featureID);
+    }
+
+    @Override
+    protected void add(InternalEObject eObject, EReference eReference, EObject crossReferencedEObject)
+    {
+      addEntry(crossReferencedEObject, eObject, getFeatureID(eObject, eReference));
+      if (!resolve())
+      {
+        addProxy(crossReferencedEObject, eObject);
+      }
+    }
+
+    /**
+     * Adds an entry for the cross referenced object unless there already is an equal one, returning whether an entry was added.
+     */
+    protected boolean addEntry(EObject target, EObject source, int featureID)
+    {
+      int index = indexOf(target);
+      int last = -1;
+      if (index == -1)
+      {
+        if ((targetCount + 1) << 1 > targets.length)
+        {
+          grow();
+        }
+        Object[] targets = this.targets;
+        int mask = targets.length - 1;
+        for (index = System.identityHashCode(target) & mask; targets[index] != null; index = (index + 1) & mask)
+        {
+          // Find a free slot.
+        }
+        targets[index] = target;
+        heads[index] = -1;
+        ++targetCount;
+      }
+      else
+      {
+        for (int entry = heads[index]; entry != -1; entry = nexts[entry])
+        {
+          if (sources[entry] == source && featureIDs[entry] == featureID)
+          {
+            return false;
+          }
+          last = entry;
+        }
+      }
+
+      int entry = freeEntry;
+      if (entry == -1)
+      {
+        entry = entryCount++;
+        if (entry == sources.length)
+        {
+          int capacity = entry << 1;
+          Object[] newSources = new Object [capacity];
+          System.arraycopy(sources, 0, newSources, 0, entry);
+          sources = newSources;
+          int[] newFeatureIDs = new int [capacity];
+          System.arraycopy(featureIDs, 0, newFeatureIDs, 0, entry);
+          featureIDs = newFeatureIDs;
+          int[] newNexts = new int [capacity];
+          System.arraycopy(nexts, 0, newNexts, 0, entry);
+          nexts = newNexts;
+        }
+      }
+      else
+      {
+        freeEntry = nexts[entry];
+      }
+      sources[entry] = source;
+      featureIDs[entry] = featureID;
+      nexts[entry] = -1;
+
+      // Append the entry so that the settings are in the order in which they were added.
+      //
+      if (last == -1)
+      {
+        heads[index] = entry;
+      }
+      else
+      {
+        nexts[last] = entry;
+      }
+      ++modificationCount;
+      return true;
+    }
+
+    /**
+     * Doubles the capacity of {@link #targets}.
+     */
+    protected void grow()
+    {
+      Object[] oldTargets = targets;
+      int[] oldHeads = heads;
+      int capacity = oldTargets.length << 1;
+      int mask = capacity - 1;
+      Object[] targets = new Object [capacity];
+      int[] heads = new int [capacity];
+      for (int i = 0; i < oldTargets.length; ++i)
+      {
+        Object target = oldTargets[i];
+        if (target != null)
+        {
+          int index = System.identityHashCode(target) & mask;
+          while (targets[index] != null)
+          {
+            index = (index + 1) & mask;
+          }
+          targets[index] = target;
+          heads[index] = oldHeads[i];
+        }
+      }
+      this.targets = targets;
+      this.heads = heads;
+    }
+
+    @Override
+    public void remove(EObject eObject, EReference eReference, EObject crossReferencedEObject)
+    {
+      if (!resolve())
+      {
+        removeProxy(crossReferencedEObject, eObject);
+      }
+      int index = indexOf(crossReferencedEObject);
+      if (index != -1)
+      {
+        int featureID = getFeatureID(eObject, eReference);
+        for (int entry = heads[index], previous = -1; entry != -1; previous = entry, entry = nexts[entry])
+        {
+          if (sources[entry] == eObject && featureIDs[entry] == featureID)
+          {
+            int next = nexts[entry];
+            if (previous == -1)
+            {
+              if (next == -1)
+              {
+                removeTarget(index);
+                break;
+              }
+              heads[index] = next;
+            }
+            else
+            {
+              nexts[previous] = next;
+            }
+            freeEntry(entry);
+            ++modificationCount;
+            break;
+          }
+        }
+      }
+    }
+
+    /**
+     * Removes the object from the index, i.e., clears its slot and all the entries for the objects that reference it,
+     * returning a snapshot of the corresponding settings, or <code>null</code> if it wasn't cross referenced.
+     * The inherited implementation would only remove it from the backing map, which isn't used.
+     */
+    @Override
+    public Object remove(EObject eObject)
+    {
+      if (!resolve())
+      {
+        removeProxy(eObject, eObject);
+      }
+      return remove((Object)eObject);
+    }
+
+    /**
+     * Returns the entry to the chain of free entries.
+     */
+    protected void freeEntry(int entry)
+    {
+      sources[entry] = null;
+      nexts[entry] = freeEntry;
+      freeEntry = entry;
+    }
+
+    /**
+     * Removes the cross referenced object in the slot, and all its entries,
+     * shifting back any subsequent objects that probed past the slot.
+     */
+    protected void removeTarget(int index)
+    {
+      for (int entry = heads[index]; entry != -1; )
+      {
+        int next = nexts[entry];
+        freeEntry(entry);
+        entry = next;
+      }
+
+      Object[] targets = this.targets;
+      int mask = targets.length - 1;
+      for (int next = (index + 1) & mask; targets[next] != null; next = (next + 1) & mask)
+      {
+        int home = System.identityHashCode(targets[next]) & mask;
+        if (((next - home) & mask) >= ((next - index) & mask))
+        {
+          targets[index] = targets[next];
+          heads[index] = heads[next];
+          index = next;
+        }
+      }
+      targets[index] = null;
+      --targetCount;
+      ++modificationCount;
+    }
+
+    @Override
+    public Collection<EStructuralFeature.Setting> get(Object key)
+    {
+      return indexOf(key) == -1 ? null : new InverseReferences((EObject)key);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+      return indexOf(key) != -1;
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+      for (Collection<EStructuralFeature.Setting> inverseReferences : values())
+      {
+        if (inverseReferences.equals(value))
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Throws an {@link UnsupportedOperationException};
+     * the index is modified only by {@link #add(EObject, EReference, EObject) adding} and {@link #remove(EObject, EReference, EObject) removing} cross references.
+     */
+    @Override
+    public Collection<EStructuralFeature.Setting> put(EObject key, Collection<EStructuralFeature.Setting> value)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws an {@link UnsupportedOperationException};
+     * the index is modified only by {@link #add(EObject, EReference, EObject) adding} and {@link #remove(EObject, EReference, EObject) removing} cross references.
+     */
+    @Override
+    public void putAll(Map<? extends EObject, ? extends Collection<EStructuralFeature.Setting>> map)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Collection<EStructuralFeature.Setting> remove(Object key)
+    {
+      int index = indexOf(key);
+      if (index == -1)
+      {
+        return null;
+      }
+      else
+      {
+        Collection<EStructuralFeature.Setting> result = new BasicEList<EStructuralFeature.Setting>(new InverseReferences((EObject)key));
+        removeTarget(index);
+        return result;
+      }
+    }
+
+    @Override
+    public int size()
+    {
+      return targetCount;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+      return targetCount == 0;
+    }
+
+    @Override
+    public void clear()
+    {
+      targets = new Object [16];
+      heads = new int [16];
+      targetCount = 0;
+      sources = new Object [16];
+      featureIDs = new int [16];
+      nexts = new int [16];
+      entryCount = 0;
+      freeEntry = -1;
+      otherReferences = null;
+      ++modificationCount;
+    }
+
+    /**
+     * Throws an {@link UnsupportedOperationException};
+     * the inherited implementation would copy the entries into the unused backing map.
+     */
+    @Override
+    public Object clone()
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<EObject> keySet()
+    {
+      return
+        new AbstractSet<EObject>()
+        {
+          @Override
+          public int size()
+          {
+            return targetCount;
+          }
+
+          @Override
+          public boolean contains(Object object)
+          {
+            return containsKey(object);
+          }
+
+          @Override
+          public boolean remove(Object object)
+          {
+            return object instanceof EObject && CompactInverseCrossReferencer.this.remove((EObject)object) != null;
+          }
+
+          @Override
+          public void clear()
+          {
+            CompactInverseCrossReferencer.this.clear();
+          }
+
+          @Override
+          public Iterator<EObject> iterator()
+          {
+            return
+              new TargetIterator<EObject>()
+              {
+                @Override
+                protected EObject createElement(EObject target)
+                {
+                  return target;
+                }
+              };
+          }
+        };
+    }
+
+    @Override
+    public Collection<Collection<EStructuralFeature.Setting>> values()
+    {
+      return
+        new AbstractCollection<Collection<EStructuralFeature.Setting>>()
+        {
+          @Override
+          public int size()
+          {
+            return targetCount;
+          }
+
+          @Override
+          public void clear()
+          {
+            CompactInverseCrossReferencer.this.clear();
+          }
+
+          @Override
+          public Iterator<Collection<EStructuralFeature.Setting>> iterator()
+          {
+            return
+              new TargetIterator<Collection<EStructuralFeature.Setting>>()
+              {
+                @Override
+                protected Collection<EStructuralFeature.Setting> createElement(EObject target)
+                {
+                  return new InverseReferences(target);
+                }
+              };
+          }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<EObject, Collection<EStructuralFeature.Setting>>> entrySet()
+    {
+      return
+        new AbstractSet<Map.Entry<EObject, Collection<EStructuralFeature.Setting>>>()
+        {
+          @Override
+          public int size()
+          {
+            return targetCount;
+          }
+
+          @Override
+          public boolean contains(Object object)
+          {
+            if (object instanceof Map.Entry<?, ?>)
+            {
+              Map.Entry<?, ?> entry = (Map.Entry<?, ?>)object;
+              Collection<EStructuralFeature.Setting> inverseReferences = get(entry.getKey());
+              return inverseReferences != null && inverseReferences.equals(entry.getValue());
+            }
+            return false;
+          }
+
+          @Override
+          public void clear()
+          {
+            CompactInverseCrossReferencer.this.clear();
+          }
+
+          @Override
+          public Iterator<Map.Entry<EObject, Collection<EStructuralFeature.Setting>>> iterator()
+          {
+            return
+              new TargetIterator<Map.Entry<EObject, Collection<EStructuralFeature.Setting>>>()
+              {
+                @Override
+                protected Map.Entry<EObject, Collection<EStructuralFeature.Setting>> createElement(EObject target)
+                {
+                  return new TargetEntry(target);
+                }
+              };
+          }
+        };
+    }
+
+    /**
+     * A fail fast iterator over the cross referenced objects in {@link #targets}.
+     */
+    private abstract class TargetIterator<T> implements Iterator<T>
+    {
+      protected int expectedModificationCount = modificationCount;
+
+      protected int index = nextIndex(0);
+
+      protected int nextIndex(int start)
+      {
+        Object[] targets = CompactInverseCrossReferencer.this.targets;
+        int index = start;
+        while (index < targets.length && targets[index] == null)
+        {
+          ++index;
+        }
+        return index;
+      }
+
+      public boolean hasNext()
+      {
+        return index < targets.length;
+      }
+
+      public T next()
+      {
+        if (modificationCount != expectedModificationCount)
+        {
+          throw new ConcurrentModificationException();
+        }
+        if (!hasNext())
+        {
+          throw new NoSuchElementException();
+        }
+        EObject target = (EObject)targets[index];
+        index = nextIndex(index + 1);
+        return createElement(target);
+      }
+
+      public void remove()
+      {
+        throw new UnsupportedOperationException();
+      }
+
+      protected abstract T createElement(EObject target);
+    }
+
+    /**
+     * An entry of the map for a cross referenced object.
+     */
+    private class TargetEntry implements Map.Entry<EObject, Collection<EStructuralFeature.Setting>>
+    {
+      protected EObject target;
+
+      protected TargetEntry(EObject target)
+      {
+        this.target = target;
+      }
+
+      public EObject getKey()
+      {
+        return target;
+      }
+
+      public Collection<EStructuralFeature.Setting> getValue()
+      {
+        return new InverseReferences(target);
+      }
+
+      public Collection<EStructuralFeature.Setting> setValue(Collection<EStructuralFeature.Setting> value)
+      {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+        if (object instanceof Map.Entry<?, ?>)
+        {
+          Map.Entry<?, ?> entry = (Map.Entry<?, ?>)object;
+          return target.equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+        return false;
+      }
+
+      @Override
+      public int hashCode()
+      {
+        return target.hashCode() ^ getValue().hashCode();
+      }
+
+      @Override
+      public String toString()
+      {
+        return target + "=" + getValue();
+      }
+    }
+
+    /**
+     * A live view of the entries of a cross referenced object as settings.
+     * Two views are equal if they're for the same object of the same cross referencer.
+     * Iterating over it after the index is modified throws a {@link ConcurrentModificationException}.
+     */
+    protected class InverseReferences extends AbstractCollection<EStructuralFeature.Setting>
+    {
+      protected EObject target;
+
+      protected InverseReferences(EObject target)
+      {
+        this.target = target;
+      }
+
+      @Override
+      public int size()
+      {
+        int result = 0;
+        for (int entry = getFirstEntry(target); entry != -1; entry = nexts[entry])
+        {
+          ++result;
+        }
+        return result;
+      }
+
+      @Override
+      public Iterator<EStructuralFeature.Setting> iterator()
+      {
+        return
+          new Iterator<EStructuralFeature.Setting>()
+          {
+            protected int expectedModificationCount = modificationCount;
+
+            protected int entry = getFirstEntry(target);
+
+            public boolean hasNext()
+            {
+              return entry != -1;
+            }
+
+            public EStructuralFeature.Setting next()
+            {
+              if (modificationCount != expectedModificationCount)
+              {
+                throw new ConcurrentModificationException();
+              }
+              if (entry == -1)
+              {
+                throw new NoSuchElementException();
+              }
+              EStructuralFeature.Setting result = ((InternalEObject)sources[entry]).eSetting(getReference(entry));
+              entry = nexts[entry];
+              return result;
+            }
+
+            public void remove()
+            {
+              throw new UnsupportedOperationException();
+            }
+          };
+      }
+
+      @Override
+      public boolean equals(Object object)
+      {
+        return
+          object instanceof InverseReferences &&
+            ((InverseReferences)object).target == target &&
+            ((InverseReferences)object).getCompactInverseCrossReferencer() == CompactInverseCrossReferencer.this;
+      }
+
+      @Override
+      public int hashCode()
+      {
+        return System.identityHashCode(target);
+      }
+
+      private CompactInverseCrossReferencer getCompactInverseCrossReferencer()
+      {
+        return CompactInverseCrossReferencer.this;
+      }
+    }
+  }
+
   protected InverseCrossReferencer inverseCrossReferencer;
   
+  /**
+   * Whether the {@link #createInverseCrossReferencer() inverse cross referencer} is a {@link CompactInverseCrossReferencer compact} one.
+   */
+  private final boolean compact;
+
   public ECrossReferenceAdapter()
   {
+    this(false);
+  }
+
+  /**
+   * Creates an instance that, if <code>compact</code> is <code>true</code>,
+   * uses a {@link CompactInverseCrossReferencer compact inverse cross referencer},
+   * which doesn't allocate any objects per cross reference.
+   * @param compact whether to use a compact inverse cross referencer.
+   * @since 2.9
+   */
+  public ECrossReferenceAdapter(boolean compact)
+  {
+    this.compact = compact;
     inverseCrossReferencer = createInverseCrossReferencer();
   }
   
@@ -413,7 +1207,7 @@ public class ECrossReferenceAdapter implements Adapter.Internal
   
   protected InverseCrossReferencer createInverseCrossReferencer()
   {
-    return new InverseCrossReferencer();
+    return compact ? new CompactInverseCrossReferencer() : new InverseCrossReferencer();
   }
   
   /**
@@ -12,6 +12,7 @@ package org.eclipse.emf.ecore.util;
 
 
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.ListIndex;
 import org.eclipse.emf.ecore.InternalEObject;
 
 
@@ -59,6 +60,32 @@ public class EObjectEList<E> extends EcoreEList<E>
     }
   }
 
+  /**
+   * An <code>EObjectEList</code> that uses an identity hash {@link ListIndex index} to find objects once its size exceeds a threshold.
+   * @since 2.9
+   */
+  public static class Indexed<E> extends EObjectEList<E>
+  {
+    private static final long serialVersionUID = 1L;
+
+    protected transient ListIndex listIndex;
+
+    public Indexed(Class<?> dataClass, InternalEObject owner, int featureID)
+    {
+      super(dataClass, owner, featureID);
+    }
+
+    @Override
+    protected ListIndex getListIndex()
+    {
+      if (listIndex == null)
+      {
+        listIndex = new ListIndex(false);
+      }
+      return listIndex;
+    }
+  }
+
   protected final int featureID;
 
   public EObjectEList(Class<?> dataClass, InternalEObject owner, int featureID)
@@ -11,6 +11,7 @@
 package org.eclipse.emf.ecore.util;
 
 
+import org.eclipse.emf.common.util.ListIndex;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.InternalEObject;
 
@@ -42,6 +43,32 @@ public class EObjectResolvingEList<E> extends EObjectEList<E>
     }
   }
 
+  /**
+   * An <code>EObjectResolvingEList</code> that uses an identity hash {@link ListIndex index} to find objects once its size exceeds a threshold.
+   * @since 2.9
+   */
+  public static class Indexed<E> extends EObjectResolvingEList<E>
+  {
+    private static final long serialVersionUID = 1L;
+
+    protected transient ListIndex listIndex;
+
+    public Indexed(Class<?> dataClass, InternalEObject owner, int featureID)
+    {
+      super(dataClass, owner, featureID);
+    }
+
+    @Override
+    protected ListIndex getListIndex()
+    {
+      if (listIndex == null)
+      {
+        listIndex = new ListIndex(false);
+      }
+      return listIndex;
+    }
+  }
+
   public EObjectResolvingEList(Class<?> dataClass, InternalEObject owner, int featureID)
   {
     super(dataClass, owner, featureID);
@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
@@ -42,6 +43,8 @@ import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.InternalEObject;
 
+import org.eclipse.emf.ecore.impl.EClassImpl;
+
 import org.eclipse.emf.ecore.plugin.EcorePlugin;
 
 import org.eclipse.emf.ecore.resource.Resource;
@@ -138,11 +141,66 @@ public class EObjectValidator implements EValidator
     return EcoreUtil.convertToString(eDataType, value);
   }
 
+  /**
+   * The precomputed features checked for each {@link EClassImpl#isFrozen() frozen} class.
+   * The classes are weakly referenced, and the plans reference only feature IDs,
+   * so that a class, and its package, can still be garbage collected.
+   * @see #getFeaturePlan(EClass)
+   */
+  private final Map<EClass, FeaturePlan> featurePlans = Collections.synchronizedMap(new WeakHashMap<EClass, FeaturePlan>());
+
   public EObjectValidator()
   {
     super();
   }
 
+  /**
+   * Returns the precomputed features checked for instances of the class,
+   * or <code>null</code> if the class isn't frozen, and hence could still change.
+   */
+  private FeaturePlan getFeaturePlan(EClass eClass)
+  {
+    FeaturePlan result = featurePlans.get(eClass);
+    if (result == null && eClass instanceof EClassImpl && ((EClassImpl)eClass).isFrozen())
+    {
+      result = new FeaturePlan(eClass);
+      featurePlans.put(eClass, result);
+    }
+    return result;
+  }
+
+  /**
+   * The IDs of the features of a class checked by {@link EObjectValidator#validate_EveryBidirectionalReferenceIsPaired(EObject, DiagnosticChain, Map)}
+   * and by {@link EObjectValidator#validate_EveryDataValueConforms(EObject, DiagnosticChain, Map)}.
+   */
+  private static final class FeaturePlan
+  {
+    final int [] bidirectionalReferenceIDs;
+    final int [] eAttributeIDs;
+
+    FeaturePlan(EClass eClass)
+    {
+      List<EReference> eAllReferences = eClass.getEAllReferences();
+      int [] referenceIDs = new int [eAllReferences.size()];
+      int count = 0;
+      for (EReference eReference : eAllReferences)
+      {
+        if (eReference.isResolveProxies() && eReference.getEOpposite() != null)
+        {
+          referenceIDs[count++] = eClass.getFeatureID(eReference);
+        }
+      }
+      bidirectionalReferenceIDs = new int [count];
+      System.arraycopy(referenceIDs, 0, bidirectionalReferenceIDs, 0, count);
+      List<EAttribute> eAllAttributes = eClass.getEAllAttributes();
+      eAttributeIDs = new int [eAllAttributes.size()];
+      for (int i = 0; i < eAttributeIDs.length; ++i)
+      {
+        eAttributeIDs[i] = eClass.getFeatureID(eAllAttributes.get(i));
+      }
+    }
+  }
+
   protected EPackage getEPackage()
   {
     return EcorePackage.eINSTANCE;
@@ -412,7 +470,24 @@ public class EObjectValidator implements EValidator
   public boolean validate_EveryBidirectionalReferenceIsPaired(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
   {
     boolean result = true;
-    for (EReference eReference : eObject.eClass().getEAllReferences())
+    EClass eClass = eObject.eClass();
+    FeaturePlan featurePlan = getFeaturePlan(eClass);
+    if (featurePlan != null)
+    {
+      int [] bidirectionalReferenceIDs = featurePlan.bidirectionalReferenceIDs;
+      for (int i = 0; i < bidirectionalReferenceIDs.length; ++i)
+      {
+        EReference eReference = (EReference)eClass.getEStructuralFeature(bidirectionalReferenceIDs[i]);
+        result &= validate_BidirectionalReferenceIsPaired(eObject, eReference, eReference.getEOpposite(), diagnostics, context);
+        if (!result && diagnostics == null)
+        {
+          return false;
+        }
+      }
+      return result;
+    }
+
+    for (EReference eReference : eClass.getEAllReferences())
     {
       if (eReference.isResolveProxies())
       {
@@ -815,7 +890,23 @@ public class EObjectValidator implements EValidator
   public boolean validate_EveryDataValueConforms(EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
   {
     boolean result = true;
-    for (EAttribute eAttribute : eObject.eClass().getEAllAttributes())
+    EClass eClass = eObject.eClass();
+    FeaturePlan featurePlan = getFeaturePlan(eClass);
+    if (featurePlan != null)
+    {
+      int [] eAttributeIDs = featurePlan.eAttributeIDs;
+      for (int i = 0; i < eAttributeIDs.length; ++i)
+      {
+        result &= validate_DataValueConforms(eObject, (EAttribute)eClass.getEStructuralFeature(eAttributeIDs[i]), diagnostics, context);
+        if (!result && diagnostics == null)
+        {
+          return false;
+        }
+      }
+      return result;
+    }
+
+    for (EAttribute eAttribute : eClass.getEAllAttributes())
     {
       result &= validate_DataValueConforms(eObject, eAttribute, diagnostics, context);
       if (!result && diagnostics == null)
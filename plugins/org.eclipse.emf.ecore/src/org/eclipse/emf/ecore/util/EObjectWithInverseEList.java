@@ -12,6 +12,7 @@ package org.eclipse.emf.ecore.util;
 
 
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.ListIndex;
 import org.eclipse.emf.ecore.InternalEObject;
 
 
@@ -79,6 +80,32 @@ public class EObjectWithInverseEList<E> extends EObjectEList<E>
   {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * A <code>ManyInverse</code> list that uses an identity hash {@link ListIndex index} to find objects once its size exceeds a threshold.
+     * @since 2.9
+     */
+    public static class Indexed<E> extends ManyInverse<E>
+    {
+      private static final long serialVersionUID = 1L;
+
+      protected transient ListIndex listIndex;
+
+      public Indexed(Class<?> dataClass, InternalEObject owner, int featureID, int inverseFeatureID)
+      {
+        super(dataClass, owner, featureID, inverseFeatureID);
+      }
+
+      @Override
+      protected ListIndex getListIndex()
+      {
+        if (listIndex == null)
+        {
+          listIndex = new ListIndex(false);
+        }
+        return listIndex;
+      }
+    }
+
     public ManyInverse(Class<?> dataClass, InternalEObject owner, int featureID, int inverseFeatureID)
     {
       super(dataClass, owner, featureID, inverseFeatureID);
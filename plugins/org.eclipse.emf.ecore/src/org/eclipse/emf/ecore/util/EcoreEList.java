@@ -327,6 +327,21 @@ public abstract class EcoreEList<E> extends NotifyingInternalEListImpl<E> implem
     }
   }
 
+  /**
+   * Returns whether the object might be the resolution of a proxy in the list,
+   * i.e., whether the list must be searched for a proxy that resolves to it.
+   * Because a proxy only resolves to an object in a resource,
+   * a list with an {@link #getListIndex() index} only searches for such an object;
+   * any other list always searches.
+   * @param object the object in question.
+   * @return whether the list must be searched for a proxy that resolves to the object.
+   * @since 2.9
+   */
+  protected boolean isProxyResolutionCandidate(Object object)
+  {
+    return getListIndex() == null || object instanceof EObject && ((EObject)object).eResource() != null;
+  }
+
   /**
    * Resolve to compare objects but do not modify list
    */
@@ -380,7 +395,7 @@ public abstract class EcoreEList<E> extends NotifyingInternalEListImpl<E> implem
       }
 
       boolean result = super.contains(object);
-      if (hasProxies() && !result)
+      if (hasProxies() && !result && isProxyResolutionCandidate(object))
       {
         for (int i = 0; i < size; ++i)
         {
@@ -406,7 +421,7 @@ public abstract class EcoreEList<E> extends NotifyingInternalEListImpl<E> implem
     if (index >= 0)
       return index;
 
-    if (isEObject())
+    if (isEObject() && isProxyResolutionCandidate(object))
     {
       for (int i = 0; i < size; ++i)
       {
@@ -425,7 +440,7 @@ public abstract class EcoreEList<E> extends NotifyingInternalEListImpl<E> implem
   public int lastIndexOf(Object object)
   {
     int result = super.lastIndexOf(object);
-    if (isEObject () && result == -1)
+    if (isEObject () && result == -1 && isProxyResolutionCandidate(object))
     {
       for (int i = size - 1; i >= 0; --i)
       {
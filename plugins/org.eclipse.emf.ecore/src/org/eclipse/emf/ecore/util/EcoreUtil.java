@@ -27,6 +27,12 @@ import java.util.Random;
 import java.util.RandomAccess;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.AdapterFactory;
@@ -38,6 +44,7 @@ import org.eclipse.emf.common.util.ECollections;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
 import org.eclipse.emf.ecore.EAnnotation;
 import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
@@ -55,8 +62,10 @@ import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.impl.EPackageImpl;
+import org.eclipse.emf.ecore.impl.FeatureAccessTable;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 
 
 /**
@@ -270,6 +279,28 @@ public class EcoreUtil
     }
   }
 
+  /**
+   * Visits all proxies in the resource set and tries to resolve them,
+   * first collecting the proxies' resource URIs and demand loading the distinct resources concurrently using the executor,
+   * when the resource set is a {@link ResourceSetImpl}.
+   * Otherwise, the proxies are simply {@link #resolveAll(ResourceSet) resolved} one by one.
+   * @param resourceSet the objects to visit.
+   * @param executor the executor used to parse the referenced resources, or <code>null</code>.
+   * @see ResourceSetImpl#resolveAll(Executor)
+   * @since 2.9
+   */
+  public static void resolveAll(ResourceSet resourceSet, Executor executor)
+  {
+    if (resourceSet instanceof ResourceSetImpl)
+    {
+      ((ResourceSetImpl)resourceSet).resolveAll(executor);
+    }
+    else
+    {
+      resolveAll(resourceSet);
+    }
+  }
+
   /**
    * Visits all proxies in the resource and tries to resolve them.
    * @param resource the objects to visit.
@@ -548,12 +579,14 @@ public class EcoreUtil
      */
     protected void copyContainment(EReference eReference, EObject eObject, EObject copyEObject)
     {
-      if (eObject.eIsSet(eReference))
+      FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(eObject.eClass());
+      if (featureAccessTable.isSet(eObject, eReference))
       {
+        FeatureAccessTable copyFeatureAccessTable = FeatureAccessTable.getFeatureAccessTable(copyEObject.eClass());
         if (eReference.isMany())
         {
-          @SuppressWarnings("unchecked") List<EObject> source = (List<EObject>)eObject.eGet(eReference);
-          @SuppressWarnings("unchecked") List<EObject> target = (List<EObject>)copyEObject.eGet(getTarget(eReference));
+          @SuppressWarnings("unchecked") List<EObject> source = (List<EObject>)featureAccessTable.get(eObject, eReference, true);
+          @SuppressWarnings("unchecked") List<EObject> target = (List<EObject>)copyFeatureAccessTable.get(copyEObject, getTarget(eReference), true);
           if (source.isEmpty())
           {
             target.clear();
@@ -565,8 +598,8 @@ public class EcoreUtil
         }
         else
         {
-          EObject childEObject = (EObject)eObject.eGet(eReference);
-          copyEObject.eSet(getTarget(eReference), childEObject == null ? null : copy(childEObject));
+          EObject childEObject = (EObject)featureAccessTable.get(eObject, eReference, true);
+          copyFeatureAccessTable.set(copyEObject, getTarget(eReference), childEObject == null ? null : copy(childEObject));
         }
       }
     }
@@ -580,11 +613,12 @@ public class EcoreUtil
      */
     protected void copyAttribute(EAttribute eAttribute, EObject eObject, EObject copyEObject)
     {
-      if (eObject.eIsSet(eAttribute))
+      FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(eObject.eClass());
+      if (featureAccessTable.isSet(eObject, eAttribute))
       {
         if (FeatureMapUtil.isFeatureMap(eAttribute))
         {
-          FeatureMap featureMap = (FeatureMap)eObject.eGet(eAttribute);
+          FeatureMap featureMap = (FeatureMap)featureAccessTable.get(eObject, eAttribute, true);
           for (int i = 0, size = featureMap.size(); i < size; ++i)
           {
             EStructuralFeature feature = featureMap.getEStructuralFeature(i);
@@ -600,8 +634,9 @@ public class EcoreUtil
         }
         else if (eAttribute.isMany())
         {
-          List<?> source = (List<?>)eObject.eGet(eAttribute);
-          @SuppressWarnings("unchecked") List<Object> target = (List<Object>)copyEObject.eGet(getTarget(eAttribute));
+          List<?> source = (List<?>)featureAccessTable.get(eObject, eAttribute, true);
+          @SuppressWarnings("unchecked") List<Object> target =
+            (List<Object>)FeatureAccessTable.getFeatureAccessTable(copyEObject.eClass()).get(copyEObject, getTarget(eAttribute), true);
           if (source.isEmpty())
           {
             target.clear();
@@ -613,7 +648,8 @@ public class EcoreUtil
         }
         else
         {
-          copyEObject.eSet(getTarget(eAttribute), eObject.eGet(eAttribute));
+          FeatureAccessTable.getFeatureAccessTable(copyEObject.eClass()).set
+            (copyEObject, getTarget(eAttribute), featureAccessTable.get(eObject, eAttribute, true));
         }
       }
     }
@@ -698,12 +734,14 @@ public class EcoreUtil
      */
     protected void copyReference(EReference eReference, EObject eObject, EObject copyEObject)
     {
-      if (eObject.eIsSet(eReference))
+      FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(eObject.eClass());
+      if (featureAccessTable.isSet(eObject, eReference))
       {
+        FeatureAccessTable copyFeatureAccessTable = FeatureAccessTable.getFeatureAccessTable(copyEObject.eClass());
         if (eReference.isMany())
         {
-          @SuppressWarnings("unchecked") InternalEList<EObject> source = (InternalEList<EObject>)eObject.eGet(eReference);
-          @SuppressWarnings("unchecked") InternalEList<EObject> target = (InternalEList<EObject>)copyEObject.eGet(getTarget(eReference));
+          @SuppressWarnings("unchecked") InternalEList<EObject> source = (InternalEList<EObject>)featureAccessTable.get(eObject, eReference, true);
+          @SuppressWarnings("unchecked") InternalEList<EObject> target = (InternalEList<EObject>)copyFeatureAccessTable.get(copyEObject, getTarget(eReference), true);
           if (source.isEmpty())
           {
             target.clear();
@@ -749,10 +787,10 @@ public class EcoreUtil
         }
         else
         {
-          Object referencedEObject = eObject.eGet(eReference, resolveProxies);
+          Object referencedEObject = featureAccessTable.get(eObject, eReference, resolveProxies);
           if (referencedEObject == null)
           {
-            copyEObject.eSet(getTarget(eReference), null);
+            copyFeatureAccessTable.set(copyEObject, getTarget(eReference), null);
           }
           else
           {
@@ -761,12 +799,12 @@ public class EcoreUtil
             {
               if (useOriginalReferences && eReference.getEOpposite() == null)
               {
-                copyEObject.eSet(getTarget(eReference), referencedEObject);
+                copyFeatureAccessTable.set(copyEObject, getTarget(eReference), referencedEObject);
               }
             }
             else
             {
-              copyEObject.eSet(getTarget(eReference), copyReferencedEObject);
+              copyFeatureAccessTable.set(copyEObject, getTarget(eReference), copyReferencedEObject);
             }
           }
         }
@@ -1695,6 +1733,19 @@ public class EcoreUtil
      * @return a tree iterator over content trees.
      */
     protected TreeIterator<Notifier> newContentsIterator()
+    {
+      return newContentsIterator(emfObjects);
+    }
+
+    /**
+     * Return a tree iterator over the content trees of the given objects.
+     * It's used by {@link #newContentsIterator()} for all of this cross referencer's objects,
+     * and by {@link #crossReference(Executor)} for each partition of their content trees.
+     * @param emfObjects the objects whose content trees to iterate.
+     * @return a tree iterator over content trees.
+     * @since 2.9
+     */
+    protected TreeIterator<Notifier> newContentsIterator(Collection<?> emfObjects)
     {
       return new ContentTreeIterator<Notifier>(emfObjects);
     }
@@ -1704,7 +1755,15 @@ public class EcoreUtil
      */
     protected void crossReference()
     {
-      for (TreeIterator<Notifier> contents = newContentsIterator(); contents.hasNext();)
+      crossReference(newContentsIterator());
+    }
+
+    /**
+     * Handles the objects of the content tree, as {@link #crossReference()} does.
+     */
+    private void crossReference(TreeIterator<Notifier> contents)
+    {
+      while (contents.hasNext())
       {
         Object content = contents.next();
         if (content instanceof EObject)
@@ -1722,6 +1781,246 @@ public class EcoreUtil
       }
     }
 
+    /**
+     * Returns whether {@link #crossReference(Executor)} may partition the content trees and traverse the partitions concurrently.
+     * It returns <code>false</code>, so a cross referencer is traversed sequentially unless a subclass opts in.
+     * By returning <code>true</code>, a cross referencer asserts that
+     * {@link #newContentsIterator(Collection)}, {@link #containment(EObject)}, {@link #crossReference(EObject, EReference, EObject)}, and {@link #getCrossReferences(EObject)}
+     * are safe to call from several threads at once,
+     * that the iterators created by <code>newContentsIterator(Collection)</code> don't resolve proxies,
+     * e.g., by using {@link InternalEList#basicIterator() basic iterators},
+     * and that {@link #newContentsIterator()} isn't customized other than by overriding <code>newContentsIterator(Collection)</code>.
+     * A partition whose iterator is a {@link ContentTreeIterator} that {@link ContentTreeIterator#isResolveProxies() resolves proxies}
+     * is nevertheless traversed on the calling thread.
+     * @return whether the content trees may be traversed concurrently.
+     * @since 2.9
+     */
+    protected boolean canCrossReferenceConcurrently()
+    {
+      return false;
+    }
+
+    /**
+     * Compute the map of cross references,
+     * using the executor to traverse the content tree of each resource's root object or of each object concurrently.
+     * The results of the concurrent traversals are merged in the order of the sequential traversal of {@link #crossReference()},
+     * so the resulting map, including the order of each collection of settings, is identical.
+     * Proxies are never resolved concurrently:
+     * an object with a proxy cross reference, when the cross referencer {@link #resolve() resolves} proxies,
+     * is {@link #handleCrossReference(EObject) handled} on the calling thread during the merge,
+     * and the resources demand loaded as a result are traversed in a subsequent round.
+     * The content trees are only partitioned if the cross referencer {@link #canCrossReferenceConcurrently() opts in};
+     * otherwise they're traversed {@link #crossReference() sequentially}.
+     * A partition whose traversal the executor rejects is traversed on the calling thread.
+     * @param executor the executor used to traverse the partitions of the content tree.
+     * @since 2.9
+     */
+    protected void crossReference(Executor executor)
+    {
+      if (!canCrossReferenceConcurrently())
+      {
+        crossReference();
+        return;
+      }
+
+      List<Object> partitions = new ArrayList<Object>();
+      for (Object emfObject : emfObjects)
+      {
+        if (emfObject instanceof ResourceSet)
+        {
+          crossReference(executor, partitions);
+          partitions.clear();
+
+          // Resources demand loaded while handling one round are traversed in the next round,
+          // just as the sequential traversal visits them after the resources that were there to start with.
+          //
+          List<Resource> resources = ((ResourceSet)emfObject).getResources();
+          for (int i = 0, size = resources.size(); i < size; i = size, size = resources.size())
+          {
+            for (Resource resource : resources.subList(i, size))
+            {
+              partitions.addAll(resource.getContents());
+            }
+            crossReference(executor, partitions);
+            partitions.clear();
+          }
+        }
+        else if (emfObject instanceof Resource)
+        {
+          partitions.addAll(((Resource)emfObject).getContents());
+        }
+        else
+        {
+          partitions.add(emfObject);
+        }
+      }
+      crossReference(executor, partitions);
+    }
+
+    /**
+     * Traverses the content tree of each partition using the executor and merges the results in order.
+     */
+    private void crossReference(Executor executor, List<Object> partitions)
+    {
+      int size = partitions.size();
+      if (size == 1)
+      {
+        Object partition = partitions.get(0);
+        merge(partition, crossReference(partition));
+      }
+      else if (size > 1)
+      {
+        List<FutureTask<List<Object>>> tasks = new ArrayList<FutureTask<List<Object>>>(size);
+        for (final Object partition : partitions)
+        {
+          FutureTask<List<Object>> task =
+            new FutureTask<List<Object>>
+              (new Callable<List<Object>>()
+               {
+                 public List<Object> call() throws Exception
+                 {
+                   return crossReference(partition);
+                 }
+               });
+          tasks.add(task);
+          try
+          {
+            executor.execute(task);
+          }
+          catch (RejectedExecutionException exception)
+          {
+            task.run();
+          }
+        }
+
+        try
+        {
+          for (int i = 0; i < size; ++i)
+          {
+            merge(partitions.get(i), tasks.get(i).get());
+          }
+        }
+        catch (InterruptedException exception)
+        {
+          Thread.currentThread().interrupt();
+          throw new WrappedException(exception);
+        }
+        catch (ExecutionException exception)
+        {
+          Throwable cause = exception.getCause();
+          if (cause instanceof RuntimeException)
+          {
+            throw (RuntimeException)cause;
+          }
+          else if (cause instanceof Error)
+          {
+            throw (Error)cause;
+          }
+          else
+          {
+            throw new WrappedException((Exception)cause);
+          }
+        }
+        finally
+        {
+          for (FutureTask<List<Object>> task : tasks)
+          {
+            task.cancel(true);
+          }
+        }
+      }
+    }
+
+    /**
+     * Traverses the content tree of the partition,
+     * recording a triple of object, reference, and target for each cross reference,
+     * or a triple of object, <code>null</code>, and <code>null</code> for an object that must be handled during the merge,
+     * or returns <code>null</code> if the partition's iterator resolves proxies, so the partition must be traversed during the merge.
+     */
+    private List<Object> crossReference(Object partition)
+    {
+      TreeIterator<Notifier> contents = newContentsIterator(Collections.singleton(partition));
+      if (contents instanceof ContentTreeIterator<?> && ((ContentTreeIterator<?>)contents).isResolveProxies())
+      {
+        return null;
+      }
+
+      List<Object> result = new ArrayList<Object>();
+      boolean resolve = resolve();
+      while (contents.hasNext())
+      {
+        Object content = contents.next();
+        if (content instanceof EObject)
+        {
+          EObject eObject = (EObject)content;
+          if (!containment(eObject))
+          {
+            contents.prune();
+          }
+          else if (resolve && hasProxyCrossReference(eObject))
+          {
+            result.add(eObject);
+            result.add(null);
+            result.add(null);
+          }
+          else
+          {
+            for (EContentsEList.FeatureIterator<EObject> crossReferences = getCrossReferences(eObject); crossReferences.hasNext();)
+            {
+              EObject crossReferencedEObject = crossReferences.next();
+              if (crossReferencedEObject != null)
+              {
+                EReference eReference = (EReference)crossReferences.feature();
+                if (crossReference(eObject, eReference, crossReferencedEObject))
+                {
+                  result.add(eObject);
+                  result.add(eReference);
+                  result.add(crossReferencedEObject);
+                }
+              }
+            }
+          }
+        }
+      }
+      return result;
+    }
+
+    private static boolean hasProxyCrossReference(EObject eObject)
+    {
+      for (Iterator<EObject> crossReferences = ((InternalEList<EObject>)eObject.eCrossReferences()).basicIterator(); crossReferences.hasNext();)
+      {
+        EObject crossReferencedEObject = crossReferences.next();
+        if (crossReferencedEObject != null && crossReferencedEObject.eIsProxy())
+        {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void merge(Object partition, List<Object> crossReferences)
+    {
+      if (crossReferences == null)
+      {
+        crossReference(newContentsIterator(Collections.singleton(partition)));
+        return;
+      }
+
+      for (int i = 0, size = crossReferences.size(); i < size; i += 3)
+      {
+        InternalEObject eObject = (InternalEObject)crossReferences.get(i);
+        EReference eReference = (EReference)crossReferences.get(i + 1);
+        if (eReference == null)
+        {
+          handleCrossReference(eObject);
+        }
+        else
+        {
+          add(eObject, eReference, (EObject)crossReferences.get(i + 2));
+        }
+      }
+    }
+
     protected EContentsEList.FeatureIterator<EObject> getCrossReferences(EObject eObject)
     {
       return 
@@ -1953,6 +2252,20 @@ public class EcoreUtil
       return this;
     }
 
+    /**
+     * Returns the map of external cross references for this cross referencer,
+     * using the executor to traverse the content trees {@link #crossReference(Executor) concurrently}.
+     * @param executor the executor used to traverse the content trees.
+     * @return a map of cross references.
+     * @since 2.9
+     */
+    protected Map<EObject, Collection<EStructuralFeature.Setting>> findExternalCrossReferences(Executor executor)
+    {
+      crossReference(executor);
+      done();
+      return this;
+    }
+
     /**
      * Returns a map of all external cross references from the specified content tree.
      * @param eObject an object whose content trees should be considered.
@@ -1992,6 +2305,30 @@ public class EcoreUtil
     {
       return new ExternalCrossReferencer(emfObjectsToSearch).findExternalCrossReferences();
     }
+
+    /**
+     * Returns a map of all external cross references from the combined content trees of the specified collection of objects,
+     * using the executor to traverse the content trees {@link CrossReferencer#crossReference(Executor) concurrently};
+     * the result is identical to that of {@link #find(Collection)}.
+     * @param emfObjectsToSearch a collection of objects whose combined content trees should be considered.
+     * @param executor the executor used to traverse the content trees.
+     * @return a map of cross references.
+     * @since 2.9
+     */
+    public static Map<EObject, Collection<EStructuralFeature.Setting>> find(Collection<?> emfObjectsToSearch, Executor executor)
+    {
+      return 
+        new ExternalCrossReferencer(emfObjectsToSearch)
+        {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean canCrossReferenceConcurrently()
+          {
+            return true;
+          }
+        }.findExternalCrossReferences(executor);
+    }
   }
 
   /**
@@ -2604,6 +2941,23 @@ public class EcoreUtil
       return this;
     }
 
+    /**
+     * Returns the map of usage references to objects in the specified collection,
+     * using the executor to traverse the content trees {@link #crossReference(Executor) concurrently}.
+     * @param eObjectsOfInterest a collection of usage targets.
+     * @param executor the executor used to traverse the content trees.
+     * @return a map of cross references.
+     * @since 2.9
+     */
+    protected Map<EObject, Collection<EStructuralFeature.Setting>> findAllUsage(Collection<?> eObjectsOfInterest, Executor executor)
+    {
+      this.eObjectsOfInterest = eObjectsOfInterest;
+      crossReference(executor);
+      this.eObjectsOfInterest = null;
+      done();
+      return this;
+    }
+
     /**
      * Returns a collection of usage references from the specified content tree.
      * @param eObjectOfInterest the usage target.
@@ -2695,6 +3049,32 @@ public class EcoreUtil
     {
       return new UsageCrossReferencer(emfObjectsToSearch).findAllUsage(eObjectsOfInterest);
     }
+
+    /**
+     * Returns a map of usage references from the combined content trees of the specified collection of objects,
+     * using the executor to traverse the content trees {@link CrossReferencer#crossReference(Executor) concurrently};
+     * the result is identical to that of {@link #findAll(Collection, Collection)}.
+     * @param eObjectsOfInterest a collection of usage targets.
+     * @param emfObjectsToSearch a collection of objects whose combined content trees should be considered.
+     * @param executor the executor used to traverse the content trees.
+     * @return a map of cross references.
+     * @since 2.9
+     */
+    public static Map<EObject, Collection<EStructuralFeature.Setting>> findAll
+      (Collection<?>  eObjectsOfInterest, Collection<?>  emfObjectsToSearch, Executor executor)
+    {
+      return 
+        new UsageCrossReferencer(emfObjectsToSearch)
+        {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean canCrossReferenceConcurrently()
+          {
+            return true;
+          }
+        }.findAllUsage(eObjectsOfInterest, executor);
+    }
   }
 
   /**
@@ -3721,38 +4101,55 @@ public class EcoreUtil
     UUID.generate(uuid);
   }
 
+  /**
+   * Generates the given number of universally unique identifiers, as {@link #generateUUID()} does,
+   * reserving their time stamps in batches rather than one at a time.
+   * Unless the system clock is rewound while they're generated, the identifiers are in increasing time order.
+   * @param count the number of identifiers to generate.
+   * @return the universally unique identifiers.
+   * @since 2.9
+   */
+  public static String [] generateUUIDs(int count)
+  {
+    return UUID.generate(count);
+  }
+
   private static final class UUID
   {
-    public synchronized static String generate()
+    public static String generate()
     {
-      updateCurrentTime();
+      State state = STATE.get();
+      state.update(reserve(state, 1));
+      return state.encode();
+    }
 
-      // Do a base 64 conversion by turning every 3 bytes into 4 base 64 characters
-      //
-      for (int i = 0; i < 5; ++i)
+    public static String [] generate(int count)
+    {
+      String [] result = new String [count];
+      if (count > 0)
       {
-        buffer[4 * i + 1] = BASE64_DIGITS[(uuid[i * 3] >> 2) & 0x3F];
-        buffer[4 * i + 2] = BASE64_DIGITS[((uuid[i * 3] << 4) & 0x30) | ((uuid[i * 3 + 1] >> 4) & 0xF)];
-        buffer[4 * i + 3] = BASE64_DIGITS[((uuid[i * 3 + 1] << 2) & 0x3C) | ((uuid[i * 3 + 2] >> 6) & 0x3)];
-        buffer[4 * i + 4] = BASE64_DIGITS[uuid[i * 3 + 2] & 0x3F];
+        State state = STATE.get();
+        for (int i = 0; i < count; )
+        {
+          // Reserve the time stamps in batches that can't run ahead of the clock by more than the maximum drift.
+          //
+          int batchSize = Math.min(count - i, MAXIMUM_BATCH_SIZE);
+          long time = reserve(state, batchSize);
+          for (int end = i + batchSize; i < end; ++i)
+          {
+            state.update(time++);
+            result[i] = state.encode();
+          }
+        }
       }
-
-      // Handle the last byte at the end.
-      //
-      buffer[21] = BASE64_DIGITS[(uuid[15] >> 2) & 0x3F];
-      buffer[22] = BASE64_DIGITS[(uuid[15] << 4) & 0x30];
-
-      return new String(buffer);
+      return result;
     }
-    
-    public synchronized static void generate(byte [] uuid)
-    {
-      updateCurrentTime();
 
-      for (int i = 0; i < 16; i++)
-      {
-        uuid[i] = UUID.uuid[i];
-      }
+    public static void generate(byte [] uuid)
+    {
+      State state = STATE.get();
+      state.update(reserve(state, 1));
+      System.arraycopy(state.uuid, 0, uuid, 0, 16);
     }
 
     private UUID()
@@ -3833,28 +4230,64 @@ public class EcoreUtil
     private static final long EPOCH_ADJUSTMENT = new GregorianCalendar(1970, 0, 1, 0, 0, 0).getTime().getTime()
       - new GregorianCalendar(1582, 9, 15, 0, 0, 0).getTime().getTime();
 
-    private static long lastTime = System.currentTimeMillis() + EPOCH_ADJUSTMENT;
+    /**
+     * How far, in 100s of nanoseconds, the reserved time stamps may run ahead of the system clock,
+     * i.e., one second.
+     */
+    private static final long MAXIMUM_DRIFT = 10000000L;
 
-    private static short clockSequence;
+    /**
+     * The largest number of time stamps reserved at once, i.e., one millisecond's worth.
+     */
+    private static final int MAXIMUM_BATCH_SIZE = 10000;
 
-    private static short timeAdjustment;
-    
-    private static int sleepTime = 1;
+    /**
+     * A clock sequence along with the last time stamp reserved for it.
+     */
+    private static final class Reservation
+    {
+      final long lastTime;
+
+      final int clockSequence;
+
+      Reservation(long lastTime, int clockSequence)
+      {
+        this.lastTime = lastTime;
+        this.clockSequence = clockSequence;
+      }
+    }
 
     /**
-     * A cached array of bytes representing the UUID. The second 8 bytes
-     * will be kept the same unless the clock sequence has changed.
+     * The last reservation, with its time stamp in 100s of nanoseconds since the IETF epoch.
+     * Time stamps are reserved by replacing this value atomically,
+     * so the time stamp never moves backward for a given clock sequence
+     * and every combination of time stamp and clock sequence is used only once.
      */
-    private static final byte[] uuid = new byte [16];
+    private static final AtomicReference<Reservation> lastReservation;
 
-    private static final char[] buffer = new char [23];
+    /**
+     * The bytes representing the node identifier, i.e., the last 6 bytes of every UUID.
+     */
+    private static final byte[] node = new byte [6];
+
+    /**
+     * The state of each thread, so that threads generate UUIDs without contention.
+     */
+    private static final ThreadLocal<State> STATE =
+      new ThreadLocal<State>()
+      {
+        @Override
+        protected State initialValue()
+        {
+          return new State();
+        }
+      };
 
     static
     {
       Random random = new SecureRandom();
 
-      clockSequence = (short)random.nextInt(16384);
-      updateClockSequence();
+      lastReservation = new AtomicReference<Reservation>(new Reservation(0, random.nextInt(16384)));
 
       // Generate a 48 bit node identifier; 
       // This is an alternative to the IEEE 802 host address, which is not available in Java.
@@ -3870,127 +4303,151 @@ public class EcoreUtil
       // The node identifier is already in network byte order, 
       // so there is no need to do any byte order reversing.
       //
-      for (int i = 0; i < 6; ++i)
-      {
-        uuid[i + 10] = nodeAddress[i];
-      }
-
-      buffer[0] = '_';
-    }
-
-    /**
-     * Updates the clock sequence portion of the UUID. The clock sequence
-     * portion may seem odd, but in the specification, the high order byte
-     * comes before the low order byte. The variant is multiplexed into the
-     * high order octet of clockseq_hi.
-     */
-    private static void updateClockSequence()
-    {
-      // clockseq_hi
-      uuid[8] = (byte)(((clockSequence >> 8) & 0x3F) | 0x80);
-      // clockseq_low
-      uuid[9] = (byte)(clockSequence & 0xFF);
+      System.arraycopy(nodeAddress, 0, node, 0, 6);
     }
 
     /**
-     * Updates the UUID with the current time, compensating for the fact
-     * that the clock resolution may be less than 100 ns. The byte array
-     * will have its first eight bytes populated with the time in the
-     * correct sequence of bytes, as per the specification.
+     * Reserves the given number of consecutive time stamps, 
+     * updates the state's clock sequence, 
+     * and returns the first time stamp.
+     * Since the granularity of time in Java is only milliseconds, 
+     * the time stamps within a millisecond are distinguished by increments of 100s of nanoseconds;
+     * should more be needed than a millisecond provides, the reserved time stamps run ahead of the clock,
+     * up to the {@link #MAXIMUM_DRIFT maximum drift}, after which the caller waits for the clock to catch up.
+     * The count must not exceed the {@link #MAXIMUM_BATCH_SIZE maximum batch size}.
      */
-    private static void updateCurrentTime()
+    private static long reserve(State state, int count)
     {
-      // Get the current time in milliseconds since the epoch 
-      // and adjust it to match the epoch required by the specification.
-      //
-      long currentTime = System.currentTimeMillis() + EPOCH_ADJUSTMENT;
-
-      if (lastTime > currentTime)
+      for (;;)
       {
-        // The system clock has been rewound so the clock sequence must be incremented 
-        // to ensure that a duplicate UUID is not generated.
+        // Get the current time in milliseconds since the epoch 
+        // and adjust it to match the epoch required by the specification.
         //
-        ++clockSequence;
-
-        if (16384 == clockSequence)
+        long currentTime = (System.currentTimeMillis() + EPOCH_ADJUSTMENT) * 10000;
+        Reservation last = lastReservation.get();
+        long first;
+        int clockSequence = last.clockSequence;
+        if (last.lastTime - currentTime > MAXIMUM_DRIFT)
         {
-          clockSequence = 0;
+          // The reserved time stamps never run ahead of the clock by more than the maximum drift,
+          // so the system clock has been rewound and the clock sequence must be incremented 
+          // to ensure that a duplicate UUID is not generated when starting over from the current time.
+          //
+          first = currentTime;
+          clockSequence = (clockSequence + 1) & 0x3FFF;
+        }
+        else
+        {
+          first = last.lastTime < currentTime ? currentTime : last.lastTime + 1;
         }
 
-        updateClockSequence();
-      }
-      else if (lastTime == currentTime)
-      {
-        // The system time hasn't changed so add some increment of 100s of nanoseconds to guarantee uniqueness.
-        //
-        ++timeAdjustment;
-
-        if (timeAdjustment > 9999)
+        if (first + count - 1 - currentTime > MAXIMUM_DRIFT)
         {
-          // Wait so that the clock can catch up and the time adjustment won't overflow.
+          // Wait so that the clock can catch up.
+          //
           try
           {
-            Thread.sleep(sleepTime);
+            Thread.sleep(1);
           }
           catch (InterruptedException exception)
           {
             // We just woke up.
           }
-
-          timeAdjustment = 0;
-          currentTime = System.currentTimeMillis() + EPOCH_ADJUSTMENT;
-
-          while (lastTime == currentTime)
-          {
-            try
-            {
-              ++sleepTime;
-              Thread.sleep(1);
-            }
-            catch (InterruptedException exception)
-            {
-              // We just woke up.
-            }
-            currentTime = System.currentTimeMillis() + EPOCH_ADJUSTMENT;
-          }
+        }
+        else if (lastReservation.compareAndSet(last, new Reservation(first + count - 1, clockSequence)))
+        {
+          state.setClockSequence(clockSequence);
+          return first;
         }
       }
-      else
-      {
-        timeAdjustment = 0;
-      }
+    }
 
-      lastTime = currentTime;
+    /**
+     * The UUID bytes and the encoding buffer of a thread.
+     */
+    private static final class State
+    {
+      /**
+       * The bytes representing the UUID.
+       * The last 6 bytes are always the same.
+       */
+      private final byte[] uuid = new byte [16];
 
-      // Since the granularity of time in Java is only milliseconds, 
-      // add an adjustment so that the time is represented in 100s of nanoseconds.
-      // The version number (1) is multiplexed into the most significant hex digit.
-      //
-      currentTime *= 10000;
-      currentTime += timeAdjustment;
-      currentTime |= 0x1000000000000000L;
+      private final char[] buffer = new char [23];
 
-      // Place the time into the byte array in network byte order.
-      //
-      for (int i = 0; i < 4; ++i)
+      State()
       {
-        // time_low
-        //
-        uuid[i] = (byte)((currentTime >> 8 * (3 - i)) & 0xFFL);
+        System.arraycopy(node, 0, uuid, 10, 6);
+        buffer[0] = '_';
       }
 
-      for (int i = 0; i < 2; ++i)
+      /**
+       * Updates the clock sequence portion of the UUID. The clock sequence
+       * portion may seem odd, but in the specification, the high order byte
+       * comes before the low order byte. The variant is multiplexed into the
+       * high order octet of clockseq_hi.
+       */
+      void setClockSequence(int clockSequence)
+      {
+        // clockseq_hi
+        uuid[8] = (byte)(((clockSequence >> 8) & 0x3F) | 0x80);
+        // clockseq_low
+        uuid[9] = (byte)(clockSequence & 0xFF);
+      }
+
+      /**
+       * Updates the UUID with the time stamp. The byte array
+       * will have its first eight bytes populated with the time in the
+       * correct sequence of bytes, as per the specification.
+       */
+      void update(long time)
       {
-        // time_mid
+        // The version number (1) is multiplexed into the most significant hex digit.
+        //
+        time |= 0x1000000000000000L;
+
+        // Place the time into the byte array in network byte order.
         //
-        uuid[i + 4] = (byte)((currentTime >> 8 * (1 - i) + 32) & 0xFFL);
+        for (int i = 0; i < 4; ++i)
+        {
+          // time_low
+          //
+          uuid[i] = (byte)((time >> 8 * (3 - i)) & 0xFFL);
+        }
+
+        for (int i = 0; i < 2; ++i)
+        {
+          // time_mid
+          //
+          uuid[i + 4] = (byte)((time >> 8 * (1 - i) + 32) & 0xFFL);
+        }
+
+        for (int i = 0; i < 2; ++i)
+        {
+          // time_hi
+          //
+          uuid[i + 6] = (byte)((time >> 8 * (1 - i) + 48) & 0xFFL);
+        }
       }
 
-      for (int i = 0; i < 2; ++i)
+      String encode()
       {
-        // time_hi
+        // Do a base 64 conversion by turning every 3 bytes into 4 base 64 characters
+        //
+        for (int i = 0; i < 5; ++i)
+        {
+          buffer[4 * i + 1] = BASE64_DIGITS[(uuid[i * 3] >> 2) & 0x3F];
+          buffer[4 * i + 2] = BASE64_DIGITS[((uuid[i * 3] << 4) & 0x30) | ((uuid[i * 3 + 1] >> 4) & 0xF)];
+          buffer[4 * i + 3] = BASE64_DIGITS[((uuid[i * 3 + 1] << 2) & 0x3C) | ((uuid[i * 3 + 2] >> 6) & 0x3)];
+          buffer[4 * i + 4] = BASE64_DIGITS[uuid[i * 3 + 2] & 0x3F];
+        }
+
+        // Handle the last byte at the end.
         //
-        uuid[i + 6] = (byte)((currentTime >> 8 * (1 - i) + 48) & 0xFFL);
+        buffer[21] = BASE64_DIGITS[(uuid[15] >> 2) & 0x3F];
+        buffer[22] = BASE64_DIGITS[(uuid[15] << 4) & 0x30];
+
+        return new String(buffer);
       }
     }
   }
@@ -3998,12 +4455,23 @@ public class EcoreUtil
   /**
    * Marks the package to indicate that it and everything it contains or that its contents depend on can no longer be changed.
    * This helps to improve the performance of the model but has no other effect.
+   * <p>
+   * All the derived information that the package's classifiers and features otherwise compute lazily on first access,
+   * e.g., {@link EClass#getEAllStructuralFeatures() all features}, {@link EStructuralFeature#getDefaultValue() default values},
+   * and {@link EStructuralFeature.Internal#getSettingDelegate() setting delegates},
+   * is computed eagerly,
+   * so that, once the package is safely published to other threads,
+   * e.g., via a concurrent map or a class initializer,
+   * any number of threads can read it without locking.
+   * The {@link ExtendedMetaData extended metadata} can be computed eagerly as well via {@link BasicExtendedMetaData#precompute(EPackage)}.
+   * </p>
    */
   public static void freeze(EPackage ePackage)
   {
     try
     {
       ((EPackageImpl)ePackage).freeze();
+      precompute(ePackage);
     }
     catch (ClassCastException exception)
     {
@@ -4011,6 +4479,34 @@ public class EcoreUtil
     }
   }
 
+  private static void precompute(EPackage ePackage)
+  {
+    for (EClassifier eClassifier : ePackage.getEClassifiers())
+    {
+      eClassifier.getInstanceClass();
+      eClassifier.getDefaultValue();
+      if (eClassifier instanceof EClass)
+      {
+        for (EStructuralFeature eStructuralFeature : ((EClass)eClassifier).getEStructuralFeatures())
+        {
+          eStructuralFeature.getDefaultValue();
+          if (eStructuralFeature instanceof EStructuralFeature.Internal)
+          {
+            ((EStructuralFeature.Internal)eStructuralFeature).getSettingDelegate();
+          }
+        }
+      }
+      else if (eClassifier instanceof EDataType.Internal)
+      {
+        ((EDataType.Internal)eClassifier).getConversionDelegate();
+      }
+    }
+    for (EPackage eSubpackage : ePackage.getESubpackages())
+    {
+      precompute(eSubpackage);
+    }
+  }
+
   /**
    * Computes a {@link Diagnostic} from the errors and warnings stored in the specified resource.
    * @param resource
@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.util;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.BasicDiagnostic;
+import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+
+
+/**
+ * An adapter that keeps the {@link #getDiagnostic(EObject) diagnostic} of each object in its content tree up-to-date, incrementally.
+ * It can be installed for an {@link EObject}, a {@link org.eclipse.emf.ecore.resource.Resource Resource},
+ * or a {@link org.eclipse.emf.ecore.resource.ResourceSet ResourceSet}.
+ * <p>
+ * Each object is validated by itself, i.e., without its contents,
+ * by the {@link Diagnostician#getEValidator(EClass) validator} that the diagnostician uses for it.
+ * An object is marked dirty when it's added to the content tree,
+ * when it, or one of the objects it directly contains, changes,
+ * and when one of the objects on which its validation {@link #collectDependencies(EObject, Diagnostic, Collection) depends} changes,
+ * i.e., by default, the objects it references and the objects referenced by its diagnostics.
+ * Notifications only mark objects dirty;
+ * the dirty objects are validated when {@link #validate()} is called, or when their diagnostic is requested,
+ * so the cost of keeping the diagnostics up-to-date is proportional to the number of changed objects.
+ * Only the diagnostics of the invalid objects are retained.
+ * </p>
+ * <p>
+ * Like the objects it observes, this adapter isn't thread-safe.
+ * </p>
+ * @since 2.9
+ */
+public class IncrementalValidator extends EContentAdapter
+{
+  /**
+   * The diagnostician used to validate each object.
+   */
+  protected Diagnostician diagnostician;
+
+  /**
+   * The additional entries of the context in which each object is validated.
+   */
+  protected Map<?, ?> contextEntries;
+
+  /**
+   * The objects in the content tree that need to be validated, in the order in which they were marked dirty.
+   */
+  protected Set<EObject> dirtyObjects = new LinkedHashSet<EObject>();
+
+  /**
+   * The diagnostic of each invalid object in the content tree.
+   */
+  protected Map<EObject, Diagnostic> diagnostics = new HashMap<EObject, Diagnostic>();
+
+  /**
+   * The objects on which the most recent validation of each object depends.
+   */
+  protected Map<EObject, Set<EObject>> dependencies = new HashMap<EObject, Set<EObject>>();
+
+  /**
+   * The objects whose most recent validation depends on each object; the inverse of {@link #dependencies}.
+   */
+  protected Map<EObject, Set<EObject>> dependents = new HashMap<EObject, Set<EObject>>();
+
+  /**
+   * Creates an instance that uses the {@link Diagnostician#INSTANCE default diagnostician}.
+   */
+  public IncrementalValidator()
+  {
+    this(Diagnostician.INSTANCE, Collections.emptyMap());
+  }
+
+  /**
+   * Creates an instance that uses the given diagnostician, and the given additional context entries, to validate each object.
+   */
+  public IncrementalValidator(Diagnostician diagnostician, Map<?, ?> contextEntries)
+  {
+    this.diagnostician = diagnostician;
+    this.contextEntries = contextEntries;
+  }
+
+  /**
+   * Returns the objects that need to be validated.
+   * @return the objects that need to be validated.
+   */
+  public Set<EObject> getDirtyObjects()
+  {
+    return Collections.unmodifiableSet(dirtyObjects);
+  }
+
+  /**
+   * Returns the diagnostic of each invalid object, as of the most recent validation of each;
+   * call {@link #validate()} first for an up-to-date result.
+   * @return the diagnostic of each invalid object.
+   */
+  public Map<EObject, Diagnostic> getDiagnostics()
+  {
+    return Collections.unmodifiableMap(diagnostics);
+  }
+
+  /**
+   * Returns the up-to-date diagnostic of the object, validating it first if it's dirty,
+   * or <code>null</code> if the object isn't in the content tree.
+   * @param eObject an object in the content tree.
+   * @return the diagnostic of the object, or <code>null</code>.
+   */
+  public Diagnostic getDiagnostic(EObject eObject)
+  {
+    if (dirtyObjects.remove(eObject))
+    {
+      validate(eObject);
+    }
+    else if (!eObject.eAdapters().contains(this))
+    {
+      return null;
+    }
+
+    Diagnostic diagnostic = diagnostics.get(eObject);
+    return diagnostic == null ? diagnostician.createDefaultDiagnostic(eObject) : diagnostic;
+  }
+
+  /**
+   * Validates all the dirty objects.
+   * @return the objects that were validated.
+   */
+  public List<EObject> validate()
+  {
+    List<EObject> result = new ArrayList<EObject>(dirtyObjects);
+    dirtyObjects.clear();
+    for (EObject eObject : result)
+    {
+      validate(eObject);
+    }
+    return result;
+  }
+
+  /**
+   * Validates the object by itself, and records its diagnostic and dependencies.
+   */
+  protected void validate(EObject eObject)
+  {
+    BasicDiagnostic diagnostic = diagnostician.createDefaultDiagnostic(eObject);
+    Map<Object, Object> context = diagnostician.createDefaultContext();
+    context.putAll(contextEntries);
+    EClass eClass = eObject.eClass();
+    diagnostician.getEValidator(eClass).validate(eClass, eObject, diagnostic, context);
+
+    if (diagnostic.getSeverity() == Diagnostic.OK)
+    {
+      diagnostics.remove(eObject);
+    }
+    else
+    {
+      diagnostics.put(eObject, diagnostic);
+    }
+
+    removeDependencies(eObject);
+    Set<EObject> eObjectDependencies = new LinkedHashSet<EObject>();
+    collectDependencies(eObject, diagnostic, eObjectDependencies);
+    eObjectDependencies.remove(eObject);
+    if (!eObjectDependencies.isEmpty())
+    {
+      dependencies.put(eObject, eObjectDependencies);
+      for (EObject dependency : eObjectDependencies)
+      {
+        Set<EObject> dependencyDependents = dependents.get(dependency);
+        if (dependencyDependents == null)
+        {
+          dependencyDependents = new LinkedHashSet<EObject>();
+          dependents.put(dependency, dependencyDependents);
+        }
+        dependencyDependents.add(eObject);
+      }
+    }
+  }
+
+  /**
+   * Adds the objects, other than its contents, on which the validation of the object that produced the diagnostic depends,
+   * i.e., a change to any of which must mark it dirty.
+   * This implementation adds the objects that it {@link EObject#eCrossReferences() references},
+   * without resolving proxies, and the objects in the {@link Diagnostic#getData() data} of each of the diagnostic's children.
+   * @param eObject the validated object.
+   * @param diagnostic the diagnostic of the validation.
+   * @param dependencies the collection to which to add the dependencies.
+   */
+  protected void collectDependencies(EObject eObject, Diagnostic diagnostic, Collection<EObject> dependencies)
+  {
+    for (Iterator<EObject> i = ((InternalEList<EObject>)eObject.eCrossReferences()).basicIterator(); i.hasNext(); )
+    {
+      dependencies.add(i.next());
+    }
+    for (Diagnostic child : diagnostic.getChildren())
+    {
+      for (Object data : child.getData())
+      {
+        if (data instanceof EObject)
+        {
+          dependencies.add((EObject)data);
+        }
+      }
+    }
+  }
+
+  /**
+   * Forgets the dependencies of the object's most recent validation.
+   */
+  protected void removeDependencies(EObject eObject)
+  {
+    Set<EObject> eObjectDependencies = dependencies.remove(eObject);
+    if (eObjectDependencies != null)
+    {
+      for (EObject dependency : eObjectDependencies)
+      {
+        Set<EObject> dependencyDependents = dependents.get(dependency);
+        if (dependencyDependents != null)
+        {
+          dependencyDependents.remove(eObject);
+          if (dependencyDependents.isEmpty())
+          {
+            dependents.remove(dependency);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks the object, its container, and its dependents dirty.
+   */
+  protected void markDirty(EObject eObject)
+  {
+    if (eObject.eAdapters().contains(this))
+    {
+      dirtyObjects.add(eObject);
+    }
+    EObject eContainer = eObject.eContainer();
+    if (eContainer != null && eContainer.eAdapters().contains(this))
+    {
+      dirtyObjects.add(eContainer);
+    }
+    markDependentsDirty(eObject);
+  }
+
+  /**
+   * Marks the objects whose validation depends on the object dirty.
+   */
+  protected void markDependentsDirty(EObject eObject)
+  {
+    Set<EObject> eObjectDependents = dependents.get(eObject);
+    if (eObjectDependents != null)
+    {
+      dirtyObjects.addAll(eObjectDependents);
+    }
+  }
+
+  /**
+   * Marks the notifier dirty for any notification of a change to an object.
+   */
+  @Override
+  public void notifyChanged(Notification notification)
+  {
+    super.notifyChanged(notification);
+
+    Object notifier = notification.getNotifier();
+    if (notifier instanceof EObject && !notification.isTouch())
+    {
+      markDirty((EObject)notifier);
+    }
+  }
+
+  /**
+   * Marks the object, which is being added to the content tree, and its dependents dirty.
+   */
+  @Override
+  protected void setTarget(EObject target)
+  {
+    super.setTarget(target);
+    dirtyObjects.add(target);
+    markDependentsDirty(target);
+  }
+
+  /**
+   * Forgets the diagnostic and the dependencies of the object, which is being removed from the content tree,
+   * and marks its dependents dirty.
+   */
+  @Override
+  protected void unsetTarget(EObject target)
+  {
+    super.unsetTarget(target);
+    dirtyObjects.remove(target);
+    diagnostics.remove(target);
+    removeDependencies(target);
+    markDependentsDirty(target);
+  }
+}
@@ -0,0 +1,664 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.ecore.xml.type.internal;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A deterministic finite automaton that matches complete strings exactly as
+ * an XML Schema {@link RegEx.RegularExpression regular expression} does.
+ * <p>
+ * The automaton is compiled from the expression's parsed token tree,
+ * in which character class escapes, categories, blocks, and subtractions are already expanded into ranges.
+ * The code points are partitioned into the intervals that no range of the expression splits,
+ * and matching a string simply steps through a transition table, indexed by the interval of each code point,
+ * so the cost is linear in the length of the string, without backtracking.
+ * </p>
+ * <p>
+ * The automaton can be {@link #create(RegEx.RegularExpression) created} only for expressions
+ * whose size, once bounded repetitions are expanded, is reasonable,
+ * and the results are the same as those of the expression only for strings without unpaired surrogate characters.
+ * </p>
+ * NOTE: this class is for internal use only.
+ * @since 2.9
+ */
+public final class RegExAutomaton
+{
+  /**
+   * The maximum number of states of the nondeterministic automaton from which the deterministic one is derived.
+   */
+  private static final int MAX_NFA_STATES = 5000;
+
+  /**
+   * The maximum number of states.
+   */
+  private static final int MAX_DFA_STATES = 1000;
+
+  /**
+   * The maximum number of entries in the transition table.
+   */
+  private static final int MAX_TRANSITIONS = 1 << 20;
+
+  /**
+   * The code points that terminate a line, which {@link RegEx.Token#DOT} doesn't match.
+   */
+  private static final int [] LINE_TERMINATORS = { 0x0A, 0x0A, 0x0D, 0x0D, 0x2028, 0x2029 };
+
+  /**
+   * The number of code points whose interval is looked up directly.
+   */
+  private static final int DIRECT_LIMIT = 256;
+
+  /**
+   * The first code point of each interval, in increasing order.
+   */
+  private final int [] intervalStarts;
+
+  /**
+   * The interval of each code point below {@link #DIRECT_LIMIT}.
+   */
+  private final int [] directIntervals;
+
+  /**
+   * The number of intervals.
+   */
+  private final int intervalCount;
+
+  /**
+   * The state reached from each state for each interval, i.e., at index <code>state * intervalCount + interval</code>,
+   * or <code>-1</code> if no match is possible.
+   */
+  private final int [] transitions;
+
+  /**
+   * Whether each state is an accepting state.
+   */
+  private final boolean [] accepting;
+
+  private RegExAutomaton(int [] intervalStarts, int [] transitions, boolean [] accepting)
+  {
+    this.intervalStarts = intervalStarts;
+    this.intervalCount = intervalStarts.length;
+    this.transitions = transitions;
+    this.accepting = accepting;
+    directIntervals = new int [DIRECT_LIMIT];
+    for (int i = 0; i < DIRECT_LIMIT; ++i)
+    {
+      directIntervals[i] = getInterval(i);
+    }
+  }
+
+  /**
+   * Returns the automaton for the regular expression, or <code>null</code>
+   * if the expression isn't in XML Schema mode, uses a construct that the automaton doesn't support, or is too large.
+   * @param regularExpression the regular expression.
+   * @return the automaton, or <code>null</code>.
+   */
+  public static RegExAutomaton create(RegEx.RegularExpression regularExpression)
+  {
+    if ((regularExpression.options & RegEx.RegularExpression.XMLSCHEMA_MODE) == 0 || regularExpression.hasBackReferences)
+    {
+      return null;
+    }
+
+    // Partition the code points into the intervals that no character set of the expression splits.
+    //
+    RegEx.Token tokenTree = regularExpression.tokentree;
+    List<Integer> boundaries = new ArrayList<Integer>();
+    boundaries.add(0);
+    if (!collectBoundaries(tokenTree, boundaries))
+    {
+      return null;
+    }
+    int [] sortedBoundaries = new int [boundaries.size()];
+    for (int i = 0; i < sortedBoundaries.length; ++i)
+    {
+      sortedBoundaries[i] = boundaries.get(i);
+    }
+    Arrays.sort(sortedBoundaries);
+    int count = 0;
+    for (int i = 0; i < sortedBoundaries.length; ++i)
+    {
+      int boundary = sortedBoundaries[i];
+      if (boundary <= 0x10FFFF && (count == 0 || sortedBoundaries[count - 1] != boundary))
+      {
+        sortedBoundaries[count++] = boundary;
+      }
+    }
+    int [] intervalStarts = new int [count];
+    System.arraycopy(sortedBoundaries, 0, intervalStarts, 0, count);
+
+    NFA nfa = new NFA(intervalStarts);
+    int [] fragment = nfa.build(tokenTree);
+    if (fragment == null)
+    {
+      return null;
+    }
+    return nfa.determinize(fragment[0], fragment[1]);
+  }
+
+  /**
+   * Adds the start of each range of the token, and the code point following each range, to the boundaries.
+   */
+  private static boolean collectBoundaries(RegEx.Token token, List<Integer> boundaries)
+  {
+    switch (token.type)
+    {
+      case RegEx.Token.CHAR:
+      {
+        // The interpreter compares a character token with a single UTF-16 unit.
+        //
+        int character = token.getChar();
+        if (character >= 0xD800 && character <= 0xDFFF || character > 0xFFFF)
+        {
+          return false;
+        }
+        boundaries.add(character);
+        boundaries.add(character + 1);
+        return true;
+      }
+      case RegEx.Token.STRING:
+      {
+        int [] codePoints = getCodePoints(token.getString());
+        if (codePoints == null)
+        {
+          return false;
+        }
+        for (int i = 0; i < codePoints.length; ++i)
+        {
+          boundaries.add(codePoints[i]);
+          boundaries.add(codePoints[i] + 1);
+        }
+        return true;
+      }
+      case RegEx.Token.DOT:
+      {
+        addRangeBoundaries(LINE_TERMINATORS, boundaries);
+        return true;
+      }
+      case RegEx.Token.RANGE:
+      case RegEx.Token.NRANGE:
+      {
+        int [] ranges = ((RegEx.RangeToken)token).ranges;
+        if (ranges != null)
+        {
+          addRangeBoundaries(ranges, boundaries);
+        }
+        return true;
+      }
+      case RegEx.Token.CONCAT:
+      case RegEx.Token.UNION:
+      case RegEx.Token.CLOSURE:
+      case RegEx.Token.PAREN:
+      {
+        for (int i = 0, size = token.size(); i < size; ++i)
+        {
+          if (!collectBoundaries(token.getChild(i), boundaries))
+          {
+            return false;
+          }
+        }
+        return true;
+      }
+      case RegEx.Token.EMPTY:
+      {
+        return true;
+      }
+      default:
+      {
+        return false;
+      }
+    }
+  }
+
+  private static void addRangeBoundaries(int [] ranges, List<Integer> boundaries)
+  {
+    for (int i = 0; i < ranges.length; i += 2)
+    {
+      boundaries.add(ranges[i]);
+      boundaries.add(ranges[i + 1] + 1);
+    }
+  }
+
+  /**
+   * Returns the code points of the string, or <code>null</code> if it contains an unpaired surrogate.
+   */
+  private static int [] getCodePoints(String string)
+  {
+    int [] result = new int [string.codePointCount(0, string.length())];
+    for (int i = 0, j = 0, length = string.length(); i < length; ++j)
+    {
+      int codePoint = string.codePointAt(i);
+      if (codePoint >= 0xD800 && codePoint <= 0xDFFF)
+      {
+        return null;
+      }
+      result[j] = codePoint;
+      i += Character.charCount(codePoint);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the interval containing the code point.
+   */
+  private int getInterval(int codePoint)
+  {
+    int low = 0;
+    int high = intervalCount - 1;
+    while (low < high)
+    {
+      int middle = (low + high + 1) >>> 1;
+      if (intervalStarts[middle] <= codePoint)
+      {
+        low = middle;
+      }
+      else
+      {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns whether the complete string matches.
+   * @param value a string without unpaired surrogates.
+   * @return whether the complete string matches.
+   */
+  public boolean matches(String value)
+  {
+    int state = 0;
+    for (int i = 0, length = value.length(); i < length; )
+    {
+      int codePoint = value.charAt(i++);
+      int interval;
+      if (codePoint < DIRECT_LIMIT)
+      {
+        interval = directIntervals[codePoint];
+      }
+      else
+      {
+        if (codePoint >= 0xD800 && codePoint <= 0xDBFF && i < length)
+        {
+          char low = value.charAt(i);
+          if (low >= 0xDC00 && low <= 0xDFFF)
+          {
+            codePoint = Character.toCodePoint((char)codePoint, low);
+            ++i;
+          }
+        }
+        interval = getInterval(codePoint);
+      }
+      state = transitions[state * intervalCount + interval];
+      if (state < 0)
+      {
+        return false;
+      }
+    }
+    return accepting[state];
+  }
+
+  /**
+   * A nondeterministic finite automaton, with epsilon transitions, built by Thompson's construction,
+   * in which each state has at most one transition labeled by a set of intervals.
+   */
+  private static final class NFA
+  {
+    final int [] intervalStarts;
+    final List<int []> epsilonTransitions = new ArrayList<int []>();
+    final List<BitSet> labels = new ArrayList<BitSet>();
+    final List<Integer> labelTargets = new ArrayList<Integer>();
+
+    NFA(int [] intervalStarts)
+    {
+      this.intervalStarts = intervalStarts;
+    }
+
+    int createState()
+    {
+      epsilonTransitions.add(null);
+      labels.add(null);
+      labelTargets.add(-1);
+      return labels.size() - 1;
+    }
+
+    void addEpsilon(int source, int target)
+    {
+      int [] targets = epsilonTransitions.get(source);
+      if (targets == null)
+      {
+        targets = new int [] { target };
+      }
+      else
+      {
+        int [] oldTargets = targets;
+        targets = new int [oldTargets.length + 1];
+        System.arraycopy(oldTargets, 0, targets, 0, oldTargets.length);
+        targets[oldTargets.length] = target;
+      }
+      epsilonTransitions.set(source, targets);
+    }
+
+    int [] createLabeled(BitSet label)
+    {
+      int start = createState();
+      int end = createState();
+      labels.set(start, label);
+      labelTargets.set(start, end);
+      return new int [] { start, end };
+    }
+
+    int [] createEmpty()
+    {
+      int start = createState();
+      int end = createState();
+      addEpsilon(start, end);
+      return new int [] { start, end };
+    }
+
+    int getInterval(int codePoint)
+    {
+      int index = Arrays.binarySearch(intervalStarts, codePoint);
+      return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Returns the intervals of the code points in the ranges, or not in the ranges if negated.
+     */
+    BitSet getIntervals(int [] ranges, boolean negated)
+    {
+      BitSet result = new BitSet(intervalStarts.length);
+      if (ranges != null)
+      {
+        for (int i = 0; i < ranges.length; i += 2)
+        {
+          int end = ranges[i + 1] + 1;
+          result.set(getInterval(ranges[i]), end > 0x10FFFF ? intervalStarts.length : getInterval(end));
+        }
+      }
+      if (negated)
+      {
+        result.flip(0, intervalStarts.length);
+      }
+      return result;
+    }
+
+    /**
+     * Builds the fragment for the token, returning its start and end state,
+     * or <code>null</code> if the automaton becomes too large.
+     */
+    int [] build(RegEx.Token token)
+    {
+      if (labels.size() > MAX_NFA_STATES)
+      {
+        return null;
+      }
+
+      switch (token.type)
+      {
+        case RegEx.Token.CHAR:
+        {
+          int character = token.getChar();
+          return createLabeled(getIntervals(new int [] { character, character }, false));
+        }
+        case RegEx.Token.STRING:
+        {
+          int [] codePoints = getCodePoints(token.getString());
+          int start = createState();
+          int end = start;
+          for (int i = 0; i < codePoints.length; ++i)
+          {
+            int [] fragment = createLabeled(getIntervals(new int [] { codePoints[i], codePoints[i] }, false));
+            addEpsilon(end, fragment[0]);
+            end = fragment[1];
+          }
+          return new int [] { start, end };
+        }
+        case RegEx.Token.DOT:
+        {
+          return createLabeled(getIntervals(LINE_TERMINATORS, true));
+        }
+        case RegEx.Token.RANGE:
+        case RegEx.Token.NRANGE:
+        {
+          return createLabeled(getIntervals(((RegEx.RangeToken)token).ranges, token.type == RegEx.Token.NRANGE));
+        }
+        case RegEx.Token.CONCAT:
+        {
+          int start = createState();
+          int end = start;
+          for (int i = 0, size = token.size(); i < size; ++i)
+          {
+            int [] fragment = build(token.getChild(i));
+            if (fragment == null)
+            {
+              return null;
+            }
+            addEpsilon(end, fragment[0]);
+            end = fragment[1];
+          }
+          return new int [] { start, end };
+        }
+        case RegEx.Token.UNION:
+        {
+          int start = createState();
+          int end = createState();
+          for (int i = 0, size = token.size(); i < size; ++i)
+          {
+            int [] fragment = build(token.getChild(i));
+            if (fragment == null)
+            {
+              return null;
+            }
+            addEpsilon(start, fragment[0]);
+            addEpsilon(fragment[1], end);
+          }
+          return new int [] { start, end };
+        }
+        case RegEx.Token.CLOSURE:
+        {
+          // Interpret the bounds exactly as RegularExpression.compile does.
+          //
+          RegEx.Token child = token.getChild(0);
+          int min = token.getMin();
+          int max = token.getMax();
+          int required;
+          int optional;
+          if (min >= 0 && min == max)
+          {
+            required = min;
+            optional = 0;
+          }
+          else
+          {
+            required = min > 0 ? min : 0;
+            optional = min > 0 && max > 0 ? max - min : max;
+            if (optional <= 0)
+            {
+              optional = -1;
+            }
+          }
+
+          int start = createState();
+          int end = start;
+          for (int i = 0; i < required; ++i)
+          {
+            int [] fragment = build(child);
+            if (fragment == null)
+            {
+              return null;
+            }
+            addEpsilon(end, fragment[0]);
+            end = fragment[1];
+          }
+          if (optional == -1)
+          {
+            int [] fragment = build(child);
+            if (fragment == null)
+            {
+              return null;
+            }
+            int loopEnd = createState();
+            addEpsilon(end, fragment[0]);
+            addEpsilon(end, loopEnd);
+            addEpsilon(fragment[1], fragment[0]);
+            addEpsilon(fragment[1], loopEnd);
+            end = loopEnd;
+          }
+          else
+          {
+            for (int i = 0; i < optional; ++i)
+            {
+              int [] fragment = build(child);
+              if (fragment == null)
+              {
+                return null;
+              }
+              int optionalEnd = createState();
+              addEpsilon(end, fragment[0]);
+              addEpsilon(end, optionalEnd);
+              addEpsilon(fragment[1], optionalEnd);
+              end = optionalEnd;
+            }
+          }
+          return new int [] { start, end };
+        }
+        case RegEx.Token.PAREN:
+        {
+          return build(token.getChild(0));
+        }
+        case RegEx.Token.EMPTY:
+        {
+          return createEmpty();
+        }
+        default:
+        {
+          return null;
+        }
+      }
+    }
+
+    /**
+     * Adds the states reachable by epsilon transitions to the set.
+     */
+    void close(BitSet states)
+    {
+      int [] stack = new int [labels.size()];
+      int top = 0;
+      for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1))
+      {
+        stack[top++] = i;
+      }
+      while (top > 0)
+      {
+        int [] targets = epsilonTransitions.get(stack[--top]);
+        if (targets != null)
+        {
+          for (int j = 0; j < targets.length; ++j)
+          {
+            int target = targets[j];
+            if (!states.get(target))
+            {
+              states.set(target);
+              stack[top++] = target;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Derives the deterministic automaton by the subset construction,
+     * returning <code>null</code> if it becomes too large.
+     */
+    RegExAutomaton determinize(int start, int end)
+    {
+      int intervalCount = intervalStarts.length;
+      List<BitSet> dfaStates = new ArrayList<BitSet>();
+      Map<BitSet, Integer> dfaStateIndices = new HashMap<BitSet, Integer>();
+      BitSet initialState = new BitSet();
+      initialState.set(start);
+      close(initialState);
+      dfaStates.add(initialState);
+      dfaStateIndices.put(initialState, 0);
+
+      int [] transitions = new int [intervalCount * 16];
+      for (int index = 0; index < dfaStates.size(); ++index)
+      {
+        if ((index + 1) * intervalCount > transitions.length)
+        {
+          if (2L * transitions.length > MAX_TRANSITIONS)
+          {
+            return null;
+          }
+          int [] oldTransitions = transitions;
+          transitions = new int [2 * oldTransitions.length];
+          System.arraycopy(oldTransitions, 0, transitions, 0, oldTransitions.length);
+        }
+
+        BitSet dfaState = dfaStates.get(index);
+        for (int interval = 0; interval < intervalCount; ++interval)
+        {
+          BitSet targetState = null;
+          for (int i = dfaState.nextSetBit(0); i >= 0; i = dfaState.nextSetBit(i + 1))
+          {
+            BitSet label = labels.get(i);
+            if (label != null && label.get(interval))
+            {
+              if (targetState == null)
+              {
+                targetState = new BitSet();
+              }
+              targetState.set(labelTargets.get(i));
+            }
+          }
+
+          int target = -1;
+          if (targetState != null)
+          {
+            close(targetState);
+            Integer targetIndex = dfaStateIndices.get(targetState);
+            if (targetIndex == null)
+            {
+              if (dfaStates.size() == MAX_DFA_STATES)
+              {
+                return null;
+              }
+              targetIndex = dfaStates.size();
+              dfaStates.add(targetState);
+              dfaStateIndices.put(targetState, targetIndex);
+            }
+            target = targetIndex;
+          }
+          transitions[index * intervalCount + interval] = target;
+        }
+      }
+
+      int stateCount = dfaStates.size();
+      int [] compactTransitions = new int [stateCount * intervalCount];
+      System.arraycopy(transitions, 0, compactTransitions, 0, compactTransitions.length);
+      boolean [] accepting = new boolean [stateCount];
+      for (int i = 0; i < stateCount; ++i)
+      {
+        accepting[i] = dfaStates.get(i).get(end);
+      }
+      return new RegExAutomaton(intervalStarts, compactTransitions, accepting);
+    }
+  }
+}
@@ -11,6 +11,9 @@
 package org.eclipse.emf.ecore.xml.type.util;
 
  
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.xml.datatype.DatatypeConstants;
 import javax.xml.datatype.Duration;
 import javax.xml.datatype.XMLGregorianCalendar;
@@ -20,6 +23,7 @@ import javax.xml.namespace.QName;
 import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.xml.type.internal.DataValue;
 import org.eclipse.emf.ecore.xml.type.internal.RegEx;
+import org.eclipse.emf.ecore.xml.type.internal.RegExAutomaton;
 
 
 /**
@@ -223,9 +227,38 @@ public final class XMLTypeUtil
     }
   }
 
+  /**
+   * The maximum number of pattern matchers retained by {@link #createPatternMatcher(String)}.
+   */
+  private static final int PATTERN_MATCHER_CACHE_SIZE = 1000;
+
+  /**
+   * The pattern matchers created for each pattern.
+   */
+  private static final Map<String, EValidator.PatternMatcher> PATTERN_MATCHER_CACHE = new ConcurrentHashMap<String, EValidator.PatternMatcher>();
+
+  /**
+   * Returns a matcher for the XML Schema regular expression.
+   * Matchers are thread-safe and are shared, so a matcher created for the same pattern is generally reused.
+   * Where possible, the pattern is compiled to a deterministic automaton,
+   * which is used instead of the interpreted regular expression engine;
+   * the matching results are the same either way.
+   * @param pattern an XML Schema regular expression.
+   * @return a matcher for the regular expression.
+   */
   public static EValidator.PatternMatcher createPatternMatcher(String pattern)
   {
-    return new PatternMatcherImpl(pattern);
+    EValidator.PatternMatcher result = PATTERN_MATCHER_CACHE.get(pattern);
+    if (result == null)
+    {
+      result = new PatternMatcherImpl(pattern);
+      if (PATTERN_MATCHER_CACHE.size() >= PATTERN_MATCHER_CACHE_SIZE)
+      {
+        PATTERN_MATCHER_CACHE.clear();
+      }
+      PATTERN_MATCHER_CACHE.put(pattern, result);
+    }
+    return result;
   }
   
   
@@ -314,14 +347,48 @@ public final class XMLTypeUtil
   {
     protected RegEx.RegularExpression regularExpression;
 
+    /**
+     * The automaton compiled from the regular expression, or <code>null</code> if it couldn't be compiled.
+     */
+    protected RegExAutomaton automaton;
+
     public PatternMatcherImpl(String pattern)
     {
       regularExpression =  new RegEx.RegularExpression(pattern, "X");
+      automaton = RegExAutomaton.create(regularExpression);
     }
 
     public boolean matches(String value)
     {
-      return regularExpression.matches(value);
+      // The interpreter treats unpaired surrogates differently, so only it is used for such values.
+      //
+      return
+        automaton != null && isWellFormed(value) ?
+          automaton.matches(value) :
+          regularExpression.matches(value);
+    }
+
+    /**
+     * Returns whether every surrogate character in the value is part of a surrogate pair.
+     */
+    protected static boolean isWellFormed(String value)
+    {
+      for (int i = 0, length = value.length(); i < length; ++i)
+      {
+        char character = value.charAt(i);
+        if (Character.isHighSurrogate(character))
+        {
+          if (++i == length || !Character.isLowSurrogate(value.charAt(i)))
+          {
+            return false;
+          }
+        }
+        else if (Character.isLowSurrogate(character))
+        {
+          return false;
+        }
+      }
+      return true;
     }
 
     @Override
@@ -17,6 +17,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.AdapterFactory;
@@ -134,6 +137,20 @@ public class ComposedAdapterFactory
    */
   protected Descriptor.Registry adapterFactoryDescriptorRegistry;
 
+  /**
+   * The delegate factories resolved for each type, and for each class of target.
+   * @see #getDelegateAdapterFactories(EClass, Object)
+   */
+  private volatile Map<Object, Map<EClass, DelegateAdapterFactories>> delegateAdapterFactoriesCache = 
+    new ConcurrentHashMap<Object, Map<EClass, DelegateAdapterFactories>>();
+
+  /**
+   * The composed factories to which this factory has been added,
+   * whose cached delegate factories are discarded along with this factory's.
+   * Unlike the {@link #parentAdapterFactory parent}, there may be more than one.
+   */
+  private final List<ComposedAdapterFactory> delegatingAdapterFactories = new CopyOnWriteArrayList<ComposedAdapterFactory>();
+
   public ComposedAdapterFactory()
   {
     super();
@@ -277,51 +294,15 @@ public class ComposedAdapterFactory
 
     if (target instanceof EObject)
     {
-      EObject eObject = (EObject)target;
-      EClass eClass = eObject.eClass();
+      EClass eClass = ((EObject)target).eClass();
       if (eClass != null)
       {
-        EPackage ePackage = eClass.getEPackage();
-        Collection<Object> types = new ArrayList<Object>();
-        types.add(ePackage);
-        if (type != null)
-        {
-          types.add(type);
-        }
-        AdapterFactory delegateAdapterFactory = getFactoryForTypes(types);
-        if (delegateAdapterFactory != null)
+        for (AdapterFactory delegateAdapterFactory : getDelegateAdapterFactories(eClass, type))
         {
           result = isNew ? delegateAdapterFactory.adaptNew(target, type) : delegateAdapterFactory.adapt(target, type);
-        }
-
-        if (result == null)
-        {
-          Collection<EPackage> failedPackageSet = new HashSet<EPackage>();
-          failedPackageSet.add(ePackage);
-          List<EClass> allSuperTypes = new UniqueEList.FastCompare<EClass>(eClass.getESuperTypes());
-          for (int i = 0; i < allSuperTypes.size(); ++i)
+          if (result != null)
           {
-            EClass eSuperType = allSuperTypes.get(i);
-            EPackage eSupertypePackage = eSuperType.getEPackage();
-            if (failedPackageSet.add(eSupertypePackage))
-            {
-              Collection<Object> superTypes = new ArrayList<Object>();
-              superTypes.add(eSupertypePackage);
-              if (type != null)
-              {
-                superTypes.add(type);
-              }
-              delegateAdapterFactory = getFactoryForTypes(superTypes);
-              if (delegateAdapterFactory != null)
-              {
-                result = isNew ? delegateAdapterFactory.adaptNew(target, type) : delegateAdapterFactory.adapt(target, type);
-                if (result != null)
-                {
-                  break;
-                }
-              }
-            }
-            allSuperTypes.addAll(eSuperType.getESuperTypes());
+            break;
           }
         }
       }
@@ -337,6 +318,129 @@ public class ComposedAdapterFactory
     return result;    
   }
 
+  private static final AdapterFactory [] NO_ADAPTER_FACTORIES = new AdapterFactory [0];
+  private static final Object NO_TYPE = new Object();
+
+  /**
+   * Returns the delegate factories that are asked, in order, to adapt an instance of the class to the type, until one of them yields an adapter.
+   * They're the {@link #getFactoryForTypes(Collection) factories} for the {@link EPackage} of the class,
+   * followed by those for the packages of the class's super types, breadth first.
+   * The result is cached per class and type, including an empty result, 
+   * so that adapting an object typically involves only a pair of lookups;
+   * the cache is {@link #clearDelegateAdapterFactoriesCache() cleared} whenever a factory is added to or removed from this factory, 
+   * or from any composed factory to which it delegates.
+   * A cached result is also discarded when the class's {@link EClass#getEAllSuperTypes() super types} or its package change.
+   * Targets that aren't {@link EObject}s are adapted by {@link #adapt(Notifier, Object, Collection, Class)}, without caching.
+   * @param eClass the class of the object to adapt.
+   * @param type the type of adapter.
+   * @return the delegate factories to try, in order.
+   * @since 2.9
+   */
+  protected AdapterFactory [] getDelegateAdapterFactories(EClass eClass, Object type)
+  {
+    List<EClass> eAllSuperTypes = eClass.getEAllSuperTypes();
+    EObject ePackage = eClass.eContainer();
+
+    Map<Object, Map<EClass, DelegateAdapterFactories>> cache = delegateAdapterFactoriesCache;
+    Object typeKey = type == null ? NO_TYPE : type;
+    Map<EClass, DelegateAdapterFactories> typeCache = cache.get(typeKey);
+    if (typeCache == null)
+    {
+      typeCache = new ConcurrentHashMap<EClass, DelegateAdapterFactories>();
+      cache.put(typeKey, typeCache);
+    }
+
+    DelegateAdapterFactories entry = typeCache.get(eClass);
+    if (entry == null || entry.eAllSuperTypes != eAllSuperTypes || entry.ePackage != ePackage)
+    {
+      List<AdapterFactory> delegateAdapterFactories = new ArrayList<AdapterFactory>();
+      collectDelegateAdapterFactories(eClass, type, delegateAdapterFactories);
+      entry = 
+        new DelegateAdapterFactories
+          (delegateAdapterFactories.isEmpty() ? 
+             NO_ADAPTER_FACTORIES : 
+             delegateAdapterFactories.toArray(new AdapterFactory [delegateAdapterFactories.size()]),
+           eAllSuperTypes,
+           ePackage);
+      typeCache.put(eClass, entry);
+    }
+    return entry.adapterFactories;
+  }
+
+  /**
+   * Adds the factory for the package and type, if there is one.
+   */
+  private void collectDelegateAdapterFactory(Object packageKey, Object type, List<AdapterFactory> delegateAdapterFactories)
+  {
+    Collection<Object> types = new ArrayList<Object>();
+    types.add(packageKey);
+    if (type != null)
+    {
+      types.add(type);
+    }
+    AdapterFactory delegateAdapterFactory = getFactoryForTypes(types);
+    if (delegateAdapterFactory != null)
+    {
+      delegateAdapterFactories.add(delegateAdapterFactory);
+    }
+  }
+
+  private void collectDelegateAdapterFactories(EClass eClass, Object type, List<AdapterFactory> delegateAdapterFactories)
+  {
+    EPackage ePackage = eClass.getEPackage();
+    collectDelegateAdapterFactory(ePackage, type, delegateAdapterFactories);
+    Collection<EPackage> failedPackageSet = new HashSet<EPackage>();
+    failedPackageSet.add(ePackage);
+    List<EClass> allSuperTypes = new UniqueEList.FastCompare<EClass>(eClass.getESuperTypes());
+    for (int i = 0; i < allSuperTypes.size(); ++i)
+    {
+      EClass eSuperType = allSuperTypes.get(i);
+      EPackage eSupertypePackage = eSuperType.getEPackage();
+      if (failedPackageSet.add(eSupertypePackage))
+      {
+        collectDelegateAdapterFactory(eSupertypePackage, type, delegateAdapterFactories);
+      }
+      allSuperTypes.addAll(eSuperType.getESuperTypes());
+    }
+  }
+
+  /**
+   * Discards the {@link #getDelegateAdapterFactories(EClass, Object) cached delegate factories} of this factory,
+   * and those of the composed factories that delegate to it.
+   * It's called whenever a factory is added or removed,
+   * and should be called when the {@link #adapterFactories delegates} or the {@link #adapterFactoryDescriptorRegistry registry} are otherwise changed.
+   * @since 2.9
+   */
+  public void clearDelegateAdapterFactoriesCache()
+  {
+    delegateAdapterFactoriesCache = new ConcurrentHashMap<Object, Map<EClass, DelegateAdapterFactories>>();
+    for (ComposedAdapterFactory delegatingAdapterFactory : delegatingAdapterFactories)
+    {
+      delegatingAdapterFactory.clearDelegateAdapterFactoriesCache();
+    }
+    if (parentAdapterFactory != null && !delegatingAdapterFactories.contains(parentAdapterFactory))
+    {
+      parentAdapterFactory.clearDelegateAdapterFactoriesCache();
+    }
+  }
+
+  /**
+   * The delegate factories resolved for a class and a type.
+   */
+  private static final class DelegateAdapterFactories
+  {
+    final AdapterFactory [] adapterFactories;
+    final List<EClass> eAllSuperTypes;
+    final EObject ePackage;
+
+    DelegateAdapterFactories(AdapterFactory [] adapterFactories, List<EClass> eAllSuperTypes, EObject ePackage)
+    {
+      this.adapterFactories = adapterFactories;
+      this.eAllSuperTypes = eAllSuperTypes;
+      this.ePackage = ePackage;
+    }
+  }
+
   protected Adapter adapt(Notifier target, Object type, Collection<Object> failedPackages, Class<?> javaClass)
   {
     return adapt(target, type, failedPackages, javaClass, false);
@@ -407,6 +511,11 @@ public class ComposedAdapterFactory
     if (!adapterFactories.contains(adapterFactory))
     {
       adapterFactories.add(0, adapterFactory);
+      if (adapterFactory instanceof ComposedAdapterFactory)
+      {
+        ((ComposedAdapterFactory)adapterFactory).delegatingAdapterFactories.add(this);
+      }
+      clearDelegateAdapterFactoriesCache();
       if (adapterFactory instanceof ComposeableAdapterFactory)
       {
         ((ComposeableAdapterFactory)adapterFactory).setParentAdapterFactory(this);
@@ -419,6 +528,11 @@ public class ComposedAdapterFactory
     if (!adapterFactories.contains(adapterFactory))
     {
       adapterFactories.add(adapterFactory);
+      if (adapterFactory instanceof ComposedAdapterFactory)
+      {
+        ((ComposedAdapterFactory)adapterFactory).delegatingAdapterFactories.add(this);
+      }
+      clearDelegateAdapterFactoriesCache();
       if (adapterFactory instanceof ComposeableAdapterFactory)
       {
         ((ComposeableAdapterFactory)adapterFactory).setParentAdapterFactory(this);
@@ -431,6 +545,11 @@ public class ComposedAdapterFactory
     if (adapterFactories.contains(adapterFactory))
     {
       adapterFactories.remove(adapterFactory);
+      if (adapterFactory instanceof ComposedAdapterFactory)
+      {
+        ((ComposedAdapterFactory)adapterFactory).delegatingAdapterFactories.remove(this);
+      }
+      clearDelegateAdapterFactoriesCache();
       if (adapterFactory instanceof ComposeableAdapterFactory)
       {
         ((ComposeableAdapterFactory)adapterFactory).setParentAdapterFactory(null);
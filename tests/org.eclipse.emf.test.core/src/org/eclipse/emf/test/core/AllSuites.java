@@ -49,7 +49,14 @@ public class AllSuites extends TestSuite
       org.eclipse.emf.test.core.ecore.XMLTypeTest.suite(),
       org.eclipse.emf.test.core.ecore.BinaryResourceTest.suite(),
       org.eclipse.emf.test.core.ecore.SwitchTest.suite(),
-      org.eclipse.emf.test.core.ecore.ResourceSetMappedResourceLocatorTest.suite()
+      org.eclipse.emf.test.core.ecore.ResourceSetMappedResourceLocatorTest.suite(),
+      org.eclipse.emf.test.core.ecore.ResourceSetLoadAllTest.suite(),
+      org.eclipse.emf.test.core.ecore.ECrossReferenceAdapterTest.suite(),
+      org.eclipse.emf.test.core.ecore.CrossReferencerTest.suite(),
+      org.eclipse.emf.test.core.ecore.ColumnarEStoreTest.suite(),
+      org.eclipse.emf.test.core.ecore.KeyValueEStoreTest.suite(),
+      org.eclipse.emf.test.core.ecore.FreezeTest.suite(),
+      org.eclipse.emf.test.core.ecore.FeatureAccessTableTest.suite()
     };
 
   public static Test suite()
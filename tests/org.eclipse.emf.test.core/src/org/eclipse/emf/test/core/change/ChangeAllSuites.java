@@ -27,6 +27,8 @@ public class ChangeAllSuites extends TestSuite
     ,MultivalueAttributeTest.suite()
     ,SpecialCasesTest.suite()
     ,ChangeDescriptionBuilderTest.suite()
+    ,ChangeLogTest.suite()
+    ,ChangeHistoryTest.suite()
   };
 
   public static Test suite()
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.change;
+
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.change.util.ChangeHistory;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+
+public class ChangeHistoryTest extends TestCase
+{
+  private ResourceSet resourceSet;
+  private Resource resource;
+  private EPackage ePackage;
+  private File directory;
+
+  public ChangeHistoryTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite ts = new TestSuite("ChangeHistoryTest");
+    ts.addTest(new ChangeHistoryTest("testUndo"));
+    ts.addTest(new ChangeHistoryTest("testCompact"));
+    ts.addTest(new ChangeHistoryTest("testSpill"));
+    ts.addTest(new ChangeHistoryTest("testCompactWithoutChangingObjects"));
+    ts.addTest(new ChangeHistoryTest("testCompactReleasedSegments"));
+    return ts;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    resourceSet = new ResourceSetImpl();
+    resource = new ResourceImpl(URI.createURI("http://www.eclipse.org/emf/test/core/change/history.ecore"));
+    resourceSet.getResources().add(resource);
+
+    ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("history");
+    resource.getContents().add(ePackage);
+    for (int i = 0; i < 3; ++i)
+    {
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName("EClass" + i);
+      ePackage.getEClassifiers().add(eClass);
+    }
+
+    directory = File.createTempFile("history", "");
+    directory.delete();
+    directory.mkdirs();
+  }
+
+  @Override
+  protected void tearDown() throws Exception
+  {
+    for (File file : directory.listFiles())
+    {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  protected List<EObject> snapshot()
+  {
+    return new ArrayList<EObject>(EcoreUtil.copyAll(resource.getContents()));
+  }
+
+  protected void assertState(List<EObject> snapshot)
+  {
+    assertTrue(EcoreUtil.equals(resource.getContents(), snapshot));
+  }
+
+  protected void makeChanges(int step)
+  {
+    EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+    eClass.setName("Step" + step);
+    ePackage.getEClassifiers().add(step % ePackage.getEClassifiers().size(), eClass);
+
+    EClass firstEClass = (EClass)ePackage.getEClassifiers().get(0);
+    firstEClass.setAbstract(!firstEClass.isAbstract());
+    EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+    eAttribute.setName("attribute" + step);
+    eAttribute.setEType(EcorePackage.Literals.ESTRING);
+    firstEClass.getEStructuralFeatures().add(eAttribute);
+
+    EReference eReference = EcoreFactory.eINSTANCE.createEReference();
+    eReference.setName("reference" + step);
+    eReference.setEType(firstEClass);
+    eClass.getEStructuralFeatures().add(eReference);
+
+    if (step % 2 == 1)
+    {
+      ePackage.getEClassifiers().remove(ePackage.getEClassifiers().size() - 1);
+      ePackage.getEClassifiers().move(0, ePackage.getEClassifiers().size() - 1);
+    }
+    ePackage.setName("history" + step);
+  }
+
+  public void testUndo()
+  {
+    List<EObject> initialState = snapshot();
+    ChangeHistory changeHistory = new ChangeHistory(Collections.singleton(resourceSet));
+    makeChanges(1);
+    changeHistory.checkpoint();
+    List<EObject> state1 = snapshot();
+    makeChanges(2);
+    changeHistory.checkpoint();
+    List<EObject> state2 = snapshot();
+    makeChanges(3);
+    assertEquals(2, changeHistory.getSegmentCount());
+
+    // A checkpoint without changes doesn't add a segment.
+    //
+    changeHistory.checkpoint();
+    changeHistory.checkpoint();
+    assertEquals(3, changeHistory.getSegmentCount());
+
+    assertTrue(changeHistory.undo());
+    assertState(state2);
+    assertTrue(changeHistory.undo());
+    assertState(state1);
+
+    // Changes made after an undo are recorded too.
+    //
+    makeChanges(4);
+    assertTrue(changeHistory.undo());
+    assertState(state1);
+    assertTrue(changeHistory.undo());
+    assertState(initialState);
+    assertFalse(changeHistory.undo());
+    changeHistory.dispose();
+  }
+
+  public void testCompact()
+  {
+    List<EObject> initialState = snapshot();
+    ChangeHistory changeHistory = new ChangeHistory(Collections.singleton(resourceSet));
+    for (int step = 1; step <= 5; ++step)
+    {
+      makeChanges(step);
+      changeHistory.checkpoint();
+    }
+    makeChanges(6);
+    List<EObject> finalState = snapshot();
+
+    changeHistory.compact();
+    assertEquals(1, changeHistory.getSegmentCount());
+    assertState(finalState);
+
+    makeChanges(7);
+    changeHistory.undoAll();
+    assertState(initialState);
+    assertEquals(0, changeHistory.getSegmentCount());
+    changeHistory.dispose();
+  }
+
+  public void testCompactWithoutChangingObjects()
+  {
+    List<EObject> initialState = snapshot();
+    ChangeHistory changeHistory = new ChangeHistory(Collections.singleton(resourceSet));
+    EPackage otherEPackage = EcoreFactory.eINSTANCE.createEPackage();
+    otherEPackage.setName("other");
+    for (int step = 1; step <= 4; ++step)
+    {
+      makeChanges(step);
+      if (step == 2)
+      {
+        resource.getContents().add(otherEPackage);
+      }
+      else if (step == 3)
+      {
+        resource.getContents().move(0, otherEPackage);
+      }
+      changeHistory.checkpoint();
+    }
+    List<EObject> finalState = snapshot();
+
+    // Compacting neither notifies nor modifies anything.
+    //
+    final List<Notification> notifications = new ArrayList<Notification>();
+    Adapter adapter =
+      new EContentAdapter()
+      {
+        @Override
+        public void notifyChanged(Notification notification)
+        {
+          super.notifyChanged(notification);
+          notifications.add(notification);
+        }
+      };
+    resource.setModified(false);
+    resource.setTrackingModification(true);
+    resourceSet.eAdapters().add(adapter);
+    changeHistory.compact();
+    assertEquals(1, changeHistory.getSegmentCount());
+    assertTrue(notifications.isEmpty());
+    assertFalse(resource.isModified());
+    assertState(finalState);
+    resource.setTrackingModification(false);
+    resourceSet.eAdapters().remove(adapter);
+
+    changeHistory.undoAll();
+    assertState(initialState);
+    changeHistory.dispose();
+  }
+
+  public void testCompactReleasedSegments()
+  {
+    List<EObject> initialState = snapshot();
+    ChangeHistory changeHistory = new ChangeHistory(Collections.singleton(resourceSet), URI.createFileURI(directory.getAbsolutePath()), 0);
+    for (int step = 1; step <= 3; ++step)
+    {
+      makeChanges(step);
+      changeHistory.checkpoint();
+    }
+    makeChanges(4);
+    assertEquals(0, changeHistory.getMemorySegmentCount());
+
+    // The segments released from memory aren't merged.
+    //
+    changeHistory.compact();
+    assertEquals(4, changeHistory.getSegmentCount());
+    changeHistory.undoAll();
+    assertState(initialState);
+    changeHistory.dispose();
+    assertEquals(0, directory.listFiles().length);
+  }
+
+  public void testSpill()
+  {
+    List<EObject> initialState = snapshot();
+    ChangeHistory changeHistory = new ChangeHistory(Collections.singleton(resourceSet), URI.createFileURI(directory.getAbsolutePath()), 1);
+    List<List<EObject>> states = new ArrayList<List<EObject>>();
+    for (int step = 1; step <= 4; ++step)
+    {
+      makeChanges(step);
+      changeHistory.checkpoint();
+      states.add(snapshot());
+    }
+    assertEquals(4, changeHistory.getSegmentCount());
+    assertEquals(1, changeHistory.getMemorySegmentCount());
+    assertEquals(4, directory.listFiles().length);
+
+    for (int step = 3; step >= 1; --step)
+    {
+      assertTrue(changeHistory.undo());
+      assertState(states.get(step - 1));
+    }
+    assertTrue(changeHistory.undo());
+    assertState(initialState);
+    assertEquals(0, directory.listFiles().length);
+
+    // Segments released from memory aren't merged by compacting.
+    //
+    for (int step = 1; step <= 3; ++step)
+    {
+      makeChanges(step);
+      changeHistory.checkpoint();
+    }
+    changeHistory.compact();
+    assertEquals(3, changeHistory.getSegmentCount());
+    changeHistory.undoAll();
+    assertState(initialState);
+    changeHistory.dispose();
+    assertEquals(0, directory.listFiles().length);
+  }
+}
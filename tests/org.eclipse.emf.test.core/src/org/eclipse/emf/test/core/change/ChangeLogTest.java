@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.change;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAnnotation;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.change.ChangeDescription;
+import org.eclipse.emf.ecore.change.FeatureChange;
+import org.eclipse.emf.ecore.change.ResourceChange;
+import org.eclipse.emf.ecore.change.util.ChangeLog;
+import org.eclipse.emf.ecore.change.util.ChangeRecorder;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+
+public class ChangeLogTest extends TestCase
+{
+  private ResourceSet resourceSet;
+  private Resource resource;
+  private EPackage ePackage;
+  private EClass eClass0;
+  private EClass eClass1;
+  private EClass eClass2;
+
+  public ChangeLogTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite ts = new TestSuite("ChangeLogTest");
+    ts.addTest(new ChangeLogTest("testLoggedChangesMatchRecordedChanges"));
+    ts.addTest(new ChangeLogTest("testSummarizeAndApply"));
+    ts.addTest(new ChangeLogTest("testRollback"));
+    ts.addTest(new ChangeLogTest("testOnlyFirstChangeLogged"));
+    return ts;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    resourceSet = new ResourceSetImpl();
+    resource = new ResourceImpl(URI.createURI("test.ecore"));
+    resourceSet.getResources().add(resource);
+
+    ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("log");
+    resource.getContents().add(ePackage);
+
+    eClass0 = createEClass("eClass0");
+    eClass1 = createEClass("eClass1");
+    eClass2 = createEClass("eClass2");
+
+    EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+    eAttribute.setName("name");
+    eAttribute.setEType(EcorePackage.Literals.ESTRING);
+    eClass0.getEStructuralFeatures().add(eAttribute);
+    eClass2.getEStructuralFeatures().add(EcoreUtil.copy(eAttribute));
+  }
+
+  protected EClass createEClass(String name)
+  {
+    EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+    eClass.setName(name);
+    ePackage.getEClassifiers().add(eClass);
+    return eClass;
+  }
+
+  protected void makeChanges()
+  {
+    ePackage.setName("renamed");
+    ePackage.setName("renamedAgain");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/change/log");
+
+    EClass eClass3 = EcoreFactory.eINSTANCE.createEClass();
+    eClass3.setName("eClass3");
+    ePackage.getEClassifiers().add(0, eClass3);
+    ePackage.getEClassifiers().move(3, 1);
+    ePackage.getEClassifiers().remove(eClass1);
+
+    eClass2.setAbstract(true);
+    eClass2.setInterface(true);
+    eClass2.setAbstract(false);
+
+    // Bidirectional references in different containers.
+    //
+    EReference forward = EcoreFactory.eINSTANCE.createEReference();
+    forward.setName("forward");
+    forward.setEType(eClass2);
+    eClass0.getEStructuralFeatures().add(forward);
+    EReference backward = EcoreFactory.eINSTANCE.createEReference();
+    backward.setName("backward");
+    backward.setEType(eClass0);
+    eClass2.getEStructuralFeatures().add(0, backward);
+    forward.setEOpposite(backward);
+    backward.setEOpposite(forward);
+    eClass2.getEStructuralFeatures().move(1, 0);
+
+    EAnnotation eAnnotation = EcoreFactory.eINSTANCE.createEAnnotation();
+    eAnnotation.setSource("source");
+    eAnnotation.getDetails().put("key", "value");
+    eClass0.getEAnnotations().add(eAnnotation);
+    eAnnotation.getDetails().put("key", "otherValue");
+    eClass0.getEStructuralFeatures().remove(0);
+
+    EPackage otherEPackage = EcoreFactory.eINSTANCE.createEPackage();
+    otherEPackage.setName("other");
+    resource.getContents().add(otherEPackage);
+    otherEPackage.getEClassifiers().add(eClass1);
+    resource.getContents().move(0, 1);
+  }
+
+  protected void makeMoreChanges()
+  {
+    eClass0.setName("eClass0Renamed");
+    eClass2.getEStructuralFeatures().clear();
+    ePackage.getEClassifiers().add(EcoreFactory.eINSTANCE.createEDataType());
+    EPackage otherEPackage = (EPackage)resource.getContents().get(0);
+    otherEPackage.getEClassifiers().clear();
+    resource.getContents().remove(otherEPackage);
+    ePackage.getEClassifiers().removeAll(ePackage.getEClassifiers().subList(0, 2));
+  }
+
+  protected List<EObject> snapshot()
+  {
+    return new ArrayList<EObject>(EcoreUtil.copyAll(resource.getContents()));
+  }
+
+  protected void assertUnchanged(List<EObject> snapshot)
+  {
+    assertTrue(EcoreUtil.equals(resource.getContents(), snapshot));
+  }
+
+  public void testLoggedChangesMatchRecordedChanges()
+  {
+    List<EObject> snapshot = snapshot();
+    ChangeRecorder changeRecorder = new ChangeRecorder(resourceSet);
+    ChangeRecorder loggingChangeRecorder = new ChangeRecorder();
+    loggingChangeRecorder.setLogging(true);
+    loggingChangeRecorder.beginRecording(Collections.singleton(resourceSet));
+
+    makeChanges();
+    makeMoreChanges();
+
+    ChangeDescription changeDescription = changeRecorder.endRecording();
+    ChangeDescription loggedChangeDescription = loggingChangeRecorder.endRecording();
+    changeRecorder.dispose();
+    loggingChangeRecorder.dispose();
+
+    assertEquals(changeDescription.getObjectChanges().size(), loggedChangeDescription.getObjectChanges().size());
+    for (Map.Entry<EObject, EList<FeatureChange>> entry : changeDescription.getObjectChanges())
+    {
+      List<FeatureChange> featureChanges = entry.getValue();
+      List<FeatureChange> loggedFeatureChanges = loggedChangeDescription.getObjectChanges().get(entry.getKey());
+      assertNotNull(loggedFeatureChanges);
+      assertEquals(featureChanges.size(), loggedFeatureChanges.size());
+      for (int i = 0; i < featureChanges.size(); ++i)
+      {
+        FeatureChange featureChange = featureChanges.get(i);
+        FeatureChange loggedFeatureChange = loggedFeatureChanges.get(i);
+        assertSame(featureChange.getFeature(), loggedFeatureChange.getFeature());
+        assertEquals(featureChange.isSet(), loggedFeatureChange.isSet());
+        assertEquals(featureChange.getValue(), loggedFeatureChange.getValue());
+      }
+    }
+    assertEquals(changeDescription.getResourceChanges().size(), loggedChangeDescription.getResourceChanges().size());
+    for (int i = 0; i < changeDescription.getResourceChanges().size(); ++i)
+    {
+      ResourceChange resourceChange = changeDescription.getResourceChanges().get(i);
+      ResourceChange loggedResourceChange = loggedChangeDescription.getResourceChanges().get(i);
+      assertSame(resourceChange.getResource(), loggedResourceChange.getResource());
+      assertEquals(resourceChange.getValue(), loggedResourceChange.getValue());
+    }
+
+    loggedChangeDescription.apply();
+    assertUnchanged(snapshot);
+  }
+
+  public void testSummarizeAndApply()
+  {
+    List<EObject> snapshot = snapshot();
+    ChangeRecorder changeRecorder = new ChangeRecorder();
+    changeRecorder.setLogging(true);
+    changeRecorder.beginRecording(Collections.singleton(resourceSet));
+
+    makeChanges();
+    assertNotNull(changeRecorder.summarize());
+    makeMoreChanges();
+
+    ChangeDescription changeDescription = changeRecorder.endRecording();
+    changeRecorder.dispose();
+    changeDescription.apply();
+    assertUnchanged(snapshot);
+  }
+
+  public void testRollback()
+  {
+    List<EObject> snapshot = snapshot();
+    ChangeRecorder changeRecorder = new ChangeRecorder();
+    changeRecorder.setLogging(true);
+    changeRecorder.beginRecording(Collections.singleton(resourceSet));
+
+    makeChanges();
+    makeMoreChanges();
+    changeRecorder.rollback();
+    assertFalse(changeRecorder.isRecording());
+    assertUnchanged(snapshot);
+
+    // Rolling back after a summary undoes both the logged and the summarized changes.
+    //
+    changeRecorder.beginRecording(Collections.singleton(resourceSet));
+    makeChanges();
+    changeRecorder.summarize();
+    makeMoreChanges();
+    changeRecorder.rollback();
+    changeRecorder.dispose();
+    assertUnchanged(snapshot);
+  }
+
+  public void testOnlyFirstChangeLogged()
+  {
+    final ChangeLog changeLog = new ChangeLog(1);
+    ePackage.eAdapters().add
+      (new AdapterImpl()
+       {
+         @Override
+         public void notifyChanged(Notification notification)
+         {
+           changeLog.add(notification);
+         }
+       });
+    List<EClassifier> originalEClassifiers = new ArrayList<EClassifier>(ePackage.getEClassifiers());
+
+    // The collection passed to addAll is reused by the caller afterward.
+    //
+    List<EClassifier> eClassifiers = new ArrayList<EClassifier>();
+    eClassifiers.add(EcoreFactory.eINSTANCE.createEClass());
+    eClassifiers.add(EcoreFactory.eINSTANCE.createEDataType());
+    ePackage.getEClassifiers().addAll(1, eClassifiers);
+    eClassifiers.clear();
+
+    for (int i = 0; i < 100; ++i)
+    {
+      ePackage.getEClassifiers().add(0, EcoreFactory.eINSTANCE.createEClass());
+      ePackage.setName("name" + i);
+    }
+    ePackage.setNsPrefix("log");
+    assertEquals(3, changeLog.size());
+
+    assertSame(ePackage, changeLog.getNotifier(0));
+    assertSame(EcorePackage.Literals.EPACKAGE__ECLASSIFIERS, changeLog.getFeature(0));
+    assertEquals(originalEClassifiers, changeLog.getValue(0));
+    assertSame(EcorePackage.Literals.ENAMED_ELEMENT__NAME, changeLog.getFeature(1));
+    assertEquals("log", changeLog.getValue(1));
+    assertTrue(changeLog.isSet(1));
+    assertSame(EcorePackage.Literals.EPACKAGE__NS_PREFIX, changeLog.getFeature(2));
+    assertNull(changeLog.getValue(2));
+    assertFalse(changeLog.isSet(2));
+
+    for (ChangeLog.OriginalValue originalValue : changeLog.computeOriginalValues())
+    {
+      originalValue.apply();
+    }
+    assertEquals(originalEClassifiers, ePackage.getEClassifiers());
+    assertEquals("log", ePackage.getName());
+
+    changeLog.clear();
+    assertTrue(changeLog.isEmpty());
+  }
+}
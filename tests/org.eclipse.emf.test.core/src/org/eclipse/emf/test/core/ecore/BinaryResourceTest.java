@@ -25,12 +25,23 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
 import org.eclipse.emf.test.models.ppo.Item;
@@ -61,6 +72,11 @@ public class BinaryResourceTest extends TestCase
     ts.addTest(new BinaryResourceTest("testSaveWithBinaryResourceAndLoadWithXMIResource"));
     ts.addTest(new BinaryResourceTest("testSaveAndLoadNoCache1"));
     ts.addTest(new BinaryResourceTest("testSaveAndLoadNoCache2"));
+    ts.addTest(new BinaryResourceTest("testSaveAndLoadVersion1_2"));
+    ts.addTest(new BinaryResourceTest("testSaveAndLoadLazily"));
+    ts.addTest(new BinaryResourceTest("testSaveAndLoadLazilyWithCrossReferences"));
+    ts.addTest(new BinaryResourceTest("testUnloadLazilyLoaded"));
+    ts.addTest(new BinaryResourceTest("testSaveAndLoadVersion1_3"));
     return ts;
   }
 
@@ -238,4 +254,264 @@ public class BinaryResourceTest extends TestCase
     }
     assertTrue(equalityHelper.equals(rootObjects, resource.getContents()));
   }
+
+  public void testSaveAndLoadVersion1_2() throws Exception
+  {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_2);
+
+    Resource resource = new BinaryResourceImpl(resourceURI);
+    resource.getContents().addAll(rootObjects);
+    resource.save(options);
+    assertTrue(resourceURI.toString(), URIConverter.INSTANCE.exists(resourceURI, null));
+
+    resource = new BinaryResourceImpl(resourceURI);
+    resource.load(null);
+    assertTrue(equalityHelper.equals(rootObjects, resource.getContents()));
+  }
+
+  public void testSaveAndLoadLazily() throws Exception
+  {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_2);
+
+    Resource resource = new BinaryResourceImpl(resourceURI);
+    resource.getContents().addAll(rootObjects);
+    resource.save(options);
+
+    options.clear();
+    options.put(BinaryResourceImpl.OPTION_LAZY_LOAD, Boolean.TRUE);
+    LazyBinaryResourceImpl lazyResource = new LazyBinaryResourceImpl(resourceURI);
+    lazyResource.load(options);
+    assertTrue(lazyResource.isLoaded());
+    assertEquals(0, lazyResource.getMaterializedSegmentCount());
+    final List<Notification> notifications = new ArrayList<Notification>();
+    lazyResource.eAdapters().add
+      (new AdapterImpl()
+       {
+         @Override
+         public void notifyChanged(Notification notification)
+         {
+           notifications.add(notification);
+         }
+       });
+
+    // Each purchase order is independent so each will be in its own segment, and each segment is decoded directly.
+    // The materialized roots are logically already part of the contents, so no notifications are delivered.
+    //
+    EObject purchaseOrder = lazyResource.getEObject("/10");
+    assertTrue(equalityHelper.equals(rootObjects.get(10), purchaseOrder));
+    assertEquals(1, lazyResource.getMaterializedSegmentCount());
+    assertTrue(notifications.isEmpty());
+    assertEquals("/10", lazyResource.getURIFragment(purchaseOrder));
+    assertEquals("/10/@items.3", lazyResource.getURIFragment(((PurchaseOrder)purchaseOrder).getItems().get(3)));
+    EObject otherPurchaseOrder = lazyResource.getEObject("/3");
+    assertTrue(equalityHelper.equals(rootObjects.get(3), otherPurchaseOrder));
+    assertEquals(2, lazyResource.getMaterializedSegmentCount());
+    assertEquals("/3", lazyResource.getURIFragment(otherPurchaseOrder));
+    assertEquals("/10", lazyResource.getURIFragment(purchaseOrder));
+    assertSame(purchaseOrder, lazyResource.getEObject("/10"));
+    assertNull(lazyResource.getEObject("/" + rootObjects.size()));
+    assertFalse(lazyResource.isModified());
+
+    assertTrue(equalityHelper.equals(rootObjects, lazyResource.getContents()));
+    assertEquals(-1, lazyResource.getMaterializedSegmentCount());
+    assertTrue(notifications.isEmpty());
+    assertSame(purchaseOrder, lazyResource.getContents().get(10));
+    assertSame(otherPurchaseOrder, lazyResource.getContents().get(3));
+
+    // The same option should also work for a stream that's not a file stream and for an older version.
+    //
+    resource.save(null);
+    Resource bufferedResource = new BinaryResourceImpl();
+    InputStream inputStream = new BufferedInputStream(URIConverter.INSTANCE.createInputStream(resourceURI));
+    try
+    {
+      bufferedResource.load(inputStream, options);
+    }
+    finally
+    {
+      inputStream.close();
+    }
+    assertTrue(new EcoreUtil.EqualityHelper().equals(rootObjects, bufferedResource.getContents()));
+  }
+
+  public void testSaveAndLoadLazilyWithCrossReferences() throws Exception
+  {
+    Resource resource = new BinaryResourceImpl(resourceURI);
+    for (int i = 0; i < 4; ++i)
+    {
+      EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+      ePackage.setName("p" + i);
+      ePackage.setNsURI("http://www.example.org/p" + i);
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName("C" + i);
+      ePackage.getEClassifiers().add(eClass);
+      resource.getContents().add(ePackage);
+    }
+    EClass c1 = (EClass)((EPackage)resource.getContents().get(1)).getEClassifiers().get(0);
+    EClass c2 = (EClass)((EPackage)resource.getContents().get(2)).getEClassifiers().get(0);
+    c1.getESuperTypes().add(c2);
+
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_2);
+    resource.save(options);
+
+    options.clear();
+    options.put(BinaryResourceImpl.OPTION_LAZY_LOAD, Boolean.TRUE);
+    LazyBinaryResourceImpl lazyResource = new LazyBinaryResourceImpl(resourceURI);
+    lazyResource.load(options);
+
+    // The second and third package reference each other so they must be in the same segment.
+    //
+    EClass loadedC1 = (EClass)lazyResource.getEObject("/1/C1");
+    assertNotNull(loadedC1);
+    assertEquals(1, lazyResource.getMaterializedSegmentCount());
+    EClass loadedC2 = loadedC1.getESuperTypes().get(0);
+    assertFalse(loadedC2.eIsProxy());
+    assertSame(lazyResource, loadedC2.eResource());
+    assertEquals("/2/C2", lazyResource.getURIFragment(loadedC2));
+
+    assertTrue(equalityHelper.equals(resource.getContents(), lazyResource.getContents()));
+    assertSame(loadedC2, ((EPackage)lazyResource.getContents().get(2)).getEClassifiers().get(0));
+  }
+
+  public void testUnloadLazilyLoaded() throws Exception
+  {
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_2);
+    Resource resource = new BinaryResourceImpl(resourceURI);
+    resource.getContents().addAll(rootObjects);
+    resource.save(options);
+
+    options.clear();
+    options.put(BinaryResourceImpl.OPTION_LAZY_LOAD, Boolean.TRUE);
+    LazyBinaryResourceImpl lazyResource = new LazyBinaryResourceImpl(resourceURI);
+    lazyResource.load(options);
+    PurchaseOrder purchaseOrder = (PurchaseOrder)lazyResource.getEObject("/10");
+    EObject item = purchaseOrder.getItems().get(3);
+
+    // Unloading only turns the materialized objects into proxies, without decoding any other segment, and releases the mapped file.
+    //
+    lazyResource.unload();
+    assertEquals(1, lazyResource.materializationCount);
+    assertTrue(lazyResource.unloadedSegmentsReleased);
+    assertFalse(lazyResource.isLoaded());
+    assertTrue(lazyResource.getContents().isEmpty());
+    assertTrue(purchaseOrder.eIsProxy());
+    assertEquals(resourceURI.appendFragment("/10"), ((InternalEObject)purchaseOrder).eProxyURI());
+    assertEquals(resourceURI.appendFragment("/10/@items.3"), ((InternalEObject)item).eProxyURI());
+
+    // The resource can be loaded again.
+    //
+    lazyResource.load(options);
+    assertTrue(equalityHelper.equals(rootObjects.get(10), lazyResource.getEObject("/10")));
+    assertTrue(equalityHelper.equals(rootObjects, lazyResource.getContents()));
+  }
+
+  public void testSaveAndLoadVersion1_3() throws Exception
+  {
+    ResourceSet resourceSet = new ResourceSetImpl();
+    Resource baseResource = new BinaryResourceImpl(resourceURI.trimSegments(1).appendSegment("base-" + resourceURI.lastSegment()));
+    resourceSet.getResources().add(baseResource);
+    EPackage basePackage = EcoreFactory.eINSTANCE.createEPackage();
+    basePackage.setName("base");
+    basePackage.setNsURI("http://www.example.org/base");
+    baseResource.getContents().add(basePackage);
+
+    Resource resource = new BinaryResourceImpl(resourceURI);
+    resourceSet.getResources().add(resource);
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("derived");
+    ePackage.setNsURI("http://www.example.org/derived");
+    resource.getContents().add(ePackage);
+    for (int i = 0; i < 100; ++i)
+    {
+      EClass baseEClass = EcoreFactory.eINSTANCE.createEClass();
+      baseEClass.setName("Base" + i);
+      basePackage.getEClassifiers().add(baseEClass);
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName("Derived" + i);
+      eClass.getESuperTypes().add(baseEClass);
+      ePackage.getEClassifiers().add(eClass);
+      for (int j = 0; j < 5; ++j)
+      {
+        EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+        eAttribute.setName("attribute" + j);
+        eAttribute.setEType(EcorePackage.Literals.ESTRING);
+        eAttribute.setLowerBound(-j);
+        eAttribute.setUpperBound(j * 1000);
+        eClass.getEStructuralFeatures().add(eAttribute);
+      }
+    }
+
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_2);
+    resource.save(options);
+    long version1_2Length = new File(resourceURI.toFileString()).length();
+    options.put(BinaryResourceImpl.OPTION_VERSION, BinaryResourceImpl.BinaryIO.Version.VERSION_1_3);
+    resource.save(options);
+    long version1_3Length = new File(resourceURI.toFileString()).length();
+    assertTrue(version1_3Length + " < " + version1_2Length, version1_3Length < version1_2Length);
+
+    options.clear();
+    Resource loadedResource = new BinaryResourceImpl(resourceURI);
+    new ResourceSetImpl().getResources().add(loadedResource);
+    loadedResource.load(options);
+    EPackage loadedEPackage = (EPackage)loadedResource.getContents().get(0);
+    for (int i = 0; i < 100; ++i)
+    {
+      EClass eClass = (EClass)loadedEPackage.getEClassifiers().get(i);
+      assertEquals("Derived" + i, eClass.getName());
+      for (int j = 0; j < 5; ++j)
+      {
+        EAttribute eAttribute = (EAttribute)eClass.getEStructuralFeatures().get(j);
+        assertEquals("attribute" + j, eAttribute.getName());
+        assertEquals(-j, eAttribute.getLowerBound());
+        assertEquals(j * 1000, eAttribute.getUpperBound());
+        assertSame(EcorePackage.Literals.ESTRING, eAttribute.getEType());
+      }
+      InternalEObject baseEClass = (InternalEObject)((InternalEList<EClass>)eClass.getESuperTypes()).basicGet(0);
+      assertTrue(baseEClass.eIsProxy());
+      assertEquals(EcoreUtil.getURI(basePackage.getEClassifiers().get(i)), baseEClass.eProxyURI());
+    }
+
+    options.put(BinaryResourceImpl.OPTION_LAZY_LOAD, Boolean.TRUE);
+    Resource lazyResource = new BinaryResourceImpl(resourceURI);
+    new ResourceSetImpl().getResources().add(lazyResource);
+    lazyResource.load(options);
+    assertTrue(equalityHelper.equals(loadedResource.getContents(), lazyResource.getContents()));
+  }
+
+  private static class LazyBinaryResourceImpl extends BinaryResourceImpl
+  {
+    public LazyBinaryResourceImpl(URI uri)
+    {
+      super(uri);
+    }
+
+    public int materializationCount;
+
+    @Override
+    protected void materializeSegment(int index)
+    {
+      ++materializationCount;
+      super.materializeSegment(index);
+    }
+
+    public int getMaterializedSegmentCount()
+    {
+      return segments == null ? -1 : segments.count - segments.remaining;
+    }
+
+    public boolean unloadedSegmentsReleased;
+
+    @Override
+    protected void doUnload()
+    {
+      Segments segments = this.segments;
+      super.doUnload();
+      unloadedSegmentsReleased = segments != null && segments.buffers == null;
+    }
+  }
 }
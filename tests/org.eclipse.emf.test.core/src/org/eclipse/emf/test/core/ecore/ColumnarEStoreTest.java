@@ -0,0 +1,439 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ColumnarEStoreImpl;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+public class ColumnarEStoreTest extends TestCase
+{
+  private EPackage ePackage;
+  private EClass node;
+  private EAttribute name;
+  private EAttribute count;
+  private EAttribute weight;
+  private EAttribute flag;
+  private EAttribute tags;
+  private EAttribute values;
+  private EReference children;
+  private EReference next;
+  private EReference links;
+
+  private File directory;
+
+  public ColumnarEStoreTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("ColumnarEStoreTest");
+    testSuite.addTest(new ColumnarEStoreTest("testSingleValuedFeatures"));
+    testSuite.addTest(new ColumnarEStoreTest("testManyValuedFeatures"));
+    testSuite.addTest(new ColumnarEStoreTest("testContainment"));
+    testSuite.addTest(new ColumnarEStoreTest("testCopy"));
+    testSuite.addTest(new ColumnarEStoreTest("testPersistence"));
+    testSuite.addTest(new ColumnarEStoreTest("testFreedSpaceReused"));
+    testSuite.addTest(new ColumnarEStoreTest("testRelease"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("columnar");
+    ePackage.setNsPrefix("columnar");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/columnar");
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    name = createAttribute("name", EcorePackage.Literals.ESTRING, 1);
+    count = createAttribute("count", EcorePackage.Literals.EINT, 1);
+    count.setUnsettable(true);
+    weight = createAttribute("weight", EcorePackage.Literals.EDOUBLE, 1);
+    flag = createAttribute("flag", EcorePackage.Literals.EBOOLEAN, 1);
+    tags = createAttribute("tags", EcorePackage.Literals.ESTRING, -1);
+    tags.setUnique(false);
+    values = createAttribute("values", EcorePackage.Literals.EINT, -1);
+    values.setUnique(false);
+
+    children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(-1);
+    node.getEStructuralFeatures().add(children);
+
+    next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(node);
+    node.getEStructuralFeatures().add(next);
+
+    links = EcoreFactory.eINSTANCE.createEReference();
+    links.setName("links");
+    links.setEType(node);
+    links.setUpperBound(-1);
+    node.getEStructuralFeatures().add(links);
+
+    directory = File.createTempFile("columnar", "");
+    directory.delete();
+  }
+
+  @Override
+  protected void tearDown() throws Exception
+  {
+    File [] files = directory.listFiles();
+    if (files != null)
+    {
+      for (File file : files)
+      {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  private EAttribute createAttribute(String name, EDataType type, int upperBound)
+  {
+    EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+    eAttribute.setName(name);
+    eAttribute.setEType(type);
+    eAttribute.setUpperBound(upperBound);
+    node.getEStructuralFeatures().add(eAttribute);
+    return eAttribute;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> list(EObject eObject, EReference eReference)
+  {
+    return (List<Object>)eObject.eGet(eReference);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> list(EObject eObject, EAttribute eAttribute)
+  {
+    return (List<Object>)eObject.eGet(eAttribute);
+  }
+
+  public void testSingleValuedFeatures()
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl();
+    EObject a = store.create(node);
+    EObject b = store.create(node);
+    assertEquals(1, store.getID(a));
+    assertEquals(2, store.getID(b));
+    assertSame(a, store.getEObject(1));
+
+    assertNull(a.eGet(name));
+    assertEquals(0, a.eGet(count));
+    assertEquals(0.0, a.eGet(weight));
+    assertEquals(Boolean.FALSE, a.eGet(flag));
+    assertFalse(a.eIsSet(name));
+    assertFalse(a.eIsSet(count));
+
+    a.eSet(name, "a");
+    a.eSet(count, 42);
+    a.eSet(weight, 1.5);
+    a.eSet(flag, true);
+    a.eSet(next, b);
+    assertEquals("a", a.eGet(name));
+    assertEquals(42, a.eGet(count));
+    assertEquals(1.5, a.eGet(weight));
+    assertEquals(Boolean.TRUE, a.eGet(flag));
+    assertSame(b, a.eGet(next));
+    assertTrue(a.eIsSet(name));
+    assertTrue(a.eIsSet(next));
+
+    // An unsettable feature is set even with its default value; the others aren't.
+    //
+    a.eSet(count, 0);
+    assertTrue(a.eIsSet(count));
+    a.eSet(weight, 0.0);
+    assertFalse(a.eIsSet(weight));
+
+    a.eUnset(count);
+    a.eUnset(next);
+    a.eSet(name, null);
+    assertFalse(a.eIsSet(count));
+    assertNull(a.eGet(next));
+    assertNull(a.eGet(name));
+
+    // References to objects of other stores are held on the heap.
+    //
+    EObject external = EcoreUtil.create(node);
+    b.eSet(next, external);
+    assertSame(external, b.eGet(next));
+  }
+
+  public void testManyValuedFeatures()
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl();
+    EObject a = store.create(node);
+    List<EObject> targets = new ArrayList<EObject>();
+    for (int i = 0; i < 100; ++i)
+    {
+      targets.add(store.create(node));
+    }
+
+    List<Object> linkList = list(a, links);
+    List<Object> expectedLinks = new ArrayList<Object>();
+    for (int i = 0; i < 100; ++i)
+    {
+      linkList.add(i / 2, targets.get(i));
+      expectedLinks.add(i / 2, targets.get(i));
+    }
+    assertEquals(expectedLinks, linkList);
+    assertTrue(linkList.contains(targets.get(17)));
+    assertEquals(expectedLinks.indexOf(targets.get(17)), linkList.indexOf(targets.get(17)));
+    assertFalse(linkList.contains(a));
+    assertFalse(linkList.contains(EcoreUtil.create(node)));
+
+    ((EList<Object>)linkList).move(3, 90);
+    expectedLinks.add(3, expectedLinks.remove(90));
+    linkList.remove(50);
+    expectedLinks.remove(50);
+    linkList.set(10, a);
+    expectedLinks.set(10, a);
+    assertEquals(expectedLinks, linkList);
+    assertEquals(expectedLinks.hashCode(), linkList.hashCode());
+    assertEquals(expectedLinks, Arrays.asList(linkList.toArray(new EObject [0])));
+
+    List<Object> tagList = list(a, tags);
+    tagList.addAll(Arrays.asList("x", "y", null, "x"));
+    assertEquals(Arrays.asList("x", "y", null, "x"), tagList);
+    assertEquals(3, tagList.lastIndexOf("x"));
+    assertEquals(2, tagList.indexOf(null));
+
+    List<Object> valueList = list(a, values);
+    valueList.addAll(Arrays.asList(3, 1, 4, 1, 5));
+    assertEquals(Arrays.asList(3, 1, 4, 1, 5), valueList);
+    assertEquals(3, valueList.lastIndexOf(1));
+    assertFalse(valueList.contains(1L));
+    valueList.clear();
+    assertTrue(valueList.isEmpty());
+    assertFalse(a.eIsSet(values));
+  }
+
+  public void testContainment()
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl();
+    EObject root = store.create(node);
+    EObject child1 = store.create(node);
+    EObject child2 = store.create(node);
+    EObject grandChild = store.create(node);
+    list(root, children).add(child1);
+    list(root, children).add(child2);
+    list(child1, children).add(grandChild);
+
+    InternalEObject.EStore eStore = store;
+    assertSame(root, eStore.getContainer((InternalEObject)child1));
+    assertSame(children, eStore.getContainingFeature((InternalEObject)child1));
+    assertSame(child1, grandChild.eContainer());
+
+    // Moving the grand child updates the container recorded by the store.
+    //
+    list(child2, children).add(grandChild);
+    assertSame(child2, grandChild.eContainer());
+    assertSame(child2, eStore.getContainer((InternalEObject)grandChild));
+    assertTrue(list(child1, children).isEmpty());
+
+    list(root, children).remove(child1);
+    assertNull(child1.eContainer());
+    assertNull(eStore.getContainer((InternalEObject)child1));
+
+    Resource resource = new ResourceImpl(URI.createURI("columnar.xmi"));
+    resource.getContents().add(root);
+    assertSame(resource, grandChild.eResource());
+  }
+
+  public void testCopy()
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl();
+    EObject root = createTree(store);
+
+    // A copy consists of ordinary dynamic objects and is equal to the original.
+    //
+    EObject copy = EcoreUtil.copy(root);
+    assertFalse(copy instanceof ColumnarEStoreImpl.ColumnarEStoreEObjectImpl);
+    assertTrue(EcoreUtil.equals(root, copy));
+  }
+
+  private EObject createTree(ColumnarEStoreImpl store)
+  {
+    EObject root = store.create(node);
+    root.eSet(name, "root");
+    List<EObject> nodes = new ArrayList<EObject>();
+    nodes.add(root);
+    for (int i = 1; i < 200; ++i)
+    {
+      EObject child = store.create(node);
+      child.eSet(name, "node" + i);
+      child.eSet(count, i);
+      child.eSet(weight, i / 3.0);
+      child.eSet(flag, i % 2 == 0);
+      list(child, tags).add("tag" + i % 7);
+      list(child, values).add((int)(i * 1000000007L % 1000));
+      list(nodes.get(i / 3), children).add(child);
+      nodes.add(child);
+    }
+    for (int i = 0; i < 200; ++i)
+    {
+      EObject eObject = nodes.get(i);
+      eObject.eSet(next, nodes.get((i * 7) % 200));
+      list(eObject, links).add(nodes.get((i * 13) % 200));
+      list(eObject, links).add(nodes.get((i * 17 + 1) % 200));
+    }
+    return root;
+  }
+
+  public void testPersistence() throws Exception
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl(directory, EPackage.Registry.INSTANCE);
+    EObject root = createTree(store);
+    EObject expected = EcoreUtil.copy(root);
+
+    // A reference to an object in another resource is persisted as a proxy.
+    //
+    Resource otherResource = new ResourceImpl(URI.createURI("http://www.example.org/other.xmi"));
+    EObject other = EcoreUtil.create(node);
+    otherResource.getContents().add(other);
+    root.eSet(next, other);
+    URI otherURI = EcoreUtil.getURI(other);
+
+    int rootID = store.getID(root);
+    int childID = store.getID((EObject)list(root, children).get(1));
+    store.close();
+
+    EPackage.Registry packageRegistry = new EPackageRegistryImpl();
+    packageRegistry.put(ePackage.getNsURI(), ePackage);
+    ColumnarEStoreImpl reopenedStore = new ColumnarEStoreImpl(directory, packageRegistry);
+    EObject reopenedRoot = reopenedStore.getEObject(rootID);
+    assertNotSame(root, reopenedRoot);
+    assertEquals("root", reopenedRoot.eGet(name));
+    EObject proxy = (EObject)reopenedRoot.eGet(next, false);
+    assertTrue(proxy.eIsProxy());
+    assertEquals(otherURI, ((InternalEObject)proxy).eProxyURI());
+
+    EObject child = reopenedStore.getEObject(childID);
+    assertSame(reopenedRoot, child.eContainer());
+    assertSame(children, child.eContainingFeature());
+
+    expected.eSet(next, null);
+    reopenedRoot.eSet(next, null);
+    assertTrue(EcoreUtil.equals(expected, reopenedRoot));
+    reopenedStore.close();
+  }
+
+  public void testFreedSpaceReused()
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl();
+    EObject a = store.create(node);
+    EObject b = store.create(node);
+    long allocatedSize = 0;
+    for (int i = 0; i < 1000; ++i)
+    {
+      a.eSet(name, "name" + i % 10);
+      a.eSet(count, i);
+      for (int j = 0; j < 10; ++j)
+      {
+        list(a, tags).add("tag" + j);
+        list(a, links).add(b);
+      }
+      list(a, tags).set(3, "replaced");
+      list(a, tags).remove(5);
+      list(a, tags).clear();
+      a.eUnset(links);
+      if (i % 2 == 0)
+      {
+        a.eUnset(name);
+      }
+
+      // Once every size of string and block has been freed, the replaced values don't grow the store.
+      //
+      if (i == 10)
+      {
+        allocatedSize = store.getAllocatedSize();
+      }
+    }
+    assertEquals(allocatedSize, store.getAllocatedSize());
+    assertEquals("name9", a.eGet(name));
+  }
+
+  public void testRelease() throws Exception
+  {
+    ColumnarEStoreImpl store = new ColumnarEStoreImpl(directory, EPackage.Registry.INSTANCE);
+    EObject root = createTree(store);
+    EObject child = (EObject)list(root, children).get(0);
+    try
+    {
+      store.release(child);
+      fail("Expected an IllegalArgumentException");
+    }
+    catch (IllegalArgumentException exception)
+    {
+      // Expected.
+    }
+
+    int idLimit = store.getIDLimit();
+    long allocatedSize = store.getAllocatedSize();
+    int rootID = store.getID(root);
+    store.release(root);
+    assertNull(store.getEObject(rootID));
+    try
+    {
+      root.eGet(name);
+      fail("Expected an IllegalStateException");
+    }
+    catch (IllegalStateException exception)
+    {
+      // Expected.
+    }
+
+    // The IDs, slots, strings, and blocks of the released objects are reused, also after reopening the store.
+    //
+    store.close();
+    EPackage.Registry packageRegistry = new EPackageRegistryImpl();
+    packageRegistry.put(ePackage.getNsURI(), ePackage);
+    ColumnarEStoreImpl reopenedStore = new ColumnarEStoreImpl(directory, packageRegistry);
+    EObject newRoot = createTree(reopenedStore);
+    assertEquals(idLimit, reopenedStore.getIDLimit());
+    assertEquals(allocatedSize, reopenedStore.getAllocatedSize());
+    assertTrue(EcoreUtil.equals(createTree(new ColumnarEStoreImpl()), newRoot));
+    reopenedStore.close();
+  }
+}
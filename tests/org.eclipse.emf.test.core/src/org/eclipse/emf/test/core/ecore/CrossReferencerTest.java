@@ -0,0 +1,572 @@
+/**
+ * Copyright (c) 2012 Eclipse contributors and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+
+public class CrossReferencerTest extends TestCase
+{
+  private static final int RESOURCES = 20;
+
+  private static final int LAZY_RESOURCES = 3;
+
+  private EClass node;
+  private EReference children;
+  private EReference next;
+  private EReference links;
+
+  private ExecutorService executor;
+
+  public CrossReferencerTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("CrossReferencerTest");
+    testSuite.addTest(new CrossReferencerTest("testParallelUsageCrossReferencer"));
+    testSuite.addTest(new CrossReferencerTest("testParallelExternalCrossReferencer"));
+    testSuite.addTest(new CrossReferencerTest("testParallelDemandLoad"));
+    testSuite.addTest(new CrossReferencerTest("testParallelCustomContentsIterator"));
+    testSuite.addTest(new CrossReferencerTest("testParallelRejectedExecution"));
+    testSuite.addTest(new CrossReferencerTest("testParallelResolvingContentsIterator"));
+    testSuite.addTest(new CrossReferencerTest("testParallelInterrupted"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("crossReferencer");
+    ePackage.setNsPrefix("crossReferencer");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/crossReferencer");
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(-1);
+    node.getEStructuralFeatures().add(children);
+
+    next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(node);
+    node.getEStructuralFeatures().add(next);
+
+    links = EcoreFactory.eINSTANCE.createEReference();
+    links.setName("links");
+    links.setEType(node);
+    links.setUpperBound(-1);
+    node.getEStructuralFeatures().add(links);
+
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @Override
+  protected void tearDown() throws Exception
+  {
+    executor.shutdown();
+  }
+
+  /**
+   * A resource that creates its contents when it's demand loaded.
+   */
+  private class LazyResource extends ResourceImpl
+  {
+    public LazyResource(URI uri)
+    {
+      super(uri);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void load(Map<?, ?> options)
+    {
+      if (!isLoaded)
+      {
+        Random random = new Random(uri.hashCode());
+        EObject root = EcoreUtil.create(node);
+        List<EObject> nodes = new ArrayList<EObject>();
+        nodes.add(root);
+        for (int i = 0; i < 3; ++i)
+        {
+          EObject child = EcoreUtil.create(node);
+          ((List<EObject>)root.eGet(children)).add(child);
+          nodes.add(child);
+        }
+        for (int i = 0; i < 10; ++i)
+        {
+          EObject child = EcoreUtil.create(node);
+          ((List<EObject>)nodes.get(random.nextInt(nodes.size())).eGet(children)).add(child);
+          nodes.add(child);
+        }
+        for (EObject eObject : nodes)
+        {
+          eObject.eSet(next, nodes.get(random.nextInt(nodes.size())));
+        }
+        getContents().add(root);
+        setLoaded(true);
+      }
+    }
+  }
+
+  /**
+   * Creates a resource set whose objects reference each other across resources,
+   * along with proxies to the objects of resources that aren't loaded yet.
+   * The same seed always produces the same model.
+   */
+  @SuppressWarnings("unchecked")
+  private ResourceSet createResourceSet(long seed, boolean proxies)
+  {
+    ResourceSet resourceSet = new ResourceSetImpl();
+
+    // Register a factory for the lazy resources so that resolving the proxies demand loads them.
+    //
+    resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put
+      ("node",
+       new Resource.Factory()
+       {
+         public Resource createResource(URI uri)
+         {
+           return new LazyResource(uri);
+         }
+       });
+
+    Random random = new Random(seed);
+    List<EObject> nodes = new ArrayList<EObject>();
+    for (int i = 0; i < RESOURCES; ++i)
+    {
+      Resource resource = new ResourceImpl(URI.createURI("resource" + i + ".node"));
+      resourceSet.getResources().add(resource);
+      int start = nodes.size();
+      for (int j = 0; j < 1 + i % 3; ++j)
+      {
+        EObject root = EcoreUtil.create(node);
+        resource.getContents().add(root);
+        nodes.add(root);
+      }
+      for (int j = 0; j < 30; ++j)
+      {
+        EObject parent = nodes.get(start + random.nextInt(nodes.size() - start));
+        EObject child = EcoreUtil.create(node);
+        ((List<EObject>)parent.eGet(children)).add(child);
+        nodes.add(child);
+      }
+    }
+
+    for (EObject eObject : nodes)
+    {
+      if (random.nextBoolean())
+      {
+        eObject.eSet(next, nodes.get(random.nextInt(nodes.size())));
+      }
+      InternalEList<EObject> linkList = (InternalEList<EObject>)eObject.eGet(links);
+      Set<EObject> linkedEObjects = new HashSet<EObject>();
+      for (int i = random.nextInt(4); i > 0; --i)
+      {
+        if (proxies && random.nextInt(10) == 0)
+        {
+          EObject proxy = EcoreUtil.create(node);
+          ((InternalEObject)proxy).eSetProxyURI(URI.createURI("lazy" + random.nextInt(LAZY_RESOURCES) + ".node#//@children." + random.nextInt(3)));
+          linkList.addUnique(proxy);
+        }
+        else
+        {
+          EObject target = nodes.get(random.nextInt(nodes.size()));
+          // Checking for the target in the list itself would resolve the proxies.
+          //
+          if (linkedEObjects.add(target))
+          {
+            linkList.addUnique(target);
+          }
+        }
+      }
+    }
+
+    assertEquals(RESOURCES, resourceSet.getResources().size());
+    return resourceSet;
+  }
+
+  /**
+   * Returns a representation of the cross reference map in terms of URIs and feature names
+   * that preserves the order of each key's settings.
+   */
+  private static Map<URI, List<Object>> toURIs(Map<EObject, Collection<EStructuralFeature.Setting>> crossReferences)
+  {
+    Map<URI, List<Object>> result = new HashMap<URI, List<Object>>();
+    for (Map.Entry<EObject, Collection<EStructuralFeature.Setting>> entry : crossReferences.entrySet())
+    {
+      List<Object> settings = new ArrayList<Object>();
+      for (EStructuralFeature.Setting setting : entry.getValue())
+      {
+        settings.add(EcoreUtil.getURI(setting.getEObject()));
+        settings.add(setting.getEStructuralFeature().getName());
+      }
+      assertNull(result.put(EcoreUtil.getURI(entry.getKey()), settings));
+    }
+    return result;
+  }
+
+  private static Set<EObject> getObjectsOfInterest(ResourceSet resourceSet)
+  {
+    Set<EObject> result = new HashSet<EObject>();
+    int count = 0;
+    for (Resource resource : resourceSet.getResources())
+    {
+      for (Iterator<EObject> i = resource.getAllContents(); i.hasNext();)
+      {
+        EObject eObject = i.next();
+        if (count++ % 7 == 0)
+        {
+          result.add(eObject);
+        }
+      }
+      for (EObject eObject : resource.getContents())
+      {
+        if (count++ % 5 == 0)
+        {
+          for (EObject child : eObject.eContents())
+          {
+            result.add(child);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  public void testParallelUsageCrossReferencer()
+  {
+    ResourceSet resourceSet = createResourceSet(42, false);
+    Set<EObject> eObjectsOfInterest = getObjectsOfInterest(resourceSet);
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected =
+      EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet));
+    assertFalse(expected.isEmpty());
+
+    // Searching the resource set, its resources, or a mixture of resources and objects produces the same results.
+    //
+    assertEquals(toURIs(expected), toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet), executor)));
+    assertEquals
+      (toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, resourceSet.getResources())),
+       toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, resourceSet.getResources(), executor)));
+
+    List<Object> emfObjects = new ArrayList<Object>();
+    for (Resource resource : resourceSet.getResources())
+    {
+      emfObjects.add(emfObjects.size() % 2 == 0 ? resource : resource.getContents().get(0));
+    }
+    assertEquals
+      (toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, emfObjects)),
+       toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, emfObjects, executor)));
+  }
+
+  public void testParallelExternalCrossReferencer()
+  {
+    ResourceSet resourceSet = createResourceSet(7, false);
+    List<Object> emfObjects = new ArrayList<Object>();
+    for (int i = 0; i < RESOURCES; i += 2)
+    {
+      emfObjects.add(resourceSet.getResources().get(i));
+    }
+    emfObjects.add(resourceSet.getResources().get(1).getContents().get(0));
+
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected = EcoreUtil.ExternalCrossReferencer.find(emfObjects);
+    assertFalse(expected.isEmpty());
+    assertEquals(toURIs(expected), toURIs(EcoreUtil.ExternalCrossReferencer.find(emfObjects, executor)));
+  }
+
+  public void testParallelDemandLoad()
+  {
+    // Resolving the proxies demand loads the lazy resources, whose contents must be traversed too.
+    //
+    ResourceSet expectedResourceSet = createResourceSet(13, true);
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected =
+      EcoreUtil.UsageCrossReferencer.findAll(getObjectsOfInterest(expectedResourceSet), Collections.singleton(expectedResourceSet));
+    assertEquals(RESOURCES + LAZY_RESOURCES, expectedResourceSet.getResources().size());
+
+    ResourceSet actualResourceSet = createResourceSet(13, true);
+    Map<EObject, Collection<EStructuralFeature.Setting>> actual =
+      EcoreUtil.UsageCrossReferencer.findAll(getObjectsOfInterest(actualResourceSet), Collections.singleton(actualResourceSet), executor);
+    assertEquals(RESOURCES + LAZY_RESOURCES, actualResourceSet.getResources().size());
+    assertEquals(toURIs(expected), toURIs(actual));
+    for (Collection<EStructuralFeature.Setting> settings : actual.values())
+    {
+      for (EStructuralFeature.Setting setting : settings)
+      {
+        assertFalse(setting.getEObject().eIsProxy());
+      }
+    }
+
+    // The external cross references include the references to the demand loaded objects.
+    //
+    expectedResourceSet = createResourceSet(17, true);
+    expected = EcoreUtil.ExternalCrossReferencer.find(new ArrayList<Resource>(expectedResourceSet.getResources().subList(0, RESOURCES / 2)));
+    actualResourceSet = createResourceSet(17, true);
+    actual = EcoreUtil.ExternalCrossReferencer.find(new ArrayList<Resource>(actualResourceSet.getResources().subList(0, RESOURCES / 2)), executor);
+    assertEquals(toURIs(expected), toURIs(actual));
+    assertEquals(expectedResourceSet.getResources().size(), actualResourceSet.getResources().size());
+  }
+
+  /**
+   * A usage cross referencer that only visits the first child of each object, and none of the children of the objects without a next object.
+   */
+  private class FilteredUsageCrossReferencer extends EcoreUtil.UsageCrossReferencer
+  {
+    private static final long serialVersionUID = 1L;
+
+    public FilteredUsageCrossReferencer(Collection<?> emfObjects)
+    {
+      super(emfObjects);
+    }
+
+    @Override
+    protected TreeIterator<Notifier> newContentsIterator(Collection<?> emfObjects)
+    {
+      return
+        new EcoreUtil.ContentTreeIterator<Notifier>(emfObjects)
+        {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected Iterator<? extends EObject> getEObjectChildren(EObject eObject)
+          {
+            List<EObject> eContents = ((InternalEList<EObject>)eObject.eContents()).basicList();
+            return eContents.subList(0, Math.min(1, eContents.size())).iterator();
+          }
+        };
+    }
+
+    @Override
+    protected boolean canCrossReferenceConcurrently()
+    {
+      return true;
+    }
+
+    @Override
+    protected boolean containment(EObject eObject)
+    {
+      return eObject.eGet(next) != null || eObject.eContainer() == null;
+    }
+
+    public Map<EObject, Collection<EStructuralFeature.Setting>> findUsage(Collection<?> eObjectsOfInterest, Executor executor)
+    {
+      return executor == null ? findAllUsage(eObjectsOfInterest) : findAllUsage(eObjectsOfInterest, executor);
+    }
+  }
+
+  /**
+   * A usage cross referencer that overrides only the contents iterator of all its objects,
+   * visiting just the root objects of the resources, and so doesn't opt into concurrent traversal.
+   */
+  private static class RootsUsageCrossReferencer extends EcoreUtil.UsageCrossReferencer
+  {
+    private static final long serialVersionUID = 1L;
+
+    public RootsUsageCrossReferencer(Collection<?> emfObjects)
+    {
+      super(emfObjects);
+    }
+
+    @Override
+    protected TreeIterator<Notifier> newContentsIterator()
+    {
+      return
+        new EcoreUtil.ContentTreeIterator<Notifier>(emfObjects)
+        {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected Iterator<? extends EObject> getEObjectChildren(EObject eObject)
+          {
+            return Collections.<EObject>emptyList().iterator();
+          }
+        };
+    }
+
+    public Map<EObject, Collection<EStructuralFeature.Setting>> findUsage(Collection<?> eObjectsOfInterest, Executor executor)
+    {
+      return executor == null ? findAllUsage(eObjectsOfInterest) : findAllUsage(eObjectsOfInterest, executor);
+    }
+  }
+
+  public void testParallelCustomContentsIterator()
+  {
+    ResourceSet resourceSet = createResourceSet(23, false);
+    Set<EObject> eObjectsOfInterest = getObjectsOfInterest(resourceSet);
+    List<Resource> resources = resourceSet.getResources();
+
+    // The partitions are traversed by the iterators of the overridable factory method, pruned by the containment filter.
+    //
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected = new FilteredUsageCrossReferencer(resources).findUsage(eObjectsOfInterest, null);
+    assertFalse(expected.isEmpty());
+    assertFalse(toURIs(expected).equals(toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, resources))));
+    assertEquals(toURIs(expected), toURIs(new FilteredUsageCrossReferencer(resources).findUsage(eObjectsOfInterest, executor)));
+
+    // A cross referencer that doesn't opt in is traversed sequentially.
+    //
+    expected = new RootsUsageCrossReferencer(resources).findUsage(eObjectsOfInterest, null);
+    assertEquals(toURIs(expected), toURIs(new RootsUsageCrossReferencer(resources).findUsage(eObjectsOfInterest, executor)));
+  }
+
+  public void testParallelRejectedExecution()
+  {
+    ResourceSet resourceSet = createResourceSet(29, false);
+    Set<EObject> eObjectsOfInterest = getObjectsOfInterest(resourceSet);
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected =
+      EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet));
+
+    // The partitions rejected by the executor are traversed on the calling thread.
+    //
+    Executor rejectingExecutor =
+      new Executor()
+      {
+        int count;
+
+        public void execute(Runnable command)
+        {
+          if (count++ % 2 == 0)
+          {
+            throw new RejectedExecutionException();
+          }
+          executor.execute(command);
+        }
+      };
+    assertEquals(toURIs(expected), toURIs(EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet), rejectingExecutor)));
+  }
+
+  /**
+   * A usage cross referencer that opts into concurrent traversal but whose contents iterators resolve proxies,
+   * recording the threads on which they're used.
+   */
+  private static class ResolvingUsageCrossReferencer extends EcoreUtil.UsageCrossReferencer
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+    public ResolvingUsageCrossReferencer(Collection<?> emfObjects)
+    {
+      super(emfObjects);
+    }
+
+    @Override
+    protected TreeIterator<Notifier> newContentsIterator(Collection<?> emfObjects)
+    {
+      return
+        new EcoreUtil.ContentTreeIterator<Notifier>(emfObjects, true)
+        {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected Iterator<? extends EObject> getEObjectChildren(EObject eObject)
+          {
+            threads.add(Thread.currentThread());
+            return super.getEObjectChildren(eObject);
+          }
+        };
+    }
+
+    @Override
+    protected boolean canCrossReferenceConcurrently()
+    {
+      return true;
+    }
+
+    public Map<EObject, Collection<EStructuralFeature.Setting>> findUsage(Collection<?> eObjectsOfInterest, Executor executor)
+    {
+      return findAllUsage(eObjectsOfInterest, executor);
+    }
+  }
+
+  public void testParallelResolvingContentsIterator()
+  {
+    ResourceSet resourceSet = createResourceSet(31, false);
+    Set<EObject> eObjectsOfInterest = getObjectsOfInterest(resourceSet);
+    Map<EObject, Collection<EStructuralFeature.Setting>> expected =
+      EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet));
+
+    // The partitions whose iterators resolve proxies are traversed on the calling thread.
+    //
+    ResolvingUsageCrossReferencer crossReferencer = new ResolvingUsageCrossReferencer(Collections.singleton(resourceSet));
+    assertEquals(toURIs(expected), toURIs(crossReferencer.findUsage(eObjectsOfInterest, executor)));
+    assertEquals(Collections.singleton(Thread.currentThread()), crossReferencer.threads);
+  }
+
+  public void testParallelInterrupted()
+  {
+    ResourceSet resourceSet = createResourceSet(37, false);
+    Set<EObject> eObjectsOfInterest = getObjectsOfInterest(resourceSet);
+
+    // An executor that never runs its tasks leaves the calling thread waiting until it's interrupted,
+    // and the interrupt is preserved.
+    //
+    Executor idleExecutor =
+      new Executor()
+      {
+        public void execute(Runnable command)
+        {
+          // Never run.
+        }
+      };
+    Thread.currentThread().interrupt();
+    try
+    {
+      EcoreUtil.UsageCrossReferencer.findAll(eObjectsOfInterest, Collections.singleton(resourceSet), idleExecutor);
+      fail("Expecting an exception");
+    }
+    catch (WrappedException exception)
+    {
+      assertTrue(exception.exception() instanceof InterruptedException);
+    }
+    finally
+    {
+      assertTrue(Thread.interrupted());
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/**
+ * Copyright (c) 2012 Eclipse contributors and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.util.ECrossReferenceAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+public class ECrossReferenceAdapterTest extends TestCase
+{
+  private EClass node;
+  private EReference children;
+  private EReference next;
+  private EReference links;
+
+  public ECrossReferenceAdapterTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("ECrossReferenceAdapterTest");
+    testSuite.addTest(new ECrossReferenceAdapterTest("testCompactInverseReferences"));
+    testSuite.addTest(new ECrossReferenceAdapterTest("testCompactEntries"));
+    testSuite.addTest(new ECrossReferenceAdapterTest("testCompactRemove"));
+    testSuite.addTest(new ECrossReferenceAdapterTest("testCompactFailFast"));
+    testSuite.addTest(new ECrossReferenceAdapterTest("testCompactMap"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("crossReference");
+    ePackage.setNsPrefix("crossReference");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/crossReference");
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(-1);
+    node.getEStructuralFeatures().add(children);
+
+    next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(node);
+    node.getEStructuralFeatures().add(next);
+
+    links = EcoreFactory.eINSTANCE.createEReference();
+    links.setName("links");
+    links.setEType(node);
+    links.setUpperBound(-1);
+    node.getEStructuralFeatures().add(links);
+  }
+
+  private static class CompactECrossReferenceAdapter extends ECrossReferenceAdapter
+  {
+    public CompactECrossReferenceAdapter()
+    {
+      super(true);
+    }
+
+    public Map<EObject, Collection<EStructuralFeature.Setting>> getInverseCrossReferencer()
+    {
+      return inverseCrossReferencer;
+    }
+
+    public List<Object> getEntries(EObject eObject)
+    {
+      CompactInverseCrossReferencer compactInverseCrossReferencer = (CompactInverseCrossReferencer)inverseCrossReferencer;
+      List<Object> result = new ArrayList<Object>();
+      for (int entry = compactInverseCrossReferencer.getFirstEntry(eObject); entry != -1; entry = compactInverseCrossReferencer.getNextEntry(entry))
+      {
+        result.add(compactInverseCrossReferencer.getSource(entry));
+        result.add(compactInverseCrossReferencer.getReference(entry));
+      }
+      return result;
+    }
+
+    public int getCrossReferencedCount()
+    {
+      return inverseCrossReferencer.size();
+    }
+
+    public Object remove(EObject eObject)
+    {
+      return inverseCrossReferencer.remove(eObject);
+    }
+  }
+
+  private static Set<List<Object>> toSet(Collection<EStructuralFeature.Setting> settings)
+  {
+    Set<List<Object>> result = new HashSet<List<Object>>();
+    for (EStructuralFeature.Setting setting : settings)
+    {
+      List<Object> pair = new ArrayList<Object>();
+      pair.add(setting.getEObject());
+      pair.add(setting.getEStructuralFeature());
+      assertTrue(result.add(pair));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testCompactInverseReferences()
+  {
+    Resource resource = new ResourceImpl();
+    ECrossReferenceAdapter expectedAdapter = new ECrossReferenceAdapter();
+    ECrossReferenceAdapter actualAdapter = new CompactECrossReferenceAdapter();
+    resource.eAdapters().add(expectedAdapter);
+    resource.eAdapters().add(actualAdapter);
+
+    Random random = new Random(42);
+    EObject root = EcoreUtil.create(node);
+    resource.getContents().add(root);
+    List<EObject> nodes = new ArrayList<EObject>();
+    nodes.add(root);
+    for (int i = 0; i < 200; ++i)
+    {
+      EObject child = EcoreUtil.create(node);
+      ((List<EObject>)nodes.get(random.nextInt(nodes.size())).eGet(children)).add(child);
+      nodes.add(child);
+    }
+
+    // Randomly change the cross references, and occasionally move subtrees,
+    // checking that both adapters always agree.
+    //
+    for (int i = 0; i < 5000; ++i)
+    {
+      EObject eObject = nodes.get(random.nextInt(nodes.size()));
+      EObject target = nodes.get(random.nextInt(nodes.size()));
+      List<EObject> linkList = (List<EObject>)eObject.eGet(links);
+      switch (random.nextInt(6))
+      {
+        case 0:
+        {
+          eObject.eSet(next, target);
+          break;
+        }
+        case 1:
+        {
+          eObject.eUnset(next);
+          break;
+        }
+        case 2:
+        case 3:
+        {
+          if (!linkList.contains(target))
+          {
+            linkList.add(target);
+          }
+          break;
+        }
+        case 4:
+        {
+          if (!linkList.isEmpty())
+          {
+            linkList.remove(random.nextInt(linkList.size()));
+          }
+          break;
+        }
+        case 5:
+        {
+          if (eObject != root && !EcoreUtil.isAncestor(eObject, target))
+          {
+            ((List<EObject>)target.eGet(children)).add(eObject);
+          }
+          break;
+        }
+      }
+
+      if (i % 100 == 0)
+      {
+        for (EObject candidate : nodes)
+        {
+          assertEquals(toSet(expectedAdapter.getInverseReferences(candidate)), toSet(actualAdapter.getInverseReferences(candidate)));
+        }
+      }
+    }
+
+    for (EObject candidate : nodes)
+    {
+      assertEquals(toSet(expectedAdapter.getNonNavigableInverseReferences(candidate)), toSet(actualAdapter.getNonNavigableInverseReferences(candidate)));
+    }
+
+    // Removing the adapters removes all the entries.
+    //
+    resource.eAdapters().remove(actualAdapter);
+    resource.eAdapters().remove(expectedAdapter);
+    for (EObject candidate : nodes)
+    {
+      assertTrue(actualAdapter.getNonNavigableInverseReferences(candidate).isEmpty());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testCompactEntries()
+  {
+    EObject root = EcoreUtil.create(node);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    ((List<EObject>)root.eGet(children)).add(a);
+    ((List<EObject>)root.eGet(children)).add(b);
+    a.eSet(next, b);
+    ((List<EObject>)a.eGet(links)).add(b);
+    ((List<EObject>)root.eGet(links)).add(b);
+
+    CompactECrossReferenceAdapter adapter = new CompactECrossReferenceAdapter();
+    root.eAdapters().add(adapter);
+
+    // The entries are in the order in which they were added.
+    //
+    List<Object> expected = new ArrayList<Object>();
+    expected.add(root);
+    expected.add(links);
+    expected.add(a);
+    expected.add(next);
+    expected.add(a);
+    expected.add(links);
+    assertEquals(expected, adapter.getEntries(b));
+    assertTrue(adapter.getEntries(a).isEmpty());
+    assertEquals(1, adapter.getCrossReferencedCount());
+
+    a.eUnset(next);
+    ((List<EObject>)root.eGet(links)).clear();
+    assertEquals(1, adapter.getNonNavigableInverseReferences(b).size());
+    ((List<EObject>)a.eGet(links)).clear();
+    assertTrue(adapter.getNonNavigableInverseReferences(b).isEmpty());
+    assertEquals(0, adapter.getCrossReferencedCount());
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testCompactRemove()
+  {
+    Resource resource = new ResourceImpl();
+    CompactECrossReferenceAdapter adapter = new CompactECrossReferenceAdapter();
+    resource.eAdapters().add(adapter);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    EObject c = EcoreUtil.create(node);
+    resource.getContents().add(a);
+    resource.getContents().add(b);
+    resource.getContents().add(c);
+    a.eSet(next, b);
+    ((List<EObject>)c.eGet(links)).add(b);
+    ((List<EObject>)b.eGet(links)).add(c);
+    assertEquals(2, adapter.getInverseReferences(b).size());
+    assertEquals(2, adapter.getCrossReferencedCount());
+
+    // Removing the object clears its slot and all its entries, and returns the settings that were removed.
+    //
+    Collection<EStructuralFeature.Setting> removed = (Collection<EStructuralFeature.Setting>)adapter.remove(b);
+    assertEquals(2, removed.size());
+    assertTrue(adapter.getInverseReferences(b).isEmpty());
+    assertTrue(adapter.getEntries(b).isEmpty());
+    assertEquals(1, adapter.getCrossReferencedCount());
+    assertNull(adapter.remove(b));
+
+    // The other entries are unaffected, and the freed entries are reused.
+    //
+    assertEquals(1, adapter.getInverseReferences(c).size());
+    ((List<EObject>)a.eGet(links)).add(c);
+    assertEquals(2, adapter.getInverseReferences(c).size());
+    c.eSet(next, b);
+    assertEquals(1, adapter.getInverseReferences(b).size());
+    assertSame(c, adapter.getInverseReferences(b).iterator().next().getEObject());
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testCompactFailFast()
+  {
+    EObject root = EcoreUtil.create(node);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    ((List<EObject>)root.eGet(children)).add(a);
+    ((List<EObject>)root.eGet(children)).add(b);
+    ((List<EObject>)root.eGet(links)).add(b);
+    ((List<EObject>)a.eGet(links)).add(b);
+
+    CompactECrossReferenceAdapter adapter = new CompactECrossReferenceAdapter();
+    root.eAdapters().add(adapter);
+    Map<EObject, Collection<EStructuralFeature.Setting>> inverseCrossReferencer = adapter.getInverseCrossReferencer();
+
+    // The collection of settings is a live view.
+    //
+    Collection<EStructuralFeature.Setting> settings = inverseCrossReferencer.get(b);
+    assertEquals(2, settings.size());
+    Iterator<EStructuralFeature.Setting> settingsIterator = settings.iterator();
+    settingsIterator.next();
+    a.eSet(next, b);
+    try
+    {
+      settingsIterator.next();
+      fail("Expecting a ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException exception)
+    {
+      // Expected.
+    }
+    assertEquals(3, settings.size());
+
+    Iterator<EObject> keyIterator = inverseCrossReferencer.keySet().iterator();
+    ((List<EObject>)b.eGet(links)).add(a);
+    try
+    {
+      keyIterator.next();
+      fail("Expecting a ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException exception)
+    {
+      // Expected.
+    }
+
+    Iterator<Map.Entry<EObject, Collection<EStructuralFeature.Setting>>> entryIterator = inverseCrossReferencer.entrySet().iterator();
+    ((List<EObject>)b.eGet(links)).clear();
+    try
+    {
+      entryIterator.next();
+      fail("Expecting a ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException exception)
+    {
+      // Expected.
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public void testCompactMap()
+  {
+    EObject root = EcoreUtil.create(node);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    ((List<EObject>)root.eGet(children)).add(a);
+    ((List<EObject>)root.eGet(children)).add(b);
+    ((List<EObject>)root.eGet(links)).add(b);
+    a.eSet(next, b);
+    ((List<EObject>)b.eGet(links)).add(a);
+
+    CompactECrossReferenceAdapter adapter = new CompactECrossReferenceAdapter();
+    root.eAdapters().add(adapter);
+    Map<EObject, Collection<EStructuralFeature.Setting>> inverseCrossReferencer = adapter.getInverseCrossReferencer();
+
+    // The map and its views are consistent with the index.
+    //
+    assertEquals(2, inverseCrossReferencer.size());
+    assertEquals(2, inverseCrossReferencer.keySet().size());
+    assertEquals(2, inverseCrossReferencer.values().size());
+    assertEquals(2, inverseCrossReferencer.entrySet().size());
+    Set<EObject> keys = new HashSet<EObject>(inverseCrossReferencer.keySet());
+    assertEquals(2, keys.size());
+    assertTrue(keys.contains(a));
+    assertTrue(keys.contains(b));
+    assertFalse(inverseCrossReferencer.containsKey(root));
+    assertNull(inverseCrossReferencer.get(root));
+    for (Map.Entry<EObject, Collection<EStructuralFeature.Setting>> entry : inverseCrossReferencer.entrySet())
+    {
+      assertEquals(inverseCrossReferencer.get(entry.getKey()), entry.getValue());
+      assertEquals(toSet(adapter.getNonNavigableInverseReferences(entry.getKey())), toSet(entry.getValue()));
+      assertTrue(inverseCrossReferencer.entrySet().contains(entry));
+      assertTrue(inverseCrossReferencer.containsValue(entry.getValue()));
+    }
+    assertEquals(2, inverseCrossReferencer.get(b).size());
+    assertEquals(1, inverseCrossReferencer.get(a).size());
+
+    try
+    {
+      inverseCrossReferencer.put(root, inverseCrossReferencer.get(a));
+      fail("Expecting an UnsupportedOperationException");
+    }
+    catch (UnsupportedOperationException exception)
+    {
+      // Expected.
+    }
+
+    // Removing through the key set removes from the index.
+    //
+    assertTrue(inverseCrossReferencer.keySet().remove(a));
+    assertEquals(1, inverseCrossReferencer.size());
+    assertFalse(inverseCrossReferencer.keySet().contains(a));
+    assertTrue(adapter.getNonNavigableInverseReferences(a).isEmpty());
+    assertEquals(2, adapter.getNonNavigableInverseReferences(b).size());
+  }
+}
@@ -10,6 +10,8 @@
  */
 package org.eclipse.emf.test.core.ecore;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -49,6 +51,7 @@ public class EcoreUtilStaticMethodsTest extends TestCase
   {
     TestSuite testSuite = new TestSuite("EcoreUtilStaticMethodsTest");
     testSuite.addTest(new EcoreUtilStaticMethodsTest("testGenerateUUID"));
+    testSuite.addTest(new EcoreUtilStaticMethodsTest("testGenerateUUIDsConcurrently"));
     testSuite.addTest(new EcoreUtilStaticMethodsTest("testCopyUnsettableSetEmptyList"));
     testSuite.addTest(new EcoreUtilStaticMethodsTest("testCopy"));
     testSuite.addTest(new EcoreUtilStaticMethodsTest("testGetConstraints"));
@@ -110,6 +113,61 @@ public class EcoreUtilStaticMethodsTest extends TestCase
     }    
     assertEquals(12, set.size());
   }    
+
+  public void testGenerateUUIDsConcurrently() throws Exception
+  {
+    final int threadCount = 4;
+    final int count = 20000;
+    final Collection<String> set = Collections.synchronizedSet(new HashSet<String>());
+    Thread [] threads = new Thread [threadCount];
+    for (int i = 0; i < threadCount; ++i)
+    {
+      threads[i] =
+        new Thread()
+        {
+          @Override
+          public void run()
+          {
+            List<String> uuids = new ArrayList<String>(2 * count);
+            for (int j = 0; j < count; ++j)
+            {
+              uuids.add(EcoreUtil.generateUUID());
+            }
+            for (int j = 0; j < count; j += 100)
+            {
+              uuids.addAll(Arrays.asList(EcoreUtil.generateUUIDs(100)));
+            }
+            set.addAll(uuids);
+          }
+        };
+      threads[i].start();
+    }
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+    assertEquals(2 * threadCount * count, set.size());
+
+    for (String uuid : EcoreUtil.generateUUIDs(10))
+    {
+      assertEquals(23, uuid.length());
+      assertEquals('_', uuid.charAt(0));
+      assertTrue(uuid.substring(1).matches("[A-Za-z0-9_\\-]*"));
+    }
+    assertEquals(0, EcoreUtil.generateUUIDs(0).length);
+
+    // A batch larger than a millisecond's worth of time stamps is still unique.
+    //
+    String [] uuids = EcoreUtil.generateUUIDs(25000);
+    assertEquals(uuids.length, new HashSet<String>(Arrays.asList(uuids)).size());
+
+    // The version is 1 and the variant is the one of the IETF specification.
+    //
+    byte [] uuid = new byte [16];
+    EcoreUtil.generateUUID(uuid);
+    assertEquals(1, (uuid[6] >> 4) & 0xF);
+    assertEquals(0x80, uuid[8] & 0xC0);
+  }
   
   /*
    * Bugzilla 87456
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.FeatureAccessTable;
+import org.eclipse.emf.ecore.impl.MinimalEObjectImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.test.models.library.Book;
+import org.eclipse.emf.test.models.library.Library;
+import org.eclipse.emf.test.models.library.LibraryFactory;
+import org.eclipse.emf.test.models.library.LibraryPackage;
+
+public class FeatureAccessTableTest extends TestCase
+{
+  private EClass node;
+  private EAttribute name;
+  private EReference children;
+
+  public FeatureAccessTableTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("FeatureAccessTableTest");
+    testSuite.addTest(new FeatureAccessTableTest("testDynamic"));
+    testSuite.addTest(new FeatureAccessTableTest("testGenerated"));
+    testSuite.addTest(new FeatureAccessTableTest("testInvalidation"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("access");
+    ePackage.setNsPrefix("access");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/access");
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    name = EcoreFactory.eINSTANCE.createEAttribute();
+    name.setName("name");
+    name.setEType(EcorePackage.Literals.ESTRING);
+    node.getEStructuralFeatures().add(name);
+
+    children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(-1);
+    node.getEStructuralFeatures().add(children);
+  }
+
+  public void testDynamic()
+  {
+    FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(node);
+    assertSame(featureAccessTable, FeatureAccessTable.getFeatureAccessTable(node));
+    assertEquals(2, featureAccessTable.getFeatureCount());
+    int nameID = featureAccessTable.getFeatureID(name);
+    int childrenID = featureAccessTable.getFeatureID(children);
+    assertSame(name, featureAccessTable.getEStructuralFeature(nameID));
+    assertEquals(-1, featureAccessTable.getFeatureID(EcorePackage.Literals.ENAMED_ELEMENT__NAME));
+
+    InternalEObject parent = (InternalEObject)EcoreUtil.create(node);
+    InternalEObject child = new MinimalEObjectImpl.Container.Dynamic(node);
+    assertFalse(featureAccessTable.isSet(parent, nameID));
+    featureAccessTable.set(parent, nameID, "parent");
+    assertTrue(featureAccessTable.isSet(parent, nameID));
+    assertEquals("parent", parent.eGet(name));
+    assertEquals("parent", featureAccessTable.get(parent, nameID, true));
+
+    @SuppressWarnings("unchecked") List<EObject> childList = (List<EObject>)featureAccessTable.get(parent, childrenID, true);
+    childList.add(child);
+    assertSame(parent, child.eContainer());
+    featureAccessTable.set(child, name, "child");
+    assertEquals("child", child.eGet(name));
+    assertTrue(featureAccessTable.isSet(parent, children));
+
+    featureAccessTable.unset(parent, nameID);
+    assertNull(parent.eGet(name));
+
+    EObject copy = EcoreUtil.copy(parent);
+    assertTrue(EcoreUtil.equals(parent, copy));
+
+    name.setChangeable(false);
+    try
+    {
+      featureAccessTable.set(parent, nameID, "unchangeable");
+      fail("Expecting an IllegalArgumentException");
+    }
+    catch (IllegalArgumentException exception)
+    {
+      // Expected.
+    }
+  }
+
+  public void testGenerated()
+  {
+    LibraryPackage libraryPackage = LibraryPackage.eINSTANCE;
+    FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(libraryPackage.getLibrary());
+    Library library = LibraryFactory.eINSTANCE.createLibrary();
+    Book book = LibraryFactory.eINSTANCE.createBook();
+
+    featureAccessTable.set(library, libraryPackage.getLibrary_Name(), "library");
+    assertEquals("library", library.getName());
+    int booksID = featureAccessTable.getFeatureID(libraryPackage.getLibrary_Books());
+    assertSame(library.getBooks(), featureAccessTable.get((InternalEObject)library, booksID, true));
+    library.getBooks().add(book);
+    assertTrue(featureAccessTable.isSet((InternalEObject)library, booksID));
+
+    // A feature of another class falls back to the reflective methods.
+    //
+    featureAccessTable.set(book, libraryPackage.getBook_Title(), "title");
+    assertEquals("title", book.getTitle());
+    assertEquals("title", featureAccessTable.get(book, libraryPackage.getBook_Title(), true));
+  }
+
+  public void testInvalidation()
+  {
+    FeatureAccessTable featureAccessTable = FeatureAccessTable.getFeatureAccessTable(node);
+    EAttribute count = EcoreFactory.eINSTANCE.createEAttribute();
+    count.setName("count");
+    count.setEType(EcorePackage.Literals.EINT);
+    node.getEStructuralFeatures().add(count);
+
+    FeatureAccessTable newFeatureAccessTable = FeatureAccessTable.getFeatureAccessTable(node);
+    assertNotSame(featureAccessTable, newFeatureAccessTable);
+    assertEquals(3, newFeatureAccessTable.getFeatureCount());
+
+    EObject eObject = EcoreUtil.create(node);
+    newFeatureAccessTable.set(eObject, count, 42);
+    assertEquals(42, eObject.eGet(count));
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.util.BasicExtendedMetaData;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.ExtendedMetaData;
+
+public class FreezeTest extends TestCase
+{
+  private static final int THREADS = 8;
+
+  public FreezeTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("FreezeTest");
+    testSuite.addTest(new FreezeTest("testConcurrentReaders"));
+    testSuite.addTest(new FreezeTest("testConcurrentExtendedMetaData"));
+    return testSuite;
+  }
+
+  private EPackage createPackage(int classCount)
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("freeze");
+    ePackage.setNsPrefix("freeze");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/freeze");
+
+    EClass previous = null;
+    for (int i = 0; i < classCount; ++i)
+    {
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName("Class" + i);
+      if (previous != null)
+      {
+        eClass.getESuperTypes().add(previous);
+      }
+      ePackage.getEClassifiers().add(eClass);
+
+      EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+      eAttribute.setName("attribute" + i);
+      eAttribute.setEType(EcorePackage.Literals.EINT);
+      eAttribute.setDefaultValueLiteral(Integer.toString(i));
+      eClass.getEStructuralFeatures().add(eAttribute);
+
+      EReference eReference = EcoreFactory.eINSTANCE.createEReference();
+      eReference.setName("reference" + i);
+      eReference.setEType(eClass);
+      eReference.setContainment(i % 2 == 0);
+      eReference.setUpperBound(-1);
+      eClass.getEStructuralFeatures().add(eReference);
+
+      previous = eClass;
+    }
+    return ePackage;
+  }
+
+  private void runConcurrently(Callable<String> callable) throws Exception
+  {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      List<Future<String>> futures = new ArrayList<Future<String>>();
+      for (int i = 0; i < THREADS; ++i)
+      {
+        futures.add(executor.submit(callable));
+      }
+      String expected = futures.get(0).get();
+      for (Future<String> future : futures)
+      {
+        assertEquals(expected, future.get());
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  public void testConcurrentReaders() throws Exception
+  {
+    final EPackage ePackage = createPackage(50);
+    EcoreUtil.freeze(ePackage);
+
+    final EClass lastClass = (EClass)ePackage.getEClassifiers().get(49);
+    final List<EStructuralFeature> eAllStructuralFeatures = lastClass.getEAllStructuralFeatures();
+    assertEquals(100, eAllStructuralFeatures.size());
+
+    runConcurrently
+      (new Callable<String>()
+       {
+         public String call() throws Exception
+         {
+           StringBuilder result = new StringBuilder();
+           for (int i = 0; i < 100; ++i)
+           {
+             EStructuralFeature eStructuralFeature = lastClass.getEStructuralFeature(eAllStructuralFeatures.get(i).getName());
+             assertSame(eAllStructuralFeatures.get(i), eStructuralFeature);
+             assertEquals(i, lastClass.getFeatureID(eStructuralFeature));
+             result.append(eStructuralFeature.getDefaultValue());
+           }
+           result.append(lastClass.getEAllContainments().size());
+           result.append(lastClass.getEAllSuperTypes().size());
+
+           EObject eObject = EcoreUtil.create(lastClass);
+           result.append(eObject.eGet(lastClass.getEStructuralFeature("attribute7")));
+           return result.toString();
+         }
+       });
+
+    // The caches built by freezing aren't rebuilt.
+    //
+    assertSame(eAllStructuralFeatures, lastClass.getEAllStructuralFeatures());
+    assertEquals(25, lastClass.getEAllContainments().size());
+  }
+
+  public void testConcurrentExtendedMetaData() throws Exception
+  {
+    EPackage ePackage = createPackage(20);
+    EPackage.Registry registry = new EPackageRegistryImpl();
+    registry.put(ePackage.getNsURI(), ePackage);
+
+    // Extended metadata with a different annotation source caches its holders in a map.
+    //
+    final BasicExtendedMetaData extendedMetaData = new BasicExtendedMetaData("http://www.eclipse.org/emf/test/core/ecore/freeze/metadata", registry);
+    EcoreUtil.freeze(ePackage);
+    final EClass eClass = (EClass)ePackage.getEClassifiers().get(19);
+
+    runConcurrently
+      (new Callable<String>()
+       {
+         public String call() throws Exception
+         {
+           StringBuilder result = new StringBuilder();
+           for (EStructuralFeature eStructuralFeature : eClass.getEAllStructuralFeatures())
+           {
+             result.append(extendedMetaData.getName(eStructuralFeature));
+             result.append(extendedMetaData.getFeatureKind(eStructuralFeature));
+           }
+           result.append(extendedMetaData.getContentKind(eClass));
+           return result.toString();
+         }
+       });
+
+    ((BasicExtendedMetaData)ExtendedMetaData.INSTANCE).precompute(ePackage);
+    assertEquals("attribute3", ExtendedMetaData.INSTANCE.getName(eClass.getEStructuralFeature("attribute3")));
+    assertSame(eClass, ExtendedMetaData.INSTANCE.getType(ePackage, "Class19"));
+  }
+}
@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.impl.KeyValueEStoreImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.KeyValueStoreResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+public class KeyValueEStoreTest extends TestCase
+{
+  private EPackage ePackage;
+  private EPackage.Registry packageRegistry;
+  private EClass node;
+  private EAttribute name;
+  private EAttribute count;
+  private EAttribute tags;
+  private EReference children;
+  private EReference next;
+  private EReference links;
+
+  private File file;
+
+  public KeyValueEStoreTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("KeyValueEStoreTest");
+    testSuite.addTest(new KeyValueEStoreTest("testCommitAndReopen"));
+    testSuite.addTest(new KeyValueEStoreTest("testUncommittedChangesDiscarded"));
+    testSuite.addTest(new KeyValueEStoreTest("testEviction"));
+    testSuite.addTest(new KeyValueEStoreTest("testCompact"));
+    testSuite.addTest(new KeyValueEStoreTest("testCompactWithoutReplacingRename"));
+    testSuite.addTest(new KeyValueEStoreTest("testCompactRenameFailure"));
+    testSuite.addTest(new KeyValueEStoreTest("testResource"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("kv");
+    ePackage.setNsPrefix("kv");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/kv");
+    packageRegistry = new EPackageRegistryImpl();
+    packageRegistry.put(ePackage.getNsURI(), ePackage);
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    name = EcoreFactory.eINSTANCE.createEAttribute();
+    name.setName("name");
+    name.setEType(EcorePackage.Literals.ESTRING);
+    node.getEStructuralFeatures().add(name);
+
+    count = EcoreFactory.eINSTANCE.createEAttribute();
+    count.setName("count");
+    count.setEType(EcorePackage.Literals.EINT);
+    count.setUnsettable(true);
+    node.getEStructuralFeatures().add(count);
+
+    tags = EcoreFactory.eINSTANCE.createEAttribute();
+    tags.setName("tags");
+    tags.setEType(EcorePackage.Literals.ESTRING);
+    tags.setUpperBound(-1);
+    tags.setUnique(false);
+    node.getEStructuralFeatures().add(tags);
+
+    children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(-1);
+    node.getEStructuralFeatures().add(children);
+
+    next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(node);
+    node.getEStructuralFeatures().add(next);
+
+    links = EcoreFactory.eINSTANCE.createEReference();
+    links.setName("links");
+    links.setEType(node);
+    links.setUpperBound(-1);
+    node.getEStructuralFeatures().add(links);
+
+    file = File.createTempFile("keyvalue", ".store");
+    file.delete();
+  }
+
+  @Override
+  protected void tearDown() throws Exception
+  {
+    file.delete();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> list(EObject eObject, EStructuralFeature feature)
+  {
+    return (List<Object>)eObject.eGet(feature);
+  }
+
+  private EObject createTree(KeyValueEStoreImpl store, int size)
+  {
+    EObject root = store.create(node);
+    root.eSet(name, "root");
+    List<EObject> nodes = new ArrayList<EObject>();
+    nodes.add(root);
+    for (int i = 1; i < size; ++i)
+    {
+      EObject child = store.create(node);
+      child.eSet(name, "node" + i);
+      child.eSet(count, i);
+      list(child, tags).add("tag" + i % 7);
+      list(nodes.get(i / 3), children).add(child);
+      nodes.add(child);
+    }
+    for (int i = 0; i < size; ++i)
+    {
+      EObject eObject = nodes.get(i);
+      eObject.eSet(next, nodes.get((i * 7) % size));
+      list(eObject, links).add(nodes.get((i * 13) % size));
+    }
+    return root;
+  }
+
+  public void testCommitAndReopen() throws Exception
+  {
+    KeyValueEStoreImpl store = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject root = createTree(store, 200);
+    EObject expected = EcoreUtil.copy(root);
+
+    // A reference to an object in another resource is persisted as a proxy.
+    //
+    Resource otherResource = new ResourceImpl(URI.createURI("http://www.example.org/other.xmi"));
+    EObject other = EcoreUtil.create(node);
+    otherResource.getContents().add(other);
+    root.eSet(next, other);
+
+    store.setRoots(Collections.singleton(root));
+    assertTrue(store.isDirty());
+    store.commit();
+    assertFalse(store.isDirty());
+    long childID = store.getID((EObject)list(root, children).get(1));
+    store.close();
+
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject reopenedRoot = reopenedStore.getRoots().get(0);
+    assertNotSame(root, reopenedRoot);
+    assertEquals("root", reopenedRoot.eGet(name));
+    EObject proxy = (EObject)reopenedRoot.eGet(next, false);
+    assertTrue(proxy.eIsProxy());
+    assertEquals(EcoreUtil.getURI(other), ((InternalEObject)proxy).eProxyURI());
+
+    EObject child = reopenedStore.getEObject(childID);
+    assertSame(reopenedRoot, child.eContainer());
+    assertSame(children, child.eContainingFeature());
+
+    expected.eSet(next, null);
+    reopenedRoot.eSet(next, null);
+    assertTrue(EcoreUtil.equals(expected, reopenedRoot));
+    reopenedStore.close();
+  }
+
+  public void testUncommittedChangesDiscarded() throws Exception
+  {
+    KeyValueEStoreImpl store = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject root = store.create(node);
+    root.eSet(name, "committed");
+    store.setRoots(Collections.singleton(root));
+    store.commit();
+
+    root.eSet(name, "uncommitted");
+    list(root, children).add(store.create(node));
+    store.close();
+
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject reopenedRoot = reopenedStore.getRoots().get(0);
+    assertEquals("committed", reopenedRoot.eGet(name));
+    assertTrue(list(reopenedRoot, children).isEmpty());
+
+    // An object created after the last commit doesn't exist.
+    //
+    assertNull(reopenedStore.getEObject(2));
+    reopenedStore.close();
+  }
+
+  public void testEviction() throws Exception
+  {
+    KeyValueEStoreImpl store = new KeyValueEStoreImpl(file, packageRegistry, 1000);
+    EObject root = createTree(store, 1000);
+    store.setRoots(Collections.singleton(root));
+    store.commit();
+    store.close();
+
+    // Visiting the whole tree reads every record but holds only a bounded number of them.
+    //
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 10);
+    EObject reopenedRoot = reopenedStore.getRoots().get(0);
+    int visited = 1;
+    long total = 0;
+    for (TreeIterator<EObject> i = reopenedRoot.eAllContents(); i.hasNext(); ++visited)
+    {
+      EObject eObject = i.next();
+      total += (Integer)eObject.eGet(count);
+      assertEquals("node" + eObject.eGet(count), eObject.eGet(name));
+      assertTrue(reopenedStore.getCachedRecordCount() <= 10);
+    }
+    assertEquals(1000, visited);
+    assertEquals(999 * 1000 / 2, total);
+    reopenedStore.close();
+  }
+
+  public void testCompact() throws Exception
+  {
+    KeyValueEStoreImpl store = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject root = createTree(store, 100);
+    store.setRoots(Collections.singleton(root));
+    store.commit();
+    for (int i = 0; i < 10; ++i)
+    {
+      root.eSet(name, "root" + i);
+      store.commit();
+    }
+
+    // An object that's no longer reachable from the roots is discarded.
+    //
+    EObject detached = store.create(node);
+    list(root, children).add(detached);
+    store.commit();
+    long detachedID = store.getID(detached);
+    list(root, children).remove(detached);
+    store.commit();
+    long length = file.length();
+    EObject expected = EcoreUtil.copy(root);
+
+    store.compact();
+    assertTrue(file.length() < length);
+    assertTrue(EcoreUtil.equals(expected, store.getRoots().get(0)));
+    store.close();
+
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    assertTrue(EcoreUtil.equals(expected, reopenedStore.getRoots().get(0)));
+    assertNull(reopenedStore.getEObject(detachedID));
+    reopenedStore.close();
+  }
+
+  public void testCompactWithoutReplacingRename() throws Exception
+  {
+    // A platform that can't rename onto an existing file.
+    //
+    KeyValueEStoreImpl store =
+      new KeyValueEStoreImpl(file, packageRegistry, 100)
+      {
+        @Override
+        protected boolean renameFile(File source, File target)
+        {
+          return !target.exists() && super.renameFile(source, target);
+        }
+      };
+    EObject root = createTree(store, 100);
+    store.setRoots(Collections.singleton(root));
+    store.commit();
+    EObject expected = EcoreUtil.copy(root);
+
+    store.compact();
+    assertFalse(new File(file.getPath() + ".compact").exists());
+    assertFalse(new File(file.getPath() + ".backup").exists());
+    assertTrue(EcoreUtil.equals(expected, store.getRoots().get(0)));
+    store.close();
+
+    // A compaction that stopped after moving the file aside is recovered when the store is opened.
+    //
+    assertTrue(file.renameTo(new File(file.getPath() + ".backup")));
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    assertTrue(EcoreUtil.equals(expected, reopenedStore.getRoots().get(0)));
+    reopenedStore.close();
+  }
+
+  public void testCompactRenameFailure() throws Exception
+  {
+    KeyValueEStoreImpl store =
+      new KeyValueEStoreImpl(file, packageRegistry, 100)
+      {
+        @Override
+        protected boolean renameFile(File source, File target)
+        {
+          return !source.getName().endsWith(".compact") && super.renameFile(source, target);
+        }
+      };
+    EObject root = createTree(store, 100);
+    store.setRoots(Collections.singleton(root));
+    store.commit();
+    long length = file.length();
+    EObject expected = EcoreUtil.copy(root);
+
+    try
+    {
+      store.compact();
+      fail("Expected an IOException");
+    }
+    catch (IOException exception)
+    {
+      // Expected.
+    }
+
+    // The old file, to which the commit preceding the compaction was appended, is kept and the store continues to use it.
+    //
+    assertTrue(file.length() > length);
+    assertFalse(new File(file.getPath() + ".compact").exists());
+    assertFalse(new File(file.getPath() + ".backup").exists());
+    root.eSet(name, "changed");
+    store.commit();
+    store.close();
+
+    KeyValueEStoreImpl reopenedStore = new KeyValueEStoreImpl(file, packageRegistry, 100);
+    EObject reopenedRoot = reopenedStore.getRoots().get(0);
+    assertEquals("changed", reopenedRoot.eGet(name));
+    reopenedRoot.eSet(name, expected.eGet(name));
+    assertTrue(EcoreUtil.equals(expected, reopenedRoot));
+    reopenedStore.close();
+  }
+
+  public void testResource() throws Exception
+  {
+    ResourceSet resourceSet = new ResourceSetImpl();
+    resourceSet.getPackageRegistry().put(ePackage.getNsURI(), ePackage);
+    URI uri = URI.createFileURI(file.getPath());
+    KeyValueStoreResourceImpl resource = new KeyValueStoreResourceImpl(uri);
+    resourceSet.getResources().add(resource);
+
+    EObject root = createTree(resource.getEStore(), 50);
+    resource.getContents().add(root);
+    EObject expected = EcoreUtil.copy(root);
+    resource.save(null);
+
+    // An object that isn't created by the store can't be saved.
+    //
+    resource.getContents().add(EcoreUtil.create(node));
+    try
+    {
+      resource.save(null);
+      fail("Expecting an IOException");
+    }
+    catch (IOException exception)
+    {
+      // Expected.
+    }
+
+    // Unloading discards the unsaved changes and turns the roots into proxies.
+    //
+    resource.unload();
+    assertTrue(((InternalEObject)root).eIsProxy());
+
+    resource.load(Collections.singletonMap(KeyValueStoreResourceImpl.OPTION_CACHE_SIZE, 10));
+    assertEquals(1, resource.getContents().size());
+    EObject loadedRoot = resource.getContents().get(0);
+    assertTrue(EcoreUtil.equals(expected, loadedRoot));
+    assertSame(resource, ((EObject)list(loadedRoot, children).get(0)).eResource());
+
+    loadedRoot.eSet(name, "changed");
+    resource.save(Collections.singletonMap(KeyValueStoreResourceImpl.OPTION_COMPACT, Boolean.TRUE));
+    resource.unload();
+
+    KeyValueStoreResourceImpl reloadedResource = new KeyValueStoreResourceImpl(uri);
+    resourceSet.getResources().add(reloadedResource);
+    reloadedResource.load(null);
+    assertEquals("changed", reloadedResource.getContents().get(0).eGet(name));
+    reloadedResource.unload();
+  }
+}
@@ -10,8 +10,11 @@
  */
 package org.eclipse.emf.test.core.ecore;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -21,7 +24,9 @@ import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.notify.impl.DelegatingNotifyingListImpl;
+import org.eclipse.emf.common.util.AbstractEList;
 import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.UniqueEList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
@@ -33,7 +38,9 @@ import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EObjectResolvingEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.emf.ecore.xmi.impl.EcoreResourceFactoryImpl;
 
 public class ListTest extends TestCase
@@ -51,6 +58,11 @@ public class ListTest extends TestCase
     testSuite.addTest(new ListTest("testRemoveAllNotUnique"));
     testSuite.addTest(new ListTest("testRemoveAllProxy"));
     testSuite.addTest(new ListTest("testDynamicModel"));
+    testSuite.addTest(new ListTest("testReplaceAll"));
+    testSuite.addTest(new ListTest("testRetainAll"));
+    testSuite.addTest(new ListTest("testMoveAll"));
+    testSuite.addTest(new ListTest("testIndexedUniqueEList"));
+    testSuite.addTest(new ListTest("testIndexedEObjectList"));
     return testSuite;
   }
   
@@ -218,4 +230,339 @@ public class ListTest extends TestCase
     
     assertEquals(2, notificationCount);
   }
+
+  private EClass createNodeClass()
+  {
+    EPackage pack = EcoreFactory.eINSTANCE.createEPackage();
+    EClass node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    pack.getEClassifiers().add(node);
+
+    EReference children = EcoreFactory.eINSTANCE.createEReference();
+    children.setName("children");
+    children.setEType(node);
+    children.setContainment(true);
+    children.setUpperBound(ETypedElement.UNBOUNDED_MULTIPLICITY);
+    node.getEStructuralFeatures().add(children);
+
+    EReference friends = EcoreFactory.eINSTANCE.createEReference();
+    friends.setName("friends");
+    friends.setEType(node);
+    friends.setUpperBound(ETypedElement.UNBOUNDED_MULTIPLICITY);
+    node.getEStructuralFeatures().add(friends);
+
+    EReference friendOf = EcoreFactory.eINSTANCE.createEReference();
+    friendOf.setName("friendOf");
+    friendOf.setEType(node);
+    friendOf.setUpperBound(ETypedElement.UNBOUNDED_MULTIPLICITY);
+    friendOf.setEOpposite(friends);
+    friends.setEOpposite(friendOf);
+    node.getEStructuralFeatures().add(friendOf);
+
+    return node;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static AbstractEList<EObject> list(EObject eObject, String name)
+  {
+    return (AbstractEList<EObject>)eObject.eGet(eObject.eClass().getEStructuralFeature(name));
+  }
+
+  private static List<Notification> record(EObject eObject)
+  {
+    final List<Notification> notifications = new ArrayList<Notification>();
+    eObject.eAdapters().add
+      (new AdapterImpl()
+       {
+         @Override
+         public void notifyChanged(Notification msg)
+         {
+           notifications.add(msg);
+         }
+       });
+    return notifications;
+  }
+
+  public void testReplaceAll()
+  {
+    EClass node = createNodeClass();
+    EObject parent = EcoreUtil.create(node);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    EObject c = EcoreUtil.create(node);
+    EObject d = EcoreUtil.create(node);
+    EObject e = EcoreUtil.create(node);
+    AbstractEList<EObject> children = list(parent, "children");
+    children.addAll(Arrays.asList(a, b, c, d));
+
+    List<Notification> parentNotifications = record(parent);
+    List<Notification> aNotifications = record(a);
+    List<Notification> cNotifications = record(c);
+    children.setAll(Arrays.asList(c, e, a));
+
+    assertEquals(Arrays.asList(c, e, a), children);
+    assertEquals(2, parentNotifications.size());
+    assertEquals(Notification.REMOVE_MANY, parentNotifications.get(0).getEventType());
+    assertEquals(Arrays.asList(a, b, c, d), parentNotifications.get(0).getOldValue());
+    assertEquals(Notification.ADD_MANY, parentNotifications.get(1).getEventType());
+    assertEquals(Arrays.asList(c, e, a), parentNotifications.get(1).getNewValue());
+    assertSame(parent, a.eContainer());
+    assertSame(parent, e.eContainer());
+    assertNull(b.eContainer());
+    assertNull(d.eContainer());
+    assertTrue(aNotifications.isEmpty());
+    assertTrue(cNotifications.isEmpty());
+
+    // Replace a range with a list containing duplicates and an object from the rest of the list.
+    //
+    parentNotifications.clear();
+    children.replaceAll(1, 2, Arrays.asList(b, b, c, d));
+    assertEquals(Arrays.asList(c, b, d, a), children);
+    assertEquals(2, parentNotifications.size());
+    assertEquals(Notification.REMOVE, parentNotifications.get(0).getEventType());
+    assertSame(e, parentNotifications.get(0).getOldValue());
+    assertEquals(1, parentNotifications.get(0).getPosition());
+    assertNull(e.eContainer());
+    assertSame(parent, b.eContainer());
+
+    EObject x = EcoreUtil.create(node);
+    AbstractEList<EObject> friends = list(x, "friends");
+    friends.addAll(Arrays.asList(a, b));
+    friends.setAll(Arrays.asList(b, c));
+    assertEquals(Arrays.asList(b, c), friends);
+    assertTrue(list(a, "friendOf").isEmpty());
+    assertEquals(Collections.singletonList(x), list(b, "friendOf"));
+    assertEquals(Collections.singletonList(x), list(c, "friendOf"));
+
+    friends.setAll(Collections.<EObject>emptyList());
+    assertTrue(friends.isEmpty());
+    assertTrue(list(b, "friendOf").isEmpty());
+
+    // A large replacement.
+    //
+    List<EObject> nodes = new ArrayList<EObject>();
+    for (int i = 0; i < 20000; ++i)
+    {
+      nodes.add(EcoreUtil.create(node));
+    }
+    friends.setAll(nodes);
+    friends.setAll(nodes.subList(10000, 20000));
+    assertEquals(10000, friends.size());
+    assertTrue(list(nodes.get(0), "friendOf").isEmpty());
+    assertEquals(Collections.singletonList(x), list(nodes.get(19999), "friendOf"));
+  }
+
+  public void testRetainAll()
+  {
+    EClass node = createNodeClass();
+    EObject x = EcoreUtil.create(node);
+    EObject a = EcoreUtil.create(node);
+    EObject b = EcoreUtil.create(node);
+    EObject c = EcoreUtil.create(node);
+    EObject d = EcoreUtil.create(node);
+    AbstractEList<EObject> friends = list(x, "friends");
+    friends.addAll(Arrays.asList(a, b, c, d));
+
+    List<Notification> notifications = record(x);
+    assertTrue(friends.retainAll(Arrays.asList(b, d)));
+    assertFalse(friends.retainAll(Arrays.asList(b, d)));
+    assertEquals(Arrays.asList(b, d), friends);
+    assertEquals(1, notifications.size());
+    Notification notification = notifications.get(0);
+    assertEquals(Notification.REMOVE_MANY, notification.getEventType());
+    assertEquals(Arrays.asList(a, c), notification.getOldValue());
+    assertTrue(Arrays.equals(new int [] { 0, 2 }, (int [])notification.getNewValue()));
+    assertTrue(list(a, "friendOf").isEmpty());
+    assertTrue(list(c, "friendOf").isEmpty());
+    assertEquals(Collections.singletonList(x), list(d, "friendOf"));
+  }
+
+  public void testMoveAll()
+  {
+    EClass node = createNodeClass();
+    EObject x = EcoreUtil.create(node);
+    AbstractEList<EObject> friends = list(x, "friends");
+    for (int i = 0; i < 30; ++i)
+    {
+      friends.add(EcoreUtil.create(node));
+    }
+
+    List<Notification> notifications = record(x);
+    Random random = new Random(42);
+    for (int iteration = 0; iteration < 200; ++iteration)
+    {
+      List<EObject> objects = new ArrayList<EObject>(friends);
+      Collections.shuffle(objects, random);
+      objects = objects.subList(0, random.nextInt(friends.size() + 1));
+      int targetIndex = random.nextInt(friends.size() - objects.size() + 1);
+
+      // The expected arrangement has the moved objects contiguous at the target index.
+      //
+      List<EObject> expected = new ArrayList<EObject>(friends);
+      expected.removeAll(objects);
+      expected.addAll(targetIndex, objects);
+
+      // The default implementation produces the same arrangement one move at a time.
+      //
+      BasicEList<EObject> sequential = new BasicEList<EObject>(friends);
+      sequential.moveAll(targetIndex, objects);
+      assertEquals(expected, sequential);
+
+      // Replaying the move notifications produces the same arrangement.
+      //
+      BasicEList<EObject> replay = new BasicEList<EObject>(friends);
+      notifications.clear();
+      friends.moveAll(targetIndex, objects);
+      assertEquals(expected, friends);
+      for (Notification notification : notifications)
+      {
+        assertEquals(Notification.MOVE, notification.getEventType());
+        assertSame(notification.getNewValue(), replay.move(notification.getPosition(), (Integer)notification.getOldValue()));
+      }
+      assertEquals(expected, replay);
+    }
+  }
+
+  public void testIndexedUniqueEList()
+  {
+    Random random = new Random(7);
+    UniqueEList<String> expected = new UniqueEList<String>();
+    UniqueEList<String> indexed = new UniqueEList.Indexed<String>();
+    for (int iteration = 0; iteration < 5000; ++iteration)
+    {
+      // Equal but distinct strings exercise the equality-based index.
+      //
+      String object = new String("s" + random.nextInt(200));
+      int size = expected.size();
+      switch (random.nextInt(10))
+      {
+        case 0:
+        {
+          if (!expected.contains(object))
+          {
+            int index = random.nextInt(size + 1);
+            expected.add(index, object);
+            indexed.add(index, object);
+          }
+          break;
+        }
+        case 1:
+        {
+          if (size > 0)
+          {
+            int index = random.nextInt(size);
+            assertEquals(expected.remove(index), indexed.remove(index));
+          }
+          break;
+        }
+        case 2:
+        {
+          assertEquals(expected.remove(object), indexed.remove(object));
+          break;
+        }
+        case 3:
+        {
+          if (size > 0 && !expected.contains(object))
+          {
+            int index = random.nextInt(size);
+            assertEquals(expected.set(index, object), indexed.set(index, object));
+          }
+          break;
+        }
+        case 4:
+        {
+          if (size > 1)
+          {
+            int targetIndex = random.nextInt(size);
+            int sourceIndex = random.nextInt(size);
+            assertEquals(expected.move(targetIndex, sourceIndex), indexed.move(targetIndex, sourceIndex));
+          }
+          break;
+        }
+        case 5:
+        {
+          if (random.nextInt(50) == 0)
+          {
+            expected.clear();
+            indexed.clear();
+          }
+          break;
+        }
+        case 6:
+        {
+          List<String> objects = Arrays.asList(object, "s" + random.nextInt(200), "s" + random.nextInt(200));
+          assertEquals(expected.addAll(objects), indexed.addAll(objects));
+          break;
+        }
+        default:
+        {
+          assertEquals(expected.add(object), indexed.add(object));
+          break;
+        }
+      }
+
+      assertEquals(expected, indexed);
+      String probe = "s" + random.nextInt(200);
+      assertEquals(expected.contains(probe), indexed.contains(probe));
+      assertEquals(expected.indexOf(probe), indexed.indexOf(probe));
+      assertEquals(expected.lastIndexOf(probe), indexed.lastIndexOf(probe));
+    }
+
+    // Duplicates added without checking make the index revert to linear searching.
+    //
+    UniqueEList<Object> fastCompare = new UniqueEList.FastCompare.Indexed<Object>();
+    Object [] objects = new Object [100];
+    for (int i = 0; i < objects.length; ++i)
+    {
+      objects[i] = new Object();
+      fastCompare.add(objects[i]);
+    }
+    assertEquals(50, fastCompare.indexOf(objects[50]));
+    fastCompare.addUnique(objects[10]);
+    assertEquals(10, fastCompare.indexOf(objects[10]));
+    assertEquals(100, fastCompare.lastIndexOf(objects[10]));
+    fastCompare.remove(10);
+    assertEquals(99, fastCompare.indexOf(objects[10]));
+    assertFalse(fastCompare.add(objects[20]));
+    fastCompare.clear();
+    assertFalse(fastCompare.contains(objects[10]));
+  }
+
+  public void testIndexedEObjectList()
+  {
+    EClass node = createNodeClass();
+    ResourceSet resourceSet = new ResourceSetImpl();
+    Resource resource = resourceSet.createResource(URI.createURI("http:///nodes.xmi"));
+    EObject owner = EcoreUtil.create(node);
+    resource.getContents().add(owner);
+
+    int featureID = node.getFeatureID(node.getEStructuralFeature("friends"));
+    List<EObject> friends = new EObjectResolvingEList.Indexed<EObject>(EObject.class, (InternalEObject)owner, featureID);
+    List<EObject> nodes = new ArrayList<EObject>();
+    for (int i = 0; i < 1000; ++i)
+    {
+      EObject eObject = EcoreUtil.create(node);
+      nodes.add(eObject);
+      assertTrue(friends.add(eObject));
+    }
+    for (int i = 0; i < 1000; i += 7)
+    {
+      assertFalse(friends.add(nodes.get(i)));
+      assertEquals(i, friends.indexOf(nodes.get(i)));
+    }
+    assertFalse(friends.contains(EcoreUtil.create(node)));
+
+    // A proxy in the list is found by the object in a resource to which it resolves.
+    //
+    EObject target = EcoreUtil.create(node);
+    list(owner, "children").add(target);
+    InternalEObject proxy = (InternalEObject)EcoreUtil.create(node);
+    proxy.eSetProxyURI(EcoreUtil.getURI(target));
+    ((InternalEList<EObject>)friends).addUnique(proxy);
+    assertTrue(friends.contains(target));
+    assertFalse(friends.add(target));
+    assertEquals(1000, friends.indexOf(target));
+    assertSame(target, friends.get(1000));
+    assertEquals(1000, friends.indexOf(target));
+  }
 }
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors: 
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import org.eclipse.emf.ecore.EValidator;
+import org.eclipse.emf.ecore.xml.type.internal.RegEx;
+import org.eclipse.emf.ecore.xml.type.util.XMLTypeUtil;
+
+/**
+ * A performance harness, not part of any test suite,
+ * that compares the time to match typical XML Schema patterns
+ * using the interpreted regular expression engine and using the {@link XMLTypeUtil#createPatternMatcher(String) pattern matcher}.
+ * The conformance of the two is tested by {@link XMLTypeTest#testPatternMatcherConformance()}.
+ */
+public class PatternMatcherPerformance
+{
+  private static final String [] PATTERNS =
+    {
+      "[a-zA-Z]{1,8}(-[a-zA-Z0-9]{1,8})*",
+      "[\\i-[:]][\\c-[:]]*",
+      "(\\+|-)?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([Ee](\\+|-)?[0-9]+)?"
+    };
+
+  private static final String [] VALUES =
+    {
+      "en-US-x-private",
+      "someRatherLongElementName.withDots-and_underscores",
+      "-12345.678901E+12"
+    };
+
+  /**
+   * Prints the average time per match of each pattern.
+   * @param args an optional number of matches per pattern.
+   */
+  public static void main(String[] args)
+  {
+    int count = args.length == 0 ? 1000000 : Integer.parseInt(args[0]);
+    for (int i = 0; i < PATTERNS.length; ++i)
+    {
+      RegEx.RegularExpression regularExpression = new RegEx.RegularExpression(PATTERNS[i], "X");
+      EValidator.PatternMatcher patternMatcher = XMLTypeUtil.createPatternMatcher(PATTERNS[i]);
+      String value = VALUES[i];
+      if (!regularExpression.matches(value) || !patternMatcher.matches(value))
+      {
+        throw new IllegalStateException("'" + value + "' doesn't match '" + PATTERNS[i] + "'");
+      }
+
+      // Warm up both before measuring either.
+      //
+      for (int j = 0; j < count / 10; ++j)
+      {
+        regularExpression.matches(value);
+        patternMatcher.matches(value);
+      }
+
+      long start = System.nanoTime();
+      for (int j = 0; j < count; ++j)
+      {
+        regularExpression.matches(value);
+      }
+      long interpreted = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int j = 0; j < count; ++j)
+      {
+        patternMatcher.matches(value);
+      }
+      long compiled = System.nanoTime() - start;
+      System.out.println("Pattern '" + PATTERNS[i] + "': interpreted " + interpreted / count + "ns, compiled " + compiled / count + "ns per match");
+    }
+  }
+}
@@ -52,6 +52,7 @@ public class ResourceCacheMechanismTest extends TestCase
   {
     TestSuite testSuite = new TestSuite("ResourceCacheMechanismTest");
     testSuite.addTest(new ResourceCacheMechanismTest("testResourceImplIntrinsicIDCache"));
+    testSuite.addTest(new ResourceCacheMechanismTest("testResourceImplTrackingIntrinsicIDs"));
     testSuite.addTest(new ResourceCacheMechanismTest("testXMLResourceIDCache"));
     testSuite.addTest(new ResourceCacheMechanismTest("testXMLResourceImplIDCache"));
     testSuite.addTest(new ResourceCacheMechanismTest("testAllIDCaches"));
@@ -149,6 +150,52 @@ public class ResourceCacheMechanismTest extends TestCase
     assertEquals(johnDoe, map.get(johnDoe.eGet(id)));
   }
   
+  public void testResourceImplTrackingIntrinsicIDs() throws Exception
+  {
+    ResourceImpl resource = new ResourceImpl();
+    resource.getContents().add(john);
+    resource.getContents().add(johnDoe);
+
+    //Tracking populates a new map from the existing contents
+    resource.setTrackingIntrinsicIDs(true);
+    Map<String, EObject> map = resource.getIntrinsicIDToEObjectMap();
+    assertNotNull(map);
+    assertEquals(1, map.size());
+    assertEquals(john, map.get("1"));
+
+    //Attaching and detaching objects updates the map
+    resource.getContents().add(mary);
+    assertEquals(2, map.size());
+    assertEquals(mary, resource.getEObject("2"));
+    resource.getContents().remove(mary);
+    assertEquals(1, map.size());
+    assertNull(resource.getEObject("2"));
+
+    //Changing the ID of an attached object updates the map
+    johnDoe.eSet(id, "3");
+    assertEquals(2, map.size());
+    assertEquals(johnDoe, resource.getEObject("3"));
+    john.eSet(id, "4");
+    assertEquals(2, map.size());
+    assertNull(resource.getEObject("1"));
+    assertEquals(john, resource.getEObject("4"));
+    john.eUnset(id);
+    assertEquals(1, map.size());
+    assertNull(resource.getEObject("4"));
+
+    //Detached objects are no longer tracked
+    resource.getContents().remove(johnDoe);
+    johnDoe.eSet(id, "5");
+    assertTrue(map.isEmpty());
+
+    //Once tracking stops, changes to the IDs are no longer reflected
+    resource.setTrackingIntrinsicIDs(false);
+    john.eSet(id, "1");
+    assertTrue(map.isEmpty());
+    assertEquals(john, resource.getEObject("1"));
+    assertEquals(john, map.get("1"));
+  }
+
   public void testXMLResourceIDCache() throws Exception
   { 
     XMLResource xmlResource = new XMLResourceImpl();
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2012 Eclipse contributors and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.eclipse.emf.test.core.ecore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+
+public class ResourceSetLoadAllTest extends TestCase
+{
+  private static final int RESOURCE_COUNT = 20;
+
+  private EPackage ePackage;
+  private EClass node;
+  private EAttribute name;
+  private EReference next;
+  private List<URI> uris;
+  private File directory;
+
+  public ResourceSetLoadAllTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite testSuite = new TestSuite("ResourceSetLoadAllTest");
+    testSuite.addTest(new ResourceSetLoadAllTest("testLoadAllSequential"));
+    testSuite.addTest(new ResourceSetLoadAllTest("testLoadAllConcurrent"));
+    testSuite.addTest(new ResourceSetLoadAllTest("testLoadAllMissingResource"));
+    testSuite.addTest(new ResourceSetLoadAllTest("testLoadAllResolveFailure"));
+    testSuite.addTest(new ResourceSetLoadAllTest("testResolveAllConcurrent"));
+    return testSuite;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("loadAll");
+    ePackage.setNsPrefix("loadAll");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/ecore/loadAll");
+
+    node = EcoreFactory.eINSTANCE.createEClass();
+    node.setName("Node");
+    ePackage.getEClassifiers().add(node);
+
+    name = EcoreFactory.eINSTANCE.createEAttribute();
+    name.setName("name");
+    name.setEType(EcorePackage.Literals.ESTRING);
+    node.getEStructuralFeatures().add(name);
+
+    next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(node);
+    node.getEStructuralFeatures().add(next);
+
+    directory = File.createTempFile("loadAll", "");
+    directory.delete();
+    directory.mkdirs();
+
+    // Create a ring of resources, each with a node that references the node in the next resource.
+    //
+    ResourceSetImpl resourceSet = createResourceSet();
+    uris = new ArrayList<URI>();
+    List<EObject> nodes = new ArrayList<EObject>();
+    for (int i = 0; i < RESOURCE_COUNT; ++i)
+    {
+      URI uri = URI.createFileURI(new File(directory, "resource" + i + ".xmi").getAbsolutePath());
+      uris.add(uri);
+      Resource resource = resourceSet.createResource(uri);
+      EObject eObject = ePackage.getEFactoryInstance().create(node);
+      eObject.eSet(name, "node" + i);
+      resource.getContents().add(eObject);
+      nodes.add(eObject);
+    }
+    for (int i = 0; i < RESOURCE_COUNT; ++i)
+    {
+      nodes.get(i).eSet(next, nodes.get((i + 1) % RESOURCE_COUNT));
+    }
+    for (Resource resource : resourceSet.getResources())
+    {
+      resource.save(null);
+    }
+  }
+
+  @Override
+  protected void tearDown() throws Exception
+  {
+    for (File file : directory.listFiles())
+    {
+      file.delete();
+    }
+    directory.delete();
+  }
+
+  protected ResourceSetImpl createResourceSet()
+  {
+    ResourceSetImpl resourceSet = new ResourceSetImpl();
+    resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("xmi", new XMIResourceFactoryImpl());
+    resourceSet.getPackageRegistry().put(ePackage.getNsURI(), ePackage);
+    return resourceSet;
+  }
+
+  protected void assertLoaded(ResourceSetImpl resourceSet, EList<Resource> resources)
+  {
+    assertEquals(RESOURCE_COUNT, resources.size());
+    assertEquals(RESOURCE_COUNT, resourceSet.getResources().size());
+    for (int i = 0; i < RESOURCE_COUNT; ++i)
+    {
+      Resource resource = resources.get(i);
+      assertSame(resourceSet, resource.getResourceSet());
+      assertSame(resource, resourceSet.getResource(uris.get(i), false));
+      assertTrue(resource.isLoaded());
+      EObject eObject = resource.getContents().get(0);
+      assertEquals("node" + i, eObject.eGet(name));
+
+      // The proxy must have been resolved already.
+      //
+      EObject nextEObject = (EObject)eObject.eGet(next, false);
+      assertFalse(nextEObject.eIsProxy());
+      assertSame(resources.get((i + 1) % RESOURCE_COUNT), nextEObject.eResource());
+    }
+  }
+
+  public void testLoadAllSequential() throws Exception
+  {
+    ResourceSetImpl resourceSet = createResourceSet();
+    assertLoaded(resourceSet, resourceSet.loadAll(uris, null, null));
+  }
+
+  public void testLoadAllConcurrent() throws Exception
+  {
+    ResourceSetImpl resourceSet = createResourceSet();
+
+    // One of the resources is already in the resource set and is loaded on demand.
+    //
+    Resource existingResource = resourceSet.createResource(uris.get(5));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try
+    {
+      EList<Resource> resources = resourceSet.loadAll(uris, null, executor);
+      assertSame(existingResource, resources.get(5));
+      assertLoaded(resourceSet, resources);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  public void testLoadAllMissingResource() throws Exception
+  {
+    ResourceSetImpl resourceSet = createResourceSet();
+    URI missingURI = URI.createFileURI(new File(directory, "missing.xmi").getAbsolutePath());
+    List<URI> allURIs = new ArrayList<URI>(uris);
+    allURIs.add(missingURI);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try
+    {
+      resourceSet.loadAll(allURIs, null, executor);
+      fail("Expecting an exception for the missing resource");
+    }
+    catch (RuntimeException exception)
+    {
+      // The other resources are loaded and the missing one records the error.
+      //
+      assertEquals(RESOURCE_COUNT + 1, resourceSet.getResources().size());
+      Resource missingResource = resourceSet.getResource(missingURI, false);
+      assertNotNull(missingResource);
+      assertFalse(missingResource.getErrors().isEmpty());
+      assertTrue(resourceSet.getResource(uris.get(0), false).isLoaded());
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  public void testLoadAllResolveFailure() throws Exception
+  {
+    final RuntimeException resolveException = new RuntimeException("resolve");
+    final List<Collection<Resource>> resolved = new ArrayList<Collection<Resource>>();
+    ResourceSetImpl resourceSet =
+      new ResourceSetImpl()
+      {
+        @Override
+        protected void resolveAll(Collection<Resource> resources, Executor executor)
+        {
+          resolved.add(resources);
+          throw resolveException;
+        }
+      };
+    resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("xmi", new XMIResourceFactoryImpl());
+    resourceSet.getPackageRegistry().put(ePackage.getNsURI(), ePackage);
+    URI missingURI = URI.createFileURI(new File(directory, "missing.xmi").getAbsolutePath());
+    List<URI> allURIs = new ArrayList<URI>(uris);
+    allURIs.add(missingURI);
+
+    // The failure to resolve doesn't mask the failure to load, but the loaded resources are still resolved.
+    //
+    try
+    {
+      resourceSet.loadAll(allURIs, null, null);
+      fail("Expecting an exception for the missing resource");
+    }
+    catch (RuntimeException exception)
+    {
+      assertNotSame(resolveException, exception);
+      assertEquals(1, resolved.size());
+      assertEquals(RESOURCE_COUNT + 1, resolved.get(0).size());
+    }
+
+    // Without a failure to load, the failure to resolve is thrown.
+    //
+    resolved.clear();
+    try
+    {
+      resourceSet.getResources().clear();
+      resourceSet.loadAll(uris, null, null);
+      fail("Expecting an exception for the failure to resolve");
+    }
+    catch (RuntimeException exception)
+    {
+      assertSame(resolveException, exception);
+      assertEquals(1, resolved.size());
+    }
+  }
+
+  public void testResolveAllConcurrent() throws Exception
+  {
+    ResourceSetImpl resourceSet = createResourceSet();
+    Resource resource = resourceSet.getResource(uris.get(0), true);
+
+    // A proxy to a missing resource remains unresolved.
+    //
+    URI missingURI = URI.createFileURI(new File(directory, "missing.xmi").getAbsolutePath());
+    EObject missingProxy = ePackage.getEFactoryInstance().create(node);
+    ((InternalEObject)missingProxy).eSetProxyURI(missingURI.appendFragment("/"));
+    EObject eObject = ePackage.getEFactoryInstance().create(node);
+    eObject.eSet(next, missingProxy);
+    resource.getContents().add(eObject);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try
+    {
+      EcoreUtil.resolveAll(resourceSet, executor);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    resource.getContents().remove(eObject);
+    assertTrue(((EObject)eObject.eGet(next, false)).eIsProxy());
+    assertFalse(resourceSet.getResource(missingURI, false).getErrors().isEmpty());
+    resourceSet.getResources().remove(resourceSet.getResource(missingURI, false));
+
+    EList<Resource> resources = new BasicEList<Resource>();
+    for (URI uri : uris)
+    {
+      resources.add(resourceSet.getResource(uri, false));
+    }
+    assertLoaded(resourceSet, resources);
+  }
+}
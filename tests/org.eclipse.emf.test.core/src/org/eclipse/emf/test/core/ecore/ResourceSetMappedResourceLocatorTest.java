@@ -7,9 +7,15 @@
  */
 package org.eclipse.emf.test.core.ecore;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 
 import junit.framework.Test;
@@ -27,6 +33,7 @@ public class ResourceSetMappedResourceLocatorTest extends TestCase
   {
     TestSuite testSuite = new TestSuite("ResourceLocatorTests");
     testSuite.addTest(new ResourceSetMappedResourceLocatorTest("test"));
+    testSuite.addTest(new ResourceSetMappedResourceLocatorTest("testAutomaticResourceLocator"));
     return testSuite;
   }
 
@@ -89,4 +96,125 @@ public class ResourceSetMappedResourceLocatorTest extends TestCase
     resourceSet.getResources().move(0, 1);
     assertSame(resource2, resourceSet.getResource(remappedURI, false));
   }
+
+  public void testAutomaticResourceLocator() throws Exception
+  {
+    // Populate the resource set with enough resources that a resource locator is created automatically.
+    //
+    final List<TestResourceLocator> resourceLocators = new ArrayList<TestResourceLocator>();
+    ResourceSetImpl resourceSet =
+      new ResourceSetImpl()
+      {
+        @Override
+        protected ResourceLocator createResourceLocator()
+        {
+          TestResourceLocator resourceLocator = new TestResourceLocator(this);
+          resourceLocators.add(resourceLocator);
+          return resourceLocator;
+        }
+      };
+    List<Resource> resources = new ArrayList<Resource>();
+    for (int i = 0; i < 100; ++i)
+    {
+      resources.add(resourceSet.createResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource" + i)));
+    }
+
+    // The resource locator is created while adding resources, not by a lookup.
+    //
+    assertEquals(1, resourceLocators.size());
+    assertTrue(resourceSet.eAdapters().get(0) instanceof ResourceSetImpl.MappedResourceLocator.ResourceAdapter);
+    Map<URI, URI> normalizationMap = resourceLocators.get(0).getNormalizationMap();
+    assertEquals(100, normalizationMap.size());
+    for (int i = 0; i < 100; ++i)
+    {
+      assertSame(resources.get(i), resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource" + i), false));
+    }
+
+    // Looking up URIs of resources that aren't in the resource set doesn't modify the maps.
+    //
+    for (int i = 0; i < 100; ++i)
+    {
+      assertNull(resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/MissingResource" + i), false));
+    }
+    assertEquals(100, normalizationMap.size());
+
+    // Confirm that changes to a resource's URI and removal of a resource are tracked.
+    //
+    URI uri = URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource");
+    Resource resource = resources.get(50);
+    resource.setURI(uri);
+    assertNull(resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource50"), false));
+    assertSame(resource, resourceSet.getResource(uri, false));
+    resourceSet.getResources().remove(resource);
+    assertNull(resourceSet.getResource(uri, false));
+    assertEquals(99, normalizationMap.size());
+    assertFalse(normalizationMap.containsKey(uri));
+
+    // A resource locator declined by returning null isn't requested again.
+    //
+    final int [] requestCount = new int [1];
+    resourceSet =
+      new ResourceSetImpl()
+      {
+        @Override
+        protected ResourceLocator createResourceLocator()
+        {
+          ++requestCount[0];
+          return null;
+        }
+      };
+    for (int i = 0; i < 100; ++i)
+    {
+      resourceSet.createResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource" + i));
+    }
+    assertNotNull(resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource50"), false));
+    assertEquals(1, requestCount[0]);
+    assertTrue(resourceSet.eAdapters().isEmpty());
+
+    // A resource set with a URI resource map continues to use the map.
+    //
+    resourceSet = new ResourceSetImpl();
+    resourceSet.setURIResourceMap(new HashMap<URI, Resource>());
+    for (int i = 0; i < 100; ++i)
+    {
+      resourceSet.createResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource" + i));
+    }
+    assertNotNull(resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource50"), false));
+    assertTrue(resourceSet.eAdapters().isEmpty());
+    assertEquals(1, resourceSet.getURIResourceMap().size());
+
+    // A resource set whose URI map doesn't track its changes continues to use the linear lookup.
+    //
+    resourceSet = new ResourceSetImpl();
+    resourceSet.setURIConverter
+      (new ExtensibleURIConverterImpl()
+       {
+         private final Map<URI, URI> uriMap = new HashMap<URI, URI>();
+
+         @Override
+         public Map<URI, URI> getURIMap()
+         {
+           return uriMap;
+         }
+       });
+    for (int i = 0; i < 100; ++i)
+    {
+      resourceSet.createResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource" + i));
+    }
+    assertNotNull(resourceSet.getResource(URI.createURI("http://www.eclipse.org/emf/test/core/ecore/BulkResource50"), false));
+    assertTrue(resourceSet.eAdapters().isEmpty());
+  }
+
+  private static class TestResourceLocator extends ResourceSetImpl.MappedResourceLocator
+  {
+    public TestResourceLocator(ResourceSetImpl resourceSet)
+    {
+      super(resourceSet);
+    }
+
+    public Map<URI, URI> getNormalizationMap()
+    {
+      return normalizationMap;
+    }
+  }
 }
@@ -10,24 +10,42 @@
  */
 package org.eclipse.emf.test.core.ecore;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.eclipse.emf.common.util.Diagnostic;
+import org.eclipse.emf.common.util.DiagnosticChain;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EAttribute;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.EcoreFactory;
 import org.eclipse.emf.ecore.EcorePackage;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.EValidatorRegistryImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EObjectValidator;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreValidator;
+import org.eclipse.emf.ecore.util.IncrementalValidator;
 import org.eclipse.emf.test.models.ppo.Item;
 import org.eclipse.emf.test.models.ppo.PPOFactory;
 import org.eclipse.emf.test.models.ppo.PPOPackage;
@@ -53,6 +71,11 @@ public class ValidationTest extends TestCase
     ts.addTest(new ValidationTest("testValidation4"));
     ts.addTest(new ValidationTest("testValidation5"));
     ts.addTest(new ValidationTest("testRequiredField"));
+    ts.addTest(new ValidationTest("testConcurrentValidation"));
+    ts.addTest(new ValidationTest("testConcurrentValidationResolvesProxies"));
+    ts.addTest(new ValidationTest("testIncrementalValidation"));
+    ts.addTest(new ValidationTest("testEValidatorCache"));
+    ts.addTest(new ValidationTest("testValidatedEPackageGarbageCollected"));
     return ts;
   }
   
@@ -321,4 +344,344 @@ public class ValidationTest extends TestCase
     john.eSet(numberOfChildren, null);
     assertEquals(Diagnostic.ERROR, Diagnostician.INSTANCE.validate(john).getSeverity());
   }
+
+  public void testConcurrentValidation() throws Exception
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("concurrent");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/concurrent");
+    ePackage.setNsPrefix("concurrent");
+    for (int i = 0; i < 50; ++i)
+    {
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName(i % 3 == 0 ? "Bad Name " + i : "Class" + i);
+      ePackage.getEClassifiers().add(eClass);
+      for (int j = 0; j < 3; ++j)
+      {
+        EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+        eAttribute.setName("attribute" + j);
+        if ((i + j) % 4 != 0)
+        {
+          eAttribute.setEType(EcorePackage.Literals.ESTRING);
+        }
+        eClass.getEStructuralFeatures().add(eAttribute);
+      }
+    }
+
+    final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+    class NotThreadSafeValidator extends EcoreValidator implements EValidator.NotThreadSafe
+    {
+      @Override
+      public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
+      {
+        threads.add(Thread.currentThread());
+        return super.validate(eClass, eObject, diagnostics, context);
+      }
+    }
+    final EValidator notThreadSafeValidator = new NotThreadSafeValidator();
+    Diagnostician diagnostician =
+      new Diagnostician()
+      {
+        @Override
+        protected EValidator getEValidator(EClass eClass)
+        {
+          return eClass == EcorePackage.Literals.EATTRIBUTE ? notThreadSafeValidator : super.getEValidator(eClass);
+        }
+
+        @Override
+        protected int getValidationTaskSize()
+        {
+          return 7;
+        }
+      };
+
+    Diagnostic expected = diagnostician.validate(ePackage);
+    assertEquals(Diagnostic.ERROR, expected.getSeverity());
+    threads.clear();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try
+    {
+      for (int i = 0; i < 5; ++i)
+      {
+        Diagnostic diagnostic = diagnostician.validate(ePackage, Collections.emptyMap(), executor);
+        assertEquivalent(expected, diagnostic);
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    // The objects whose validator isn't thread-safe are all validated on the calling thread.
+    //
+    assertEquals(5 * 150, threads.size());
+    for (Thread thread : threads)
+    {
+      assertSame(Thread.currentThread(), thread);
+    }
+
+    // Without diagnostics, only validity is determined.
+    //
+    assertFalse(diagnostician.validate(ePackage, null, diagnostician.createDefaultContext(), null));
+    ePackage.getEClassifiers().clear();
+    assertTrue(diagnostician.validate(ePackage, null, diagnostician.createDefaultContext(), null));
+  }
+
+  public void testConcurrentValidationResolvesProxies() throws Exception
+  {
+    final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+    ResourceSet resourceSet =
+      new ResourceSetImpl()
+      {
+        @Override
+        public Resource getResource(URI uri, boolean loadOnDemand)
+        {
+          threads.add(Thread.currentThread());
+          Resource resource = super.getResource(uri, false);
+          if (resource == null && "target.ecore".equals(uri.lastSegment()))
+          {
+            resource = new ResourceImpl(uri);
+            getResources().add(resource);
+            EPackage targetPackage = EcoreFactory.eINSTANCE.createEPackage();
+            targetPackage.setName("target");
+            targetPackage.setNsURI("http://www.eclipse.org/emf/test/core/target");
+            targetPackage.setNsPrefix("target");
+            EClass target = EcoreFactory.eINSTANCE.createEClass();
+            target.setName("Target");
+            targetPackage.getEClassifiers().add(target);
+            resource.getContents().add(targetPackage);
+          }
+          return resource;
+        }
+      };
+
+    Resource resource = new ResourceImpl(URI.createURI("proxies.ecore"));
+    resourceSet.getResources().add(resource);
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("proxies");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/proxies");
+    ePackage.setNsPrefix("proxies");
+    resource.getContents().add(ePackage);
+    for (int i = 0; i < 50; ++i)
+    {
+      EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+      eClass.setName("Class" + i);
+      EClass superType = EcoreFactory.eINSTANCE.createEClass();
+      ((InternalEObject)superType).eSetProxyURI(URI.createURI(i % 10 == 0 ? "missing.ecore#//Missing" : "target.ecore#//Target"));
+      eClass.getESuperTypes().add(superType);
+      ePackage.getEClassifiers().add(eClass);
+    }
+
+    Diagnostician diagnostician =
+      new Diagnostician()
+      {
+        @Override
+        protected int getValidationTaskSize()
+        {
+          return 7;
+        }
+      };
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    Diagnostic diagnostic;
+    try
+    {
+      diagnostic = diagnostician.validate(ePackage, Collections.emptyMap(), executor);
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+
+    // The proxies are resolved, or fail to resolve, on the calling thread only.
+    //
+    assertFalse(threads.isEmpty());
+    for (Thread thread : threads)
+    {
+      assertSame(Thread.currentThread(), thread);
+    }
+    assertEquals(2, resourceSet.getResources().size());
+    for (int i = 0; i < 50; ++i)
+    {
+      EClass eClass = (EClass)ePackage.getEClassifiers().get(i);
+      assertEquals(i % 10 == 0, eClass.getESuperTypes().get(0).eIsProxy());
+    }
+
+    // The ones that don't resolve are still diagnosed.
+    //
+    int unresolvedProxyCount = 0;
+    for (Diagnostic child : diagnostic.getChildren())
+    {
+      if (EObjectValidator.DIAGNOSTIC_SOURCE.equals(child.getSource()) && child.getCode() == EObjectValidator.EOBJECT__EVERY_PROXY_RESOLVES)
+      {
+        ++unresolvedProxyCount;
+      }
+    }
+    assertTrue(unresolvedProxyCount >= 5);
+  }
+
+  protected void assertEquivalent(Diagnostic expected, Diagnostic actual)
+  {
+    assertEquals(expected.getSeverity(), actual.getSeverity());
+    assertEquals(expected.getSource(), actual.getSource());
+    assertEquals(expected.getCode(), actual.getCode());
+    assertEquals(expected.getMessage(), actual.getMessage());
+    assertEquals(expected.getData(), actual.getData());
+    assertEquals(expected.getChildren().size(), actual.getChildren().size());
+    for (int i = 0; i < expected.getChildren().size(); ++i)
+    {
+      assertEquivalent(expected.getChildren().get(i), actual.getChildren().get(i));
+    }
+  }
+
+  public void testIncrementalValidation()
+  {
+    Resource resource = new ResourceImpl(URI.createURI("incremental.ecore"));
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("incremental");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/incremental");
+    ePackage.setNsPrefix("incremental");
+    resource.getContents().add(ePackage);
+    EClass a = EcoreFactory.eINSTANCE.createEClass();
+    a.setName("A");
+    ePackage.getEClassifiers().add(a);
+    EClass b = EcoreFactory.eINSTANCE.createEClass();
+    b.setName("B");
+    ePackage.getEClassifiers().add(b);
+    EReference reference = EcoreFactory.eINSTANCE.createEReference();
+    reference.setName("b");
+    reference.setEType(b);
+    a.getEStructuralFeatures().add(reference);
+
+    IncrementalValidator incrementalValidator = new IncrementalValidator();
+    resource.eAdapters().add(incrementalValidator);
+
+    // The reference's generic type is validated too.
+    //
+    assertEquals(5, incrementalValidator.getDirtyObjects().size());
+    assertEquals(5, incrementalValidator.validate().size());
+    assertTrue(incrementalValidator.getDiagnostics().isEmpty());
+    assertTrue(incrementalValidator.validate().isEmpty());
+
+    // A change to an object marks its container, and the objects that reference it, i.e., the reference and its generic type, dirty too.
+    //
+    b.setName("A");
+    assertEquals(4, incrementalValidator.getDirtyObjects().size());
+    assertTrue(incrementalValidator.getDirtyObjects().contains(ePackage));
+    assertTrue(incrementalValidator.getDirtyObjects().contains(reference));
+    assertEquals(Diagnostic.ERROR, incrementalValidator.getDiagnostic(ePackage).getSeverity());
+    assertEquals(3, incrementalValidator.getDirtyObjects().size());
+    incrementalValidator.validate();
+    assertEquals(Collections.singleton(ePackage), incrementalValidator.getDiagnostics().keySet());
+    b.setName("B");
+    incrementalValidator.validate();
+    assertTrue(incrementalValidator.getDiagnostics().isEmpty());
+
+    // Removing a referenced object marks the objects that reference it dirty.
+    //
+    ePackage.getEClassifiers().remove(b);
+    assertNull(incrementalValidator.getDiagnostic(b));
+    assertTrue(incrementalValidator.getDirtyObjects().contains(reference));
+    incrementalValidator.validate();
+    assertEquals(2, incrementalValidator.getDiagnostics().size());
+    assertTrue(incrementalValidator.getDiagnostics().containsKey(reference.getEGenericType()));
+    assertEquals(Diagnostic.ERROR, incrementalValidator.getDiagnostic(reference).getSeverity());
+
+    ePackage.getEClassifiers().add(b);
+    assertTrue(incrementalValidator.getDirtyObjects().contains(reference));
+    incrementalValidator.validate();
+    assertTrue(incrementalValidator.getDiagnostics().isEmpty());
+    assertEquals(Diagnostic.OK, incrementalValidator.getDiagnostic(reference).getSeverity());
+
+    resource.eAdapters().remove(incrementalValidator);
+    assertNull(incrementalValidator.getDiagnostic(reference));
+  }
+
+  public void testEValidatorCache()
+  {
+    EValidatorRegistryImpl eValidatorRegistry = new EValidatorRegistryImpl(EValidator.Registry.INSTANCE);
+    final List<EObject> validated = new ArrayList<EObject>();
+    EObjectValidator recordingValidator =
+      new EObjectValidator()
+      {
+        @Override
+        public boolean validate(EClass eClass, EObject eObject, DiagnosticChain diagnostics, Map<Object, Object> context)
+        {
+          validated.add(eObject);
+          return true;
+        }
+      };
+    Diagnostician diagnostician = new Diagnostician(eValidatorRegistry);
+    Item item = purchaseOrder.getItems().get(0);
+    assertEquals(Diagnostic.ERROR, diagnostician.validate(item).getSeverity());
+
+    // Registering a validator takes effect immediately.
+    //
+    eValidatorRegistry.put(PPOPackage.eINSTANCE, recordingValidator);
+    assertEquals(Diagnostic.OK, diagnostician.validate(item).getSeverity());
+    assertEquals(Collections.singletonList(item), validated);
+    eValidatorRegistry.remove(PPOPackage.eINSTANCE);
+    assertEquals(Diagnostic.ERROR, diagnostician.validate(item).getSeverity());
+    assertEquals(1, validated.size());
+
+    // Changing the super types of a class changes its validator.
+    //
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("cache");
+    EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+    eClass.setName("Subclass");
+    ePackage.getEClassifiers().add(eClass);
+    EObject eObject = EcoreUtil.create(eClass);
+    eValidatorRegistry.put(PPOPackage.eINSTANCE, recordingValidator);
+    assertEquals(Diagnostic.OK, diagnostician.validate(eObject).getSeverity());
+    assertEquals(1, validated.size());
+    eClass.getESuperTypes().add(PPOPackage.Literals.US_ADDRESS);
+    eObject = EcoreUtil.create(eClass);
+    assertEquals(Diagnostic.OK, diagnostician.validate(eObject).getSeverity());
+    assertEquals(2, validated.size());
+    assertSame(eObject, validated.get(1));
+  }
+
+  public void testValidatedEPackageGarbageCollected()
+  {
+    WeakReference<EPackage> ePackageReference = new WeakReference<EPackage>(validateDynamicEPackage());
+    for (int i = 0; i < 20 && ePackageReference.get() != null; ++i)
+    {
+      System.gc();
+      Thread.yield();
+    }
+    assertNull(ePackageReference.get());
+  }
+
+  protected EPackage validateDynamicEPackage()
+  {
+    EPackage ePackage = EcoreFactory.eINSTANCE.createEPackage();
+    ePackage.setName("collectable");
+    ePackage.setNsURI("http://www.eclipse.org/emf/test/core/validation/collectable");
+    EClass eClass = EcoreFactory.eINSTANCE.createEClass();
+    eClass.setName("Node");
+    ePackage.getEClassifiers().add(eClass);
+    EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+    eAttribute.setName("name");
+    eAttribute.setEType(EcorePackage.Literals.ESTRING);
+    eClass.getEStructuralFeatures().add(eAttribute);
+    EReference next = EcoreFactory.eINSTANCE.createEReference();
+    next.setName("next");
+    next.setEType(eClass);
+    eClass.getEStructuralFeatures().add(next);
+    EReference previous = EcoreFactory.eINSTANCE.createEReference();
+    previous.setName("previous");
+    previous.setEType(eClass);
+    eClass.getEStructuralFeatures().add(previous);
+    next.setEOpposite(previous);
+    previous.setEOpposite(next);
+    EcoreUtil.freeze(ePackage);
+
+    EObject node = EcoreUtil.create(eClass);
+    node.eSet(eAttribute, "node");
+    node.eSet(next, EcoreUtil.create(eClass));
+    assertEquals(Diagnostic.OK, Diagnostician.INSTANCE.validate(node).getSeverity());
+    assertEquals(Diagnostic.OK, new Diagnostician(new EValidatorRegistryImpl(EValidator.Registry.INSTANCE)).validate(node).getSeverity());
+    return ePackage;
+  }
 }
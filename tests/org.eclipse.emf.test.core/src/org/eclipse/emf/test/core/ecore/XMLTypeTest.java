@@ -10,7 +10,9 @@
  */
 package org.eclipse.emf.test.core.ecore;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
@@ -18,8 +20,12 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.eclipse.emf.ecore.EValidator;
 import org.eclipse.emf.ecore.xml.type.XMLTypeFactory;
 import org.eclipse.emf.ecore.xml.type.XMLTypePackage;
+import org.eclipse.emf.ecore.xml.type.internal.RegEx;
+import org.eclipse.emf.ecore.xml.type.internal.RegExAutomaton;
+import org.eclipse.emf.ecore.xml.type.util.XMLTypeUtil;
 
 public class XMLTypeTest extends TestCase
 {
@@ -46,6 +52,7 @@ public class XMLTypeTest extends TestCase
     }
     ts.addTest(new XMLTypeTest("testListSimpleTypeConversion"));
     ts.addTest(new XMLTypeTest("testFloatingPoint"));
+    ts.addTest(new XMLTypeTest("testPatternMatcherConformance"));
     return ts;
   }
 
@@ -333,4 +340,125 @@ public class XMLTypeTest extends TestCase
       }
     }
   }
+
+  /**
+   * XML Schema regular expressions exercising each construct, including the patterns of the built-in types.
+   */
+  private static final String [] PATTERNS =
+    {
+      "[a-zA-Z]{1,8}(-[a-zA-Z0-9]{1,8})*",
+      "\\i\\c*",
+      "[\\i-[:]][\\c-[:]]*",
+      "\\c+",
+      "\\d{3}-[A-Z]{2}",
+      "(\\+|-)?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)([Ee](\\+|-)?[0-9]+)?|INF|-INF|NaN",
+      "a*b?c+d{2}e{1,}f{0,2}",
+      "(ab|cd)*|x{2,3}y?",
+      ".*",
+      "..",
+      "[^abc]+",
+      "[a-z-[aeiou]]*",
+      "[\\s\\S]{2}",
+      "\\w+\\W?",
+      "\\p{Lu}\\p{Ll}*",
+      "\\P{L}*",
+      "\\p{IsBasicLatin}+",
+      "[\\^$().|?*+{}\\-\\[\\]]+",
+      "\\n\\r\\t\\\\\\|",
+      "^x$",
+      "(a|b)+c",
+      "(ab?)*",
+      "((a|b){2})*",
+      "[\\d-[5]]{0}x",
+      "\uD801\uDC00*",
+      "[\uD801\uDC00-\uD801\uDC4F]+",
+      "\u00e9\u2028?",
+    };
+
+  /**
+   * Strings matched against each pattern, in addition to random strings over the characters of the patterns.
+   */
+  private static final String [] VALUES =
+    {
+      "",
+      "en",
+      "en-US",
+      "en-US-x-1234567",
+      "toolongtag",
+      "name",
+      "_name.1",
+      "1name",
+      "ns:name",
+      "a:b:c",
+      "123-AB",
+      "12-AB",
+      "1.5E+10",
+      "-INF",
+      ".5",
+      "5.",
+      "abcccdde",
+      "acdd",
+      "ababcd",
+      "xx",
+      "xxxy",
+      "line\nbreak",
+      "line\rbreak",
+      "line\u2028break",
+      "\u0085\u0085",
+      "defg",
+      "bcdfg",
+      "\t ",
+      "word!",
+      "Hello",
+      "\u00c9t\u00e9",
+      "^$().|?*+{}-[]",
+      "\n\r\t\\|",
+      "^x$",
+      "aab",
+      "b",
+      "abba",
+      "x",
+      "\uD801\uDC00\uD801\uDC00",
+      "\uD801\uDC4F",
+      "\uD801",
+      "\uDC00",
+      "\uD801x",
+      "\u00e9\u2028",
+    };
+
+  /**
+   * The pattern matcher must produce exactly the same results as the interpreted regular expression engine.
+   */
+  public void testPatternMatcherConformance()
+  {
+    Random random = new Random(1234);
+    for (String pattern : PATTERNS)
+    {
+      RegEx.RegularExpression regularExpression = new RegEx.RegularExpression(pattern, "X");
+      assertNotNull(pattern, RegExAutomaton.create(regularExpression));
+      EValidator.PatternMatcher patternMatcher = XMLTypeUtil.createPatternMatcher(pattern);
+      assertSame(patternMatcher, XMLTypeUtil.createPatternMatcher(pattern));
+
+      List<String> values = new ArrayList<String>();
+      for (String value : VALUES)
+      {
+        values.add(value);
+      }
+      String alphabet = pattern + "\u00e9\n\r ";
+      for (int i = 0; i < 500; ++i)
+      {
+        StringBuilder value = new StringBuilder();
+        for (int j = random.nextInt(8); j > 0; --j)
+        {
+          value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        values.add(value.toString());
+      }
+
+      for (String value : values)
+      {
+        assertEquals("'" + value + "' against '" + pattern + "'", regularExpression.matches(value), patternMatcher.matches(value));
+      }
+    }
+  }
 }
@@ -11,10 +11,15 @@
 package org.eclipse.emf.test.edit.provider;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.eclipse.emf.common.notify.Adapter;
 import org.eclipse.emf.common.notify.AdapterFactory;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
 import org.eclipse.emf.edit.provider.ComposedAdapterFactory;
 import org.eclipse.emf.edit.provider.IEditingDomainItemProvider;
 import org.eclipse.emf.test.models.ext.ExtE;
@@ -52,6 +57,9 @@ public class ComposedAdapterFactoryTest extends TestCase
     suite.addTest(new ComposedAdapterFactoryTest("testAdapt"));
     suite.addTest(new ComposedAdapterFactoryTest("testAdaptSubclass"));
     suite.addTest(new ComposedAdapterFactoryTest("testAdaptBaseclass"));
+    suite.addTest(new ComposedAdapterFactoryTest("testAdaptAfterFactoryChanges"));
+    suite.addTest(new ComposedAdapterFactoryTest("testAdaptAfterSharedFactoryChanges"));
+    suite.addTest(new ComposedAdapterFactoryTest("testAdaptNonEObject"));
     return suite;
   }
 
@@ -156,4 +164,88 @@ public class ComposedAdapterFactoryTest extends TestCase
     assertSame(refAdapterFactory, ((EItemProvider)adapter).getAdapterFactory());
     assertSame(refAdapterFactory.createEAdapter(), adapter);  // okay since singleton
   }
+
+  public void testAdaptAfterFactoryChanges()
+  {
+    adapterFactory = new ComposedAdapterFactory(extAdapterFactory);
+    Object type = IEditingDomainItemProvider.class;
+
+    // The failure to adapt is cached, but only until a factory is added.
+    //
+    A a = refFactory.createA();
+    assertNull(adapterFactory.adapt(a, type));
+    assertNull(adapterFactory.adapt(refFactory.createA(), type));
+    adapterFactory.addAdapterFactory(refAdapterFactory);
+    Adapter aAdapter = adapterFactory.adapt(a, type);
+    assertTrue(aAdapter instanceof AItemProvider);
+    assertSame(aAdapter, adapterFactory.adapt(a, type));
+
+    // Adding a factory to a composed factory also affects the composed factories that delegate to it.
+    //
+    ComposedAdapterFactory childAdapterFactory = new ComposedAdapterFactory();
+    adapterFactory = new ComposedAdapterFactory(childAdapterFactory);
+    assertNull(adapterFactory.adapt(extFactory.createExtE(), type));
+    childAdapterFactory.addAdapterFactory(refAdapterFactory);
+    assertTrue(adapterFactory.adapt(extFactory.createExtE(), type) instanceof EItemProvider);
+    childAdapterFactory.insertAdapterFactory(extAdapterFactory);
+    assertTrue(adapterFactory.adapt(extFactory.createExtE(), type) instanceof ExtEItemProvider);
+
+    // Removing a factory also affects the composed factories that delegate to it.
+    //
+    childAdapterFactory.removeAdapterFactory(extAdapterFactory);
+    Adapter adapter = adapterFactory.adapt(extFactory.createExtE(), type);
+    assertTrue(adapter instanceof EItemProvider);
+    assertFalse(adapter instanceof ExtEItemProvider);
+    childAdapterFactory.removeAdapterFactory(refAdapterFactory);
+    assertNull(adapterFactory.adapt(extFactory.createExtE(), type));
+  }
+
+  public void testAdaptAfterSharedFactoryChanges()
+  {
+    // A composed factory may be shared by several composed factories, all of which are affected by its changes.
+    //
+    Object type = IEditingDomainItemProvider.class;
+    ComposedAdapterFactory childAdapterFactory = new ComposedAdapterFactory();
+    ComposedAdapterFactory adapterFactory1 = new ComposedAdapterFactory(childAdapterFactory);
+    ComposedAdapterFactory adapterFactory2 = new ComposedAdapterFactory(new ComposedAdapterFactory(childAdapterFactory));
+    assertNull(adapterFactory1.adapt(refFactory.createA(), type));
+    assertNull(adapterFactory2.adapt(refFactory.createA(), type));
+    childAdapterFactory.addAdapterFactory(refAdapterFactory);
+    assertTrue(adapterFactory1.adapt(refFactory.createA(), type) instanceof AItemProvider);
+    assertTrue(adapterFactory2.adapt(refFactory.createA(), type) instanceof AItemProvider);
+    childAdapterFactory.removeAdapterFactory(refAdapterFactory);
+    assertNull(adapterFactory1.adapt(refFactory.createA(), type));
+    assertNull(adapterFactory2.adapt(refFactory.createA(), type));
+
+    // Once removed, a composed factory no longer affects the factory from which it was removed.
+    //
+    adapterFactory1.removeAdapterFactory(childAdapterFactory);
+    childAdapterFactory.addAdapterFactory(refAdapterFactory);
+    assertNull(adapterFactory1.adapt(refFactory.createA(), type));
+    assertTrue(adapterFactory2.adapt(refFactory.createA(), type) instanceof AItemProvider);
+  }
+
+  public void testAdaptNonEObject()
+  {
+    // A target that isn't an EObject is adapted by the overridable hook for its Java class.
+    //
+    final List<Class<?>> javaClasses = new ArrayList<Class<?>>();
+    final Adapter resourceAdapter = new AdapterImpl();
+    ComposedAdapterFactory adapterFactory = 
+      new ComposedAdapterFactory(refAdapterFactory)
+      {
+        @Override
+        protected Adapter adapt(Notifier target, Object type, Collection<Object> failedPackages, Class<?> javaClass, boolean isNew)
+        {
+          javaClasses.add(javaClass);
+          return target instanceof Resource ? resourceAdapter : super.adapt(target, type, failedPackages, javaClass, isNew);
+        }
+      };
+    Resource resource = new ResourceImpl();
+    assertSame(resourceAdapter, adapterFactory.adapt(resource, IEditingDomainItemProvider.class));
+    assertSame(resourceAdapter, adapterFactory.adapt(resource, IEditingDomainItemProvider.class));
+    assertSame(resourceAdapter, adapterFactory.adaptNew(resource, IEditingDomainItemProvider.class));
+    assertEquals(3, javaClasses.size());
+    assertSame(ResourceImpl.class, javaClasses.get(0));
+  }
 }
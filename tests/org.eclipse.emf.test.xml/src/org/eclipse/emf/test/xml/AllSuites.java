@@ -40,6 +40,9 @@ public class AllSuites extends TestSuite
     ,DTDTest.suite()
     ,org.eclipse.emf.test.xml.xmi.URIHandlerTest.suite()
     ,org.eclipse.emf.test.xml.xmi.LaxFeatureNamespaceMatchingTest.suite()
+    ,org.eclipse.emf.test.xml.xmi.StreamingLoadTest.suite()
+    ,org.eclipse.emf.test.xml.xmi.StreamingSaveTest.suite()
+    ,org.eclipse.emf.test.xml.xmi.ParserPoolTest.suite()
     ,org.eclipse.emf.test.xml.xsd.XSDFeatureTypeTest.suite()
   };
 
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.xml.xmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl;
+import org.eclipse.emf.test.models.library.Book;
+import org.eclipse.emf.test.models.library.Library;
+import org.eclipse.emf.test.models.library.LibraryFactory;
+import org.eclipse.emf.test.models.library.Writer;
+
+/**
+ * A performance harness, not part of any test suite,
+ * that measures the throughput of many threads loading and saving a small document
+ * without a parser pool, with a shared {@link XMLParserPoolImpl parser pool},
+ * and with a shared parser pool as well as the {@link XMLResource#OPTION_CONFIGURATION_CACHE configuration cache}.
+ * The correctness of the concurrent use of both is tested by {@link ParserPoolTest#testConcurrentLoadAndSave()}.
+ */
+public class ParserPoolPerformance
+{
+  private static final URI RESOURCE_URI = URI.createURI("http://www.example.org/library.xmi");
+
+  /**
+   * Prints the average time per load and save round trip for each configuration.
+   * @param args an optional number of threads, followed by an optional number of round trips per thread.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    int threads = args.length < 1 ? Runtime.getRuntime().availableProcessors() * 2 : Integer.parseInt(args[0]);
+    int iterations = args.length < 2 ? 2000 : Integer.parseInt(args[1]);
+
+    Library library = LibraryFactory.eINSTANCE.createLibrary();
+    library.setName("library");
+    for (int i = 0; i < 100; ++i)
+    {
+      Writer writer = LibraryFactory.eINSTANCE.createWriter();
+      writer.setName("writer" + i);
+      library.getWriters().add(writer);
+      Book book = LibraryFactory.eINSTANCE.createBook();
+      book.setTitle("book" + i);
+      book.setAuthor(writer);
+      library.getBooks().add(book);
+    }
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.getContents().add(library);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    resource.save(outputStream, null);
+    byte[] bytes = outputStream.toByteArray();
+
+    Map<String, Object> noPoolOptions = new HashMap<String, Object>();
+    Map<String, Object> poolOptions = new HashMap<String, Object>();
+    poolOptions.put(XMLResource.OPTION_USE_PARSER_POOL, new XMLParserPoolImpl(true));
+    Map<String, Object> poolAndCacheOptions = new HashMap<String, Object>();
+    poolAndCacheOptions.put(XMLResource.OPTION_USE_PARSER_POOL, new XMLParserPoolImpl(true));
+    poolAndCacheOptions.put(XMLResource.OPTION_CONFIGURATION_CACHE, Boolean.TRUE);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try
+    {
+      // Warm up each configuration before measuring any of them.
+      //
+      run(executor, threads, iterations / 10, bytes, noPoolOptions);
+      run(executor, threads, iterations / 10, bytes, poolOptions);
+      run(executor, threads, iterations / 10, bytes, poolAndCacheOptions);
+
+      long total = (long)threads * iterations;
+      System.out.println(threads + " threads, " + iterations + " round trips each");
+      System.out.println("No pool: " + run(executor, threads, iterations, bytes, noPoolOptions) / total + "ns per round trip");
+      System.out.println("Parser pool: " + run(executor, threads, iterations, bytes, poolOptions) / total + "ns per round trip");
+      System.out.println
+        ("Parser pool and configuration cache: " + run(executor, threads, iterations, bytes, poolAndCacheOptions) / total + "ns per round trip");
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Returns the elapsed time for the threads to each load and save the document the given number of times using the given options.
+   */
+  private static long run(ExecutorService executor, int threads, final int iterations, final byte[] bytes, final Map<String, Object> options)
+    throws Exception
+  {
+    List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+    for (int i = 0; i < threads; ++i)
+    {
+      tasks.add
+        (new Callable<Object>()
+         {
+           public Object call() throws Exception
+           {
+             for (int j = 0; j < iterations; ++j)
+             {
+               XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+               resource.load(new ByteArrayInputStream(bytes), options);
+               resource.save(new ByteArrayOutputStream(bytes.length), options);
+             }
+             return null;
+           }
+         });
+    }
+    long start = System.nanoTime();
+    for (Future<Object> future : executor.invokeAll(tasks))
+    {
+      future.get();
+    }
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.xml.xmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.SAXParser;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.xmi.XMLParserPool;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl;
+import org.eclipse.emf.test.models.library.Book;
+import org.eclipse.emf.test.models.library.Library;
+import org.eclipse.emf.test.models.library.LibraryFactory;
+import org.eclipse.emf.test.models.library.Writer;
+
+
+/**
+ * Tests for {@link XMLParserPoolImpl} and the configuration cache being used by many threads at once.
+ */
+public class ParserPoolTest extends TestCase
+{
+  private static final int THREADS = 16;
+
+  private static final int ITERATIONS = 50;
+
+  private static final URI RESOURCE_URI = URI.createURI("http://www.example.org/library.xmi");
+
+  public ParserPoolTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite ts = new TestSuite("ParserPoolTest");
+    ts.addTest(new ParserPoolTest("testReuse"));
+    ts.addTest(new ParserPoolTest("testConcurrentLoadAndSave"));
+    return ts;
+  }
+
+  public void testReuse() throws Exception
+  {
+    XMLParserPool pool = new XMLParserPoolImpl(2, true);
+    Map<String, Boolean> features = Collections.emptyMap();
+    Map<String, Object> properties = Collections.emptyMap();
+
+    SAXParser parser1 = pool.get(features, properties, false);
+    SAXParser parser2 = pool.get(features, properties, false);
+    SAXParser parser3 = pool.get(features, properties, false);
+    assertNotSame(parser1, parser2);
+    pool.release(parser1, features, properties, false);
+    pool.release(parser2, features, properties, false);
+    pool.release(parser3, features, properties, false);
+
+    // Only two parsers are retained and each is handed out only once.
+    //
+    SAXParser reused1 = pool.get(features, properties, false);
+    SAXParser reused2 = pool.get(features, properties, false);
+    SAXParser created = pool.get(features, properties, false);
+    assertSame(parser1, reused1);
+    assertSame(parser2, reused2);
+    assertNotSame(parser3, created);
+    assertNotSame(parser1, created);
+    assertNotSame(parser2, created);
+
+    // A parser for a different configuration isn't reused.
+    //
+    pool.release(reused1, features, properties, false);
+    assertNotSame(reused1, pool.get(features, properties, true));
+  }
+
+  public void testConcurrentLoadAndSave() throws Exception
+  {
+    Library library = LibraryFactory.eINSTANCE.createLibrary();
+    library.setName("library");
+    for (int i = 0; i < 10; ++i)
+    {
+      Writer writer = LibraryFactory.eINSTANCE.createWriter();
+      writer.setName("writer" + i);
+      library.getWriters().add(writer);
+      Book book = LibraryFactory.eINSTANCE.createBook();
+      book.setTitle("book" + i);
+      book.setAuthor(writer);
+      library.getBooks().add(book);
+    }
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.getContents().add(library);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    resource.save(outputStream, null);
+    final byte[] bytes = outputStream.toByteArray();
+
+    final Map<String, Object> loadOptions = new HashMap<String, Object>();
+    loadOptions.put(XMLResource.OPTION_USE_PARSER_POOL, new XMLParserPoolImpl(true));
+    loadOptions.put(XMLResource.OPTION_CONFIGURATION_CACHE, Boolean.TRUE);
+    final Map<String, Object> saveOptions = new HashMap<String, Object>();
+    saveOptions.put(XMLResource.OPTION_CONFIGURATION_CACHE, Boolean.TRUE);
+
+    // Each task repeatedly loads the document and saves it again; every round trip must reproduce it exactly.
+    //
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+      for (int i = 0; i < THREADS; ++i)
+      {
+        futures.add
+          (executor.submit
+            (new Callable<Boolean>()
+             {
+               public Boolean call() throws Exception
+               {
+                 for (int j = 0; j < ITERATIONS; ++j)
+                 {
+                   XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+                   resource.load(new ByteArrayInputStream(bytes), loadOptions);
+                   ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                   resource.save(outputStream, saveOptions);
+                   if (!new String(bytes, "ASCII").equals(outputStream.toString("ASCII")))
+                   {
+                     return Boolean.FALSE;
+                   }
+                 }
+                 return Boolean.TRUE;
+               }
+             }));
+      }
+      for (Future<Boolean> future : futures)
+      {
+        assertTrue(future.get());
+      }
+    }
+    finally
+    {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.xml.xmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.test.models.library.Book;
+import org.eclipse.emf.test.models.library.Library;
+import org.eclipse.emf.test.models.library.LibraryFactory;
+import org.eclipse.emf.test.models.library.LibraryPackage;
+import org.eclipse.emf.test.models.library.Writer;
+
+
+/**
+ * Tests for loading with {@link XMLResource#OPTION_STREAMING_HANDLER}.
+ */
+public class StreamingLoadTest extends TestCase
+{
+  private static final URI RESOURCE_URI = URI.createURI("http://www.example.org/library.xmi");
+
+  private byte[] bytes;
+
+  public StreamingLoadTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite ts = new TestSuite("StreamingLoadTest");
+    ts.addTest(new StreamingLoadTest("testStreamChildren"));
+    ts.addTest(new StreamingLoadTest("testStreamRoots"));
+    ts.addTest(new StreamingLoadTest("testStreamSameDocumentHrefs"));
+    return ts;
+  }
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    Library library = LibraryFactory.eINSTANCE.createLibrary();
+    library.setName("library");
+    for (int i = 0; i < 3; ++i)
+    {
+      Writer writer = LibraryFactory.eINSTANCE.createWriter();
+      writer.setName("writer" + i);
+      library.getWriters().add(writer);
+    }
+    for (int i = 0; i < 6; ++i)
+    {
+      Book book = LibraryFactory.eINSTANCE.createBook();
+      book.setTitle("book" + i);
+      book.setAuthor(library.getWriters().get(i % 3));
+      library.getBooks().add(book);
+    }
+
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.getContents().add(library);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    resource.save(outputStream, null);
+    bytes = outputStream.toByteArray();
+  }
+
+  public void testStreamChildren() throws Exception
+  {
+    RecordingStreamingHandler handler = new RecordingStreamingHandler();
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(XMLResource.OPTION_STREAMING_HANDLER, handler);
+    options.put(XMLResource.OPTION_STREAMING_DEPTH, 1);
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.load(new ByteArrayInputStream(bytes), options);
+
+    // The library remains, but its children have been delivered and discarded.
+    //
+    assertEquals(1, resource.getContents().size());
+    Library library = (Library)resource.getContents().get(0);
+    assertEquals("library", library.getName());
+    assertTrue(library.getWriters().isEmpty());
+    assertTrue(library.getBooks().isEmpty());
+
+    assertEquals(9, handler.objects.size());
+    for (int i = 0; i < 3; ++i)
+    {
+      Writer writer = (Writer)handler.objects.get(i);
+      assertEquals("writer" + i, writer.getName());
+      assertTrue(writer.getBooks().isEmpty());
+      assertNull(writer.eContainer());
+      assertNull(writer.eResource());
+    }
+    for (int i = 0; i < 6; ++i)
+    {
+      Book book = (Book)handler.objects.get(3 + i);
+      assertEquals("book" + i, book.getTitle());
+      assertNull(book.getAuthor());
+      assertNull(book.eContainer());
+    }
+
+    // Each writer references two books and each book references its author.
+    //
+    assertEquals(12, handler.references.size());
+    for (int i = 0; i < 6; ++i)
+    {
+      Object[] reference = handler.references.get(6 + i);
+      assertSame(handler.objects.get(3 + i), reference[0]);
+      assertSame(LibraryPackage.Literals.BOOK__AUTHOR, reference[1]);
+      assertEquals(RESOURCE_URI.appendFragment("//@writers." + i % 3), reference[2]);
+    }
+  }
+
+  public void testStreamRoots() throws Exception
+  {
+    RecordingStreamingHandler handler = new RecordingStreamingHandler();
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(XMLResource.OPTION_STREAMING_HANDLER, handler);
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.load(new ByteArrayInputStream(bytes), options);
+
+    assertTrue(resource.getContents().isEmpty());
+    assertEquals(1, handler.objects.size());
+    Library library = (Library)handler.objects.get(0);
+    assertNull(library.eResource());
+    assertEquals(3, library.getWriters().size());
+    assertEquals(6, library.getBooks().size());
+    assertEquals(12, handler.references.size());
+  }
+
+  public void testStreamSameDocumentHrefs() throws Exception
+  {
+    String document =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+      "<library:Library xmi:version=\"2.0\" xmlns:xmi=\"http://www.omg.org/XMI\" xmlns:library=\"" + LibraryPackage.eNS_URI + "\" name=\"library\">\n" +
+      "  <writers name=\"writer0\"/>\n" +
+      "  <writers name=\"writer1\"/>\n" +
+      "  <books title=\"book0\">\n" +
+      "    <author href=\"library.xmi#//@writers.0\"/>\n" +
+      "  </books>\n" +
+      "  <books title=\"book1\" author=\"library.xmi#//@writers.1\"/>\n" +
+      "</library:Library>\n";
+
+    RecordingStreamingHandler handler = new RecordingStreamingHandler();
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(XMLResource.OPTION_STREAMING_HANDLER, handler);
+    options.put(XMLResource.OPTION_STREAMING_DEPTH, 1);
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.load(new ByteArrayInputStream(document.getBytes("UTF-8")), options);
+
+    assertEquals(4, handler.objects.size());
+
+    // Both forms of href are reported as references held by the books, rather than resolved.
+    //
+    assertEquals(2, handler.references.size());
+    for (int i = 0; i < 2; ++i)
+    {
+      Book book = (Book)handler.objects.get(2 + i);
+      assertEquals("book" + i, book.getTitle());
+      assertTrue(book.getAuthor().eIsProxy());
+
+      Object[] reference = handler.references.get(i);
+      assertSame(book, reference[0]);
+      assertSame(LibraryPackage.Literals.BOOK__AUTHOR, reference[1]);
+      assertEquals(RESOURCE_URI.appendFragment("//@writers." + i), reference[2]);
+    }
+  }
+
+  private static class RecordingStreamingHandler implements XMLResource.StreamingHandler
+  {
+    List<EObject> objects = new ArrayList<EObject>();
+    List<Object[]> references = new ArrayList<Object[]>();
+
+    public void handleReference(XMLResource resource, EObject eObject, EReference eReference, URI uri)
+    {
+      references.add(new Object [] { eObject, eReference, uri });
+    }
+
+    public void handleObject(XMLResource resource, EObject eObject)
+    {
+      assertSame(resource, eObject.eResource());
+      objects.add(eObject);
+    }
+  }
+}
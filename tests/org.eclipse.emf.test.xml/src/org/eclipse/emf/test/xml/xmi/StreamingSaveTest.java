@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved.   This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   IBM - Initial API and implementation
+ */
+package org.eclipse.emf.test.xml.xmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.eclipse.emf.test.models.library.Book;
+import org.eclipse.emf.test.models.library.Library;
+import org.eclipse.emf.test.models.library.LibraryFactory;
+import org.eclipse.emf.test.models.library.Writer;
+
+
+/**
+ * Tests for {@link XMIResourceImpl#save(java.io.OutputStream, Iterator, Map) saving} top objects from an iterator.
+ */
+public class StreamingSaveTest extends TestCase
+{
+  private static final URI RESOURCE_URI = URI.createURI("http://www.example.org/library.xmi");
+
+  public StreamingSaveTest(String name)
+  {
+    super(name);
+  }
+
+  public static Test suite()
+  {
+    TestSuite ts = new TestSuite("StreamingSaveTest");
+    ts.addTest(new StreamingSaveTest("testSingleTopObject"));
+    ts.addTest(new StreamingSaveTest("testManyTopObjects"));
+    return ts;
+  }
+
+  private Library createLibrary(XMLResource resource, int index)
+  {
+    Library library = LibraryFactory.eINSTANCE.createLibrary();
+    library.setName("library" + index);
+    for (int i = 0; i < 2; ++i)
+    {
+      Writer writer = LibraryFactory.eINSTANCE.createWriter();
+      writer.setName("writer" + index + "." + i);
+      library.getWriters().add(writer);
+      resource.setID(writer, "w" + index + "." + i);
+    }
+    for (int i = 0; i < 4; ++i)
+    {
+      Book book = LibraryFactory.eINSTANCE.createBook();
+      book.setTitle("book" + index + "." + i);
+      book.setAuthor(library.getWriters().get(i % 2));
+      library.getBooks().add(book);
+      resource.setID(book, "b" + index + "." + i);
+    }
+    return library;
+  }
+
+  public void testSingleTopObject() throws Exception
+  {
+    XMLResource resource = new XMIResourceImpl(RESOURCE_URI);
+    resource.getContents().add(createLibrary(resource, 0));
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    resource.save(expected, null);
+
+    // A single top object streamed from outside the resource produces the same document.
+    //
+    XMIResourceImpl streamingResource = new XMIResourceImpl(RESOURCE_URI);
+    Library library = createLibrary(streamingResource, 0);
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    streamingResource.save(actual, Collections.singletonList(library).iterator(), null);
+
+    assertTrue(streamingResource.getContents().isEmpty());
+    assertEquals(expected.toString("ASCII"), actual.toString("ASCII"));
+  }
+
+  public void testManyTopObjects() throws Exception
+  {
+    final XMIResourceImpl resource = new XMIResourceImpl(RESOURCE_URI);
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    final List<Integer> sizes = new ArrayList<Integer>();
+
+    // Produce each library on demand and record how much has been written by then.
+    //
+    Iterator<Library> libraries =
+      new Iterator<Library>()
+      {
+        int count;
+
+        public boolean hasNext()
+        {
+          return count < 5;
+        }
+
+        public Library next()
+        {
+          sizes.add(outputStream.size());
+          return createLibrary(resource, count++);
+        }
+
+        public void remove()
+        {
+          throw new UnsupportedOperationException();
+        }
+      };
+
+    Map<String, Object> options = new HashMap<String, Object>();
+    options.put(XMLResource.OPTION_FLUSH_THRESHOLD, 100);
+    resource.save(outputStream, libraries, options);
+
+    assertTrue(resource.getContents().isEmpty());
+    assertEquals(5, sizes.size());
+    for (int i = 2; i < 5; ++i)
+    {
+      assertTrue(sizes.get(i) > sizes.get(i - 1));
+    }
+
+    XMLResource loadedResource = new XMIResourceImpl(RESOURCE_URI);
+    loadedResource.load(new ByteArrayInputStream(outputStream.toByteArray()), null);
+    assertEquals(5, loadedResource.getContents().size());
+    for (int i = 0; i < 5; ++i)
+    {
+      Library library = (Library)loadedResource.getContents().get(i);
+      assertEquals("library" + i, library.getName());
+      assertEquals(2, library.getWriters().size());
+      assertEquals(4, library.getBooks().size());
+      for (int j = 0; j < 4; ++j)
+      {
+        Book book = library.getBooks().get(j);
+        assertEquals("book" + i + "." + j, book.getTitle());
+        assertSame(library.getWriters().get(j % 2), book.getAuthor());
+        assertEquals("b" + i + "." + j, loadedResource.getID(book));
+      }
+    }
+  }
+}